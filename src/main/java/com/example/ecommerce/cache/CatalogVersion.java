@@ -0,0 +1,123 @@
+package com.example.ecommerce.cache;
+
+import com.example.ecommerce.event.CatalogChangeEvent;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version counters of the catalog. Every product, brand and category change increments the catalog version
+ * once the change is committed and applied to the catalog indexes, so anything derived from an older version
+ * is stale. Each product, the brands and the categories also have their own version, so a response built
+ * from one of them only goes stale when that part of the catalog changes. Flushed popularity only increments
+ * the version of its product and the popularity counter, which the responses ranked by popularity add to their
+ * version.
+ * <p>
+ * The counters start over on every startup; {@link #getEpoch()} tells them apart from those of a previous run.
+ */
+@Component
+public class CatalogVersion {
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicLong brands = new AtomicLong();
+    private final AtomicLong categories = new AtomicLong();
+    private final AtomicLong popularity = new AtomicLong();
+    private final Map<Integer, Long> products = new ConcurrentHashMap<>();
+
+    /**
+     * @return The current catalog version.
+     */
+    public long get() {
+        return version.get();
+    }
+
+    /**
+     * @return An identifier of this run of the application, to qualify the versions.
+     */
+    public String getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * @param productId The ID of the product.
+     * @return The number of changes to this product since startup.
+     */
+    public long getProduct(Integer productId) {
+        return products.getOrDefault(productId, 0L);
+    }
+
+    /**
+     * Sums the versions of several products. The versions only grow, so the sum changes whenever one of the
+     * products changes.
+     *
+     * @param productIds The IDs of the products.
+     * @return The number of changes to these products since startup.
+     */
+    public long getProducts(Collection<Integer> productIds) {
+        long sum = 0;
+        for (Integer productId : productIds) {
+            sum += getProduct(productId);
+        }
+        return sum;
+    }
+
+    /**
+     * @return The number of brand changes since startup.
+     */
+    public long getBrands() {
+        return brands.get();
+    }
+
+    /**
+     * @return The number of category changes since startup.
+     */
+    public long getCategories() {
+        return categories.get();
+    }
+
+    /**
+     * @return The number of popularity changes since startup.
+     */
+    public long getPopularity() {
+        return popularity.get();
+    }
+
+    /**
+     * Marks the catalog as changed.
+     *
+     * @return The new catalog version.
+     */
+    public long increment() {
+        return version.incrementAndGet();
+    }
+
+    /**
+     * Marks the changed product, brand or category, then the whole catalog, as changed. A popularity change
+     * only marks its product and the popularity counter: listings that are not ranked by popularity keep their
+     * version until the next catalog change.
+     *
+     * @param event The change published by a catalog service.
+     * @return The new catalog version.
+     */
+    public long increment(CatalogChangeEvent event) {
+        switch (event.getType()) {
+            case PRODUCT:
+                products.merge(event.getId(), 1L, Long::sum);
+                break;
+            case POPULARITY:
+                products.merge(event.getId(), 1L, Long::sum);
+                popularity.incrementAndGet();
+                return version.get();
+            case BRAND:
+                brands.incrementAndGet();
+                break;
+            case CATEGORY:
+                categories.incrementAndGet();
+                break;
+        }
+        return increment();
+    }
+}
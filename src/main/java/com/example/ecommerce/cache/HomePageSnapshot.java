@@ -0,0 +1,317 @@
+package com.example.ecommerce.cache;
+
+import com.example.ecommerce.dto.ProductDTO;
+import com.example.ecommerce.event.CatalogChangeEvent;
+import com.example.ecommerce.mapper.ProductMapper;
+import com.example.ecommerce.repository.ProductRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The most popular active products shown on the home page, mapped and serialized to JSON page by page ahead of
+ * time, so serving a home page is a memory read. Each refresh builds a new immutable snapshot and swaps it in.
+ * <p>
+ * The snapshot is rebuilt on a fixed schedule, and right away when a change matters to the home page: a product
+ * in the snapshot goes out of stock or back in, is deactivated, is edited, or gains or loses enough popularity;
+ * or a product outside it becomes more popular than the last one shown. Smaller popularity and stock moves
+ * wait for the next scheduled refresh.
+ */
+@Component
+public class HomePageSnapshot {
+    private static final Logger log = LoggerFactory.getLogger(HomePageSnapshot.class);
+
+    /** Number of products on a home page. */
+    public static final int PAGE_SIZE = 6;
+
+    private final ProductRepository productRepository;
+    private final ProductMapper productMapper;
+    private final ObjectMapper objectMapper;
+    private final int size;
+    private final int popularityStep;
+    private final ScheduledExecutorService executor;
+    private volatile Snapshot snapshot;
+
+    @Autowired
+    public HomePageSnapshot(ProductRepository productRepository, ProductMapper productMapper, ObjectMapper objectMapper,
+                            @Value("${home.snapshot.size:48}") int size,
+                            @Value("${home.snapshot.popularity-step:10}") int popularityStep,
+                            @Value("${home.snapshot.refresh-seconds:60}") long refreshSeconds) {
+        this.productRepository = productRepository;
+        this.productMapper = productMapper;
+        this.objectMapper = objectMapper;
+        // Whole pages only
+        this.size = Math.max(1, (size + PAGE_SIZE - 1) / PAGE_SIZE) * PAGE_SIZE;
+        this.popularityStep = popularityStep;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "home-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::refreshQuietly, refreshSeconds, refreshSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @param page The page number.
+     * @return true if the page is served from the snapshot rather than from the database.
+     */
+    public boolean contains(int page) {
+        Snapshot current = snapshot;
+        return current != null && page >= 0 && (page < current.pages.size() || current.complete);
+    }
+
+    /**
+     * @return The number of the current snapshot, incremented whenever a refresh changes a page; 0 before the
+     *         first refresh.
+     */
+    public long getVersion() {
+        Snapshot current = snapshot;
+        return current != null ? current.version : 0;
+    }
+
+    /**
+     * Retrieves a page of the most popular active products as JSON. Pages within the snapshot are returned as
+     * they were serialized; deeper pages, and any page before the first refresh, are read from the database.
+     *
+     * @param page The page number.
+     * @return The JSON array of ProductDTOs on the page.
+     * @throws IllegalArgumentException if the page number is negative.
+     */
+    public byte[] getPage(int page) {
+        SnapshotPage snapshotPage = getSnapshotPage(page);
+        return snapshotPage != null ? snapshotPage.getJson() : loadPage(page);
+    }
+
+    /**
+     * Retrieves a page from the current snapshot together with the snapshot's version, both read from the same
+     * snapshot, so a page is never paired with the version of another refresh.
+     *
+     * @param page The page number.
+     * @return The page, or null if it is not served from the snapshot.
+     */
+    public SnapshotPage getSnapshotPage(int page) {
+        Snapshot current = snapshot;
+        if (current != null && page >= 0) {
+            if (page < current.pages.size()) {
+                return new SnapshotPage(current.version, current.pages.get(page));
+            }
+            if (current.complete) {
+                return new SnapshotPage(current.version, current.empty);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reads a page of the most popular active products from the database, bypassing the snapshot.
+     *
+     * @param page The page number.
+     * @return The JSON array of ProductDTOs on the page.
+     * @throws IllegalArgumentException if the page number is negative.
+     */
+    public byte[] loadPage(int page) {
+        return serialize(load(page, PAGE_SIZE));
+    }
+
+    /**
+     * Rebuilds the snapshot from the database and swaps it in, unless every page is byte for byte the same as
+     * in the current snapshot: the current one, and with it its version and the clients' ETags, is then kept.
+     *
+     * @return true if a page changed.
+     */
+    public synchronized boolean refresh() {
+        List<ProductDTO> top = load(0, size);
+        List<byte[]> pages = new ArrayList<>();
+        for (int from = 0; from < top.size(); from += PAGE_SIZE) {
+            pages.add(serialize(top.subList(from, Math.min(from + PAGE_SIZE, top.size()))));
+        }
+        Snapshot previous = snapshot;
+        if (previous != null && samePages(previous.pages, pages)) {
+            return false;
+        }
+        snapshot = new Snapshot(previous != null ? previous.version + 1 : 1, top, pages, top.size() < size,
+                serialize(List.of()));
+        return true;
+    }
+
+    private static boolean samePages(List<byte[]> previous, List<byte[]> pages) {
+        if (previous.size() != pages.size()) {
+            return false;
+        }
+        for (int page = 0; page < pages.size(); page++) {
+            if (!Arrays.equals(previous.get(page), pages.get(page))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether the change of a product matters to the home page, and refreshes the snapshot if it does.
+     *
+     * @param productId The ID of the changed product.
+     * @return true if the snapshot was refreshed and a page changed.
+     */
+    public synchronized boolean refreshIfChanged(Integer productId) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return false;
+        }
+        ProductDTO product = productRepository.findById(productId).map(productMapper::toDTO).orElse(null);
+        return changes(current, current.byId.get(productId), product) && refresh();
+    }
+
+    /**
+     * Builds the first snapshot once startup (including data loading) has finished.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        refreshQuietly();
+    }
+
+    /**
+     * Checks a committed product or popularity change in the background; brand and category changes, which are
+     * rare and may reassign many products, always refresh the snapshot.
+     *
+     * @param event The change published by a catalog service.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChange(CatalogChangeEvent event) {
+        if (snapshot == null || executor.isShutdown()) {
+            return;
+        }
+        if (event.getType() == CatalogChangeEvent.Type.PRODUCT || event.getType() == CatalogChangeEvent.Type.POPULARITY) {
+            executor.execute(() -> {
+                try {
+                    refreshIfChanged(event.getId());
+                } catch (RuntimeException e) {
+                    log.error("Cannot refresh the home page snapshot", e);
+                }
+            });
+        } else {
+            executor.execute(this::refreshQuietly);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private boolean changes(Snapshot current, ProductDTO previous, ProductDTO product) {
+        boolean active = product != null && Boolean.TRUE.equals(product.getIsActive());
+        if (previous == null) {
+            // Not shown yet: only matters if it now belongs among the most popular products
+            return active && (current.complete || popularity(product) > current.cutoff);
+        }
+        if (!active || inStock(previous) != inStock(product)) {
+            return true;
+        }
+        if (Math.abs(popularity(product) - popularity(previous)) >= popularityStep) {
+            return true;
+        }
+        return !Objects.equals(previous.getName(), product.getName())
+                || !Objects.equals(previous.getDescription(), product.getDescription())
+                || !Objects.equals(previous.getPrice(), product.getPrice())
+                || !Objects.equals(previous.getImageUrl(), product.getImageUrl())
+                || !Objects.equals(previous.getCategoryId(), product.getCategoryId())
+                || !Objects.equals(previous.getBrandId(), product.getBrandId());
+    }
+
+    private static boolean inStock(ProductDTO product) {
+        return product.getQuantity() != null && product.getQuantity() > 0;
+    }
+
+    private static int popularity(ProductDTO product) {
+        return product.getPopularity() != null ? product.getPopularity() : 0;
+    }
+
+    private List<ProductDTO> load(int page, int pageSize) {
+        return productRepository.findMostPopular(PageRequest.of(page, pageSize));
+    }
+
+    private byte[] serialize(List<ProductDTO> products) {
+        try {
+            return objectMapper.writeValueAsBytes(products);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize the home page products", e);
+        }
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.error("Cannot refresh the home page snapshot", e);
+        }
+    }
+
+    /**
+     * A page served from a snapshot and the version of that snapshot.
+     */
+    public static final class SnapshotPage {
+        private final long version;
+        private final byte[] json;
+
+        private SnapshotPage(long version, byte[] json) {
+            this.version = version;
+            this.json = json;
+        }
+
+        /**
+         * @return The version of the snapshot the page belongs to.
+         */
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * @return The JSON array of ProductDTOs on the page; shared and must not be modified.
+         */
+        public byte[] getJson() {
+            return json;
+        }
+    }
+
+    /**
+     * The most popular products of one refresh, with their serialized pages.
+     */
+    private static final class Snapshot {
+        private final long version;
+        private final Map<Integer, ProductDTO> byId = new HashMap<>();
+        private final List<byte[]> pages;
+        /** true if every active product is in the snapshot, so pages past its end are empty. */
+        private final boolean complete;
+        /** Popularity of the least popular product shown. */
+        private final int cutoff;
+        private final byte[] empty;
+
+        private Snapshot(long version, List<ProductDTO> products, List<byte[]> pages, boolean complete, byte[] empty) {
+            this.version = version;
+            products.forEach(product -> byId.put(product.getId(), product));
+            this.pages = List.copyOf(pages);
+            this.complete = complete;
+            this.cutoff = products.isEmpty() ? 0 : popularity(products.get(products.size() - 1));
+            this.empty = empty;
+        }
+    }
+}
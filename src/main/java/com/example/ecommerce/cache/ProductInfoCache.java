@@ -0,0 +1,190 @@
+package com.example.ecommerce.cache;
+
+import com.example.ecommerce.dto.CacheStatsDTO;
+import com.example.ecommerce.dto.ProductInfoDTO;
+import com.example.ecommerce.event.CatalogChangeEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache of product detail DTOs by product ID, holding at most a fixed number of entries (least
+ * recently used first out) for at most a fixed time.
+ * <p>
+ * Entries are evicted once a product change is committed: product and popularity events evict that product
+ * (updates, deletes, the stock changes of an order and flushed popularity), brand and category events clear the
+ * cache since they rename many products. A DTO loaded while an eviction happened is returned but not stored, as it may predate
+ * the change.
+ */
+@Component
+public class ProductInfoCache {
+    private final int maxEntries;
+    private final Duration ttl;
+    private final Clock clock;
+    private final LinkedHashMap<Integer, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long invalidations;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+
+    @Autowired
+    public ProductInfoCache(@Value("${product.cache.max-entries:10000}") int maxEntries,
+                            @Value("${product.cache.ttl-seconds:600}") long ttlSeconds) {
+        this(maxEntries, Duration.ofSeconds(ttlSeconds), Clock.systemUTC());
+    }
+
+    public ProductInfoCache(int maxEntries, Duration ttl, Clock clock) {
+        this.maxEntries = maxEntries;
+        this.ttl = ttl;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the cached DTO of a product, loading and caching it on a miss or after it expired.
+     *
+     * @param productId The ID of the product.
+     * @param loader    Loads the DTO on a miss; exceptions are propagated and nothing is cached.
+     * @return The DTO; callers must not modify it.
+     */
+    public ProductInfoDTO get(Integer productId, Supplier<ProductInfoDTO> loader) {
+        long generation;
+        synchronized (this) {
+            Entry entry = entries.get(productId);
+            if (entry != null && clock.instant().isBefore(entry.expiresAt)) {
+                hits++;
+                return entry.product;
+            }
+            if (entry != null) {
+                entries.remove(productId);
+                expirations++;
+            }
+            misses++;
+            generation = invalidations;
+        }
+        ProductInfoDTO product = loader.get();
+        synchronized (this) {
+            if (generation == invalidations) {
+                entries.put(productId, new Entry(product, clock.instant().plus(ttl)));
+                if (entries.size() > maxEntries) {
+                    entries.remove(entries.keySet().iterator().next());
+                    evictions++;
+                }
+            }
+        }
+        return product;
+    }
+
+    /**
+     * Returns the cached DTOs of several products, loading all the missing ones with a single call.
+     *
+     * @param productIds The IDs of the products.
+     * @param loader     Loads the DTOs of the missing products; products it does not return are not found and
+     *                   are not cached.
+     * @return The DTOs of the found products by ID; callers must not modify them.
+     */
+    public Map<Integer, ProductInfoDTO> getAll(Collection<Integer> productIds,
+                                               Function<Set<Integer>, Collection<ProductInfoDTO>> loader) {
+        Map<Integer, ProductInfoDTO> products = new HashMap<>();
+        Set<Integer> missing = new LinkedHashSet<>();
+        long generation;
+        synchronized (this) {
+            Instant now = clock.instant();
+            for (Integer productId : productIds) {
+                if (products.containsKey(productId) || missing.contains(productId)) {
+                    continue;
+                }
+                Entry entry = entries.get(productId);
+                if (entry != null && now.isBefore(entry.expiresAt)) {
+                    hits++;
+                    products.put(productId, entry.product);
+                    continue;
+                }
+                if (entry != null) {
+                    entries.remove(productId);
+                    expirations++;
+                }
+                misses++;
+                missing.add(productId);
+            }
+            generation = invalidations;
+        }
+        if (missing.isEmpty()) {
+            return products;
+        }
+        Collection<ProductInfoDTO> loaded = loader.apply(missing);
+        synchronized (this) {
+            Instant expiresAt = clock.instant().plus(ttl);
+            for (ProductInfoDTO product : loaded) {
+                products.put(product.getId(), product);
+                if (generation == invalidations) {
+                    entries.put(product.getId(), new Entry(product, expiresAt));
+                }
+            }
+            while (entries.size() > maxEntries) {
+                entries.remove(entries.keySet().iterator().next());
+                evictions++;
+            }
+        }
+        return products;
+    }
+
+    /**
+     * Evicts the products affected by a committed catalog change. Runs before the {@link CatalogVersion} is
+     * incremented, so a response tagged with the new version is never built from an evicted entry.
+     *
+     * @param event The change published by a catalog service.
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onCatalogChange(CatalogChangeEvent event) {
+        invalidations++;
+        if (event.getType() == CatalogChangeEvent.Type.PRODUCT || event.getType() == CatalogChangeEvent.Type.POPULARITY) {
+            entries.remove(event.getId());
+        } else {
+            entries.clear();
+        }
+    }
+
+    /**
+     * @return The current size and hit/miss counters of the cache.
+     */
+    public synchronized CacheStatsDTO getStats() {
+        CacheStatsDTO stats = new CacheStatsDTO();
+        stats.setName("product-info");
+        stats.setEntries(entries.size());
+        stats.setMaxEntries(maxEntries);
+        stats.setHits(hits);
+        stats.setMisses(misses);
+        stats.setEvictions(evictions);
+        stats.setExpirations(expirations);
+        stats.setInvalidations(invalidations);
+        stats.setHitRatio(hits + misses > 0 ? (double) hits / (hits + misses) : 0);
+        return stats;
+    }
+
+    private static final class Entry {
+        private final ProductInfoDTO product;
+        private final Instant expiresAt;
+
+        private Entry(ProductInfoDTO product, Instant expiresAt) {
+            this.product = product;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
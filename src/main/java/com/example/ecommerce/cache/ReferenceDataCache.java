@@ -0,0 +1,185 @@
+package com.example.ecommerce.cache;
+
+import com.example.ecommerce.dto.BrandDTO;
+import com.example.ecommerce.dto.CategoryDTO;
+import com.example.ecommerce.event.CatalogChangeEvent;
+import com.example.ecommerce.mapper.BrandMapper;
+import com.example.ecommerce.mapper.CategoryMapper;
+import com.example.ecommerce.repository.BrandRepository;
+import com.example.ecommerce.repository.CategoryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * In-process copy of the brands and categories. Both tables are small and rarely written, so each is loaded
+ * whole on first use and kept until a brand or category change is committed; the menus, the admin pages and
+ * the ID and name lookups of the product mappers then never query the database.
+ * <p>
+ * The cached DTOs are shared between requests, so callers must not modify them.
+ */
+@Component
+public class ReferenceDataCache {
+    private final BrandRepository brandRepository;
+    private final CategoryRepository categoryRepository;
+    private final BrandMapper brandMapper;
+    private final CategoryMapper categoryMapper;
+    private final Reference<BrandDTO> brands;
+    private final Reference<CategoryDTO> categories;
+
+    @Autowired
+    public ReferenceDataCache(BrandRepository brandRepository, CategoryRepository categoryRepository,
+                              BrandMapper brandMapper, CategoryMapper categoryMapper) {
+        this.brandRepository = brandRepository;
+        this.categoryRepository = categoryRepository;
+        this.brandMapper = brandMapper;
+        this.categoryMapper = categoryMapper;
+        this.brands = new Reference<>(this::loadBrands, BrandDTO::getId, BrandDTO::getName);
+        this.categories = new Reference<>(this::loadCategories, CategoryDTO::getId, CategoryDTO::getName);
+    }
+
+    /**
+     * @return All brands, in database order.
+     */
+    public List<BrandDTO> getBrands() {
+        return brands.snapshot().all;
+    }
+
+    /**
+     * @param id The ID of the brand.
+     * @return The brand, or null if there is no brand with this ID.
+     */
+    public BrandDTO getBrand(Integer id) {
+        return brands.snapshot().byId.get(id);
+    }
+
+    /**
+     * @param name The exact name of the brand.
+     * @return The brand, or null if there is no brand with this name.
+     */
+    public BrandDTO getBrandByName(String name) {
+        return brands.snapshot().byName.get(name);
+    }
+
+    /**
+     * @return All categories, in database order.
+     */
+    public List<CategoryDTO> getCategories() {
+        return categories.snapshot().all;
+    }
+
+    /**
+     * @param id The ID of the category.
+     * @return The category, or null if there is no category with this ID.
+     */
+    public CategoryDTO getCategory(Integer id) {
+        return categories.snapshot().byId.get(id);
+    }
+
+    /**
+     * @param name The exact name of the category.
+     * @return The category, or null if there is no category with this name.
+     */
+    public CategoryDTO getCategoryByName(String name) {
+        return categories.snapshot().byName.get(name);
+    }
+
+    /**
+     * Drops the brands or categories once a change to them is committed; they are reloaded on next use.
+     * Runs before the {@link CatalogVersion} is incremented.
+     *
+     * @param event The change published by a catalog service.
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChange(CatalogChangeEvent event) {
+        if (event.getType() == CatalogChangeEvent.Type.BRAND) {
+            brands.invalidate();
+        } else if (event.getType() == CatalogChangeEvent.Type.CATEGORY) {
+            categories.invalidate();
+        }
+    }
+
+    /**
+     * Drops anything read while the startup data was still being loaded.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        brands.invalidate();
+        categories.invalidate();
+    }
+
+    private List<BrandDTO> loadBrands() {
+        return brandRepository.findAll().stream().map(brandMapper::toDTO).collect(Collectors.toList());
+    }
+
+    private List<CategoryDTO> loadCategories() {
+        return categoryRepository.findAll().stream().map(categoryMapper::toDTO).collect(Collectors.toList());
+    }
+
+    /**
+     * One lazily loaded table. A snapshot loaded while the table was invalidated is used once but not kept,
+     * as it may predate the change.
+     */
+    private static final class Reference<T> {
+        private final Supplier<List<T>> loader;
+        private final Function<T, Integer> id;
+        private final Function<T, String> name;
+        private volatile Snapshot<T> snapshot;
+        private long generation;
+
+        private Reference(Supplier<List<T>> loader, Function<T, Integer> id, Function<T, String> name) {
+            this.loader = loader;
+            this.id = id;
+            this.name = name;
+        }
+
+        Snapshot<T> snapshot() {
+            Snapshot<T> current = snapshot;
+            if (current != null) {
+                return current;
+            }
+            long loading;
+            synchronized (this) {
+                loading = generation;
+            }
+            Snapshot<T> loaded = new Snapshot<>(loader.get(), id, name);
+            synchronized (this) {
+                if (loading == generation) {
+                    snapshot = loaded;
+                }
+            }
+            return loaded;
+        }
+
+        synchronized void invalidate() {
+            generation++;
+            snapshot = null;
+        }
+    }
+
+    private static final class Snapshot<T> {
+        private final List<T> all;
+        private final Map<Integer, T> byId = new HashMap<>();
+        private final Map<String, T> byName = new HashMap<>();
+
+        private Snapshot(List<T> all, Function<T, Integer> id, Function<T, String> name) {
+            this.all = List.copyOf(all);
+            for (T value : all) {
+                byId.put(id.apply(value), value);
+                byName.put(name.apply(value), value);
+            }
+        }
+    }
+}
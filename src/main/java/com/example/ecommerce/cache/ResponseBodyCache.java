@@ -0,0 +1,224 @@
+package com.example.ecommerce.cache;
+
+import com.example.ecommerce.dto.CacheStatsDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Bounded cache of hot catalog responses, kept as the bytes written to the client in both identity and gzip
+ * encoding, so a hit costs neither JSON serialization nor compression. Entries are keyed by endpoint and
+ * normalized parameters, and evicted least recently used first once their total size exceeds the byte cap.
+ * <p>
+ * An entry is only served for the ETag it was built under. The entries are held in a {@link VersionedLruCache}
+ * of the {@link CatalogVersion}, so a response built under an older version is never served.
+ */
+@Component
+public class ResponseBodyCache {
+    private static final int ENTRY_OVERHEAD = 256;
+    private static final char SEPARATOR = '|';
+
+    private final ObjectMapper objectMapper;
+    private final int minGzipBytes;
+    private final VersionedLruCache<String, Body> bodies;
+
+    @Autowired
+    public ResponseBodyCache(CatalogVersion catalogVersion, ObjectMapper objectMapper,
+                             @Value("${response.cache.max-bytes:8388608}") long maxBytes,
+                             @Value("${response.cache.min-gzip-bytes:512}") int minGzipBytes) {
+        this.objectMapper = objectMapper;
+        this.minGzipBytes = minGzipBytes;
+        this.bodies = new VersionedLruCache<>("response-bodies", catalogVersion::get, maxBytes,
+                (key, body) -> body.weight);
+    }
+
+    /**
+     * Builds the key of a response from its endpoint and parameters. Absent parameters and equal prices
+     * written differently (10 and 10.00) give the same key; callers normalize free text themselves.
+     *
+     * @param endpoint   The endpoint, for instance "getAllProducts".
+     * @param parameters The parameters the response depends on, in a fixed order with free text last, so it
+     *                   cannot shift the others; nulls allowed.
+     * @return The key.
+     */
+    public static String key(String endpoint, Object... parameters) {
+        StringBuilder key = new StringBuilder(endpoint);
+        for (Object parameter : parameters) {
+            key.append(SEPARATOR);
+            if (parameter instanceof BigDecimal) {
+                key.append(((BigDecimal) parameter).stripTrailingZeros().toPlainString());
+            } else if (parameter != null) {
+                key.append(parameter);
+            }
+        }
+        return key.toString();
+    }
+
+    /**
+     * Checks whether a client accepts gzip, from its Accept-Encoding header.
+     *
+     * @param acceptEncoding The header value, or null if absent.
+     * @return true unless gzip is missing or refused with {@code q=0}.
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        boolean accepted = false;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            if (!name.equals("gzip") && !name.equals("*")) {
+                continue;
+            }
+            boolean refused = false;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim().toLowerCase(Locale.ROOT);
+                if (parameter.startsWith("q=")) {
+                    refused = parseQuality(parameter.substring(2)) == 0;
+                }
+            }
+            if (name.equals("gzip")) {
+                // An explicit gzip entry wins over the wildcard
+                return !refused;
+            }
+            accepted = !refused;
+        }
+        return accepted;
+    }
+
+    /**
+     * Returns the cached response for the key and ETag, building, serializing and compressing it on a miss.
+     *
+     * @param key    The key from {@link #key(String, Object...)}.
+     * @param etag   The ETag the response is served under; an entry built under another one is replaced.
+     * @param loader Builds the response on a miss.
+     * @return The response bytes.
+     * @throws IllegalStateException if the response cannot be serialized.
+     */
+    public Body get(String key, String etag, Supplier<Content> loader) {
+        return bodies.get(key, body -> body.etag.equals(etag), () -> render(etag, loader.get()));
+    }
+
+    /**
+     * @return The current size and hit/miss counters of the cache.
+     */
+    public CacheStatsDTO getStats() {
+        return bodies.getStats();
+    }
+
+    private Body render(String etag, Content content) {
+        byte[] identity;
+        if (content.value instanceof byte[]) {
+            identity = (byte[]) content.value;
+        } else {
+            try {
+                identity = objectMapper.writeValueAsBytes(content.value);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Cannot serialize the " + content.value.getClass().getSimpleName(), e);
+            }
+        }
+        byte[] gzip = identity.length >= minGzipBytes ? gzip(identity) : null;
+        if (gzip != null && gzip.length >= identity.length) {
+            gzip = null;
+        }
+        return new Body(etag, identity, gzip, content.productIds);
+    }
+
+    /**
+     * Compresses a response once at the highest level: the cost is paid on a miss only.
+     */
+    private static byte[] gzip(byte[] identity) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(identity.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(identity);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static double parseQuality(String quality) {
+        try {
+            return Double.parseDouble(quality);
+        } catch (NumberFormatException e) {
+            return 1;
+        }
+    }
+
+    /**
+     * A response to cache: the object serialized as the body, or its JSON bytes if already serialized, and the
+     * products it lists, whose impressions are counted on every hit.
+     */
+    public static final class Content {
+        private final Object value;
+        private final List<Integer> productIds;
+
+        /**
+         * @param value      The response object, or its JSON bytes.
+         * @param productIds The IDs of the listed products; empty if impressions are not counted.
+         */
+        public Content(Object value, Collection<Integer> productIds) {
+            this.value = value;
+            this.productIds = List.copyOf(productIds);
+        }
+    }
+
+    /**
+     * A cached response, ready to write. The arrays are shared and must not be modified.
+     */
+    public static final class Body {
+        private final String etag;
+        private final byte[] identity;
+        private final byte[] gzip;
+        private final List<Integer> productIds;
+        private final long weight;
+
+        private Body(String etag, byte[] identity, byte[] gzip, List<Integer> productIds) {
+            this.etag = etag;
+            this.identity = identity;
+            this.gzip = gzip;
+            this.productIds = productIds;
+            this.weight = ENTRY_OVERHEAD + identity.length + (gzip != null ? gzip.length : 0)
+                    + 16L * productIds.size();
+        }
+
+        /**
+         * @return The uncompressed JSON.
+         */
+        public byte[] getIdentity() {
+            return identity;
+        }
+
+        /**
+         * @return The gzip-compressed JSON, or null if the response is too small to be worth compressing.
+         */
+        public byte[] getGzip() {
+            return gzip;
+        }
+
+        /**
+         * @return The IDs of the listed products.
+         */
+        public List<Integer> getProductIds() {
+            return productIds;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.ecommerce.cache;
+
+import com.example.ecommerce.dto.CacheStatsDTO;
+import com.example.ecommerce.dto.ProductInfoDTO;
+import com.example.ecommerce.search.SearchMode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Bounded cache of product listing and search pages, keyed by normalized query, search mode, filters, sort
+ * and page, in a {@link VersionedLruCache} of the {@link CatalogVersion}: results are never stale after a
+ * catalog change. Pages ranked by popularity are also reloaded once flushed popularity changes.
+ */
+@Component
+public class SearchResultCache {
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final int ENTRY_OVERHEAD = 256;
+    private static final int DTO_OVERHEAD = 160;
+
+    private final CatalogVersion catalogVersion;
+    private final VersionedLruCache<Key, Result> pages;
+
+    @Autowired
+    public SearchResultCache(CatalogVersion catalogVersion,
+                             @Value("${search.cache.max-bytes:16777216}") long maxBytes) {
+        this.catalogVersion = catalogVersion;
+        this.pages = new VersionedLruCache<>("search-results", catalogVersion::get, maxBytes,
+                SearchResultCache::weigh);
+    }
+
+    /**
+     * Tells whether a listing in this order changes with popularity: sorted by it, or unsorted, which ranks
+     * search results by relevance blended with popularity.
+     *
+     * @param sort The sort of the listing.
+     * @return true if the order depends on popularity.
+     */
+    public static boolean rankedByPopularity(Sort sort) {
+        return sort.isUnsorted() || sort.getOrderFor("popularity") != null;
+    }
+
+    /**
+     * Normalizes a search query so equivalent spellings share a cache entry: lower case, single spaces,
+     * no leading or trailing whitespace.
+     *
+     * @param query The query as typed.
+     * @return The normalized query, or null for a null query.
+     */
+    public static String normalize(String query) {
+        if (query == null) {
+            return null;
+        }
+        return WHITESPACE.matcher(query.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Returns the cached page for the key, loading and caching it on a miss.
+     *
+     * @param key    The normalized request.
+     * @param loader Loads the page on a miss.
+     * @return The page; callers must not modify it.
+     */
+    public Page<ProductInfoDTO> get(Key key, Supplier<Page<ProductInfoDTO>> loader) {
+        long popularity = catalogVersion.getPopularity();
+        return pages.get(key, result -> !key.rankedByPopularity || result.popularity == popularity,
+                () -> new Result(loader.get(), popularity)).page;
+    }
+
+    /**
+     * @return The current size and hit/miss counters of the cache.
+     */
+    public CacheStatsDTO getStats() {
+        return pages.getStats();
+    }
+
+    private static long weigh(Key key, Result result) {
+        long weight = ENTRY_OVERHEAD + 2L * length(key.query);
+        for (ProductInfoDTO product : result.page.getContent()) {
+            weight += DTO_OVERHEAD + 2L * (length(product.getName()) + length(product.getDescription())
+                    + length(product.getCategoryName()) + length(product.getBrandName())
+                    + length(product.getImageUrl()));
+        }
+        return weight;
+    }
+
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+
+    /**
+     * A cached page and the popularity counter it was loaded under.
+     */
+    private static final class Result {
+        private final Page<ProductInfoDTO> page;
+        private final long popularity;
+
+        private Result(Page<ProductInfoDTO> page, long popularity) {
+            this.page = page;
+            this.popularity = popularity;
+        }
+    }
+
+    /**
+     * A normalized listing or search request.
+     */
+    public static final class Key {
+        private final String query;
+        private final SearchMode mode;
+        private final Integer categoryId;
+        private final Integer brandId;
+        private final BigDecimal minPrice;
+        private final BigDecimal maxPrice;
+        private final String sort;
+        private final int page;
+        private final int size;
+        private final boolean rankedByPopularity;
+
+        /**
+         * @param query      The normalized query, or null for a listing.
+         * @param mode       The search mode, or null for a listing.
+         * @param categoryId The category filter, or null.
+         * @param brandId    The brand filter, or null.
+         * @param pageable   The requested page and sort; must be paged.
+         */
+        public Key(String query, SearchMode mode, Integer categoryId, Integer brandId, Pageable pageable) {
+            this(query, mode, categoryId, brandId, null, null, pageable);
+        }
+
+        /**
+         * @param query      The normalized query, or null for a listing.
+         * @param mode       The search mode, or null for a listing.
+         * @param categoryId The category filter, or null.
+         * @param brandId    The brand filter, or null.
+         * @param minPrice   The lowest price, or null.
+         * @param maxPrice   The highest price, or null.
+         * @param pageable   The requested page and sort; must be paged.
+         */
+        public Key(String query, SearchMode mode, Integer categoryId, Integer brandId, BigDecimal minPrice,
+                   BigDecimal maxPrice, Pageable pageable) {
+            this.query = query;
+            this.mode = mode;
+            this.categoryId = categoryId;
+            this.brandId = brandId;
+            // 10 and 10.00 are the same bound
+            this.minPrice = minPrice != null ? minPrice.stripTrailingZeros() : null;
+            this.maxPrice = maxPrice != null ? maxPrice.stripTrailingZeros() : null;
+            this.sort = pageable.getSort().toString();
+            this.page = pageable.getPageNumber();
+            this.size = pageable.getPageSize();
+            this.rankedByPopularity = rankedByPopularity(pageable.getSort());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return page == key.page && size == key.size && Objects.equals(query, key.query) && mode == key.mode
+                    && Objects.equals(categoryId, key.categoryId) && Objects.equals(brandId, key.brandId)
+                    && Objects.equals(minPrice, key.minPrice) && Objects.equals(maxPrice, key.maxPrice)
+                    && sort.equals(key.sort);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(query, mode, categoryId, brandId, minPrice, maxPrice, sort, page, size);
+        }
+    }
+}
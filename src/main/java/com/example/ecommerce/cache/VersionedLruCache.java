@@ -0,0 +1,139 @@
+package com.example.ecommerce.cache;
+
+import com.example.ecommerce.dto.CacheStatsDTO;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToLongBiFunction;
+
+/**
+ * Read-through cache bounded by the estimated size of its entries, evicted least recently used first once
+ * the byte cap is exceeded. An entry larger than a quarter of the cap is never stored.
+ * <p>
+ * The whole cache belongs to one version of the data, usually the {@link CatalogVersion}: as soon as a lookup
+ * sees a newer version every entry is dropped, and a value loaded under an older version is never stored, so
+ * nothing stale is served after a change.
+ *
+ * @param <K> The type of the keys.
+ * @param <V> The type of the values; they are shared and must not be modified.
+ */
+public class VersionedLruCache<K, V> {
+    private final String name;
+    private final LongSupplier currentVersion;
+    private final long maxBytes;
+    private final ToLongBiFunction<K, V> weigher;
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long version;
+    private long bytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    /**
+     * @param name           The name of the cache in its statistics.
+     * @param currentVersion Reads the current version of the cached data, which only grows.
+     * @param maxBytes       The cap on the total estimated size of the entries.
+     * @param weigher        Estimates the size in bytes of an entry.
+     */
+    public VersionedLruCache(String name, LongSupplier currentVersion, long maxBytes, ToLongBiFunction<K, V> weigher) {
+        this.name = name;
+        this.currentVersion = currentVersion;
+        this.maxBytes = maxBytes;
+        this.weigher = weigher;
+    }
+
+    /**
+     * Returns the cached value for the key, loading and caching it on a miss.
+     *
+     * @param key    The key.
+     * @param loader Loads the value on a miss; exceptions are propagated and nothing is cached.
+     * @return The value.
+     */
+    public V get(K key, Supplier<V> loader) {
+        return get(key, value -> true, loader);
+    }
+
+    /**
+     * Returns the cached value for the key if it is still usable, loading and caching a new one otherwise.
+     *
+     * @param key    The key.
+     * @param usable Tells whether a cached value can be served; an unusable one is replaced.
+     * @param loader Loads the value on a miss; exceptions are propagated and nothing is cached.
+     * @return The value.
+     */
+    public V get(K key, Predicate<V> usable, Supplier<V> loader) {
+        long current = currentVersion.getAsLong();
+        synchronized (this) {
+            invalidateIfChanged(current);
+            Entry<V> entry = entries.get(key);
+            if (entry != null && usable.test(entry.value)) {
+                hits++;
+                return entry.value;
+            }
+            misses++;
+        }
+        V value = loader.get();
+        long weight = weigher.applyAsLong(key, value);
+        synchronized (this) {
+            invalidateIfChanged(currentVersion.getAsLong());
+            // A value loaded while the data changed may already be stale
+            if (version == current && weight <= maxBytes / 4) {
+                Entry<V> previous = entries.put(key, new Entry<>(value, weight));
+                bytes += weight - (previous != null ? previous.weight : 0);
+                evict();
+            }
+        }
+        return value;
+    }
+
+    /**
+     * @return The current size and hit/miss counters of the cache.
+     */
+    public synchronized CacheStatsDTO getStats() {
+        CacheStatsDTO stats = new CacheStatsDTO();
+        stats.setName(name);
+        stats.setEntries(entries.size());
+        stats.setBytes(bytes);
+        stats.setMaxBytes(maxBytes);
+        stats.setHits(hits);
+        stats.setMisses(misses);
+        stats.setEvictions(evictions);
+        stats.setInvalidations(invalidations);
+        stats.setHitRatio(hits + misses > 0 ? (double) hits / (hits + misses) : 0);
+        return stats;
+    }
+
+    private void invalidateIfChanged(long current) {
+        if (current > version) {
+            if (!entries.isEmpty()) {
+                invalidations++;
+            }
+            entries.clear();
+            bytes = 0;
+            version = current;
+        }
+    }
+
+    private void evict() {
+        Iterator<Entry<V>> eldest = entries.values().iterator();
+        while (bytes > maxBytes && eldest.hasNext()) {
+            bytes -= eldest.next().weight;
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long weight;
+
+        private Entry(V value, long weight) {
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+}
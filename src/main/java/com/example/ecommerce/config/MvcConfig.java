@@ -1,11 +1,34 @@
 package com.example.ecommerce.config;
 
+import com.example.ecommerce.storage.ImageStore;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.ViewControllerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.time.Duration;
+
 @Configuration
 public class MvcConfig implements WebMvcConfigurer {
+    private final ImageStore imageStore;
+
+    @Autowired
+    public MvcConfig(ImageStore imageStore) {
+        this.imageStore = imageStore;
+    }
+
+    /**
+     * Serves the stored product images from the image directory. Their names are the hash of their content,
+     * so clients may cache them for a year without revalidating.
+     */
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        registry.addResourceHandler(ImageStore.URL_PREFIX + "**")
+                .addResourceLocations(imageStore.getDirectory().toUri().toString())
+                .setCacheControl(CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable());
+    }
 
     @Override
     public void addViewControllers(ViewControllerRegistry registry) {
@@ -3,6 +3,9 @@ package com.example.ecommerce.controller;
 import com.example.ecommerce.dto.*;
 import com.example.ecommerce.entity.OrderStatus;
 import com.example.ecommerce.exception.BadRequestException;
+import com.example.ecommerce.projection.FieldSelection;
+import com.example.ecommerce.projection.OrderField;
+import com.example.ecommerce.projection.ProductField;
 import com.example.ecommerce.service.*;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -20,6 +23,8 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/admin")
@@ -98,10 +103,21 @@ public class AdminRestController {
      * @return ResponseEntity containing a page of CustomerDTOs
      */
     @GetMapping("/customers")
-    public ResponseEntity<Page<CustomerDTO>> viewCustomers(@RequestParam(required = false, defaultValue = "0") Integer page) {
+    public ResponseEntity<PageDTO<CustomerDTO>> viewCustomers(@RequestParam(required = false, defaultValue = "0") Integer page) {
         Pageable pageable = PageRequest.of(page, PAGE_SIZE_USERS);
         Page<CustomerDTO> customerPage = customerService.getAllCustomers(pageable);
-        return ResponseEntity.ok(customerPage);
+        return ResponseEntity.ok(PageDTO.of(customerPage));
+    }
+
+    /**
+     * Retrieves all customers ordered by ID with keyset pagination.
+     *
+     * @param after Cursor of the previous page, or empty for the first page
+     * @return ResponseEntity containing a cursor page of CustomerDTOs
+     */
+    @GetMapping(value = "/customers", params = "after")
+    public ResponseEntity<PageDTO<CustomerDTO>> viewCustomersAfter(@RequestParam String after) {
+        return ResponseEntity.ok(customerService.getAllCustomers(after, PAGE_SIZE_USERS));
     }
 
 
@@ -153,14 +169,36 @@ public class AdminRestController {
     /**
      * Retrieves a paginated list of all products.
      *
-     * @param page Page number for pagination
-     * @return ResponseEntity containing a page of ProductInfoDTOs
+     * @param page   Page number for pagination
+     * @param fields Comma-separated fields of each product to return, only these columns are read (optional)
+     * @return ResponseEntity containing a page of ProductInfoDTOs, or of rows with the selected fields
      */
     @GetMapping("/products")
-    public ResponseEntity<Page<ProductInfoDTO>> viewProducts(@RequestParam(required = false, defaultValue = "0") Integer page) {
+    public ResponseEntity<PageDTO<?>> viewProducts(@RequestParam(required = false, defaultValue = "0") Integer page,
+                                                   @RequestParam(required = false) String fields) {
+        Set<ProductField> selected = FieldSelection.parse(fields, ProductField.class);
         Pageable pageable = PageRequest.of(page, PAGE_SIZE_PRODUCTS);
+        if (selected != null) {
+            return ResponseEntity.ok(PageDTO.of(productService.getAllProducts(pageable, selected)));
+        }
         Page<ProductInfoDTO> productPage = productService.getAllProducts(pageable);
-        return ResponseEntity.ok(productPage);
+        return ResponseEntity.ok(PageDTO.of(productPage));
+    }
+
+    /**
+     * Retrieves all products ordered by ID with keyset pagination.
+     *
+     * @param after  Cursor of the previous page, or empty for the first page
+     * @param fields Comma-separated fields of each product to return (optional)
+     * @return ResponseEntity containing a cursor page of ProductInfoDTOs, or of rows with the selected fields
+     */
+    @GetMapping(value = "/products", params = "after")
+    public ResponseEntity<PageDTO<?>> viewProductsAfter(@RequestParam String after,
+                                                        @RequestParam(required = false) String fields) {
+        Set<ProductField> selected = FieldSelection.parse(fields, ProductField.class);
+        PageDTO<ProductInfoDTO> productPage = productService.getAllProducts(after, PAGE_SIZE_PRODUCTS);
+        return ResponseEntity.ok(selected != null
+                ? productPage.map(product -> FieldSelection.toRow(product, selected)) : productPage);
     }
 
     /**
@@ -372,14 +410,35 @@ public class AdminRestController {
     /**
      * Retrieves a paginated list of all orders.
      *
-     * @param page Page number for pagination
-     * @return ResponseEntity containing a page of OrderInfoDTOs
+     * @param page   Page number for pagination
+     * @param fields Comma-separated fields of each order to return, only these columns are read (optional)
+     * @return ResponseEntity containing a page of OrderInfoDTOs, or of rows with the selected fields
      */
     @GetMapping("/orders")
-    public ResponseEntity<Page<OrderInfoDTO>> viewOrders(@RequestParam(required = false, defaultValue = "0") Integer page) {
+    public ResponseEntity<PageDTO<?>> viewOrders(@RequestParam(required = false, defaultValue = "0") Integer page,
+                                                 @RequestParam(required = false) String fields) {
+        Set<OrderField> selected = FieldSelection.parse(fields, OrderField.class);
         Pageable pageable = PageRequest.of(page, PAGE_SIZE_ORDERS);
+        if (selected != null) {
+            return ResponseEntity.ok(PageDTO.of(orderService.getAllOrders(pageable, selected)));
+        }
         Page<OrderInfoDTO> orders = orderService.getAllOrders(pageable);
-        return ResponseEntity.ok(orders);
+        return ResponseEntity.ok(PageDTO.of(orders));
+    }
+
+    /**
+     * Retrieves all orders ordered by ID with keyset pagination.
+     *
+     * @param after  Cursor of the previous page, or empty for the first page
+     * @param fields Comma-separated fields of each order to return (optional)
+     * @return ResponseEntity containing a cursor page of OrderInfoDTOs, or of rows with the selected fields
+     */
+    @GetMapping(value = "/orders", params = "after")
+    public ResponseEntity<PageDTO<?>> viewOrdersAfter(@RequestParam String after,
+                                                      @RequestParam(required = false) String fields) {
+        Set<OrderField> selected = FieldSelection.parse(fields, OrderField.class);
+        PageDTO<OrderInfoDTO> orders = orderService.getAllOrders(after, PAGE_SIZE_ORDERS);
+        return ResponseEntity.ok(selected != null ? orders.map(order -> FieldSelection.toRow(order, selected)) : orders);
     }
 
     /**
@@ -524,6 +583,48 @@ public class AdminRestController {
         return ResponseEntity.ok(cartItems);
     }
 
+    /**
+     * Retrieves the size and hit/miss statistics of the catalog caches.
+     *
+     * @return ResponseEntity containing a list of CacheStatsDTOs
+     */
+    @GetMapping("/cache-stats")
+    public ResponseEntity<List<CacheStatsDTO>> getCacheStats() {
+        return ResponseEntity.ok(productService.getCacheStats());
+    }
+
+    /**
+     * Retrieves the popularity increments of recent orders that are not yet written to the database.
+     *
+     * @return ResponseEntity containing a map of product ID to pending increment
+     */
+    @GetMapping("/popularity/unflushed")
+    public ResponseEntity<Map<Integer, Long>> getUnflushedPopularity() {
+        return ResponseEntity.ok(productService.getUnflushedPopularity());
+    }
+
+    /**
+     * Retrieves the number of views and listing impressions of a product.
+     *
+     * @param id The ID of the product
+     * @return ResponseEntity containing the ProductStatsDTO, with the counts not yet written reported apart
+     */
+    @GetMapping("/products/{id}/stats")
+    public ResponseEntity<ProductStatsDTO> getProductStats(@PathVariable Integer id) {
+        return ResponseEntity.ok(productService.getProductStats(id));
+    }
+
+    /**
+     * Retrieves the state of the view and impression tracking: products waiting to be written and counts
+     * dropped because too many were waiting.
+     *
+     * @return ResponseEntity containing the ProductStatsTrackerDTO
+     */
+    @GetMapping("/product-stats")
+    public ResponseEntity<ProductStatsTrackerDTO> getProductStatsTracker() {
+        return ResponseEntity.ok(productService.getProductStatsTracker());
+    }
+
     /**
      * Helper method to retrieve the current authenticated user's ID.
      *
@@ -3,6 +3,8 @@ package com.example.ecommerce.controller;
 import com.example.ecommerce.dto.*;
 import com.example.ecommerce.exception.AuthenticationException;
 import com.example.ecommerce.exception.BadRequestException;
+import com.example.ecommerce.projection.FieldSelection;
+import com.example.ecommerce.projection.OrderField;
 import com.example.ecommerce.service.CartService;
 import com.example.ecommerce.service.CustomerService;
 import com.example.ecommerce.service.OrderService;
@@ -19,6 +21,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.nio.file.AccessDeniedException;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/customer")
@@ -162,11 +165,16 @@ public class CustomerRestController {
     /**
      * Retrieves all orders for the current customer.
      *
-     * @return List of OrderInfoDTO objects
+     * @param fields Comma-separated fields of each order to return, only these columns are read (optional)
+     * @return List of OrderInfoDTO objects, or of rows with the selected fields
      */
     @GetMapping("/orders")
-    public ResponseEntity<List<OrderInfoDTO>> getOrdersByCustomerId() {
+    public ResponseEntity<List<?>> getOrdersByCustomerId(@RequestParam(required = false) String fields) {
+        Set<OrderField> selected = FieldSelection.parse(fields, OrderField.class);
         Integer customerId = getCurrentCustomerId();
+        if (selected != null) {
+            return ResponseEntity.ok(orderService.getOrdersByCustomerId(customerId, selected));
+        }
         List<OrderInfoDTO> orders = orderService.getOrdersByCustomerId(customerId);
         return ResponseEntity.ok(orders);
     }
@@ -1,9 +1,21 @@
 package com.example.ecommerce.controller;
 
+import com.example.ecommerce.cache.CatalogVersion;
+import com.example.ecommerce.cache.HomePageSnapshot;
+import com.example.ecommerce.cache.ResponseBodyCache;
+import com.example.ecommerce.cache.SearchResultCache;
 import com.example.ecommerce.dto.BrandDTO;
 import com.example.ecommerce.dto.CategoryDTO;
-import com.example.ecommerce.dto.ProductDTO;
+import com.example.ecommerce.dto.PageDTO;
 import com.example.ecommerce.dto.ProductInfoDTO;
+import com.example.ecommerce.dto.ProductLookupDTO;
+import com.example.ecommerce.dto.SuggestionDTO;
+import com.example.ecommerce.dto.TrendingProductDTO;
+import com.example.ecommerce.exception.BadRequestException;
+import com.example.ecommerce.projection.FieldSelection;
+import com.example.ecommerce.projection.ProductField;
+import com.example.ecommerce.search.SearchMode;
+import com.example.ecommerce.search.SortField;
 import com.example.ecommerce.service.BrandService;
 import com.example.ecommerce.service.CategoryService;
 import com.example.ecommerce.service.ProductService;
@@ -12,12 +24,20 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.util.HashMap;
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/home")
@@ -25,104 +45,418 @@ public class HomePageRestController {
     private final ProductService productService;
     private final CategoryService categoryService;
     private final BrandService brandService;
+    private final CatalogVersion catalogVersion;
+    private final HomePageSnapshot homePageSnapshot;
+    private final ResponseBodyCache responseBodyCache;
 
     private static final int PAGE_SIZE = 6;
+    private static final int SUGGESTION_LIMIT = 8;
+    private static final int MAX_BATCH_IDS = 50;
+    private static final String RELEVANCE = "relevance";
+    /** Clients may store catalog responses but must revalidate them with their ETag before every use. */
+    private static final CacheControl REVALIDATE = CacheControl.noCache();
     @Autowired
-    public HomePageRestController(ProductService productService, CategoryService categoryService, BrandService brandService) {
+    public HomePageRestController(ProductService productService, CategoryService categoryService, BrandService brandService,
+                                  CatalogVersion catalogVersion, HomePageSnapshot homePageSnapshot,
+                                  ResponseBodyCache responseBodyCache) {
         this.productService = productService;
         this.categoryService = categoryService;
         this.brandService = brandService;
+        this.catalogVersion = catalogVersion;
+        this.homePageSnapshot = homePageSnapshot;
+        this.responseBodyCache = responseBodyCache;
     }
 
     /**
      * Retrieves a paginated and optionally filtered list of products.
-     * Products can be filtered by category, brand, or searched by a query.
+     * Products can be filtered by category, brand and price range, or searched by a query.
+     * The page also carries facet counts per brand, per category and by stock status.
+     * The JSON is served from the {@link ResponseBodyCache}, gzip-compressed if the client accepts it.
      *
      * @param categoryId    the ID of the category to filter by (optional)
      * @param brandId       the ID of the brand to filter by (optional)
      * @param page          the page number for pagination (optional, defaults to 0)
-     * @param sortField     the field to sort by (optional, defaults to "id")
+     * @param sortField     id, price, popularity, name or newest, or "relevance" to rank search results
+     *                      (optional, defaults to "id")
      * @param sortDirection the sort direction (optional, defaults to "ASC")
      * @param query         the search query (optional)
-     * @return a paginated list of products based on filters or search query
+     * @param mode          how the search query is matched (optional, defaults to TOKEN)
+     * @param minPrice      the lowest price, inclusive (optional)
+     * @param maxPrice      the highest price, inclusive (optional)
+     * @param fields        the comma-separated fields of each product to return, for instance "name,price";
+     *                      the ID is always included (optional, defaults to all fields)
+     * @param request       the request, for its If-None-Match and Accept-Encoding headers
+     * @return a paginated list of products based on filters or search query, or 304 Not Modified if the
+     *         catalog has not changed since the client's copy
      */
     @GetMapping("/getAllProducts")
-    public ResponseEntity<Page<ProductInfoDTO>> getProducts(
+    public ResponseEntity<byte[]> getProducts(
             @RequestParam(required = false) Integer categoryId,
             @RequestParam(required = false) Integer brandId,
             @RequestParam(required = false, defaultValue = "0") Integer page,
             @RequestParam(required = false, defaultValue = "id") String sortField,
             @RequestParam(required = false, defaultValue = "ASC") String sortDirection,
-            @RequestParam(required = false) String query) {
-
+            @RequestParam(required = false) String query,
+            @RequestParam(required = false, defaultValue = "TOKEN") SearchMode mode,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) String fields,
+            WebRequest request) {
+        Set<ProductField> selected = FieldSelection.parse(fields, ProductField.class);
         // Set up sorting based on the request parameters
-        Sort.Direction direction = Sort.Direction.fromString(sortDirection);
-        Sort sort = Sort.by(direction, sortField);
-        Pageable pageable = PageRequest.of(page, PAGE_SIZE, sort);
-        Page<ProductInfoDTO> productPage;
-        // Perform search or filtering based on the parameters
+        Pageable pageable = PageRequest.of(page, PAGE_SIZE, toSort(sortField, sortDirection));
+        String etag = listingETag(pageable.getSort());
+        if (request.checkNotModified(etag)) {
+            return notModified();
+        }
+
+        boolean searching = query != null && !query.isEmpty() && categoryId == null && brandId == null;
+        Integer category = categoryId != null && categoryId != 0 ? categoryId : null;
+        Integer brand = brandId != null && brandId != 0 ? brandId : null;
+        String key = ResponseBodyCache.key("getAllProducts", category, brand, minPrice, maxPrice, pageable.getSort(),
+                page, FieldSelection.key(selected), searching ? mode : null,
+                searching ? SearchResultCache.normalize(query) : null);
+        return cached(key, etag, request, () -> {
+            Page<?> productPage;
+            // Perform search or filtering based on the parameters; filters and sort orders are served from the
+            // in-memory indexes, and with selected fields only their columns are read
+            if (searching) {
+                productPage = selected != null
+                        ? productService.searchProducts(query, mode, minPrice, maxPrice, pageable, selected)
+                        : productService.searchProducts(query, mode, minPrice, maxPrice, pageable);
+            } else {
+                productPage = selected != null
+                        ? productService.getActiveProducts(category, brand, minPrice, maxPrice, pageable, selected)
+                        : productService.getActiveProducts(category, brand, minPrice, maxPrice, pageable);
+            }
+            PageDTO<?> body = PageDTO.of(productPage);
+            body.setFacets(productService.getFacetCounts(searching ? query : null, mode, category, brand,
+                    minPrice, maxPrice));
+            return new ResponseBodyCache.Content(body, ids(productPage.getContent()));
+        });
+    }
+
+    /**
+     * Retrieves a slice of optionally filtered products without counting all matches.
+     * Selected by passing {@code count=false}; the response has {@code last} instead of {@code totalPages}
+     * and an in-memory {@code approximateTotal} for display.
+     *
+     * @param categoryId    the ID of the category to filter by (optional)
+     * @param brandId       the ID of the brand to filter by (optional)
+     * @param page          the page number for pagination (optional, defaults to 0)
+     * @param sortField     id, price, popularity, name or newest, or "relevance" to rank search results
+     *                      (optional, defaults to "id")
+     * @param sortDirection the sort direction (optional, defaults to "ASC")
+     * @param query         the search query (optional)
+     * @param mode          how the search query is matched (optional, defaults to TOKEN)
+     * @param minPrice      the lowest price, inclusive (optional)
+     * @param maxPrice      the highest price, inclusive (optional)
+     * @param fields        the comma-separated fields of each product to return (optional, defaults to all fields)
+     * @param request       the request, for its If-None-Match and Accept-Encoding headers
+     * @return a slice of products, or 304 Not Modified if the catalog has not changed since the client's copy
+     */
+    @GetMapping(value = "/getAllProducts", params = {"count=false", "!after"})
+    public ResponseEntity<byte[]> getProductsSlice(
+            @RequestParam(required = false) Integer categoryId,
+            @RequestParam(required = false) Integer brandId,
+            @RequestParam(required = false, defaultValue = "0") Integer page,
+            @RequestParam(required = false, defaultValue = "id") String sortField,
+            @RequestParam(required = false, defaultValue = "ASC") String sortDirection,
+            @RequestParam(required = false) String query,
+            @RequestParam(required = false, defaultValue = "TOKEN") SearchMode mode,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) String fields,
+            WebRequest request) {
+        Set<ProductField> selected = FieldSelection.parse(fields, ProductField.class);
+        Pageable pageable = PageRequest.of(page, PAGE_SIZE, toSort(sortField, sortDirection));
+        String etag = listingETag(pageable.getSort());
+        if (request.checkNotModified(etag)) {
+            return notModified();
+        }
+        boolean searching = query != null && !query.isEmpty() && categoryId == null && brandId == null;
+        Integer category = categoryId != null && categoryId != 0 ? categoryId : null;
+        Integer brand = brandId != null && brandId != 0 ? brandId : null;
+        String key = ResponseBodyCache.key("getAllProducts-slice", category, brand, minPrice, maxPrice,
+                pageable.getSort(), page, FieldSelection.key(selected), searching ? mode : null,
+                searching ? SearchResultCache.normalize(query) : null);
+        return cached(key, etag, request, () -> {
+            PageDTO<?> productSlice;
+            if (selected != null) {
+                productSlice = searching
+                        ? productService.searchProductsSlice(query, mode, minPrice, maxPrice, pageable, selected)
+                        : productService.getActiveProductsSlice(category, brand, minPrice, maxPrice, pageable,
+                                selected);
+            } else {
+                productSlice = searching
+                        ? productService.searchProductsSlice(query, mode, minPrice, maxPrice, pageable)
+                        : productService.getActiveProductsSlice(category, brand, minPrice, maxPrice, pageable);
+            }
+            return new ResponseBodyCache.Content(productSlice, ids(productSlice.getContent()));
+        });
+    }
+
+    /**
+     * Retrieves active products with keyset pagination, optionally filtered by category and brand.
+     * Selected by passing an {@code after} parameter: empty for the first page, then the {@code next}
+     * cursor of the previous response. Deep pages cost the same as the first one.
+     *
+     * @param categoryId    the ID of the category to filter by (optional)
+     * @param brandId       the ID of the brand to filter by (optional)
+     * @param after         the cursor of the previous page, or empty for the first page
+     * @param sortField     id, price, popularity, name or newest (optional, defaults to "id")
+     * @param sortDirection the sort direction (optional, defaults to "ASC")
+     * @param query         ignored when a category or brand is given; searches are not keyset-paginated
+     * @param minPrice      not supported with cursors; must be absent
+     * @param maxPrice      not supported with cursors; must be absent
+     * @param fields        the comma-separated fields of each product to return (optional, defaults to all fields)
+     * @param request       the request, for its If-None-Match and Accept-Encoding headers
+     * @return a cursor page of products with facet counts, or 304 Not Modified if the catalog has not changed
+     *         since the client's copy
+     */
+    @GetMapping(value = "/getAllProducts", params = "after")
+    public ResponseEntity<byte[]> getProductsAfter(
+            @RequestParam(required = false) Integer categoryId,
+            @RequestParam(required = false) Integer brandId,
+            @RequestParam String after,
+            @RequestParam(required = false, defaultValue = "id") String sortField,
+            @RequestParam(required = false, defaultValue = "ASC") String sortDirection,
+            @RequestParam(required = false) String query,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) String fields,
+            WebRequest request) {
+        Set<ProductField> selected = FieldSelection.parse(fields, ProductField.class);
         if (query != null && !query.isEmpty() && categoryId == null && brandId == null) {
-            productPage = productService.searchProducts(query, pageable);
-        } else if (categoryId != null && brandId != null && categoryId != 0 && brandId != 0) {
-            // Filter by both category and brand
-            productPage = productService.getProductsByCategoryAndBrand(categoryId, brandId, pageable);
-        } else if (categoryId != null && categoryId != 0) {
-            // Filter by category only
-            productPage = productService.getProductsByCategory(categoryId, pageable);
-        } else if (brandId != null && brandId != 0) {
-            // Filter by brand only
-            productPage = productService.getProductsByBrand(brandId, pageable);
-        } else {
-            // No filters, return all active products
-            productPage = productService.getAllActiveProducts(pageable);
+            throw new BadRequestException("Cursor pagination is not supported for search queries");
+        }
+        if (minPrice != null || maxPrice != null) {
+            throw new BadRequestException("Cursor pagination is not supported with a price range");
+        }
+        Sort sort = RELEVANCE.equals(sortField) ? Sort.by("id") : toSort(sortField, sortDirection);
+        String etag = listingETag(sort);
+        if (request.checkNotModified(etag)) {
+            return notModified();
         }
+        Integer category = categoryId != null && categoryId != 0 ? categoryId : null;
+        Integer brand = brandId != null && brandId != 0 ? brandId : null;
+        String key = ResponseBodyCache.key("getAllProducts-after", category, brand, sort, FieldSelection.key(selected),
+                after);
+        return cached(key, etag, request, () -> {
+            PageDTO<ProductInfoDTO> productPage = productService.getActiveProducts(category, brand, after, sort, PAGE_SIZE);
+            productPage.setFacets(productService.getFacetCounts(null, SearchMode.TOKEN, category, brand));
+            return new ResponseBodyCache.Content(sparse(productPage, selected), ids(productPage.getContent()));
+        });
+    }
 
-        return ResponseEntity.ok(productPage);
+    /**
+     * Builds the sort of a listing from the request parameters.
+     *
+     * @param sortField     one of the {@link SortField}s, or "relevance"
+     * @param sortDirection ASC or DESC
+     * @return the sort; unsorted for relevance, the natural order of search results
+     * @throws BadRequestException if the sort field is not sortable
+     */
+    private static Sort toSort(String sortField, String sortDirection) {
+        if (RELEVANCE.equals(sortField)) {
+            return Sort.unsorted();
+        }
+        return SortField.fromParameter(sortField).toSort(Sort.Direction.fromString(sortDirection));
     }
 
+    /**
+     * Builds the ETag of a listing. Listings can include any product, so they change with the whole catalog.
+     * The version is read before the listing is built, so the ETag never claims newer data than the body holds.
+     *
+     * @return the ETag, without quotes
+     */
+    private String catalogETag() {
+        return "catalog-" + catalogVersion.getEpoch() + "-" + catalogVersion.get();
+    }
+
+    /**
+     * Builds the ETag of a listing in the given order. Listings ranked by popularity also change when flushed
+     * popularity does, which leaves the catalog version alone.
+     *
+     * @param sort the order of the listing
+     * @return the ETag, without quotes
+     */
+    private String listingETag(Sort sort) {
+        String etag = catalogETag();
+        return SearchResultCache.rankedByPopularity(sort) ? etag + "." + catalogVersion.getPopularity() : etag;
+    }
+
+    /**
+     * Serves a catalog response from the {@link ResponseBodyCache}, building it on a miss, and counts an
+     * impression of each listed product. The cached bytes are written as they are: gzip-compressed if the
+     * client accepts gzip and the response was worth compressing, uncompressed otherwise.
+     *
+     * @param key     the key of the response
+     * @param etag    the ETag the response is served under
+     * @param request the request, for its Accept-Encoding header
+     * @param loader  builds the response on a miss
+     * @return the response
+     */
+    private ResponseEntity<byte[]> cached(String key, String etag, WebRequest request,
+                                          Supplier<ResponseBodyCache.Content> loader) {
+        ResponseBodyCache.Body body = responseBodyCache.get(key, etag, loader);
+        if (!body.getProductIds().isEmpty()) {
+            productService.recordImpressions(body.getProductIds());
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE)
+                .contentType(MediaType.APPLICATION_JSON).varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (body.getGzip() != null && ResponseBodyCache.acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(body.getGzip());
+        }
+        return response.body(body.getIdentity());
+    }
+
+    /**
+     * Keeps only the selected fields of a cursor page. Keyset pagination is only supported for derived queries,
+     * which load entities, so the fields are trimmed from the complete rows rather than left out of the query.
+     */
+    private static PageDTO<?> sparse(PageDTO<ProductInfoDTO> page, Set<ProductField> fields) {
+        return fields != null ? page.map(product -> FieldSelection.toRow(product, fields)) : page;
+    }
+
+    /**
+     * @param products ProductInfoDTOs, or rows of selected fields keyed by field name
+     * @return the IDs of the products
+     */
+    private static List<Integer> ids(List<?> products) {
+        return products.stream()
+                .map(product -> product instanceof ProductInfoDTO dto
+                        ? dto.getId()
+                        : (Integer) ((Map<?, ?>) product).get(ProductField.ID.getName()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Answers a conditional GET whose ETag still matches, without a body.
+     * {@link WebRequest#checkNotModified(String)} has already set the ETag header.
+     *
+     * @return a 304 Not Modified response
+     */
+    private static <T> ResponseEntity<T> notModified() {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(REVALIDATE).build();
+    }
 
     /**
      * Retrieves a list of popular products for the home page with pagination.
+     * The first pages are served as precomputed JSON from the {@link HomePageSnapshot}; their ETag changes only
+     * when the snapshot is refreshed. Their gzip encoding is kept in the {@link ResponseBodyCache}. Deeper pages
+     * are read on demand and change with the catalog or with flushed popularity.
      *
-     * @param page The page number for pagination
-     * @return A list of popular products
+     * @param page    The page number for pagination
+     * @param request The request, for its If-None-Match and Accept-Encoding headers
+     * @return A JSON list of popular products, or 304 Not Modified if the page has not changed since the client's copy
      */
     @GetMapping("/get")
-    public ResponseEntity<List<ProductDTO>> getHomePageProducts(@RequestParam(required = false, defaultValue = "0") Integer page) {
-        Pageable pageable = PageRequest.of(page, PAGE_SIZE);
-        List<ProductDTO> products = productService.getProductsByPopularity(pageable);
+    public ResponseEntity<byte[]> getHomePageProducts(@RequestParam(required = false, defaultValue = "0") Integer page,
+                                                      WebRequest request) {
+        // The ETag and the body of a snapshot page come from the same snapshot
+        HomePageSnapshot.SnapshotPage snapshotPage = homePageSnapshot.getSnapshotPage(page);
+        String etag = snapshotPage != null
+                ? "home-" + catalogVersion.getEpoch() + "-" + snapshotPage.getVersion()
+                : listingETag(Sort.by(Sort.Direction.DESC, "popularity"));
+        if (request.checkNotModified(etag)) {
+            return notModified();
+        }
+        return cached(ResponseBodyCache.key("get", page), etag, request, () -> new ResponseBodyCache.Content(
+                snapshotPage != null ? snapshotPage.getJson() : homePageSnapshot.loadPage(page), List.of()));
+    }
+    /**
+     * Retrieves the products trending now, by recent orders and views, served from memory.
+     *
+     * @param categoryId The ID of the category to rank within (optional)
+     * @param brandId    The ID of the brand to rank within (optional; not together with a category)
+     * @param limit      The maximum number of products (optional, defaults to 6)
+     * @return A list of trending products, highest score first
+     */
+    @GetMapping("/trending")
+    public ResponseEntity<List<TrendingProductDTO>> getTrendingProducts(@RequestParam(required = false) Integer categoryId,
+                                                                        @RequestParam(required = false) Integer brandId,
+                                                                        @RequestParam(required = false, defaultValue = "" + PAGE_SIZE) Integer limit) {
+        List<TrendingProductDTO> products = productService.getTrendingProducts(categoryId, brandId, limit);
         return ResponseEntity.ok(products);
     }
+
     /**
      * Retrieves the detailed information for a product by its ID.
      *
-     * @param id The ID of the product to retrieve
-     * @return ProductInfoDTO with detailed product information
+     * The ETag changes with the product and with any brand or category, whose names the response carries.
+     * A product view is only recorded when the product is sent, not for revalidations or unknown products.
+     *
+     * @param id      The ID of the product to retrieve
+     * @param request The request, for its If-None-Match header
+     * @return ProductInfoDTO with detailed product information, or 304 Not Modified if the product has not
+     *         changed since the client's copy
      */
     @GetMapping("/product/{id}")
-    public ResponseEntity<ProductInfoDTO> getProductById(@PathVariable Integer id) {
+    public ResponseEntity<ProductInfoDTO> getProductById(@PathVariable Integer id, WebRequest request) {
+        String etag = "product-" + id + "-" + catalogVersion.getEpoch() + "-" + catalogVersion.getProduct(id)
+                + "." + catalogVersion.getBrands() + "." + catalogVersion.getCategories();
+        if (request.checkNotModified(etag)) {
+            return notModified();
+        }
         ProductInfoDTO productDTO = productService.getProductInfoById(id);
-        return ResponseEntity.ok(productDTO);
+        productService.recordProductView(id);
+        return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE).body(productDTO);
+    }
+
+    /**
+     * Retrieves the information of several products at once, for views listing products of a cart, an order or
+     * a comparison. Unlike {@link #getProductById}, no product view is recorded.
+     *
+     * The ETag changes with any of the products and with any brand or category.
+     *
+     * @param ids     The comma-separated IDs of the products, at most 50
+     * @param request The request, for its If-None-Match header
+     * @return One entry per requested ID in request order, with the product or marked as not found, or 304 Not
+     *         Modified if none of the products has changed since the client's copy
+     */
+    @GetMapping("/products")
+    public ResponseEntity<List<ProductLookupDTO>> getProductsByIds(@RequestParam List<Integer> ids, WebRequest request) {
+        if (ids.isEmpty() || ids.size() > MAX_BATCH_IDS || ids.contains(null)) {
+            throw new BadRequestException("Expected 1 to " + MAX_BATCH_IDS + " product IDs");
+        }
+        String etag = "products-" + catalogVersion.getEpoch() + "-" + catalogVersion.getProducts(ids)
+                + "." + catalogVersion.getBrands() + "." + catalogVersion.getCategories();
+        if (request.checkNotModified(etag)) {
+            return notModified();
+        }
+        List<ProductLookupDTO> products = productService.getProductInfosByIds(ids);
+        return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE).body(products);
     }
     /**
      * Retrieves a list of all available brands.
      *
-     * @return A list of BrandDTO objects
+     * @param request The request, for its If-None-Match header
+     * @return A list of BrandDTO objects, or 304 Not Modified if no brand has changed since the client's copy
      */
     @GetMapping("/brands")
-    public ResponseEntity<List<BrandDTO>> getBrands(){
+    public ResponseEntity<List<BrandDTO>> getBrands(WebRequest request){
+        String etag = "brands-" + catalogVersion.getEpoch() + "-" + catalogVersion.getBrands();
+        if (request.checkNotModified(etag)) {
+            return notModified();
+        }
         List<BrandDTO> brands = brandService.getAllBrands();
-        return ResponseEntity.ok(brands);
+        return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE).body(brands);
     }
     /**
      * Retrieves a list of all available categories.
      *
-     * @return A list of CategoryDTO objects
+     * @param request The request, for its If-None-Match header
+     * @return A list of CategoryDTO objects, or 304 Not Modified if no category has changed since the client's copy
      */
     @GetMapping("/categories")
-    public ResponseEntity<List<CategoryDTO>> getCategories(){
+    public ResponseEntity<List<CategoryDTO>> getCategories(WebRequest request){
+        String etag = "categories-" + catalogVersion.getEpoch() + "-" + catalogVersion.getCategories();
+        if (request.checkNotModified(etag)) {
+            return notModified();
+        }
         List<CategoryDTO> categories =categoryService.getAllCategories();
-        return ResponseEntity.ok(categories);
+        return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE).body(categories);
     }
     /**
      * Retrieves a category by its ID.
@@ -147,25 +481,44 @@ public class HomePageRestController {
         return ResponseEntity.ok(brandDTO);
     }
     /**
-     * Searches for products based on a query and paginates the results.
+     * Searches for products based on a query and paginates the results, best match first.
      *
      * @param query The search query
      * @param page  The page number for pagination
-     * @return A paginated list of products matching the search query
+     * @param mode  How the search query is matched (defaults to TOKEN)
+     * @param fields The comma-separated fields of each product to return (optional, defaults to all fields)
+     * @return A page of products matching the search query, with facet counts
      */
     @GetMapping("/search")
-    public ResponseEntity<Map<String, Object>> searchProducts(@RequestParam String query,
-                                                              @RequestParam(required = false, defaultValue = "0") Integer page) {
-        Pageable pageable = PageRequest.of(page, PAGE_SIZE, Sort.Direction.DESC, "id");
-        Page<ProductInfoDTO> productPage = productService.searchProducts(query, pageable);
-
-        Map<String, Object> response = new HashMap<>();
-        response.put("products", productPage.getContent());
-        response.put("currentPage", page);
-        response.put("totalItems", productPage.getTotalElements());
-        response.put("totalPages", productPage.getTotalPages());
+    public ResponseEntity<PageDTO<?>> searchProducts(@RequestParam String query,
+                                                     @RequestParam(required = false, defaultValue = "0") Integer page,
+                                                     @RequestParam(required = false, defaultValue = "TOKEN") SearchMode mode,
+                                                     @RequestParam(required = false) String fields) {
+        Set<ProductField> selected = FieldSelection.parse(fields, ProductField.class);
+        Pageable pageable = PageRequest.of(page, PAGE_SIZE);
+        Page<?> productPage = selected != null
+                ? productService.searchProducts(query, mode, null, null, pageable, selected)
+                : productService.searchProducts(query, mode, pageable);
+        productService.recordImpressions(ids(productPage.getContent()));
 
+        PageDTO<?> response = PageDTO.of(productPage);
+        response.setFacets(productService.getFacetCounts(query, mode, null, null));
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Suggests product, brand and category names completing the typed prefix, most popular first.
+     * Served entirely from memory.
+     *
+     * @param prefix The text typed so far
+     * @param limit  The maximum number of suggestions (optional, defaults to 8)
+     * @return A list of suggestions
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SuggestionDTO>> suggest(@RequestParam String prefix,
+                                                       @RequestParam(required = false, defaultValue = "" + SUGGESTION_LIMIT) Integer limit) {
+        List<SuggestionDTO> suggestions = productService.getSuggestions(prefix, limit);
+        return ResponseEntity.ok(suggestions);
+    }
+
 }
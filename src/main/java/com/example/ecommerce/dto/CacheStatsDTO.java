@@ -0,0 +1,20 @@
+package com.example.ecommerce.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class CacheStatsDTO {
+    private String name;
+    private long entries;
+    private long bytes;
+    private long maxBytes;
+    private long maxEntries;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+    private long invalidations;
+    private double hitRatio;
+}
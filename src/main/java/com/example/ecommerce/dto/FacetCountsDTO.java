@@ -0,0 +1,15 @@
+package com.example.ecommerce.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Map;
+
+@Getter
+@Setter
+public class FacetCountsDTO {
+    private Map<Integer, Integer> brands;
+    private Map<Integer, Integer> categories;
+    private Integer inStock;
+    private Integer outOfStock;
+}
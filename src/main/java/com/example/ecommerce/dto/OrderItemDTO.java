@@ -1,12 +1,14 @@
 package com.example.ecommerce.dto;
 
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import java.math.BigDecimal;
 
 @Getter
 @Setter
+@NoArgsConstructor
 public class OrderItemDTO {
     private Integer id;
     private Integer orderId;
@@ -17,4 +19,20 @@ public class OrderItemDTO {
     private BigDecimal productPrice;
     private Integer quantity;
     private BigDecimal price;
+
+    /**
+     * Creates an order item row, read by the repository's constructor expressions.
+     */
+    public OrderItemDTO(Integer id, Integer orderId, Integer productId, String productName, String productDescription,
+                        String imageUrl, BigDecimal productPrice, Integer quantity, BigDecimal price) {
+        this.id = id;
+        this.orderId = orderId;
+        this.productId = productId;
+        this.productName = productName;
+        this.productDescription = productDescription;
+        this.imageUrl = imageUrl;
+        this.productPrice = productPrice;
+        this.quantity = quantity;
+        this.price = price;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,106 @@
+package com.example.ecommerce.dto;
+
+import com.example.ecommerce.pagination.KeysetCursor;
+import com.example.ecommerce.pagination.PageDTOSerializer;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Window;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * One page of a listing, the envelope of every paginated response. Numbered pages have {@code page}; keyset
+ * pages have {@code next}, the cursor to pass as {@code after} for the following page. {@code total} is set only
+ * when the listing was counted, and {@code approximateTotal} when the count comes from the in-memory indexes,
+ * which may lag a write by a moment.
+ * <p>
+ * Written by {@link PageDTOSerializer}, which leaves out the fields that are not set.
+ */
+@Getter
+@Setter
+@JsonSerialize(using = PageDTOSerializer.class)
+public class PageDTO<T> {
+    private List<T> content;
+    private Integer page;
+    private int size;
+    private boolean hasNext;
+    private String next;
+    private Long total;
+    private Long approximateTotal;
+    private FacetCountsDTO facets;
+
+    /**
+     * Wraps a counted page.
+     *
+     * @param page The page read with its total.
+     * @return A PageDTO with the page number and total.
+     */
+    public static <T> PageDTO<T> of(Page<T> page) {
+        PageDTO<T> result = numbered(page);
+        result.setTotal(page.getTotalElements());
+        return result;
+    }
+
+    /**
+     * Wraps a slice, read without counting all matches.
+     *
+     * @param slice            The slice.
+     * @param approximateTotal The approximate number of matches, or null if unknown.
+     * @return A PageDTO with the page number and approximate total.
+     */
+    public static <T> PageDTO<T> of(Slice<T> slice, Long approximateTotal) {
+        PageDTO<T> result = numbered(slice);
+        result.setApproximateTotal(approximateTotal);
+        return result;
+    }
+
+    /**
+     * Maps a window of entities to a keyset page.
+     *
+     * @param window The window read from the repository.
+     * @param size   The requested page size.
+     * @param mapper The entity to DTO mapping.
+     * @return A PageDTO with the mapped content and the cursor of its last row.
+     */
+    public static <E, T> PageDTO<T> of(Window<E> window, int size, Function<E, T> mapper) {
+        PageDTO<T> result = new PageDTO<>();
+        result.setContent(window.map(mapper).getContent());
+        result.setSize(size);
+        result.setHasNext(window.hasNext() && !window.isEmpty());
+        result.setNext(result.isHasNext() ? KeysetCursor.encode(window.positionAt(window.size() - 1)) : null);
+        return result;
+    }
+
+    /**
+     * Converts the content of the page, keeping its position, totals and facet counts.
+     *
+     * @param mapper The conversion of one element.
+     * @return A new PageDTO with the converted content.
+     */
+    public <R> PageDTO<R> map(Function<T, R> mapper) {
+        PageDTO<R> result = new PageDTO<>();
+        result.setContent(content.stream().map(mapper).collect(Collectors.toList()));
+        result.setPage(page);
+        result.setSize(size);
+        result.setHasNext(hasNext);
+        result.setNext(next);
+        result.setTotal(total);
+        result.setApproximateTotal(approximateTotal);
+        result.setFacets(facets);
+        return result;
+    }
+
+    private static <T> PageDTO<T> numbered(Slice<T> slice) {
+        PageDTO<T> result = new PageDTO<>();
+        result.setContent(slice.getContent());
+        result.setPage(slice.getNumber());
+        result.setSize(slice.getSize());
+        result.setHasNext(slice.hasNext());
+        return result;
+    }
+}
@@ -3,12 +3,14 @@ package com.example.ecommerce.dto;
 
 import jakarta.validation.constraints.*;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import java.math.BigDecimal;
 
 @Getter
 @Setter
+@NoArgsConstructor
 public class ProductDTO {
     private Integer id;
     @NotBlank(message = "Product name cannot be blank")
@@ -36,4 +38,21 @@ public class ProductDTO {
     private Integer popularity = 0;
 
     private Boolean isActive = true;
+
+    /**
+     * Creates a product row, read by the repository's constructor expressions.
+     */
+    public ProductDTO(Integer id, String name, String description, BigDecimal price, Integer quantity,
+                      Integer categoryId, Integer brandId, String imageUrl, Integer popularity, Boolean isActive) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.price = price;
+        this.quantity = quantity;
+        this.categoryId = categoryId;
+        this.brandId = brandId;
+        this.imageUrl = imageUrl;
+        this.popularity = popularity;
+        this.isActive = isActive;
+    }
 }
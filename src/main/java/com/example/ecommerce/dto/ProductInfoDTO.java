@@ -1,11 +1,13 @@
 package com.example.ecommerce.dto;
 
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import java.math.BigDecimal;
 @Getter
 @Setter
+@NoArgsConstructor
 public class ProductInfoDTO {
     private Integer id;
     private String name;
@@ -17,4 +19,30 @@ public class ProductInfoDTO {
     private String imageUrl;
     private Integer popularity = 0;
     private Boolean isActive;
+
+    /**
+     * Creates a product without its description.
+     */
+    public ProductInfoDTO(Integer id, String name, BigDecimal price, Integer quantity, String categoryName,
+                          String brandName, String imageUrl, Integer popularity, Boolean isActive) {
+        this.id = id;
+        this.name = name;
+        this.price = price;
+        this.quantity = quantity;
+        this.categoryName = categoryName;
+        this.brandName = brandName;
+        this.imageUrl = imageUrl;
+        this.popularity = popularity;
+        this.isActive = isActive;
+    }
+
+    /**
+     * Creates a listing row, read by the repository's constructor expressions.
+     */
+    public ProductInfoDTO(Integer id, String name, String description, BigDecimal price, Integer quantity,
+                          String categoryName, String brandName, String imageUrl, Integer popularity,
+                          Boolean isActive) {
+        this(id, name, price, quantity, categoryName, brandName, imageUrl, popularity, isActive);
+        this.description = description;
+    }
 }
@@ -0,0 +1,24 @@
+package com.example.ecommerce.dto;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * One requested product of a batch lookup: the product, or {@code found = false} and no product if there is no
+ * product with this ID.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class ProductLookupDTO {
+    private Integer id;
+    private boolean found;
+    private ProductInfoDTO product;
+
+    public ProductLookupDTO(Integer id, ProductInfoDTO product) {
+        this.id = id;
+        this.found = product != null;
+        this.product = product;
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.ecommerce.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class ProductStatsDTO {
+    private Integer productId;
+    private long views;
+    private long impressions;
+    private long unflushedViews;
+    private long unflushedImpressions;
+}
@@ -0,0 +1,13 @@
+package com.example.ecommerce.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class ProductStatsTrackerDTO {
+    private int pendingProducts;
+    private int maxPendingProducts;
+    private long droppedViews;
+    private long droppedImpressions;
+}
@@ -0,0 +1,13 @@
+package com.example.ecommerce.dto;
+
+import com.example.ecommerce.search.Suggestion;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class SuggestionDTO {
+    private String text;
+    private Suggestion.Type type;
+    private Integer id;
+}
@@ -0,0 +1,18 @@
+package com.example.ecommerce.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+@Getter
+@Setter
+public class TrendingProductDTO {
+    private Integer id;
+    private String name;
+    private BigDecimal price;
+    private Integer quantity;
+    private String categoryName;
+    private String brandName;
+    private double score;
+}
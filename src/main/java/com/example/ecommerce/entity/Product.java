@@ -3,12 +3,16 @@ package com.example.ecommerce.entity;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.math.BigDecimal;
 @Getter
 @Setter
 @Entity
 @Table(name = "products")
+// Updates write only the changed columns, so saving a product's stock never overwrites popularity increments
+// that PopularityService wrote in the meantime
+@DynamicUpdate
 public class Product {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -0,0 +1,23 @@
+package com.example.ecommerce.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Entity
+@Table(name = "product_stats")
+public class ProductStats {
+
+    // Not linked to the product, so the statistics of deleted products are kept
+    @Id
+    @Column(name = "product_id")
+    private Integer productId;
+
+    @Column(nullable = false)
+    private Long views = 0L;
+
+    @Column(nullable = false)
+    private Long impressions = 0L;
+}
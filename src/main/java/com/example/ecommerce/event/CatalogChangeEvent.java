@@ -0,0 +1,46 @@
+package com.example.ecommerce.event;
+
+import lombok.Getter;
+
+/**
+ * Published by the catalog services whenever a product, brand or category is created, updated or deleted.
+ * In-memory catalog structures listen to it to keep themselves in sync with the database.
+ * <p>
+ * A {@link Type#POPULARITY} event announces that only the popularity of a product changed, as written by the
+ * popularity flush every few seconds. It updates the product's indexes and its own version, but not the catalog
+ * version, so listing caches and ETags are not invalidated by every flush.
+ */
+@Getter
+public class CatalogChangeEvent {
+
+    public enum Type {
+        PRODUCT,
+        POPULARITY,
+        BRAND,
+        CATEGORY
+    }
+
+    private final Type type;
+    private final Integer id;
+
+    public CatalogChangeEvent(Type type, Integer id) {
+        this.type = type;
+        this.id = id;
+    }
+
+    public static CatalogChangeEvent product(Integer id) {
+        return new CatalogChangeEvent(Type.PRODUCT, id);
+    }
+
+    public static CatalogChangeEvent popularity(Integer id) {
+        return new CatalogChangeEvent(Type.POPULARITY, id);
+    }
+
+    public static CatalogChangeEvent brand(Integer id) {
+        return new CatalogChangeEvent(Type.BRAND, id);
+    }
+
+    public static CatalogChangeEvent category(Integer id) {
+        return new CatalogChangeEvent(Type.CATEGORY, id);
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.ecommerce.event;
+
+import lombok.Getter;
+
+/**
+ * Published when customers show interest in a product: when they view it, or order it once the order commits.
+ * Ranking structures such as the trending scores listen to it.
+ */
+@Getter
+public class ProductActivityEvent {
+
+    public enum Type {
+        VIEW,
+        ORDER
+    }
+
+    private final Type type;
+    private final Integer productId;
+    private final int quantity;
+
+    public ProductActivityEvent(Type type, Integer productId, int quantity) {
+        this.type = type;
+        this.productId = productId;
+        this.quantity = quantity;
+    }
+
+    public static ProductActivityEvent view(Integer productId) {
+        return new ProductActivityEvent(Type.VIEW, productId, 1);
+    }
+
+    public static ProductActivityEvent order(Integer productId, int quantity) {
+        return new ProductActivityEvent(Type.ORDER, productId, quantity);
+    }
+}
@@ -4,32 +4,58 @@ import com.example.ecommerce.dto.CartItemDTO;
 import com.example.ecommerce.entity.Cart;
 import com.example.ecommerce.entity.CartItem;
 import com.example.ecommerce.repository.CartRepository;
+import org.mapstruct.Context;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.Named;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.util.Collection;
+import java.util.List;
+
 @Mapper(componentModel = "spring", uses = {ProductMapper.class})
 public abstract class CartItemMapper {
 
     @Autowired
     private CartRepository cartRepository;
 
+    // Loads the carts referenced by a batch of items with one query
+    private final ReferenceContext.Source<Integer, Cart> carts =
+            ids -> ReferenceContext.byKey(cartRepository.findAllById(ids), Cart::getId);
+
     // Mapping CartItem entity to a DTO
     @Mapping(source = "cart.id", target = "cartId")
     public abstract CartItemDTO toDTO(CartItem cartItem);
 
     // Mapping a DTO to a CartItem entity
+    @Named("withNewContext")
+    public CartItem toEntity(CartItemDTO cartItemDTO) {
+        if (cartItemDTO == null) {
+            return null;
+        }
+        ReferenceContext context = new ReferenceContext();
+        expectReferences(List.of(cartItemDTO), context);
+        return toEntity(cartItemDTO, context);
+    }
+
     @Mapping(source = "cartId", target = "cart", qualifiedByName = "mapCartIdToCart")
-    public abstract CartItem toEntity(CartItemDTO cartItemDTO);
+    public abstract CartItem toEntity(CartItemDTO cartItemDTO, @Context ReferenceContext context);
+
+    // Maps the items of a cart within the cart's context
+    public abstract List<CartItem> toEntities(List<CartItemDTO> cartItemDTOs, @Context ReferenceContext context);
+
+    // Declares the carts referenced by the items, so they are loaded together
+    void expectReferences(Collection<CartItemDTO> cartItemDTOs, ReferenceContext context) {
+        for (CartItemDTO cartItemDTO : cartItemDTOs) {
+            if (cartItemDTO != null) {
+                context.expect(carts, cartItemDTO.getCartId());
+            }
+        }
+    }
 
     // Method for mapping cartId to Cart object
     @Named("mapCartIdToCart")
-    protected Cart mapCartIdToCart(Integer cartId) {
-        if (cartId == null) {
-            return null;
-        }
-        // Use repository to get Cart entity by ID
-        return cartRepository.findById(cartId).orElse(null);
+    protected Cart mapCartIdToCart(Integer cartId, @Context ReferenceContext context) {
+        return context.resolve(carts, cartId);
     }
-}
\ No newline at end of file
+}
@@ -4,11 +4,14 @@ import com.example.ecommerce.dto.CartDTO;
 import com.example.ecommerce.entity.Cart;
 import com.example.ecommerce.entity.Customer;
 import com.example.ecommerce.repository.CustomerRepository;
+import org.mapstruct.Context;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.Named;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.util.Collection;
+import java.util.List;
 
 @Mapper(componentModel = "spring", uses = {CartItemMapper.class})
 public abstract class CartMapper {
@@ -16,19 +19,44 @@ public abstract class CartMapper {
     @Autowired
     private CustomerRepository customerRepository;
 
+    @Autowired
+    private CartItemMapper cartItemMapper;
+
+    // Loads the customers referenced by a batch of carts with one query
+    private final ReferenceContext.Source<Integer, Customer> customers =
+            ids -> ReferenceContext.byKey(customerRepository.findAllById(ids), Customer::getId);
+
     @Mapping(source = "customer.id", target = "customerId")
     public abstract CartDTO toDTO(Cart cart);
 
+    @Named("withNewContext")
+    public Cart toEntity(CartDTO cartDTO) {
+        if (cartDTO == null) {
+            return null;
+        }
+        ReferenceContext context = new ReferenceContext();
+        expectReferences(List.of(cartDTO), context);
+        return toEntity(cartDTO, context);
+    }
+
     @Mapping(source = "customerId", target = "customer", qualifiedByName = "mapCustomerIdToCustomer")
-    public abstract Cart toEntity(CartDTO cartDTO);
+    public abstract Cart toEntity(CartDTO cartDTO, @Context ReferenceContext context);
+
+    // Declares the customers of the carts and the carts of their items, so they are loaded together
+    void expectReferences(Collection<CartDTO> cartDTOs, ReferenceContext context) {
+        for (CartDTO cartDTO : cartDTOs) {
+            if (cartDTO != null) {
+                context.expect(customers, cartDTO.getCustomerId());
+                if (cartDTO.getCartItems() != null) {
+                    cartItemMapper.expectReferences(cartDTO.getCartItems(), context);
+                }
+            }
+        }
+    }
 
     @Named("mapCustomerIdToCustomer")
-    protected Customer mapCustomerIdToCustomer(Integer customerId) {
-        if (customerId == null) {
-            return null;
-        }
-        // Use repository to get Customer entity by ID
-        return customerRepository.findById(customerId).orElse(null);
+    protected Customer mapCustomerIdToCustomer(Integer customerId, @Context ReferenceContext context) {
+        return context.resolve(customers, customerId);
     }
 
-}
\ No newline at end of file
+}
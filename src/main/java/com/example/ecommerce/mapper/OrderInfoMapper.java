@@ -4,32 +4,62 @@ import com.example.ecommerce.dto.OrderInfoDTO;
 import com.example.ecommerce.entity.Customer;
 import com.example.ecommerce.entity.Order;
 import com.example.ecommerce.repository.CustomerRepository;
+import org.mapstruct.Context;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.Named;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.util.Collection;
+import java.util.List;
+
 @Mapper(componentModel = "spring", uses = {OrderItemMapper.class})
 public abstract class OrderInfoMapper {
 
     @Autowired
     private CustomerRepository customerRepository;
 
+    @Autowired
+    private OrderItemMapper orderItemMapper;
+
+    // Loads the customers referenced by a batch of orders with one query
+    private final ReferenceContext.Source<String, Customer> customersByEmail =
+            emails -> ReferenceContext.byKey(customerRepository.findAllByEmailIn(emails), Customer::getEmail);
+
     // Mapping from Order to OrderInfoDTO
     @Mapping(source = "customer.email", target = "customerEmail")
     @Mapping(source = "orderItems", target = "orderItems")
     public abstract OrderInfoDTO toDTO(Order order);
 
     // Mapping from OrderInfoDTO to Order (if required)
+    @Named("withNewContext")
+    public Order toEntity(OrderInfoDTO orderInfoDTO) {
+        if (orderInfoDTO == null) {
+            return null;
+        }
+        ReferenceContext context = new ReferenceContext();
+        expectReferences(List.of(orderInfoDTO), context);
+        return toEntity(orderInfoDTO, context);
+    }
+
     @Mapping(source = "customerEmail", target = "customer", qualifiedByName = "mapCustomerEmailToCustomer")
-    public abstract Order toEntity(OrderInfoDTO orderInfoDTO);
+    public abstract Order toEntity(OrderInfoDTO orderInfoDTO, @Context ReferenceContext context);
+
+    // Declares the customers of the orders and the orders of their items, so they are loaded together
+    void expectReferences(Collection<OrderInfoDTO> orderInfoDTOs, ReferenceContext context) {
+        for (OrderInfoDTO orderInfoDTO : orderInfoDTOs) {
+            if (orderInfoDTO != null) {
+                context.expect(customersByEmail, orderInfoDTO.getCustomerEmail());
+                if (orderInfoDTO.getOrderItems() != null) {
+                    orderItemMapper.expectReferences(orderInfoDTO.getOrderItems(), context);
+                }
+            }
+        }
+    }
 
     // Mapping customer email to Customer object
     @Named("mapCustomerEmailToCustomer")
-    protected Customer mapCustomerEmailToCustomer(String email) {
-        if (email == null) {
-            return null;
-        }
-        return customerRepository.findByEmail(email).orElse(null);
+    protected Customer mapCustomerEmailToCustomer(String email, @Context ReferenceContext context) {
+        return context.resolve(customersByEmail, email);
     }
 }
@@ -4,32 +4,58 @@ import com.example.ecommerce.dto.OrderItemDTO;
 import com.example.ecommerce.entity.Order;
 import com.example.ecommerce.entity.OrderItem;
 import com.example.ecommerce.repository.OrderRepository;
+import org.mapstruct.Context;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.Named;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.util.Collection;
+import java.util.List;
+
 @Mapper(componentModel = "spring", uses = {ProductMapper.class})
 public abstract class OrderItemMapper {
 
     @Autowired
     private OrderRepository orderRepository;
 
+    // Loads the orders referenced by a batch of items with one query
+    private final ReferenceContext.Source<Integer, Order> orders =
+            ids -> ReferenceContext.byKey(orderRepository.findAllById(ids), Order::getId);
+
     // Mapping OrderItem entity to DTO
     @Mapping(source = "order.id", target = "orderId")
     public abstract OrderItemDTO toDTO(OrderItem orderItem);
 
     // Mapping a DTO to an OrderItem entity
+    @Named("withNewContext")
+    public OrderItem toEntity(OrderItemDTO orderItemDTO) {
+        if (orderItemDTO == null) {
+            return null;
+        }
+        ReferenceContext context = new ReferenceContext();
+        expectReferences(List.of(orderItemDTO), context);
+        return toEntity(orderItemDTO, context);
+    }
+
     @Mapping(source = "orderId", target = "order", qualifiedByName = "mapOrderIdToOrder")
-    public abstract OrderItem toEntity(OrderItemDTO orderItemDTO);
+    public abstract OrderItem toEntity(OrderItemDTO orderItemDTO, @Context ReferenceContext context);
+
+    // Maps the items of an order within the order's context
+    public abstract List<OrderItem> toEntities(List<OrderItemDTO> orderItemDTOs, @Context ReferenceContext context);
+
+    // Declares the orders referenced by the items, so they are loaded together
+    void expectReferences(Collection<OrderItemDTO> orderItemDTOs, ReferenceContext context) {
+        for (OrderItemDTO orderItemDTO : orderItemDTOs) {
+            if (orderItemDTO != null) {
+                context.expect(orders, orderItemDTO.getOrderId());
+            }
+        }
+    }
 
     // Method for mapping orderId to Order object
     @Named("mapOrderIdToOrder")
-    protected Order mapOrderIdToOrder(Integer orderId) {
-        if (orderId == null) {
-            return null;
-        }
-        // Use repository to get Order entity by ID
-        return orderRepository.findById(orderId).orElse(null);
+    protected Order mapOrderIdToOrder(Integer orderId, @Context ReferenceContext context) {
+        return context.resolve(orders, orderId);
     }
-}
\ No newline at end of file
+}
@@ -4,29 +4,58 @@ import com.example.ecommerce.dto.OrderDTO;
 import com.example.ecommerce.entity.Customer;
 import com.example.ecommerce.entity.Order;
 import com.example.ecommerce.repository.CustomerRepository;
+import org.mapstruct.Context;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.Named;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.util.Collection;
+import java.util.List;
+
 @Mapper(componentModel = "spring", uses = {OrderItemMapper.class})
 public abstract class OrderMapper {
 
     @Autowired
     private CustomerRepository customerRepository;
 
+    @Autowired
+    private OrderItemMapper orderItemMapper;
+
+    // Loads the customers referenced by a batch of orders with one query
+    private final ReferenceContext.Source<Integer, Customer> customers =
+            ids -> ReferenceContext.byKey(customerRepository.findAllById(ids), Customer::getId);
+
     @Mapping(source = "customer.id", target = "customerId")
     public abstract OrderDTO toDTO(Order order);
 
+    @Named("withNewContext")
+    public Order toEntity(OrderDTO orderDTO) {
+        if (orderDTO == null) {
+            return null;
+        }
+        ReferenceContext context = new ReferenceContext();
+        expectReferences(List.of(orderDTO), context);
+        return toEntity(orderDTO, context);
+    }
+
     @Mapping(source = "customerId", target = "customer", qualifiedByName = "mapCustomerIdToCustomer")
-    public abstract Order toEntity(OrderDTO orderDTO);
+    public abstract Order toEntity(OrderDTO orderDTO, @Context ReferenceContext context);
 
-    @Named("mapCustomerIdToCustomer")
-    protected Customer mapCustomerIdToCustomer(Integer customerId) {
-        if (customerId == null) {
-            return null;
+    // Declares the customers of the orders and the orders of their items, so they are loaded together
+    void expectReferences(Collection<OrderDTO> orderDTOs, ReferenceContext context) {
+        for (OrderDTO orderDTO : orderDTOs) {
+            if (orderDTO != null) {
+                context.expect(customers, orderDTO.getCustomerId());
+                if (orderDTO.getOrderItems() != null) {
+                    orderItemMapper.expectReferences(orderDTO.getOrderItems(), context);
+                }
+            }
         }
-        // Use repository to get Customer entity by ID
-        return customerRepository.findById(customerId).orElse(null);
     }
-}
\ No newline at end of file
+
+    @Named("mapCustomerIdToCustomer")
+    protected Customer mapCustomerIdToCustomer(Integer customerId, @Context ReferenceContext context) {
+        return context.resolve(customers, customerId);
+    }
+}
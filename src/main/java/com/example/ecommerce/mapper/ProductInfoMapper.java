@@ -1,5 +1,8 @@
 package com.example.ecommerce.mapper;
 
+import com.example.ecommerce.cache.ReferenceDataCache;
+import com.example.ecommerce.dto.BrandDTO;
+import com.example.ecommerce.dto.CategoryDTO;
 import com.example.ecommerce.dto.ProductInfoDTO;
 import com.example.ecommerce.entity.Brand;
 import com.example.ecommerce.entity.Category;
@@ -20,6 +23,9 @@ public abstract class ProductInfoMapper {
     @Autowired
     private BrandRepository brandRepository;
 
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
     // Mapping from Product to ProductInfoDTO
     @Mapping(source = "category.name", target = "categoryName")
     @Mapping(source = "brand.name", target = "brandName")
@@ -36,7 +42,8 @@ public abstract class ProductInfoMapper {
         if (categoryName == null) {
             return null;
         }
-        return categoryRepository.findByName(categoryName).orElse(null);
+        CategoryDTO category = referenceDataCache.getCategoryByName(categoryName);
+        return category != null ? categoryRepository.getReferenceById(category.getId()) : null;
     }
 
     // Mapping a brand name to a Brand entity
@@ -45,6 +52,7 @@ public abstract class ProductInfoMapper {
         if (brandName == null) {
             return null;
         }
-        return brandRepository.findByName(brandName).orElse(null);
+        BrandDTO brand = referenceDataCache.getBrandByName(brandName);
+        return brand != null ? brandRepository.getReferenceById(brand.getId()) : null;
     }
 }
@@ -1,5 +1,6 @@
 package com.example.ecommerce.mapper;
 
+import com.example.ecommerce.cache.ReferenceDataCache;
 import com.example.ecommerce.dto.ProductDTO;
 import com.example.ecommerce.entity.Brand;
 import com.example.ecommerce.entity.Category;
@@ -20,6 +21,9 @@ public abstract class ProductMapper {
     @Autowired
     private BrandRepository brandRepository;
 
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
     // Mapping from Product to ProductDTO
     @Mapping(source = "category.id", target = "categoryId")
     @Mapping(source = "brand.id", target = "brandId")
@@ -33,19 +37,19 @@ public abstract class ProductMapper {
     // Mapping a category identifier to a Category entity
     @Named("mapCategoryIdToCategory")
     protected Category mapCategoryIdToCategory(Integer categoryId) {
-        if (categoryId == null) {
+        if (categoryId == null || referenceDataCache.getCategory(categoryId) == null) {
             return null;
         }
-        // Use repository to get Category entity by ID
-        return categoryRepository.findById(categoryId).orElse(null);
+        // The category is known to exist, so an unloaded reference is enough to set the foreign key
+        return categoryRepository.getReferenceById(categoryId);
     }
 
     // Mapping a brand identifier to the Brand entity
     @Named("mapBrandIdToBrand")
     protected Brand mapBrandIdToBrand(Integer brandId) {
-        if (brandId == null) {
+        if (brandId == null || referenceDataCache.getBrand(brandId) == null) {
             return null;
         }
-        return brandRepository.findById(brandId).orElse(null);
+        return brandRepository.getReferenceById(brandId);
     }
 }
@@ -0,0 +1,104 @@
+package com.example.ecommerce.mapper;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * MapStruct mapping context that resolves the entities referenced by a batch of DTOs. Before mapping, the mapper
+ * declares every key the batch refers to; the first lookup then loads all declared keys of that source with one
+ * query, and every object mapped with the same context shares the loaded entities.
+ * <p>
+ * The mappers' context-free entry points create the context; they are qualified with
+ * {@code @Named("withNewContext")} so generated mappings never select them and always pass the context on.
+ * A context is not thread-safe and lives for one mapping call.
+ */
+public class ReferenceContext {
+
+    /**
+     * Loads the entities of one kind by key, for instance with {@code findAllById}.
+     *
+     * @param <K> The key type.
+     * @param <T> The entity type.
+     */
+    @FunctionalInterface
+    public interface Source<K, T> {
+        Map<K, T> load(Collection<K> keys);
+    }
+
+    private final Map<Source<?, ?>, Batch<?, ?>> batches = new HashMap<>();
+
+    /**
+     * Declares a key that will be resolved from a source, so it is loaded together with the others.
+     *
+     * @param source The source of the referenced entity.
+     * @param key    The key; ignored if null.
+     */
+    public <K, T> void expect(Source<K, T> source, K key) {
+        if (key != null) {
+            batch(source).expect(key);
+        }
+    }
+
+    /**
+     * Returns a referenced entity, loading all keys declared for its source and not loaded yet in one call.
+     *
+     * @param source The source of the referenced entity.
+     * @param key    The key.
+     * @return The entity, or null if the key is null or the source has no entity for it.
+     */
+    public <K, T> T resolve(Source<K, T> source, K key) {
+        if (key == null) {
+            return null;
+        }
+        return batch(source).resolve(key);
+    }
+
+    /**
+     * Keys a list of loaded entities, for sources backed by {@code findAllById} and similar queries.
+     *
+     * @param entities The loaded entities.
+     * @param key      The key of an entity.
+     * @return The entities by key.
+     */
+    public static <K, T> Map<K, T> byKey(Iterable<T> entities, Function<T, K> key) {
+        Map<K, T> result = new HashMap<>();
+        entities.forEach(entity -> result.put(key.apply(entity), entity));
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <K, T> Batch<K, T> batch(Source<K, T> source) {
+        return (Batch<K, T>) batches.computeIfAbsent(source, s -> new Batch<>(source));
+    }
+
+    private static final class Batch<K, T> {
+        private final Source<K, T> source;
+        private final Set<K> pending = new HashSet<>();
+        // Loaded keys, mapped to null when the source had no entity for them
+        private final Map<K, T> loaded = new HashMap<>();
+
+        private Batch(Source<K, T> source) {
+            this.source = source;
+        }
+
+        void expect(K key) {
+            if (!loaded.containsKey(key)) {
+                pending.add(key);
+            }
+        }
+
+        T resolve(K key) {
+            if (!loaded.containsKey(key)) {
+                pending.add(key);
+                Map<K, T> entities = source.load(pending);
+                pending.forEach(pendingKey -> loaded.put(pendingKey, entities.get(pendingKey)));
+                pending.clear();
+            }
+            return loaded.get(key);
+        }
+    }
+}
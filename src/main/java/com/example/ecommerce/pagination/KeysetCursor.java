@@ -0,0 +1,130 @@
+package com.example.ecommerce.pagination;
+
+import com.example.ecommerce.exception.BadRequestException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Encodes keyset scroll positions as opaque cursor tokens and back.
+ * <p>
+ * A token is the URL-safe Base64 form of the sort key values of the last returned row, including its ID,
+ * so the next page is read with a {@code WHERE (key, id) > (...)} seek instead of an OFFSET scan.
+ */
+public final class KeysetCursor {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TypeReference<LinkedHashMap<String, String>> KEYS_TYPE = new TypeReference<>() {
+    };
+    private static final String ID = "id";
+
+    private KeysetCursor() {
+    }
+
+    /**
+     * Appends the ID to a sort unless it already orders by ID, so every position in the listing is unique.
+     *
+     * @param sort The requested sort.
+     * @return The sort with an ascending ID tie-breaker.
+     */
+    public static Sort withIdTieBreaker(Sort sort) {
+        return sort.getOrderFor(ID) != null ? sort : sort.and(Sort.by(ID));
+    }
+
+    /**
+     * Encodes a scroll position as a cursor token.
+     *
+     * @param position The keyset position of the last returned row.
+     * @return The cursor token.
+     */
+    public static String encode(ScrollPosition position) {
+        Map<String, String> keys = new LinkedHashMap<>();
+        ((KeysetScrollPosition) position).getKeys().forEach((property, value) -> keys.put(property, write(value)));
+        try {
+            byte[] json = MAPPER.writeValueAsBytes(keys);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(json);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot encode cursor", e);
+        }
+    }
+
+    /**
+     * Decodes a cursor token into a scroll position for the given sort.
+     *
+     * @param token The cursor token, or null or empty for the first page.
+     * @param sort  The sort of the listing, including the ID tie-breaker.
+     * @return The keyset position to continue from.
+     * @throws BadRequestException if the token is malformed or was issued for a different sort.
+     */
+    public static KeysetScrollPosition decode(String token, Sort sort) {
+        if (token == null || token.isEmpty()) {
+            return ScrollPosition.keyset();
+        }
+        Map<String, String> encoded;
+        try {
+            encoded = MAPPER.readValue(Base64.getUrlDecoder().decode(token), KEYS_TYPE);
+        } catch (IllegalArgumentException | java.io.IOException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+        Set<String> properties = new HashSet<>();
+        sort.forEach(order -> properties.add(order.getProperty()));
+        if (encoded == null || !encoded.keySet().equals(properties)) {
+            throw new BadRequestException("Cursor does not match the requested sort");
+        }
+        Map<String, Object> keys = new LinkedHashMap<>();
+        encoded.forEach((property, value) -> keys.put(property, read(value)));
+        return ScrollPosition.forward(keys);
+    }
+
+    private static String write(Object value) {
+        if (value instanceof Integer) {
+            return "i:" + value;
+        } else if (value instanceof Long) {
+            return "l:" + value;
+        } else if (value instanceof BigDecimal) {
+            return "d:" + ((BigDecimal) value).toPlainString();
+        } else if (value instanceof LocalDateTime) {
+            return "t:" + value;
+        } else if (value instanceof String) {
+            return "s:" + value;
+        }
+        throw new IllegalArgumentException("Unsupported cursor key type: " + value);
+    }
+
+    private static Object read(String value) {
+        if (value == null || value.length() < 2 || value.charAt(1) != ':') {
+            throw new BadRequestException("Invalid cursor");
+        }
+        String text = value.substring(2);
+        try {
+            switch (value.charAt(0)) {
+                case 'i':
+                    return Integer.valueOf(text);
+                case 'l':
+                    return Long.valueOf(text);
+                case 'd':
+                    return new BigDecimal(text);
+                case 't':
+                    return LocalDateTime.parse(text);
+                case 's':
+                    return text;
+                default:
+                    throw new BadRequestException("Invalid cursor");
+            }
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
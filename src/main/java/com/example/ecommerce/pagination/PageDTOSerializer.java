@@ -0,0 +1,75 @@
+package com.example.ecommerce.pagination;
+
+import com.example.ecommerce.dto.PageDTO;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Writes a {@link PageDTO} field by field: the content first, then only the fields that are set. The serializer
+ * of the content type is looked up once per page instead of once per element, and no intermediate objects are
+ * built, unlike Jackson's bean serialization of Spring's {@code PageImpl}, which also writes its
+ * {@code pageable}, {@code sort} and derived flags.
+ */
+public class PageDTOSerializer extends StdSerializer<PageDTO<?>> {
+
+    public PageDTOSerializer() {
+        super(PageDTO.class, false);
+    }
+
+    @Override
+    public void serialize(PageDTO<?> page, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartObject(page);
+        writeContent(page.getContent(), generator, provider);
+        if (page.getPage() != null) {
+            generator.writeNumberField("page", page.getPage());
+        }
+        generator.writeNumberField("size", page.getSize());
+        generator.writeBooleanField("hasNext", page.isHasNext());
+        if (page.getNext() != null) {
+            generator.writeStringField("next", page.getNext());
+        }
+        if (page.getTotal() != null) {
+            generator.writeNumberField("total", page.getTotal());
+        }
+        if (page.getApproximateTotal() != null) {
+            generator.writeNumberField("approximateTotal", page.getApproximateTotal());
+        }
+        if (page.getFacets() != null) {
+            generator.writeFieldName("facets");
+            provider.defaultSerializeValue(page.getFacets(), generator);
+        }
+        generator.writeEndObject();
+    }
+
+    private static void writeContent(List<?> content, JsonGenerator generator, SerializerProvider provider)
+            throws IOException {
+        generator.writeFieldName("content");
+        if (content == null) {
+            generator.writeStartArray(null, 0);
+            generator.writeEndArray();
+            return;
+        }
+        generator.writeStartArray(content, content.size());
+        // Pages hold one type, so the serializer is looked up again only if the element class changes. The
+        // typed lookup returns it contextualized, as maps of sparse rows need for their key serializer
+        Class<?> type = null;
+        JsonSerializer<Object> serializer = null;
+        for (Object element : content) {
+            if (element == null) {
+                provider.defaultSerializeNull(generator);
+                continue;
+            }
+            if (element.getClass() != type) {
+                type = element.getClass();
+                serializer = provider.findTypedValueSerializer(type, true, null);
+            }
+            serializer.serialize(element, generator, provider);
+        }
+        generator.writeEndArray();
+    }
+}
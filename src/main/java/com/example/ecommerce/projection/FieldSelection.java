@@ -0,0 +1,77 @@
+package com.example.ecommerce.projection;
+
+import com.example.ecommerce.exception.BadRequestException;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Parses the {@code fields} parameter of sparse listing requests and builds the rows of the selected fields.
+ * A sparse row is a map from field name to value in the order the fields are declared, so it serializes like
+ * the DTO without the fields that were not requested.
+ */
+public final class FieldSelection {
+
+    private FieldSelection() {
+    }
+
+    /**
+     * Parses a comma-separated list of field names. The first field of the type, the ID, is always selected:
+     * clients need it to link a row to its details.
+     *
+     * @param fields The parameter value, for instance "name,price"; null or blank for all fields.
+     * @param type   The selectable fields.
+     * @return The selected fields, or null if the parameter is absent and the complete DTOs are wanted.
+     * @throws BadRequestException if a name is not a field of the type.
+     */
+    public static <F extends Enum<F> & SelectableField<?>> Set<F> parse(String fields, Class<F> type) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        F[] all = type.getEnumConstants();
+        Set<F> selected = EnumSet.of(all[0]);
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            F field = Arrays.stream(all).filter(candidate -> candidate.getName().equals(trimmed)).findFirst()
+                    .orElseThrow(() -> new BadRequestException("Unknown field '" + trimmed + "', expected any of "
+                            + Arrays.stream(all).map(SelectableField::getName).collect(Collectors.joining(", "))));
+            selected.add(field);
+        }
+        return selected;
+    }
+
+    /**
+     * Builds the sparse row of a complete DTO.
+     *
+     * @param dto    The DTO.
+     * @param fields The selected fields.
+     * @return The values of the selected fields by name.
+     */
+    public static <T, F extends SelectableField<T>> Map<String, Object> toRow(T dto, Set<F> fields) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (F field : fields) {
+            row.put(field.getName(), field.get(dto));
+        }
+        return row;
+    }
+
+    /**
+     * Builds a stable key part for caches, such as "id,name,price".
+     *
+     * @param fields The selected fields, or null for all fields.
+     * @return The names of the fields in declaration order, or null for all fields.
+     */
+    public static String key(Set<? extends SelectableField<?>> fields) {
+        if (fields == null) {
+            return null;
+        }
+        return fields.stream().map(SelectableField::getName).collect(Collectors.joining(","));
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.ecommerce.projection;
+
+import com.example.ecommerce.dto.OrderInfoDTO;
+
+import java.util.function.Function;
+
+/**
+ * The fields of an order listing row, read from {@code Order o} with its customer as {@code cu}. The order items
+ * are not a column: when selected they are read with one query for the whole page.
+ */
+public enum OrderField implements SelectableField<OrderInfoDTO> {
+    ID("id", "o.id", null, OrderInfoDTO::getId),
+    CUSTOMER_EMAIL("customerEmail", "cu.email", "LEFT JOIN o.customer cu", OrderInfoDTO::getCustomerEmail),
+    STATUS("status", "o.status", null, OrderInfoDTO::getStatus),
+    TOTAL_PRICE("totalPrice", "o.totalPrice", null, OrderInfoDTO::getTotalPrice),
+    CREATED_AT("createdAt", "o.createdAt", null, OrderInfoDTO::getCreatedAt),
+    UPDATED_AT("updatedAt", "o.updatedAt", null, OrderInfoDTO::getUpdatedAt),
+    ORDER_ITEMS("orderItems", null, null, OrderInfoDTO::getOrderItems),
+    DELIVERY_FULL_NAME("deliveryFullName", "o.deliveryFullName", null, OrderInfoDTO::getDeliveryFullName),
+    DELIVERY_ADDRESS("deliveryAddress", "o.deliveryAddress", null, OrderInfoDTO::getDeliveryAddress),
+    DELIVERY_PHONE_NUMBER("deliveryPhoneNumber", "o.deliveryPhoneNumber", null, OrderInfoDTO::getDeliveryPhoneNumber);
+
+    private final String name;
+    private final String expression;
+    private final String join;
+    private final Function<OrderInfoDTO, Object> getter;
+
+    OrderField(String name, String expression, String join, Function<OrderInfoDTO, Object> getter) {
+        this.name = name;
+        this.expression = expression;
+        this.join = join;
+        this.getter = getter;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getExpression() {
+        return expression;
+    }
+
+    @Override
+    public String getJoin() {
+        return join;
+    }
+
+    @Override
+    public Object get(OrderInfoDTO order) {
+        return getter.apply(order);
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.ecommerce.projection;
+
+import com.example.ecommerce.dto.ProductInfoDTO;
+
+import java.util.function.Function;
+
+/**
+ * The fields of a product listing row, read from {@code Product p} with its category as {@code c} and its
+ * brand as {@code b}. The joins are only made when a selected field needs them.
+ */
+public enum ProductField implements SelectableField<ProductInfoDTO> {
+    ID("id", "p.id", null, ProductInfoDTO::getId),
+    NAME("name", "p.name", null, ProductInfoDTO::getName),
+    DESCRIPTION("description", "p.description", null, ProductInfoDTO::getDescription),
+    PRICE("price", "p.price", null, ProductInfoDTO::getPrice),
+    QUANTITY("quantity", "p.quantity", null, ProductInfoDTO::getQuantity),
+    CATEGORY_NAME("categoryName", "c.name", "LEFT JOIN p.category c", ProductInfoDTO::getCategoryName),
+    BRAND_NAME("brandName", "b.name", "LEFT JOIN p.brand b", ProductInfoDTO::getBrandName),
+    IMAGE_URL("imageUrl", "p.imageUrl", null, ProductInfoDTO::getImageUrl),
+    POPULARITY("popularity", "p.popularity", null, ProductInfoDTO::getPopularity),
+    IS_ACTIVE("isActive", "p.isActive", null, ProductInfoDTO::getIsActive);
+
+    private final String name;
+    private final String expression;
+    private final String join;
+    private final Function<ProductInfoDTO, Object> getter;
+
+    ProductField(String name, String expression, String join, Function<ProductInfoDTO, Object> getter) {
+        this.name = name;
+        this.expression = expression;
+        this.join = join;
+        this.getter = getter;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getExpression() {
+        return expression;
+    }
+
+    @Override
+    public String getJoin() {
+        return join;
+    }
+
+    @Override
+    public Object get(ProductInfoDTO product) {
+        return getter.apply(product);
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.ecommerce.projection;
+
+/**
+ * A field of a listing row that clients can select with the {@code fields} parameter.
+ *
+ * @param <T> The DTO the field belongs to.
+ */
+public interface SelectableField<T> {
+
+    /**
+     * @return The name of the field in the request parameter and in responses, as in the DTO.
+     */
+    String getName();
+
+    /**
+     * @return The JPQL expression reading the field, or null if it is not a column of the row.
+     */
+    String getExpression();
+
+    /**
+     * @return The join the expression needs, or null if it reads the root entity only.
+     */
+    String getJoin();
+
+    /**
+     * Reads the field from a complete DTO.
+     *
+     * @param dto The DTO.
+     * @return The value of the field.
+     */
+    Object get(T dto);
+}
@@ -1,11 +1,21 @@
 package com.example.ecommerce.repository;
 
 import com.example.ecommerce.entity.Customer;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface  CustomerRepository extends JpaRepository<Customer, Integer> {
 
     Optional<Customer> findByEmail(String email);
+
+    List<Customer> findAllByEmailIn(Collection<String> emails);
+
+    Window<Customer> findAllBy(ScrollPosition position, Sort sort, Limit limit);
 }
@@ -0,0 +1,85 @@
+package com.example.ecommerce.repository;
+
+import jakarta.persistence.TypedQuery;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The optional filters of a listing query. Only the filters that are given become predicates, so the database
+ * plans each combination on its own instead of one plan full of {@code (:x IS NULL OR ...)} branches.
+ */
+final class ListingFilter {
+    private final StringBuilder predicates = new StringBuilder();
+    private final Map<String, Object> parameters = new LinkedHashMap<>();
+
+    /**
+     * Adds a predicate if its value is given.
+     *
+     * @param predicate The JPQL predicate, using the named parameter.
+     * @param parameter The name of the parameter.
+     * @param value     The value of the parameter, or null to leave the predicate out.
+     * @return This filter.
+     */
+    ListingFilter and(String predicate, String parameter, Object value) {
+        if (value != null) {
+            predicates.append(" AND ").append(predicate);
+            parameters.put(parameter, value);
+        }
+        return this;
+    }
+
+    /**
+     * @return The predicates that were given, each preceded by AND; empty if none was.
+     */
+    String predicates() {
+        return predicates.toString();
+    }
+
+    /**
+     * Reads a page and counts all results only if the page does not tell the total.
+     *
+     * @param query      The query built with {@link #predicates()}, sorted.
+     * @param countQuery The query counting all results, built with {@link #predicates()}.
+     * @param pageable   The requested page.
+     * @return The page of results.
+     */
+    <T> Page<T> readPage(TypedQuery<T> query, TypedQuery<Long> countQuery, Pageable pageable) {
+        bind(query);
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+        return PageableExecutionUtils.getPage(query.getResultList(), pageable,
+                () -> bind(countQuery).getSingleResult());
+    }
+
+    /**
+     * Reads a slice, fetching one extra result to know whether a next slice exists instead of counting.
+     *
+     * @param query    The query built with {@link #predicates()}, sorted.
+     * @param pageable The requested page.
+     * @return The slice of results.
+     */
+    <T> Slice<T> readSlice(TypedQuery<T> query, Pageable pageable) {
+        bind(query);
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize() + 1);
+        }
+        List<T> results = query.getResultList();
+        boolean hasNext = pageable.isPaged() && results.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? results.subList(0, pageable.getPageSize()) : results, pageable, hasNext);
+    }
+
+    private <T> TypedQuery<T> bind(TypedQuery<T> query) {
+        parameters.forEach(query::setParameter);
+        return query;
+    }
+}
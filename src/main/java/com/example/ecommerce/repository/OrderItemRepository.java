@@ -1,10 +1,20 @@
 package com.example.ecommerce.repository;
 
+import com.example.ecommerce.dto.OrderItemDTO;
 import com.example.ecommerce.entity.OrderItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface OrderItemRepository extends JpaRepository<OrderItem, Integer> {
     List<OrderItem> findByOrderId(Integer orderId);
+
+    // Reads the items of a page of orders without loading the orders themselves
+    @Query("SELECT new com.example.ecommerce.dto.OrderItemDTO(i.id, i.order.id, i.productId, i.productName, " +
+            "i.productDescription, i.imageUrl, i.productPrice, i.quantity, i.price) " +
+            "FROM OrderItem i WHERE i.order.id IN :orderIds ORDER BY i.id")
+    List<OrderItemDTO> findItemsByOrderIdIn(@Param("orderIds") Collection<Integer> orderIds);
 }
@@ -0,0 +1,34 @@
+package com.example.ecommerce.repository;
+
+import com.example.ecommerce.projection.OrderField;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Order listing queries that read only the fields a client selected. The rows have the order items field, if
+ * selected, set to null; the caller reads the items.
+ */
+public interface OrderListingRepository {
+
+    /**
+     * Retrieves a page of all orders with the selected fields only.
+     *
+     * @param fields   The selected fields.
+     * @param pageable The requested page and sort.
+     * @return A page of rows keyed by field name.
+     */
+    Page<Map<String, Object>> findOrderRows(Set<OrderField> fields, Pageable pageable);
+
+    /**
+     * Retrieves the orders of a customer with the selected fields only, most recent first.
+     *
+     * @param customerId The ID of the customer.
+     * @param fields     The selected fields.
+     * @return The rows keyed by field name.
+     */
+    List<Map<String, Object>> findOrderRowsByCustomerId(Integer customerId, Set<OrderField> fields);
+}
@@ -0,0 +1,37 @@
+package com.example.ecommerce.repository;
+
+import com.example.ecommerce.projection.OrderField;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class OrderListingRepositoryImpl implements OrderListingRepository {
+    private final EntityManager entityManager;
+
+    @Autowired
+    public OrderListingRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public Page<Map<String, Object>> findOrderRows(Set<OrderField> fields, Pageable pageable) {
+        return SparseRows.readPage(entityManager, SparseRows.select(fields, "Order o"),
+                "SELECT COUNT(o) FROM Order o", "o", fields, pageable);
+    }
+
+    @Override
+    public List<Map<String, Object>> findOrderRowsByCustomerId(Integer customerId, Set<OrderField> fields) {
+        List<Tuple> tuples = entityManager
+                .createQuery(SparseRows.select(fields, "Order o") + " WHERE o.customer.id = :customerId ORDER BY o.id DESC",
+                        Tuple.class)
+                .setParameter("customerId", customerId)
+                .getResultList();
+        return SparseRows.read(tuples, fields);
+    }
+}
@@ -1,14 +1,19 @@
 package com.example.ecommerce.repository;
 
 import com.example.ecommerce.entity.Order;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.List;
 
-public interface OrderRepository extends JpaRepository<Order, Integer> {
+public interface OrderRepository extends JpaRepository<Order, Integer>, OrderListingRepository {
     Page<Order> findByCustomerId(Integer customerId, Pageable pageable);
     List<Order> findByCustomerIdOrderByIdDesc(Integer customerId);
+    Window<Order> findAllBy(ScrollPosition position, Sort sort, Limit limit);
 
 }
@@ -0,0 +1,104 @@
+package com.example.ecommerce.repository;
+
+import com.example.ecommerce.dto.ProductInfoDTO;
+import com.example.ecommerce.projection.ProductField;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Product listing queries built at runtime: filters are only part of a query when they are given, and sparse
+ * queries read only the fields a client selected.
+ */
+public interface ProductListingRepository {
+
+    /**
+     * Searches active products by product, brand or category name, optionally within a price range.
+     *
+     * @param query    The text to find, case-insensitively.
+     * @param minPrice The lowest price, inclusive, or null.
+     * @param maxPrice The highest price, inclusive, or null.
+     * @param pageable The requested page and sort.
+     * @return A page of listing rows.
+     */
+    Page<ProductInfoDTO> searchListings(String query, BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable);
+
+    /**
+     * Searches active products by name, brand or category, optionally within a price range, as a slice: one
+     * extra row is read to know whether a next page exists, instead of running a COUNT query.
+     *
+     * @param query    The search query.
+     * @param minPrice The lowest price, inclusive, or null.
+     * @param maxPrice The highest price, inclusive, or null.
+     * @param pageable The requested page and sort.
+     * @return A slice of listing rows.
+     */
+    Slice<ProductInfoDTO> searchListingSlice(String query, BigDecimal minPrice, BigDecimal maxPrice,
+                                             Pageable pageable);
+
+    /**
+     * Retrieves active products, optionally filtered by category, brand and price range.
+     *
+     * @param categoryId The ID of the category, or null for all categories.
+     * @param brandId    The ID of the brand, or null for all brands.
+     * @param minPrice   The lowest price, inclusive, or null.
+     * @param maxPrice   The highest price, inclusive, or null.
+     * @param pageable   The requested page and sort.
+     * @return A page of listing rows.
+     */
+    Page<ProductInfoDTO> findActiveListings(Integer categoryId, Integer brandId, BigDecimal minPrice,
+                                            BigDecimal maxPrice, Pageable pageable);
+
+    /**
+     * Retrieves a slice of active products, optionally filtered by category, brand and price range, without
+     * counting them.
+     *
+     * @param categoryId The ID of the category, or null for all categories.
+     * @param brandId    The ID of the brand, or null for all brands.
+     * @param minPrice   The lowest price, inclusive, or null.
+     * @param maxPrice   The highest price, inclusive, or null.
+     * @param pageable   The requested page and sort.
+     * @return A slice of listing rows.
+     */
+    Slice<ProductInfoDTO> readActiveListings(Integer categoryId, Integer brandId, BigDecimal minPrice,
+                                             BigDecimal maxPrice, Pageable pageable);
+
+    /**
+     * Retrieves a page of all products with the selected fields only.
+     *
+     * @param fields   The selected fields.
+     * @param pageable The requested page and sort.
+     * @return A page of rows keyed by field name.
+     */
+    Page<Map<String, Object>> findListingRows(Set<ProductField> fields, Pageable pageable);
+
+    /**
+     * Retrieves the given products with the selected fields only, in no particular order.
+     *
+     * @param fields The selected fields; they must include the ID.
+     * @param ids    The IDs of the products.
+     * @return The rows of the products that exist, keyed by field name.
+     */
+    List<Map<String, Object>> findListingRowsByIdIn(Set<ProductField> fields, Collection<Integer> ids);
+
+    /**
+     * Retrieves a slice of active products, optionally filtered by category, brand and price range, with the
+     * selected fields only.
+     *
+     * @param fields     The selected fields.
+     * @param categoryId The ID of the category, or null for all categories.
+     * @param brandId    The ID of the brand, or null for all brands.
+     * @param minPrice   The lowest price, inclusive, or null.
+     * @param maxPrice   The highest price, inclusive, or null.
+     * @param pageable   The requested page and sort.
+     * @return A slice of rows keyed by field name.
+     */
+    Slice<Map<String, Object>> readActiveListingRows(Set<ProductField> fields, Integer categoryId, Integer brandId,
+                                                     BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable);
+}
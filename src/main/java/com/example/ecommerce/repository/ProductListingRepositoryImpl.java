@@ -0,0 +1,112 @@
+package com.example.ecommerce.repository;
+
+import com.example.ecommerce.dto.ProductInfoDTO;
+import com.example.ecommerce.projection.ProductField;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class ProductListingRepositoryImpl implements ProductListingRepository {
+    private final EntityManager entityManager;
+
+    @Autowired
+    public ProductListingRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public Page<ProductInfoDTO> searchListings(String query, BigDecimal minPrice, BigDecimal maxPrice,
+                                              Pageable pageable) {
+        ListingFilter filter = priceRange(new ListingFilter(), minPrice, maxPrice);
+        String where = ProductRepository.SEARCH_FROM + filter.predicates();
+        return filter.readPage(
+                sorted(ProductRepository.LISTING_ROW + where, pageable, ProductInfoDTO.class)
+                        .setParameter("query", query),
+                entityManager.createQuery("SELECT COUNT(p) " + where, Long.class).setParameter("query", query),
+                pageable);
+    }
+
+    @Override
+    public Slice<ProductInfoDTO> searchListingSlice(String query, BigDecimal minPrice, BigDecimal maxPrice,
+                                                    Pageable pageable) {
+        ListingFilter filter = priceRange(new ListingFilter(), minPrice, maxPrice);
+        return filter.readSlice(
+                sorted(ProductRepository.LISTING_ROW + ProductRepository.SEARCH_FROM + filter.predicates(), pageable,
+                        ProductInfoDTO.class).setParameter("query", query),
+                pageable);
+    }
+
+    @Override
+    public Page<ProductInfoDTO> findActiveListings(Integer categoryId, Integer brandId, BigDecimal minPrice,
+                                                   BigDecimal maxPrice, Pageable pageable) {
+        ListingFilter filter = priceRange(activeIn(categoryId, brandId), minPrice, maxPrice);
+        String where = "WHERE p.isActive = true" + filter.predicates();
+        return filter.readPage(
+                sorted(ProductRepository.LISTING_ROW + ProductRepository.LISTING_FROM + where, pageable,
+                        ProductInfoDTO.class),
+                entityManager.createQuery("SELECT COUNT(p) FROM Product p " + where, Long.class),
+                pageable);
+    }
+
+    @Override
+    public Slice<ProductInfoDTO> readActiveListings(Integer categoryId, Integer brandId, BigDecimal minPrice,
+                                                    BigDecimal maxPrice, Pageable pageable) {
+        ListingFilter filter = priceRange(activeIn(categoryId, brandId), minPrice, maxPrice);
+        return filter.readSlice(sorted(ProductRepository.LISTING_ROW + ProductRepository.LISTING_FROM
+                + "WHERE p.isActive = true" + filter.predicates(), pageable, ProductInfoDTO.class), pageable);
+    }
+
+    @Override
+    public Page<Map<String, Object>> findListingRows(Set<ProductField> fields, Pageable pageable) {
+        return SparseRows.readPage(entityManager, SparseRows.select(fields, "Product p"),
+                "SELECT COUNT(p) FROM Product p", "p", fields, pageable);
+    }
+
+    @Override
+    public List<Map<String, Object>> findListingRowsByIdIn(Set<ProductField> fields, Collection<Integer> ids) {
+        List<Tuple> tuples = entityManager
+                .createQuery(SparseRows.select(fields, "Product p") + " WHERE p.id IN :ids", Tuple.class)
+                .setParameter("ids", ids)
+                .getResultList();
+        return SparseRows.read(tuples, fields);
+    }
+
+    @Override
+    public Slice<Map<String, Object>> readActiveListingRows(Set<ProductField> fields, Integer categoryId,
+                                                            Integer brandId, BigDecimal minPrice,
+                                                            BigDecimal maxPrice, Pageable pageable) {
+        ListingFilter filter = priceRange(activeIn(categoryId, brandId), minPrice, maxPrice);
+        Slice<Tuple> tuples = filter.readSlice(sorted(SparseRows.select(fields, "Product p")
+                + " WHERE p.isActive = true" + filter.predicates(), pageable, Tuple.class), pageable);
+        return new SliceImpl<>(SparseRows.read(tuples.getContent(), fields), pageable, tuples.hasNext());
+    }
+
+    // The filters compare the foreign keys, so no join is made for them
+    private static ListingFilter activeIn(Integer categoryId, Integer brandId) {
+        return new ListingFilter()
+                .and("p.category.id = :categoryId", "categoryId", categoryId)
+                .and("p.brand.id = :brandId", "brandId", brandId);
+    }
+
+    private static ListingFilter priceRange(ListingFilter filter, BigDecimal minPrice, BigDecimal maxPrice) {
+        return filter
+                .and("p.price >= :minPrice", "minPrice", minPrice)
+                .and("p.price <= :maxPrice", "maxPrice", maxPrice);
+    }
+
+    private <T> TypedQuery<T> sorted(String jpql, Pageable pageable, Class<T> type) {
+        return entityManager.createQuery(QueryUtils.applySorting(jpql, pageable.getSort(), "p"), type);
+    }
+}
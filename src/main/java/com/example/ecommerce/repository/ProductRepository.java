@@ -1,45 +1,78 @@
 package com.example.ecommerce.repository;
 
+import com.example.ecommerce.dto.ProductDTO;
+import com.example.ecommerce.dto.ProductInfoDTO;
 import com.example.ecommerce.entity.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
-public interface ProductRepository extends JpaRepository<Product, Integer> {
-    @Query("SELECT p FROM Product p " +
+public interface ProductRepository extends JpaRepository<Product, Integer>, ProductListingRepository {
+    // Listing rows are read with constructor expressions: one statement joins the brand and category names, and
+    // no managed entities or dirty-checking snapshots are created
+    String LISTING_ROW = "SELECT new com.example.ecommerce.dto.ProductInfoDTO(p.id, p.name, p.description, p.price, " +
+            "p.quantity, c.name, b.name, p.imageUrl, p.popularity, p.isActive) ";
+    String LISTING_FROM = "FROM Product p LEFT JOIN p.category c LEFT JOIN p.brand b ";
+    String SEARCH_FROM = "FROM Product p " +
             "JOIN p.brand b " +
             "JOIN p.category c " +
             "WHERE p.isActive = true " +
             "AND (LOWER(p.name) LIKE LOWER(CONCAT('%', :query, '%')) " +
             "OR LOWER(b.name) LIKE LOWER(CONCAT('%', :query, '%')) " +
-            "OR LOWER(c.name) LIKE LOWER(CONCAT('%', :query, '%'))) ")
+            "OR LOWER(c.name) LIKE LOWER(CONCAT('%', :query, '%'))) ";
+
+    @Query("SELECT p " + SEARCH_FROM)
     List<Product> searchByQuery(@Param("query") String query);
 
+    @Query(value = LISTING_ROW + LISTING_FROM, countQuery = "SELECT COUNT(p) FROM Product p")
+    Page<ProductInfoDTO> findListings(Pageable pageable);
 
-    @Query("SELECT p FROM Product p " +
-            "JOIN p.brand b " +
-            "JOIN p.category c " +
-            "WHERE p.isActive = true " +
-            "AND (LOWER(p.name) LIKE LOWER(CONCAT('%', :query, '%')) " +
-            "OR LOWER(b.name) LIKE LOWER(CONCAT('%', :query, '%')) " +
-            "OR LOWER(c.name) LIKE LOWER(CONCAT('%', :query, '%'))) ")
-    Page<Product> searchByQuery(@Param("query")String query, Pageable pageable);
+    @Query(LISTING_ROW + LISTING_FROM + "WHERE p.id IN :ids")
+    List<ProductInfoDTO> findListingsByIdIn(@Param("ids") Collection<Integer> ids);
+
+    @Query("SELECT new com.example.ecommerce.dto.ProductDTO(p.id, p.name, p.description, p.price, p.quantity, " +
+            "c.id, b.id, p.imageUrl, p.popularity, p.isActive) " +
+            LISTING_FROM + "WHERE p.isActive = true ORDER BY p.popularity DESC")
+    List<ProductDTO> findMostPopular(Pageable pageable);
 
     List<Product> findByBrandIdAndIsActiveTrue(Integer brandId);
-    Page<Product> findByBrandIdAndIsActiveTrue(Integer brandId, Pageable pageable);
     List<Product> findByCategoryIdAndIsActiveTrue(Integer categoryId);
-    Page<Product> findByCategoryIdAndIsActiveTrue(Integer categoryId, Pageable pageable);
-    List<Product> findAllByIsActiveTrueOrderByPopularityDesc(Pageable pageable);
-
-    Page<Product> findByCategoryIdAndBrandIdAndIsActiveTrue(Integer categoryId, Integer brandId, Pageable pageable);
 
+    long countByIsActiveTrue();
 
-    Page<Product> findAllByIsActiveTrue(Pageable pageable);
+    // Keyset pagination: each window seeks past the given position instead of skipping an OFFSET. Scrolling is
+    // only supported for derived queries, so these load entities, fetching brand and category in the same
+    // statement and read-only, without dirty-checking snapshots.
+    @EntityGraph(attributePaths = {"category", "brand"})
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    Window<Product> findAllBy(ScrollPosition position, Sort sort, Limit limit);
+    @EntityGraph(attributePaths = {"category", "brand"})
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    Window<Product> findByIsActiveTrue(ScrollPosition position, Sort sort, Limit limit);
+    @EntityGraph(attributePaths = {"category", "brand"})
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    Window<Product> findByCategoryIdAndIsActiveTrue(Integer categoryId, ScrollPosition position, Sort sort, Limit limit);
+    @EntityGraph(attributePaths = {"category", "brand"})
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    Window<Product> findByBrandIdAndIsActiveTrue(Integer brandId, ScrollPosition position, Sort sort, Limit limit);
+    @EntityGraph(attributePaths = {"category", "brand"})
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    Window<Product> findByCategoryIdAndBrandIdAndIsActiveTrue(Integer categoryId, Integer brandId,
+                                                              ScrollPosition position, Sort sort, Limit limit);
 
     @Modifying
     @Query("UPDATE Product p SET p.brand = null WHERE p.brand.id = :brandId")
@@ -0,0 +1,7 @@
+package com.example.ecommerce.repository;
+
+import com.example.ecommerce.entity.ProductStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ProductStatsRepository extends JpaRepository<ProductStats, Integer> {
+}
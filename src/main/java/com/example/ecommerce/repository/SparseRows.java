@@ -0,0 +1,95 @@
+package com.example.ecommerce.repository;
+
+import com.example.ecommerce.projection.SelectableField;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Builds and runs the JPQL of sparse listing queries: only the columns of the selected fields are read, and a
+ * join is only made when a selected field needs it.
+ */
+final class SparseRows {
+
+    private SparseRows() {
+    }
+
+    /**
+     * Builds the select and from clauses of a sparse query.
+     *
+     * @param fields The selected fields.
+     * @param root   The root entity with its alias, for instance "Product p".
+     * @return The query up to and including its joins.
+     */
+    static String select(Set<? extends SelectableField<?>> fields, String root) {
+        List<String> columns = new ArrayList<>();
+        Set<String> joins = new LinkedHashSet<>();
+        for (SelectableField<?> field : fields) {
+            if (field.getExpression() != null) {
+                columns.add(field.getExpression());
+            }
+            if (field.getJoin() != null) {
+                joins.add(field.getJoin());
+            }
+        }
+        StringBuilder jpql = new StringBuilder("SELECT ").append(String.join(", ", columns)).append(" FROM ").append(root);
+        joins.forEach(join -> jpql.append(' ').append(join));
+        return jpql.toString();
+    }
+
+    /**
+     * Reads a page of sparse rows and counts all rows only if the page does not tell the total.
+     *
+     * @param entityManager The entity manager.
+     * @param jpql          The query from {@link #select(Set, String)}, with its where clause.
+     * @param countJpql     The query counting all rows.
+     * @param alias         The alias of the root entity, for sorting.
+     * @param fields        The selected fields.
+     * @param pageable      The requested page and sort.
+     * @return The page of rows.
+     */
+    static Page<Map<String, Object>> readPage(EntityManager entityManager, String jpql, String countJpql, String alias,
+                                              Set<? extends SelectableField<?>> fields, Pageable pageable) {
+        TypedQuery<Tuple> query = entityManager.createQuery(QueryUtils.applySorting(jpql, pageable.getSort(), alias),
+                Tuple.class);
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+        List<Map<String, Object>> rows = read(query.getResultList(), fields);
+        return PageableExecutionUtils.getPage(rows, pageable,
+                () -> entityManager.createQuery(countJpql, Long.class).getSingleResult());
+    }
+
+    /**
+     * Converts query results to rows keyed by field name, in field order. Fields that are not columns are
+     * present with a null value, for the caller to fill in.
+     *
+     * @param tuples The results, one element per selected column.
+     * @param fields The selected fields.
+     * @return Mutable rows.
+     */
+    static List<Map<String, Object>> read(List<Tuple> tuples, Set<? extends SelectableField<?>> fields) {
+        List<Map<String, Object>> rows = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            int column = 0;
+            for (SelectableField<?> field : fields) {
+                row.put(field.getName(), field.getExpression() != null ? tuple.get(column++) : null);
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.ecommerce.search;
+
+import com.example.ecommerce.cache.CatalogVersion;
+import com.example.ecommerce.entity.Product;
+import com.example.ecommerce.event.CatalogChangeEvent;
+import com.example.ecommerce.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the in-memory product indexes in sync with the database.
+ * The indexes are built once the application is ready and then updated from {@link CatalogChangeEvent}s
+ * after the publishing transaction commits. Every change is also written to the on-disk {@link SegmentStore},
+ * so the next startup loads the documents from the segments instead of reading the products table.
+ * The {@link CatalogVersion} is incremented once a change has been applied, so caches keyed by it never
+ * serve results computed before the change.
+ * <p>
+ * Segments loaded on a warm start may be stale: changes buffered but not written before a crash, or edits made
+ * to the database while the application was down, are not in them. After a warm start the documents are
+ * therefore reconciled with the products table in the background.
+ */
+@Component
+public class CatalogIndexer {
+    private static final Logger log = LoggerFactory.getLogger(CatalogIndexer.class);
+
+    private final ProductRepository productRepository;
+    private final List<ProductIndex> indexes;
+    private final SegmentStore segmentStore;
+    private final CatalogVersion catalogVersion;
+    private final Map<Integer, ProductDocument> documents = new ConcurrentHashMap<>();
+    private volatile boolean warm;
+    private volatile boolean ready;
+
+    @Autowired
+    public CatalogIndexer(ProductRepository productRepository, List<ProductIndex> indexes, SegmentStore segmentStore,
+                          CatalogVersion catalogVersion) {
+        this.productRepository = productRepository;
+        this.indexes = indexes;
+        this.segmentStore = segmentStore;
+        this.catalogVersion = catalogVersion;
+    }
+
+    /**
+     * Indexes every active product once startup (including data loading) has finished.
+     * The documents are read from the index segments when they hold as many products as the database,
+     * and searches are served from the segments while the in-memory indexes are built; otherwise the
+     * products table is read and the segments are rewritten. Documents loaded from the segments are then
+     * checked against the products table by {@link #reconcile()} on a background thread.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void buildIndexes() {
+        long start = System.currentTimeMillis();
+        if (segmentStore.open() && segmentStore.size() == productRepository.countByIsActiveTrue()) {
+            segmentStore.documents().forEach(document -> documents.put(document.getId(), document));
+            warm = true;
+            log.info("Loaded {} active products from index segments in {} ms", documents.size(),
+                    System.currentTimeMillis() - start);
+        } else {
+            for (Product product : productRepository.findAll()) {
+                if (Boolean.TRUE.equals(product.getIsActive())) {
+                    documents.put(product.getId(), ProductDocument.from(product));
+                }
+            }
+            segmentStore.replaceAll(documents.values());
+        }
+        indexes.forEach(index -> index.putAll(documents.values()));
+        ready = true;
+        catalogVersion.increment();
+        log.info("Indexed {} active products in {} ms", documents.size(), System.currentTimeMillis() - start);
+        if (warm) {
+            Thread reconciler = new Thread(this::reconcileQuietly, "index-reconcile");
+            reconciler.setDaemon(true);
+            reconciler.start();
+        }
+    }
+
+    /**
+     * Compares every indexed document with the products table and re-indexes the products that differ, are
+     * missing or are no longer active. The table is read without holding the indexer's lock; the differing
+     * products are then read again under it, so a change applied in the meantime is not overwritten.
+     *
+     * @return The number of products re-indexed.
+     */
+    public int reconcile() {
+        long start = System.currentTimeMillis();
+        Map<Integer, ProductDocument> current = new HashMap<>();
+        for (Product product : productRepository.findAll()) {
+            if (Boolean.TRUE.equals(product.getIsActive())) {
+                current.put(product.getId(), ProductDocument.from(product));
+            }
+        }
+        int reindexed;
+        synchronized (this) {
+            Set<Integer> stale = new HashSet<>();
+            current.forEach((productId, document) -> {
+                if (!document.equals(documents.get(productId))) {
+                    stale.add(productId);
+                }
+            });
+            documents.keySet().stream().filter(productId -> !current.containsKey(productId)).forEach(stale::add);
+            if (!stale.isEmpty()) {
+                reindex(stale);
+                catalogVersion.increment();
+            }
+            reindexed = stale.size();
+        }
+        log.info("Reconciled the index segments with the products table in {} ms, {} products re-indexed",
+                System.currentTimeMillis() - start, reindexed);
+        return reindexed;
+    }
+
+    /**
+     * Re-indexes the products affected by a catalog change.
+     *
+     * @param event The change published by a catalog service.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onCatalogChange(CatalogChangeEvent event) {
+        if (!ready) {
+            catalogVersion.increment(event);
+            return;
+        }
+        Set<Integer> affected = new HashSet<>();
+        switch (event.getType()) {
+            case PRODUCT:
+            case POPULARITY:
+                affected.add(event.getId());
+                break;
+            case BRAND:
+                documents.values().stream()
+                        .filter(document -> event.getId().equals(document.getBrandId()))
+                        .forEach(document -> affected.add(document.getId()));
+                productRepository.findByBrandIdAndIsActiveTrue(event.getId())
+                        .forEach(product -> affected.add(product.getId()));
+                break;
+            case CATEGORY:
+                documents.values().stream()
+                        .filter(document -> event.getId().equals(document.getCategoryId()))
+                        .forEach(document -> affected.add(document.getId()));
+                productRepository.findByCategoryIdAndIsActiveTrue(event.getId())
+                        .forEach(product -> affected.add(product.getId()));
+                break;
+        }
+        reindex(affected);
+        catalogVersion.increment(event);
+    }
+
+    /**
+     * @return true once the initial build has completed and the indexes can serve queries.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * @return true if the documents were loaded from the index segments, which can then serve token searches
+     * before the in-memory indexes are ready.
+     */
+    public boolean isWarm() {
+        return warm;
+    }
+
+    /**
+     * Returns the indexed snapshot of an active product.
+     *
+     * @param productId The ID of the product.
+     * @return The document, or null if the product is not indexed.
+     */
+    public ProductDocument getDocument(Integer productId) {
+        return documents.get(productId);
+    }
+
+    /**
+     * @return A live view of all indexed documents.
+     */
+    public Collection<ProductDocument> getDocuments() {
+        return documents.values();
+    }
+
+    private void reconcileQuietly() {
+        try {
+            reconcile();
+        } catch (RuntimeException e) {
+            log.error("Cannot reconcile the index segments with the products table", e);
+        }
+    }
+
+    private void reindex(Set<Integer> productIds) {
+        Map<Integer, Product> loaded = new HashMap<>();
+        productRepository.findAllById(productIds).forEach(product -> loaded.put(product.getId(), product));
+        for (Integer productId : productIds) {
+            apply(productId, loaded.get(productId));
+        }
+    }
+
+    private void apply(Integer productId, Product product) {
+        if (product == null || !Boolean.TRUE.equals(product.getIsActive())) {
+            if (documents.remove(productId) != null) {
+                indexes.forEach(index -> index.remove(productId));
+                segmentStore.remove(productId);
+            }
+            return;
+        }
+        ProductDocument document = ProductDocument.from(product);
+        documents.put(productId, document);
+        indexes.forEach(index -> index.put(document));
+        segmentStore.put(document);
+    }
+}
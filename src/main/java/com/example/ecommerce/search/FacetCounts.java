@@ -0,0 +1,26 @@
+package com.example.ecommerce.search;
+
+import lombok.Getter;
+
+import java.util.Map;
+
+/**
+ * Product counts per brand ID, per category ID and by stock status, computed by {@link FacetIndex}.
+ */
+@Getter
+public class FacetCounts {
+    private final Map<Integer, Integer> brands;
+    private final Map<Integer, Integer> categories;
+    private final int total;
+    private final int inStock;
+    private final int outOfStock;
+
+    public FacetCounts(Map<Integer, Integer> brands, Map<Integer, Integer> categories, int total, int inStock,
+                       int outOfStock) {
+        this.brands = brands;
+        this.categories = categories;
+        this.total = total;
+        this.inStock = inStock;
+        this.outOfStock = outOfStock;
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.ecommerce.search;
+
+import org.springframework.stereotype.Component;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Bitmap-per-attribute index of active products: one bitmap of product IDs per brand, per category and for the
+ * products in stock. Filters and facet counts are bitmap intersections instead of COUNT queries.
+ */
+@Component
+public class FacetIndex implements ProductIndex {
+
+    private final BitSet active = new BitSet();
+    private final BitSet inStock = new BitSet();
+    private final Map<Integer, BitSet> byBrand = new HashMap<>();
+    private final Map<Integer, BitSet> byCategory = new HashMap<>();
+    private final Map<Integer, ProductDocument> documents = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Override
+    public void put(ProductDocument document) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(document.getId());
+            int id = document.getId();
+            documents.put(id, document);
+            active.set(id);
+            if (document.getQuantity() != null && document.getQuantity() > 0) {
+                inStock.set(id);
+            }
+            if (document.getBrandId() != null) {
+                byBrand.computeIfAbsent(document.getBrandId(), brandId -> new BitSet()).set(id);
+            }
+            if (document.getCategoryId() != null) {
+                byCategory.computeIfAbsent(document.getCategoryId(), categoryId -> new BitSet()).set(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Integer productId) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the active products of a category and brand.
+     *
+     * @param categoryId The category to filter by, or null for any category.
+     * @param brandId    The brand to filter by, or null for any brand.
+     * @return A new bitmap of matching product IDs.
+     */
+    public BitSet filter(Integer categoryId, Integer brandId) {
+        lock.readLock().lock();
+        try {
+            BitSet result = (BitSet) active.clone();
+            restrict(result, byCategory, categoryId);
+            restrict(result, byBrand, brandId);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of active products of a category and brand, without building the filtered bitmap
+     * when only one of them is given.
+     *
+     * @param categoryId The category to filter by, or null for any category.
+     * @param brandId    The brand to filter by, or null for any brand.
+     * @return The number of matching products.
+     */
+    public int total(Integer categoryId, Integer brandId) {
+        lock.readLock().lock();
+        try {
+            if (categoryId == null && brandId == null) {
+                return active.cardinality();
+            }
+            BitSet categoryBits = categoryId != null ? byCategory.get(categoryId) : null;
+            BitSet brandBits = brandId != null ? byBrand.get(brandId) : null;
+            if (categoryId != null && categoryBits == null || brandId != null && brandBits == null) {
+                return 0;
+            }
+            if (brandBits == null) {
+                return categoryBits.cardinality();
+            }
+            if (categoryBits == null) {
+                return brandBits.cardinality();
+            }
+            BitSet intersection = (BitSet) categoryBits.clone();
+            intersection.and(brandBits);
+            return intersection.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Counts the products per brand, per category and by stock status.
+     * <p>
+     * Brand counts ignore the brand filter and category counts ignore the category filter, so each menu shows how
+     * many products the user would get by switching to another entry. Stock counts apply both filters.
+     *
+     * @param matches    The products matching the search query, or null to start from all active products.
+     * @param categoryId The selected category, or null.
+     * @param brandId    The selected brand, or null.
+     * @return The facet counts.
+     */
+    public FacetCounts count(BitSet matches, Integer categoryId, Integer brandId) {
+        lock.readLock().lock();
+        try {
+            BitSet base = (BitSet) active.clone();
+            if (matches != null) {
+                base.and(matches);
+            }
+            BitSet inCategory = (BitSet) base.clone();
+            restrict(inCategory, byCategory, categoryId);
+            BitSet ofBrand = (BitSet) base.clone();
+            restrict(ofBrand, byBrand, brandId);
+            BitSet result = (BitSet) inCategory.clone();
+            result.and(ofBrand);
+
+            Map<Integer, Integer> brandCounts = intersectionCounts(byBrand, inCategory);
+            Map<Integer, Integer> categoryCounts = intersectionCounts(byCategory, ofBrand);
+            int total = result.cardinality();
+            result.and(inStock);
+            int stocked = result.cardinality();
+            return new FacetCounts(brandCounts, categoryCounts, total, stocked, total - stocked);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static void restrict(BitSet bits, Map<Integer, BitSet> attribute, Integer value) {
+        if (value == null) {
+            return;
+        }
+        BitSet values = attribute.get(value);
+        if (values == null) {
+            bits.clear();
+        } else {
+            bits.and(values);
+        }
+    }
+
+    private static Map<Integer, Integer> intersectionCounts(Map<Integer, BitSet> attribute, BitSet filter) {
+        Map<Integer, Integer> counts = new TreeMap<>();
+        attribute.forEach((value, bits) -> {
+            BitSet intersection = (BitSet) bits.clone();
+            intersection.and(filter);
+            int count = intersection.cardinality();
+            if (count > 0) {
+                counts.put(value, count);
+            }
+        });
+        return counts;
+    }
+
+    private void removeDocument(Integer productId) {
+        ProductDocument previous = documents.remove(productId);
+        if (previous == null) {
+            return;
+        }
+        active.clear(productId);
+        inStock.clear(productId);
+        clear(byBrand, previous.getBrandId(), productId);
+        clear(byCategory, previous.getCategoryId(), productId);
+    }
+
+    private static void clear(Map<Integer, BitSet> attribute, Integer value, Integer productId) {
+        if (value == null) {
+            return;
+        }
+        BitSet bits = attribute.get(value);
+        if (bits != null) {
+            bits.clear(productId);
+            if (bits.isEmpty()) {
+                attribute.remove(value);
+            }
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.example.ecommerce.search;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.function.Consumer;
+
+/**
+ * Immutable on-disk index segment, read in place through a memory mapping.
+ * <p>
+ * Layout, big-endian, offsets relative to the start of the file:
+ * <pre>
+ * header      MAGIC, VERSION, docCount, tombstoneCount, termCount,
+ *             docDataOffset, tombstonesOffset, termTableOffset, termDataOffset, postingsOffset
+ * doc table   docCount x (product id, offset in doc data), sorted by id
+ * doc data    stored fields of each document; strings as length + UTF-8, -1 for null
+ * tombstones  tombstoneCount x product id removed since the previous segment, sorted
+ * term table  termCount x (offset in term data, offset in postings, posting count), sorted by term
+ * term data   terms as length + UTF-8
+ * postings    ascending product ids of each term, delta-encoded as varints
+ * </pre>
+ * Absolute reads never move the buffer position, so one mapping serves concurrent readers.
+ */
+final class IndexSegment {
+
+    static final int MAGIC = 0x50534547; // "PSEG"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 10 * Integer.BYTES;
+    static final int NULL_INT = Integer.MIN_VALUE;
+    private static final int TERM_ENTRY_SIZE = 3 * Integer.BYTES;
+    private static final int DOC_ENTRY_SIZE = 2 * Integer.BYTES;
+
+    private final Path file;
+    private final MappedByteBuffer buffer;
+    private final int docCount;
+    private final int tombstoneCount;
+    private final int termCount;
+    private final int docDataOffset;
+    private final int tombstonesOffset;
+    private final int termTableOffset;
+    private final int termDataOffset;
+    private final int postingsOffset;
+    private final BitSet docIds = new BitSet();
+    private final BitSet tombstones = new BitSet();
+
+    private IndexSegment(Path file, MappedByteBuffer buffer) throws IOException {
+        this.file = file;
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not an index segment: " + file);
+        }
+        docCount = buffer.getInt(8);
+        tombstoneCount = buffer.getInt(12);
+        termCount = buffer.getInt(16);
+        docDataOffset = buffer.getInt(20);
+        tombstonesOffset = buffer.getInt(24);
+        termTableOffset = buffer.getInt(28);
+        termDataOffset = buffer.getInt(32);
+        postingsOffset = buffer.getInt(36);
+        for (int i = 0; i < docCount; i++) {
+            docIds.set(docId(i));
+        }
+        for (int i = 0; i < tombstoneCount; i++) {
+            tombstones.set(buffer.getInt(tombstonesOffset + i * Integer.BYTES));
+        }
+    }
+
+    /**
+     * Maps a segment file into memory.
+     *
+     * @param file The segment file.
+     * @return The opened segment.
+     * @throws IOException if the file cannot be read or is not a segment.
+     */
+    static IndexSegment open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new IndexSegment(file, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    /**
+     * @return The IDs of the documents stored in this segment; must not be modified.
+     */
+    BitSet getDocIds() {
+        return docIds;
+    }
+
+    /**
+     * @return The IDs removed by this segment; must not be modified.
+     */
+    BitSet getTombstones() {
+        return tombstones;
+    }
+
+    /**
+     * Reads a stored document.
+     *
+     * @param productId The ID of the product.
+     * @return The document, or null if this segment does not store it.
+     */
+    ProductDocument document(int productId) {
+        int low = 0;
+        int high = docCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int id = docId(mid);
+            if (id < productId) {
+                low = mid + 1;
+            } else if (id > productId) {
+                high = mid - 1;
+            } else {
+                return readDocument(mid);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reads the stored documents whose IDs are in the given set, in ID order.
+     *
+     * @param include  The IDs to read.
+     * @param consumer Receives each document.
+     */
+    void forEachDocument(BitSet include, Consumer<ProductDocument> consumer) {
+        for (int i = 0; i < docCount; i++) {
+            if (include.get(docId(i))) {
+                consumer.accept(readDocument(i));
+            }
+        }
+    }
+
+    /**
+     * Finds the documents having a term that starts with the given prefix.
+     *
+     * @param prefix A lower-case query term.
+     * @return A new bitmap of matching product IDs.
+     */
+    BitSet matchPrefix(String prefix) {
+        BitSet result = new BitSet();
+        int low = 0;
+        int high = termCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (term(mid).compareTo(prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        for (int i = low; i < termCount && term(i).startsWith(prefix); i++) {
+            int entry = termTableOffset + i * TERM_ENTRY_SIZE;
+            int position = postingsOffset + buffer.getInt(entry + Integer.BYTES);
+            int count = buffer.getInt(entry + 2 * Integer.BYTES);
+            int id = 0;
+            for (int n = 0; n < count; n++) {
+                int delta = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = buffer.get(position++);
+                    delta |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                id += delta;
+                result.set(id);
+            }
+        }
+        return result;
+    }
+
+    private int docId(int index) {
+        return buffer.getInt(HEADER_SIZE + index * DOC_ENTRY_SIZE);
+    }
+
+    private String term(int index) {
+        return readString(termDataOffset + buffer.getInt(termTableOffset + index * TERM_ENTRY_SIZE));
+    }
+
+    private ProductDocument readDocument(int index) {
+        int[] position = {docDataOffset + buffer.getInt(HEADER_SIZE + index * DOC_ENTRY_SIZE + Integer.BYTES)};
+        String name = nextString(position);
+        String description = nextString(position);
+        Integer brandId = nextInteger(position);
+        String brandName = nextString(position);
+        Integer categoryId = nextInteger(position);
+        String categoryName = nextString(position);
+        String price = nextString(position);
+        Integer quantity = nextInteger(position);
+        Integer popularity = nextInteger(position);
+        return new ProductDocument(docId(index), name, description, brandId, brandName, categoryId, categoryName,
+                price != null ? new BigDecimal(price) : null, quantity, popularity);
+    }
+
+    private Integer nextInteger(int[] position) {
+        int value = buffer.getInt(position[0]);
+        position[0] += Integer.BYTES;
+        return value == NULL_INT ? null : value;
+    }
+
+    private String nextString(int[] position) {
+        int length = buffer.getInt(position[0]);
+        String value = readString(position[0]);
+        position[0] += Integer.BYTES + Math.max(length, 0);
+        return value;
+    }
+
+    private String readString(int position) {
+        int length = buffer.getInt(position);
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(position + Integer.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,227 @@
+package com.example.ecommerce.search;
+
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Active products ordered by price, held in two parallel primitive arrays: prices in minor units (cents) and
+ * product IDs, sorted by price and then by ID. A price range is a pair of binary searches, and walking the range
+ * yields its products already in price order, so range filters and price sorting need no database sort.
+ * Products without a price sort after all others and never match a range.
+ */
+@Component
+public class PriceIndex implements ProductIndex {
+    private static final long NO_PRICE = Long.MAX_VALUE;
+
+    private long[] prices = new long[0];
+    private int[] ids = new int[0];
+    private int size;
+    private final Map<Integer, Long> priceById = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Converts a price to minor units, rounding half up to whole cents.
+     *
+     * @param price The price.
+     * @return The price in cents.
+     */
+    public static long toMinorUnits(BigDecimal price) {
+        return toMinorUnits(price, RoundingMode.HALF_UP);
+    }
+
+    private static long toMinorUnits(BigDecimal price, RoundingMode roundingMode) {
+        return price.movePointRight(2).setScale(0, roundingMode).longValueExact();
+    }
+
+    @Override
+    public void put(ProductDocument document) {
+        long price = document.getPrice() != null ? toMinorUnits(document.getPrice()) : NO_PRICE;
+        lock.writeLock().lock();
+        try {
+            Long previous = priceById.put(document.getId(), price);
+            if (previous != null) {
+                if (previous == price) {
+                    return;
+                }
+                delete(indexOf(previous, document.getId()));
+            }
+            insert(-indexOf(price, document.getId()) - 1, price, document.getId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void putAll(Collection<ProductDocument> documents) {
+        lock.writeLock().lock();
+        try {
+            documents.forEach(document -> priceById.put(document.getId(),
+                    document.getPrice() != null ? toMinorUnits(document.getPrice()) : NO_PRICE));
+            Integer[] order = priceById.keySet().toArray(new Integer[0]);
+            Arrays.sort(order, (a, b) -> {
+                int byPrice = Long.compare(priceById.get(a), priceById.get(b));
+                return byPrice != 0 ? byPrice : Integer.compare(a, b);
+            });
+            size = order.length;
+            prices = new long[Math.max(16, size)];
+            ids = new int[prices.length];
+            for (int i = 0; i < size; i++) {
+                ids[i] = order[i];
+                prices[i] = priceById.get(order[i]);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Integer productId) {
+        lock.writeLock().lock();
+        try {
+            Long previous = priceById.remove(productId);
+            if (previous != null) {
+                delete(indexOf(previous, productId));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the products priced within a range.
+     *
+     * @param minPrice The lowest price, inclusive, or null for no lower bound.
+     * @param maxPrice The highest price, inclusive, or null for no upper bound.
+     * @return A new bitmap of matching product IDs.
+     */
+    public BitSet range(BigDecimal minPrice, BigDecimal maxPrice) {
+        lock.readLock().lock();
+        try {
+            BitSet result = new BitSet();
+            int to = upperBound(maxPrice);
+            for (int i = lowerBound(minPrice); i < to; i++) {
+                result.set(ids[i]);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Orders products by price, walking only the requested range. Products with the same price are ordered by
+     * ID in both directions, as {@link ProductDocument#comparator} does.
+     *
+     * @param candidates The products to order, such as the active products of a category.
+     * @param minPrice   The lowest price, inclusive, or null for no lower bound.
+     * @param maxPrice   The highest price, inclusive, or null for no upper bound.
+     * @param descending true to order from the most expensive product.
+     * @return The IDs of the candidates within the range, in price order.
+     */
+    public List<Integer> sort(BitSet candidates, BigDecimal minPrice, BigDecimal maxPrice, boolean descending) {
+        lock.readLock().lock();
+        try {
+            List<Integer> result = new ArrayList<>();
+            int from = lowerBound(minPrice);
+            // Without a range, products without a price are included, last in ascending order
+            int to = minPrice == null && maxPrice == null ? size : upperBound(maxPrice);
+            if (!descending) {
+                for (int i = from; i < to; i++) {
+                    if (candidates.get(ids[i])) {
+                        result.add(ids[i]);
+                    }
+                }
+                return result;
+            }
+            int end = to;
+            while (end > from) {
+                int start = end - 1;
+                while (start > from && prices[start - 1] == prices[end - 1]) {
+                    start--;
+                }
+                for (int i = start; i < end; i++) {
+                    if (candidates.get(ids[i])) {
+                        result.add(ids[i]);
+                    }
+                }
+                end = start;
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return The position of the first product priced at or above the bound.
+     */
+    private int lowerBound(BigDecimal minPrice) {
+        if (minPrice == null) {
+            return 0;
+        }
+        return -indexOf(toMinorUnits(minPrice, RoundingMode.CEILING), Integer.MIN_VALUE) - 1;
+    }
+
+    /**
+     * @return The position after the last priced product at or below the bound.
+     */
+    private int upperBound(BigDecimal maxPrice) {
+        long bound = maxPrice == null ? NO_PRICE - 1 : Math.min(toMinorUnits(maxPrice, RoundingMode.FLOOR), NO_PRICE - 1);
+        return -indexOf(bound, Integer.MAX_VALUE) - 1;
+    }
+
+    /**
+     * Binary search by price and then ID.
+     *
+     * @return The position of the entry, or (-(insertion point) - 1) if it is not present.
+     */
+    private int indexOf(long price, int id) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int comparison = prices[mid] != price ? Long.compare(prices[mid], price) : Integer.compare(ids[mid], id);
+            if (comparison < 0) {
+                low = mid + 1;
+            } else if (comparison > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private void insert(int position, long price, int id) {
+        if (size == prices.length) {
+            int capacity = Math.max(16, size + (size >> 1));
+            prices = Arrays.copyOf(prices, capacity);
+            ids = Arrays.copyOf(ids, capacity);
+        }
+        System.arraycopy(prices, position, prices, position + 1, size - position);
+        System.arraycopy(ids, position, ids, position + 1, size - position);
+        prices[position] = price;
+        ids[position] = id;
+        size++;
+    }
+
+    private void delete(int position) {
+        if (position < 0) {
+            return;
+        }
+        System.arraycopy(prices, position + 1, prices, position, size - position - 1);
+        System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+        size--;
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.ecommerce.search;
+
+import com.example.ecommerce.entity.Product;
+import com.example.ecommerce.exception.BadRequestException;
+import lombok.Getter;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.Objects;
+
+/**
+ * Immutable snapshot of the product fields used by the in-memory catalog indexes.
+ */
+@Getter
+public class ProductDocument {
+    private final Integer id;
+    private final String name;
+    private final String description;
+    private final Integer brandId;
+    private final String brandName;
+    private final Integer categoryId;
+    private final String categoryName;
+    private final BigDecimal price;
+    private final Integer quantity;
+    private final Integer popularity;
+
+    public ProductDocument(Integer id, String name, Integer brandId, String brandName, Integer categoryId,
+                           String categoryName, BigDecimal price, Integer quantity, Integer popularity) {
+        this(id, name, null, brandId, brandName, categoryId, categoryName, price, quantity, popularity);
+    }
+
+    public ProductDocument(Integer id, String name, String description, Integer brandId, String brandName,
+                           Integer categoryId, String categoryName, BigDecimal price, Integer quantity,
+                           Integer popularity) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.brandId = brandId;
+        this.brandName = brandName;
+        this.categoryId = categoryId;
+        this.categoryName = categoryName;
+        this.price = price;
+        this.quantity = quantity;
+        this.popularity = popularity;
+    }
+
+    /**
+     * Creates a document from a product entity.
+     *
+     * @param product The product to snapshot.
+     * @return A ProductDocument holding the indexed fields of the product.
+     */
+    public static ProductDocument from(Product product) {
+        return new ProductDocument(
+                product.getId(),
+                product.getName(),
+                product.getDescription(),
+                product.getBrand() != null ? product.getBrand().getId() : null,
+                product.getBrand() != null ? product.getBrand().getName() : null,
+                product.getCategory() != null ? product.getCategory().getId() : null,
+                product.getCategory() != null ? product.getCategory().getName() : null,
+                product.getPrice(),
+                product.getQuantity(),
+                product.getPopularity());
+    }
+
+    /**
+     * Two documents are equal when every indexed field is; prices are compared by value, ignoring their scale.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ProductDocument)) {
+            return false;
+        }
+        ProductDocument other = (ProductDocument) o;
+        return Objects.equals(id, other.id)
+                && Objects.equals(name, other.name)
+                && Objects.equals(description, other.description)
+                && Objects.equals(brandId, other.brandId)
+                && Objects.equals(brandName, other.brandName)
+                && Objects.equals(categoryId, other.categoryId)
+                && Objects.equals(categoryName, other.categoryName)
+                && (price == null ? other.price == null : other.price != null && price.compareTo(other.price) == 0)
+                && Objects.equals(quantity, other.quantity)
+                && Objects.equals(popularity, other.popularity);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, name, brandId, categoryId, quantity, popularity);
+    }
+
+    /**
+     * Builds a comparator equivalent to the given Sort, so matches can be ordered without a database sort.
+     * Ties are always broken by product ID to keep pagination stable.
+     *
+     * @param sort The requested sort.
+     * @return A comparator of documents.
+     * @throws BadRequestException if the sort refers to a field that is not indexed.
+     */
+    public static Comparator<ProductDocument> comparator(Sort sort) {
+        Comparator<ProductDocument> comparator = null;
+        for (Sort.Order order : sort) {
+            Comparator<ProductDocument> next = comparatorFor(order.getProperty());
+            if (order.isDescending()) {
+                next = next.reversed();
+            }
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        Comparator<ProductDocument> byId = Comparator.comparing(ProductDocument::getId);
+        return comparator == null ? byId : comparator.thenComparing(byId);
+    }
+
+    static Comparator<ProductDocument> comparatorFor(String property) {
+        switch (property) {
+            case "id":
+                return Comparator.comparing(ProductDocument::getId);
+            case "name":
+                return Comparator.comparing(ProductDocument::getName, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER));
+            case "price":
+                return Comparator.comparing(ProductDocument::getPrice, Comparator.nullsLast(Comparator.naturalOrder()));
+            case "quantity":
+                return Comparator.comparing(ProductDocument::getQuantity, Comparator.nullsLast(Comparator.naturalOrder()));
+            case "popularity":
+                return Comparator.comparing(ProductDocument::getPopularity, Comparator.nullsLast(Comparator.naturalOrder()));
+            default:
+                throw new BadRequestException("Unsupported sort field: " + property);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.ecommerce.search;
+
+import java.util.Collection;
+
+/**
+ * An in-memory structure over active products that is kept up to date by {@link CatalogIndexer}.
+ */
+public interface ProductIndex {
+
+    /**
+     * Adds the document to the index, replacing any previous version of the same product.
+     *
+     * @param document The product document to index.
+     */
+    void put(ProductDocument document);
+
+    /**
+     * Adds many documents at once. Used for the initial build; indexes may override it with a faster bulk load.
+     *
+     * @param documents The product documents to index.
+     */
+    default void putAll(Collection<ProductDocument> documents) {
+        documents.forEach(this::put);
+    }
+
+    /**
+     * Removes a product from the index. Does nothing if the product is not indexed.
+     *
+     * @param productId The ID of the product to remove.
+     */
+    void remove(Integer productId);
+}
@@ -0,0 +1,114 @@
+package com.example.ecommerce.search;
+
+import org.springframework.stereotype.Component;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Tokenized inverted index over the name, brand name and category name of active products.
+ * Every term maps to a bitmap of product IDs, so a query is resolved by prefix lookups in the
+ * sorted term dictionary and bitmap intersections instead of a LIKE scan over the products table.
+ */
+@Component
+public class ProductSearchIndex implements ProductIndex {
+
+    private final TreeMap<String, BitSet> postings = new TreeMap<>();
+    private final Map<Integer, Set<String>> termsByProduct = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Override
+    public void put(ProductDocument document) {
+        Set<String> terms = terms(document);
+
+        lock.writeLock().lock();
+        try {
+            removeTerms(document.getId());
+            for (String term : terms) {
+                postings.computeIfAbsent(term, t -> new BitSet()).set(document.getId());
+            }
+            termsByProduct.put(document.getId(), terms);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Integer productId) {
+        lock.writeLock().lock();
+        try {
+            removeTerms(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the products matching every term of the query. A query term matches any indexed term
+     * it is a prefix of, so partially typed words such as "iphon" still find "iPhone".
+     *
+     * @param query The search query.
+     * @return A bitmap of matching product IDs; empty if the query contains no terms.
+     */
+    public BitSet match(String query) {
+        List<String> queryTerms = Tokenizer.tokenize(query);
+        BitSet result = null;
+        lock.readLock().lock();
+        try {
+            for (String queryTerm : queryTerms) {
+                BitSet termMatches = new BitSet();
+                for (BitSet bits : postings.subMap(queryTerm, true, queryTerm + Character.MAX_VALUE, false).values()) {
+                    termMatches.or(bits);
+                }
+                if (result == null) {
+                    result = termMatches;
+                } else {
+                    result.and(termMatches);
+                }
+                if (result.isEmpty()) {
+                    break;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result == null ? new BitSet() : result;
+    }
+
+    /**
+     * Returns the distinct terms a document is found by: the words of its name, brand name and category name.
+     *
+     * @param document The document to tokenize.
+     * @return The terms of the document.
+     */
+    static Set<String> terms(ProductDocument document) {
+        Set<String> terms = new LinkedHashSet<>();
+        terms.addAll(Tokenizer.tokenize(document.getName()));
+        terms.addAll(Tokenizer.tokenize(document.getBrandName()));
+        terms.addAll(Tokenizer.tokenize(document.getCategoryName()));
+        return terms;
+    }
+
+    private void removeTerms(Integer productId) {
+        Set<String> terms = termsByProduct.remove(productId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            BitSet bits = postings.get(term);
+            if (bits != null) {
+                bits.clear(productId);
+                if (bits.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.ecommerce.search;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Term statistics of active products for relevance ranking. Search candidates come from the match indexes;
+ * this index only orders them, scoring each one with BM25F over the name, brand name, category name and
+ * description, blended with the product's popularity and stock availability.
+ */
+@Component
+public class RelevanceIndex implements ProductIndex {
+
+    /** Indexed fields: name, brand name, category name and description. */
+    private static final int FIELDS = 4;
+
+    /** Weight of a term occurrence per field: a word in the name counts more than one in the description. */
+    private static final double[] FIELD_WEIGHTS = {3.0, 2.0, 1.5, 1.0};
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    /** Score added to the most popular candidate; the others get a log-scaled share of it. */
+    static final double POPULARITY_WEIGHT = 1.0;
+    /** Factor applied to the score of products that are out of stock. */
+    static final double OUT_OF_STOCK_FACTOR = 0.5;
+
+    private final Map<Integer, Entry> entries = new HashMap<>();
+    private final Map<String, Integer> documentFrequency = new HashMap<>();
+    private final long[] totalLengths = new long[FIELDS];
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Override
+    public void put(ProductDocument document) {
+        Entry entry = Entry.of(document);
+        lock.writeLock().lock();
+        try {
+            removeEntry(document.getId());
+            entries.put(document.getId(), entry);
+            for (String term : entry.terms) {
+                documentFrequency.merge(term, 1, Integer::sum);
+            }
+            for (int field = 0; field < FIELDS; field++) {
+                totalLengths[field] += entry.lengths[field];
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Integer productId) {
+        lock.writeLock().lock();
+        try {
+            removeEntry(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Orders search candidates from most to least relevant.
+     * <p>
+     * A query term matches the terms of a product it is a prefix of, as in {@link ProductSearchIndex}; a partial
+     * match scores in proportion to how much of the word was typed. Ties are broken by product ID.
+     *
+     * @param query      The search query.
+     * @param candidates The products matching the query.
+     * @return The IDs of the indexed candidates, best match first.
+     */
+    public List<Integer> rank(String query, BitSet candidates) {
+        List<String> queryTerms = Tokenizer.tokenize(query);
+        lock.readLock().lock();
+        try {
+            int count = entries.size();
+            double[] averageLengths = new double[FIELDS];
+            for (int field = 0; field < FIELDS; field++) {
+                averageLengths[field] = count == 0 ? 0 : (double) totalLengths[field] / count;
+            }
+
+            List<Entry> ranked = new ArrayList<>(candidates.cardinality());
+            int maxPopularity = 0;
+            for (int id = candidates.nextSetBit(0); id >= 0; id = candidates.nextSetBit(id + 1)) {
+                Entry entry = entries.get(id);
+                if (entry != null) {
+                    ranked.add(entry);
+                    maxPopularity = Math.max(maxPopularity, entry.popularity);
+                }
+            }
+
+            double popularityScale = maxPopularity > 0 ? Math.log1p(maxPopularity) : 1;
+            double[] scores = new double[ranked.size()];
+            Integer[] order = new Integer[ranked.size()];
+            for (int i = 0; i < ranked.size(); i++) {
+                Entry entry = ranked.get(i);
+                double score = 0;
+                for (String queryTerm : queryTerms) {
+                    score += termScore(entry, queryTerm, count, averageLengths);
+                }
+                score += POPULARITY_WEIGHT * Math.log1p(entry.popularity) / popularityScale;
+                if (!entry.inStock) {
+                    score *= OUT_OF_STOCK_FACTOR;
+                }
+                scores[i] = score;
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> {
+                int byScore = Double.compare(scores[b], scores[a]);
+                return byScore != 0 ? byScore : Integer.compare(ranked.get(a).id, ranked.get(b).id);
+            });
+
+            List<Integer> ids = new ArrayList<>(order.length);
+            for (Integer i : order) {
+                ids.add(ranked.get(i).id);
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private double termScore(Entry entry, String queryTerm, int count, double[] averageLengths) {
+        double best = 0;
+        int index = Arrays.binarySearch(entry.terms, queryTerm);
+        for (int i = index >= 0 ? index : -index - 1; i < entry.terms.length && entry.terms[i].startsWith(queryTerm); i++) {
+            String term = entry.terms[i];
+            double frequency = 0;
+            for (int field = 0; field < FIELDS; field++) {
+                int termFrequency = entry.frequencies[i * FIELDS + field];
+                if (termFrequency > 0) {
+                    double norm = averageLengths[field] > 0
+                            ? 1 - B + B * entry.lengths[field] / averageLengths[field]
+                            : 1;
+                    frequency += FIELD_WEIGHTS[field] * termFrequency / norm;
+                }
+            }
+            int df = documentFrequency.getOrDefault(term, 1);
+            double idf = Math.log(1 + (count - df + 0.5) / (df + 0.5));
+            double score = idf * frequency / (K1 + frequency) * queryTerm.length() / term.length();
+            best = Math.max(best, score);
+        }
+        return best;
+    }
+
+    private void removeEntry(Integer productId) {
+        Entry entry = entries.remove(productId);
+        if (entry == null) {
+            return;
+        }
+        for (String term : entry.terms) {
+            documentFrequency.computeIfPresent(term, (t, df) -> df > 1 ? df - 1 : null);
+        }
+        for (int field = 0; field < FIELDS; field++) {
+            totalLengths[field] -= entry.lengths[field];
+        }
+    }
+
+    /**
+     * Term frequencies of one product: sorted distinct terms, with FIELDS frequencies per term.
+     */
+    private static final class Entry {
+        private final int id;
+        private final String[] terms;
+        private final int[] frequencies;
+        private final int[] lengths;
+        private final int popularity;
+        private final boolean inStock;
+
+        private Entry(int id, String[] terms, int[] frequencies, int[] lengths, int popularity, boolean inStock) {
+            this.id = id;
+            this.terms = terms;
+            this.frequencies = frequencies;
+            this.lengths = lengths;
+            this.popularity = popularity;
+            this.inStock = inStock;
+        }
+
+        static Entry of(ProductDocument document) {
+            List<List<String>> fields = List.of(
+                    Tokenizer.tokenize(document.getName()),
+                    Tokenizer.tokenize(document.getBrandName()),
+                    Tokenizer.tokenize(document.getCategoryName()),
+                    Tokenizer.tokenize(document.getDescription()));
+            TreeMap<String, int[]> counts = new TreeMap<>();
+            int[] lengths = new int[FIELDS];
+            for (int field = 0; field < FIELDS; field++) {
+                for (String term : fields.get(field)) {
+                    counts.computeIfAbsent(term, t -> new int[FIELDS])[field]++;
+                }
+                lengths[field] = fields.get(field).size();
+            }
+            String[] terms = counts.keySet().toArray(new String[0]);
+            int[] frequencies = new int[terms.length * FIELDS];
+            int i = 0;
+            for (int[] termCounts : counts.values()) {
+                System.arraycopy(termCounts, 0, frequencies, i * FIELDS, FIELDS);
+                i++;
+            }
+            int popularity = document.getPopularity() != null ? Math.max(document.getPopularity(), 0) : 0;
+            boolean inStock = document.getQuantity() != null && document.getQuantity() > 0;
+            return new Entry(document.getId(), terms, frequencies, lengths, popularity, inStock);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.ecommerce.search;
+
+/**
+ * How a product search query is matched against product, brand and category names.
+ */
+public enum SearchMode {
+    /**
+     * Every query word must be a prefix of an indexed word (inverted index).
+     */
+    TOKEN,
+    /**
+     * The whole query must occur anywhere in one of the names, like the SQL LIKE '%query%' search (trigram index).
+     */
+    SUBSTRING,
+    /**
+     * Every query word must be a prefix of an indexed word or within a small edit distance of one (trigram index).
+     */
+    FUZZY
+}
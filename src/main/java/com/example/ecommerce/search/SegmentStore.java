@@ -0,0 +1,365 @@
+package com.example.ecommerce.search;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persistent product index made of immutable, memory-mapped segments, so a restarted node can search the
+ * catalog and reload its documents without reading the products table.
+ * <p>
+ * Catalog changes are buffered and written as a new segment every few seconds, or once enough of them
+ * accumulate. A document in a newer segment replaces the same product in older ones, and tombstones hide
+ * removed products. When there are more than {@link #MAX_SEGMENTS} segments they are merged into one in the
+ * background. The list of segments is kept in a manifest that is replaced atomically after every write.
+ */
+@Component
+public class SegmentStore {
+    private static final Logger log = LoggerFactory.getLogger(SegmentStore.class);
+
+    static final int MAX_SEGMENTS = 8;
+    private static final int FLUSH_THRESHOLD = 1000;
+    private static final long FLUSH_INTERVAL_SECONDS = 5;
+    private static final String MANIFEST = "segments.manifest";
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".idx";
+
+    private final Path directory;
+    /** Changes not yet written to a segment; a null value marks a removed product. */
+    private final Map<Integer, ProductDocument> pending = new HashMap<>();
+    private final ScheduledExecutorService executor;
+    private volatile Snapshot snapshot = Snapshot.of(Collections.emptyList());
+    private volatile boolean closed;
+    private long generation;
+
+    public SegmentStore(@Value("${search.index.path:search-index}") String directory) {
+        this.directory = Paths.get(directory);
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "index-segments");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::flushQuietly, FLUSH_INTERVAL_SECONDS, FLUSH_INTERVAL_SECONDS,
+                TimeUnit.SECONDS);
+    }
+
+    /**
+     * Opens the segments listed in the manifest.
+     *
+     * @return true if a previously written index was found and mapped.
+     */
+    public synchronized boolean open() {
+        Path manifest = directory.resolve(MANIFEST);
+        if (!Files.exists(manifest)) {
+            return false;
+        }
+        List<IndexSegment> segments = new ArrayList<>();
+        try {
+            for (String name : Files.readAllLines(manifest, StandardCharsets.UTF_8)) {
+                if (!name.isBlank()) {
+                    segments.add(IndexSegment.open(directory.resolve(name.trim())));
+                    generation = Math.max(generation, generationOf(name.trim()));
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Cannot open the index segments in {}, they will be rebuilt", directory, e);
+            return false;
+        }
+        snapshot = Snapshot.of(segments);
+        deleteUnlisted(segments);
+        return true;
+    }
+
+    /**
+     * @return The number of live documents in the written segments.
+     */
+    public int size() {
+        return snapshot.size;
+    }
+
+    /**
+     * @return The segment count, for monitoring and tests.
+     */
+    public int segmentCount() {
+        return snapshot.segments.size();
+    }
+
+    /**
+     * Reads every live document from the written segments.
+     *
+     * @return The documents, newest version of each product.
+     */
+    public List<ProductDocument> documents() {
+        Snapshot current = snapshot;
+        List<ProductDocument> documents = new ArrayList<>(current.size);
+        for (int i = 0; i < current.segments.size(); i++) {
+            current.segments.get(i).forEachDocument(current.live.get(i), documents::add);
+        }
+        return documents;
+    }
+
+    /**
+     * Reads the newest written version of a product.
+     *
+     * @param productId The ID of the product.
+     * @return The document, or null if the product is not in the index.
+     */
+    public ProductDocument getDocument(Integer productId) {
+        Snapshot current = snapshot;
+        for (int i = current.segments.size() - 1; i >= 0; i--) {
+            if (current.live.get(i).get(productId)) {
+                return current.segments.get(i).document(productId);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Finds the products matching every term of the query, with the same prefix semantics as
+     * {@link ProductSearchIndex#match(String)}, directly from the mapped segments.
+     *
+     * @param query The search query.
+     * @return A bitmap of matching product IDs; empty if the query contains no terms.
+     */
+    public BitSet match(String query) {
+        Snapshot current = snapshot;
+        BitSet result = null;
+        for (String term : Tokenizer.tokenize(query)) {
+            BitSet termMatches = new BitSet();
+            for (int i = 0; i < current.segments.size(); i++) {
+                BitSet segmentMatches = current.segments.get(i).matchPrefix(term);
+                segmentMatches.and(current.live.get(i));
+                termMatches.or(segmentMatches);
+            }
+            if (result == null) {
+                result = termMatches;
+            } else {
+                result.and(termMatches);
+            }
+            if (result.isEmpty()) {
+                break;
+            }
+        }
+        return result == null ? new BitSet() : result;
+    }
+
+    /**
+     * Records a new or changed document; it is written with the next segment.
+     *
+     * @param document The document to store.
+     */
+    public void put(ProductDocument document) {
+        buffer(document.getId(), document);
+    }
+
+    /**
+     * Records the removal of a product; it is written with the next segment.
+     *
+     * @param productId The ID of the removed product.
+     */
+    public void remove(Integer productId) {
+        buffer(productId, null);
+    }
+
+    /**
+     * Replaces the whole index with a single segment holding the given documents.
+     *
+     * @param documents Every active product.
+     */
+    public synchronized void replaceAll(Collection<ProductDocument> documents) {
+        synchronized (pending) {
+            pending.clear();
+        }
+        try {
+            Files.createDirectories(directory);
+            IndexSegment segment = writeSegment(documents, Collections.emptyList());
+            swap(List.of(segment));
+        } catch (IOException e) {
+            log.error("Cannot write the index segments to {}", directory, e);
+            try {
+                // Never warm-start from segments older than this rebuild
+                Files.deleteIfExists(directory.resolve(MANIFEST));
+            } catch (IOException ignored) {
+                // The next startup rebuilds the segments from the database anyway
+            }
+        }
+    }
+
+    /**
+     * Writes the buffered changes as a new segment, then merges the segments if there are too many.
+     *
+     * @throws IOException if the segment or the manifest cannot be written; the changes stay buffered.
+     */
+    public synchronized void flush() throws IOException {
+        Map<Integer, ProductDocument> changes;
+        synchronized (pending) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            changes = new HashMap<>(pending);
+            pending.clear();
+        }
+        List<ProductDocument> documents = new ArrayList<>();
+        List<Integer> tombstones = new ArrayList<>();
+        changes.forEach((productId, document) -> {
+            if (document != null) {
+                documents.add(document);
+            } else {
+                tombstones.add(productId);
+            }
+        });
+        try {
+            Files.createDirectories(directory);
+            List<IndexSegment> segments = new ArrayList<>(snapshot.segments);
+            segments.add(writeSegment(documents, tombstones));
+            swap(segments);
+        } catch (IOException e) {
+            synchronized (pending) {
+                changes.forEach(pending::putIfAbsent);
+            }
+            throw e;
+        }
+        if (snapshot.segments.size() > MAX_SEGMENTS) {
+            merge();
+        }
+    }
+
+    /**
+     * Merges all segments into one holding only the live documents, dropping replaced versions and tombstones.
+     *
+     * @throws IOException if the merged segment or the manifest cannot be written.
+     */
+    public synchronized void merge() throws IOException {
+        if (snapshot.segments.size() <= 1) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        IndexSegment merged = writeSegment(documents(), Collections.emptyList());
+        int merging = snapshot.segments.size();
+        swap(List.of(merged));
+        log.debug("Merged {} index segments in {} ms", merging, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Writes the buffered changes before the application stops. Changes recorded afterwards, such as those of
+     * beans flushing their own state on shutdown, are written immediately.
+     */
+    @PreDestroy
+    public void close() {
+        closed = true;
+        executor.shutdown();
+        flushQuietly();
+    }
+
+    private void buffer(Integer productId, ProductDocument document) {
+        boolean full;
+        synchronized (pending) {
+            pending.put(productId, document);
+            full = pending.size() >= FLUSH_THRESHOLD;
+        }
+        if (closed) {
+            flushQuietly();
+        } else if (full && !executor.isShutdown()) {
+            executor.execute(this::flushQuietly);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (IOException | RuntimeException e) {
+            log.error("Cannot write index segment to {}", directory, e);
+        }
+    }
+
+    private IndexSegment writeSegment(Collection<ProductDocument> documents, Collection<Integer> tombstones)
+            throws IOException {
+        Path file = directory.resolve(SEGMENT_PREFIX + (++generation) + SEGMENT_SUFFIX);
+        SegmentWriter.write(file, documents, tombstones);
+        return IndexSegment.open(file);
+    }
+
+    private void swap(List<IndexSegment> segments) throws IOException {
+        List<String> names = new ArrayList<>();
+        segments.forEach(segment -> names.add(segment.getFile().getFileName().toString()));
+        Path temp = directory.resolve(MANIFEST + ".tmp");
+        Files.write(temp, names, StandardCharsets.UTF_8);
+        Files.move(temp, directory.resolve(MANIFEST), StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+        snapshot = Snapshot.of(segments);
+        deleteUnlisted(segments);
+    }
+
+    /**
+     * Deletes segment files that are no longer listed. Readers holding an older snapshot keep their mapping,
+     * which stays valid after the file is unlinked.
+     */
+    private void deleteUnlisted(List<IndexSegment> segments) {
+        List<Path> listed = new ArrayList<>();
+        segments.forEach(segment -> listed.add(segment.getFile()));
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*")) {
+            for (Path file : files) {
+                if (!listed.contains(file)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            log.debug("Cannot delete unused index segments in {}", directory, e);
+        }
+    }
+
+    private static long generationOf(String name) {
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /**
+     * Immutable view of the segments with the live documents of each one: those not replaced or removed
+     * by a newer segment.
+     */
+    private static final class Snapshot {
+        private final List<IndexSegment> segments;
+        private final List<BitSet> live;
+        private final int size;
+
+        private Snapshot(List<IndexSegment> segments, List<BitSet> live, int size) {
+            this.segments = segments;
+            this.live = live;
+            this.size = size;
+        }
+
+        static Snapshot of(List<IndexSegment> segments) {
+            BitSet[] live = new BitSet[segments.size()];
+            BitSet newer = new BitSet();
+            int size = 0;
+            for (int i = segments.size() - 1; i >= 0; i--) {
+                IndexSegment segment = segments.get(i);
+                live[i] = (BitSet) segment.getDocIds().clone();
+                live[i].andNot(newer);
+                size += live[i].cardinality();
+                newer.or(segment.getDocIds());
+                newer.or(segment.getTombstones());
+            }
+            return new Snapshot(List.copyOf(segments), List.of(live), size);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.ecommerce.search;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Writes immutable index segments in the layout read by {@link IndexSegment}.
+ */
+final class SegmentWriter {
+
+    private SegmentWriter() {
+    }
+
+    /**
+     * Writes a segment atomically: the file only appears under its final name once it is complete.
+     *
+     * @param file       The segment file to create.
+     * @param documents  The documents stored in the segment.
+     * @param tombstones The IDs of products removed since the previous segment.
+     * @throws IOException if the segment cannot be written.
+     */
+    static void write(Path file, Collection<ProductDocument> documents, Collection<Integer> tombstones)
+            throws IOException {
+        List<ProductDocument> sorted = new ArrayList<>(documents);
+        sorted.sort(Comparator.comparing(ProductDocument::getId));
+        TreeMap<String, List<Integer>> postings = new TreeMap<>();
+        for (ProductDocument document : sorted) {
+            for (String term : ProductSearchIndex.terms(document)) {
+                postings.computeIfAbsent(term, t -> new ArrayList<>()).add(document.getId());
+            }
+        }
+        int[] removed = tombstones.stream().mapToInt(Integer::intValue).sorted().distinct().toArray();
+
+        ByteArrayOutputStream docTable = new ByteArrayOutputStream();
+        ByteArrayOutputStream docData = new ByteArrayOutputStream();
+        DataOutputStream docTableOut = new DataOutputStream(docTable);
+        DataOutputStream docDataOut = new DataOutputStream(docData);
+        for (ProductDocument document : sorted) {
+            docTableOut.writeInt(document.getId());
+            docTableOut.writeInt(docDataOut.size());
+            writeDocument(docDataOut, document);
+        }
+
+        ByteArrayOutputStream termTable = new ByteArrayOutputStream();
+        ByteArrayOutputStream termData = new ByteArrayOutputStream();
+        ByteArrayOutputStream postingData = new ByteArrayOutputStream();
+        DataOutputStream termTableOut = new DataOutputStream(termTable);
+        DataOutputStream termDataOut = new DataOutputStream(termData);
+        for (Map.Entry<String, List<Integer>> entry : postings.entrySet()) {
+            termTableOut.writeInt(termDataOut.size());
+            termTableOut.writeInt(postingData.size());
+            termTableOut.writeInt(entry.getValue().size());
+            writeString(termDataOut, entry.getKey());
+            int previous = 0;
+            for (int id : entry.getValue()) {
+                writeVarInt(postingData, id - previous);
+                previous = id;
+            }
+        }
+
+        int docDataOffset = IndexSegment.HEADER_SIZE + docTable.size();
+        int tombstonesOffset = docDataOffset + docData.size();
+        int termTableOffset = tombstonesOffset + removed.length * Integer.BYTES;
+        int termDataOffset = termTableOffset + termTable.size();
+        int postingsOffset = termDataOffset + termData.size();
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(IndexSegment.MAGIC);
+            out.writeInt(IndexSegment.VERSION);
+            out.writeInt(sorted.size());
+            out.writeInt(removed.length);
+            out.writeInt(postings.size());
+            out.writeInt(docDataOffset);
+            out.writeInt(tombstonesOffset);
+            out.writeInt(termTableOffset);
+            out.writeInt(termDataOffset);
+            out.writeInt(postingsOffset);
+            docTable.writeTo(out);
+            docData.writeTo(out);
+            for (int id : removed) {
+                out.writeInt(id);
+            }
+            termTable.writeTo(out);
+            termData.writeTo(out);
+            postingData.writeTo(out);
+        }
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static void writeDocument(DataOutputStream out, ProductDocument document) throws IOException {
+        writeString(out, document.getName());
+        writeString(out, document.getDescription());
+        writeInteger(out, document.getBrandId());
+        writeString(out, document.getBrandName());
+        writeInteger(out, document.getCategoryId());
+        writeString(out, document.getCategoryName());
+        writeString(out, document.getPrice() != null ? document.getPrice().toPlainString() : null);
+        writeInteger(out, document.getQuantity());
+        writeInteger(out, document.getPopularity());
+    }
+
+    private static void writeInteger(DataOutputStream out, Integer value) throws IOException {
+        out.writeInt(value != null ? value : IndexSegment.NULL_INT);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeVarInt(OutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+}
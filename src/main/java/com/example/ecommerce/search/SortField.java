@@ -0,0 +1,61 @@
+package com.example.ecommerce.search;
+
+import com.example.ecommerce.exception.BadRequestException;
+import org.springframework.data.domain.Sort;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * The product attributes listings can be sorted by. Each one is served from an in-memory order
+ * ({@link SortIndex} or {@link PriceIndex}), so requests cannot make the database sort by arbitrary columns.
+ */
+public enum SortField {
+    /**
+     * Catalog order.
+     */
+    ID("id"),
+    PRICE("price"),
+    POPULARITY("popularity"),
+    NAME("name"),
+    /**
+     * Most recently added products first. Product IDs are assigned in insertion order, so this is the ID order
+     * reversed; the requested direction is ignored.
+     */
+    NEWEST("id");
+
+    private final String property;
+
+    SortField(String property) {
+        this.property = property;
+    }
+
+    /**
+     * Resolves a sort field request parameter, ignoring case.
+     *
+     * @param value The requested sort field.
+     * @return The sort field.
+     * @throws BadRequestException if the value is not a sortable attribute.
+     */
+    public static SortField fromParameter(String value) {
+        for (SortField field : values()) {
+            if (field.name().equalsIgnoreCase(value)) {
+                return field;
+            }
+        }
+        throw new BadRequestException("Unsupported sort field: " + value + ". Use one of: "
+                + Arrays.stream(values()).map(field -> field.name().toLowerCase(Locale.ROOT))
+                .collect(Collectors.joining(", ")));
+    }
+
+    /**
+     * Builds the sort on the product property behind this field.
+     *
+     * @param direction The requested direction.
+     * @return The sort.
+     */
+    public Sort toSort(Sort.Direction direction) {
+        return this == NEWEST ? Sort.by(Sort.Direction.DESC, property) : Sort.by(direction, property);
+    }
+}
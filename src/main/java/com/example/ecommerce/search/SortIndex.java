@@ -0,0 +1,115 @@
+package com.example.ecommerce.search;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Precomputed sort orders of the active products for the {@link SortField}s: a sorted permutation of product IDs
+ * per attribute, updated incrementally when a product changes. A sorted page of any filter is read by walking
+ * the permutation and keeping the products in the filter bitmap, until the page is full. The ID order is the
+ * bitmap order itself; the price order is kept by {@link PriceIndex}, which also serves ranges.
+ */
+@Component
+public class SortIndex implements ProductIndex {
+
+    private final Map<Integer, ProductDocument> documents = new HashMap<>();
+    private final Map<String, SortedPermutation> permutations = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public SortIndex() {
+        for (String property : List.of("name", "popularity")) {
+            permutations.put(property, new SortedPermutation(ProductDocument.comparatorFor(property), documents));
+        }
+    }
+
+    @Override
+    public void put(ProductDocument document) {
+        lock.writeLock().lock();
+        try {
+            ProductDocument previous = documents.get(document.getId());
+            // Moving a product costs an array copy, so skip the orders its change does not affect
+            List<SortedPermutation> affected = new ArrayList<>();
+            for (SortedPermutation permutation : permutations.values()) {
+                if (previous == null || permutation.changes(previous, document)) {
+                    affected.add(permutation);
+                }
+            }
+            if (previous != null) {
+                // Removal searches by the stored document, so it runs before the document is replaced
+                affected.forEach(permutation -> permutation.remove(previous));
+            }
+            documents.put(document.getId(), document);
+            affected.forEach(permutation -> permutation.insert(document));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void putAll(Collection<ProductDocument> all) {
+        lock.writeLock().lock();
+        try {
+            all.forEach(document -> documents.put(document.getId(), document));
+            permutations.values().forEach(permutation -> permutation.build(documents.values()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Integer productId) {
+        lock.writeLock().lock();
+        try {
+            ProductDocument previous = documents.get(productId);
+            if (previous != null) {
+                permutations.values().forEach(permutation -> permutation.remove(previous));
+                documents.remove(productId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param property A product property.
+     * @return true if pages sorted by the property can be read from this index.
+     */
+    public boolean supports(String property) {
+        return "id".equals(property) || permutations.containsKey(property);
+    }
+
+    /**
+     * Returns the first products of a filter in the order of a property.
+     *
+     * @param candidates The products to order, such as the active products of a category.
+     * @param property   A property this index {@link #supports(String) supports}.
+     * @param descending true for descending order.
+     * @param limit      The number of leading products needed, typically the end of the requested page.
+     * @return Up to limit candidate IDs in order.
+     */
+    public List<Integer> sort(BitSet candidates, String property, boolean descending, int limit) {
+        if ("id".equals(property)) {
+            List<Integer> result = new ArrayList<>();
+            int id = descending ? candidates.previousSetBit(candidates.length()) : candidates.nextSetBit(0);
+            while (id >= 0 && result.size() < limit) {
+                result.add(id);
+                id = descending ? candidates.previousSetBit(id - 1) : candidates.nextSetBit(id + 1);
+            }
+            return result;
+        }
+        lock.readLock().lock();
+        try {
+            return permutations.get(property).sort(candidates, descending, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
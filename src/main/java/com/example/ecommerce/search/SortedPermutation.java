@@ -0,0 +1,124 @@
+package com.example.ecommerce.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Product IDs sorted by one attribute and then by ID, kept in a primitive array and updated in place with
+ * binary search. Not thread-safe; {@link SortIndex} guards it.
+ */
+final class SortedPermutation {
+    private final Comparator<ProductDocument> key;
+    private final Comparator<ProductDocument> order;
+    private final Map<Integer, ProductDocument> documents;
+    private int[] ids = new int[16];
+    private int size;
+
+    /**
+     * @param key       Compares documents by the sorted attribute only.
+     * @param documents The current document of every product in the permutation.
+     */
+    SortedPermutation(Comparator<ProductDocument> key, Map<Integer, ProductDocument> documents) {
+        this.key = key;
+        this.order = key.thenComparing(ProductDocument::getId);
+        this.documents = documents;
+    }
+
+    boolean changes(ProductDocument previous, ProductDocument document) {
+        return key.compare(previous, document) != 0;
+    }
+
+    void build(Collection<ProductDocument> all) {
+        ProductDocument[] sorted = all.toArray(new ProductDocument[0]);
+        Arrays.sort(sorted, order);
+        ids = new int[Math.max(16, sorted.length)];
+        size = sorted.length;
+        for (int i = 0; i < size; i++) {
+            ids[i] = sorted[i].getId();
+        }
+    }
+
+    void insert(ProductDocument document) {
+        int position = -indexOf(document) - 1;
+        if (position < 0) {
+            return;
+        }
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size + (size >> 1));
+        }
+        System.arraycopy(ids, position, ids, position + 1, size - position);
+        ids[position] = document.getId();
+        size++;
+    }
+
+    /**
+     * Removes a product. The document must be the one it was inserted with.
+     */
+    void remove(ProductDocument document) {
+        int position = indexOf(document);
+        if (position < 0) {
+            return;
+        }
+        System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+        size--;
+    }
+
+    /**
+     * Walks the permutation and keeps the candidates, stopping once enough have been found. Products with the
+     * same attribute value are ordered by ID in both directions, as {@link ProductDocument#comparator} does.
+     *
+     * @param candidates The products to order.
+     * @param descending true for descending attribute order.
+     * @param limit      The number of leading products needed.
+     * @return Up to limit candidate IDs in order.
+     */
+    List<Integer> sort(BitSet candidates, boolean descending, int limit) {
+        int wanted = Math.min(limit, candidates.cardinality());
+        List<Integer> result = new ArrayList<>(Math.min(wanted, 1024));
+        if (!descending) {
+            for (int i = 0; i < size && result.size() < wanted; i++) {
+                if (candidates.get(ids[i])) {
+                    result.add(ids[i]);
+                }
+            }
+            return result;
+        }
+        int end = size;
+        while (end > 0 && result.size() < wanted) {
+            ProductDocument last = documents.get(ids[end - 1]);
+            int start = end - 1;
+            while (start > 0 && key.compare(documents.get(ids[start - 1]), last) == 0) {
+                start--;
+            }
+            for (int i = start; i < end && result.size() < wanted; i++) {
+                if (candidates.get(ids[i])) {
+                    result.add(ids[i]);
+                }
+            }
+            end = start;
+        }
+        return result;
+    }
+
+    private int indexOf(ProductDocument document) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int comparison = order.compare(documents.get(ids[mid]), document);
+            if (comparison < 0) {
+                low = mid + 1;
+            } else if (comparison > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+}
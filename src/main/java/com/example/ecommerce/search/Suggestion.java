@@ -0,0 +1,32 @@
+package com.example.ecommerce.search;
+
+import lombok.Getter;
+
+/**
+ * A completion offered by {@link SuggestionIndex}: a product, brand or category name with its ranking score.
+ */
+@Getter
+public class Suggestion {
+
+    public enum Type {
+        PRODUCT,
+        BRAND,
+        CATEGORY
+    }
+
+    private final Type type;
+    private final Integer id;
+    private final String text;
+    private final long score;
+
+    public Suggestion(Type type, Integer id, String text, long score) {
+        this.type = type;
+        this.id = id;
+        this.text = text;
+        this.score = score;
+    }
+
+    boolean sameTarget(Suggestion other) {
+        return type == other.type && id.equals(other.id);
+    }
+}
@@ -0,0 +1,369 @@
+package com.example.ecommerce.search;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Prefix trie of active product names, brands and categories for search-as-you-type.
+ * <p>
+ * Every name is inserted from each of its word starts, so "gal" completes "Samsung Galaxy S24". Each node keeps
+ * the best {@link #MAX_SUGGESTIONS} completions of its subtree, ranked by popularity (brands and categories by the
+ * total popularity of their products), so a lookup is a walk down the prefix and never visits the subtree.
+ * Updates recompute the top lists only along the changed paths. Lookups take no locks: children and top lists are
+ * immutable arrays that are swapped on update.
+ */
+@Component
+public class SuggestionIndex implements ProductIndex {
+    public static final int MAX_SUGGESTIONS = 10;
+    private static final int MAX_KEY_LENGTH = 20;
+    private static final Suggestion[] NONE = new Suggestion[0];
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Comparator<Suggestion> RANKING = Comparator.comparingLong(Suggestion::getScore).reversed()
+            .thenComparing(Suggestion::getText, String.CASE_INSENSITIVE_ORDER);
+
+    private final Node root = new Node();
+    private final Map<Integer, ProductDocument> products = new HashMap<>();
+    private final Map<String, Suggestion> suggestions = new HashMap<>();
+    private final Map<Integer, Group> brands = new HashMap<>();
+    private final Map<Integer, Group> categories = new HashMap<>();
+
+    @Override
+    public synchronized void put(ProductDocument document) {
+        ProductDocument previous = add(document);
+        refreshGroups(previous);
+        refreshGroups(document);
+    }
+
+    /**
+     * Adds the products first and the brand and category suggestions once at the end, instead of
+     * re-ranking a group every time one of its products is added.
+     */
+    @Override
+    public synchronized void putAll(Collection<ProductDocument> documents) {
+        List<ProductDocument> previous = new ArrayList<>();
+        for (ProductDocument document : documents) {
+            ProductDocument replaced = add(document);
+            if (replaced != null) {
+                previous.add(replaced);
+            }
+        }
+        previous.forEach(this::refreshGroups);
+        documents.forEach(this::refreshGroups);
+    }
+
+    @Override
+    public synchronized void remove(Integer productId) {
+        ProductDocument previous = products.remove(productId);
+        if (previous == null) {
+            return;
+        }
+        leaveGroups(previous);
+        delete(key(Suggestion.Type.PRODUCT, productId));
+        refreshGroups(previous);
+    }
+
+    /**
+     * Returns the most popular completions of a prefix.
+     *
+     * @param prefix The text typed so far.
+     * @param limit  The maximum number of suggestions, capped at {@link #MAX_SUGGESTIONS}.
+     * @return Suggestions ordered by descending popularity; empty if the prefix is blank.
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        if (normalized.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        String path = normalized.length() > MAX_KEY_LENGTH ? normalized.substring(0, MAX_KEY_LENGTH) : normalized;
+        Node node = root;
+        for (int i = 0; i < path.length() && node != null; i++) {
+            node = node.child(path.charAt(i));
+        }
+        if (node == null) {
+            return Collections.emptyList();
+        }
+        List<Suggestion> result = new ArrayList<>(Math.min(limit, MAX_SUGGESTIONS));
+        for (Suggestion suggestion : node.top) {
+            if (result.size() == Math.min(limit, MAX_SUGGESTIONS)) {
+                break;
+            }
+            // Keys are truncated, so longer prefixes must be checked against the full text
+            if (path.length() == normalized.length() || normalize(suggestion.getText()).contains(normalized)) {
+                result.add(suggestion);
+            }
+        }
+        return result;
+    }
+
+    private ProductDocument add(ProductDocument document) {
+        ProductDocument previous = products.put(document.getId(), document);
+        if (previous != null) {
+            leaveGroups(previous);
+        }
+        long popularity = popularity(document);
+        if (document.getBrandId() != null) {
+            Group brand = brands.computeIfAbsent(document.getBrandId(), id -> new Group());
+            brand.join(document.getBrandName(), popularity);
+        }
+        if (document.getCategoryId() != null) {
+            Group category = categories.computeIfAbsent(document.getCategoryId(), id -> new Group());
+            category.join(document.getCategoryName(), popularity);
+        }
+        upsert(new Suggestion(Suggestion.Type.PRODUCT, document.getId(), document.getName(), popularity));
+        return previous;
+    }
+
+    private void leaveGroups(ProductDocument document) {
+        long popularity = popularity(document);
+        if (document.getBrandId() != null) {
+            brands.get(document.getBrandId()).leave(popularity);
+        }
+        if (document.getCategoryId() != null) {
+            categories.get(document.getCategoryId()).leave(popularity);
+        }
+    }
+
+    private void refreshGroups(ProductDocument document) {
+        if (document == null) {
+            return;
+        }
+        refreshGroup(Suggestion.Type.BRAND, document.getBrandId(), brands);
+        refreshGroup(Suggestion.Type.CATEGORY, document.getCategoryId(), categories);
+    }
+
+    private void refreshGroup(Suggestion.Type type, Integer id, Map<Integer, Group> groups) {
+        if (id == null) {
+            return;
+        }
+        Group group = groups.get(id);
+        if (group == null || group.products == 0 || group.name == null) {
+            groups.remove(id);
+            delete(key(type, id));
+        } else {
+            upsert(new Suggestion(type, id, group.name, group.popularity));
+        }
+    }
+
+    private void upsert(Suggestion suggestion) {
+        String key = key(suggestion.getType(), suggestion.getId());
+        Suggestion previous = suggestions.get(key);
+        if (previous != null && previous.getScore() == suggestion.getScore()
+                && previous.getText().equals(suggestion.getText())) {
+            return;
+        }
+        if (previous != null) {
+            detach(previous);
+        }
+        suggestions.put(key, suggestion);
+        attach(suggestion);
+    }
+
+    private void delete(String key) {
+        Suggestion previous = suggestions.remove(key);
+        if (previous != null) {
+            detach(previous);
+        }
+    }
+
+    private void attach(Suggestion suggestion) {
+        for (String key : keysOf(suggestion.getText())) {
+            List<Node> path = new ArrayList<>(key.length() + 1);
+            Node node = root;
+            path.add(node);
+            for (int i = 0; i < key.length(); i++) {
+                node = node.childOrCreate(key.charAt(i));
+                path.add(node);
+            }
+            node.terminals.add(suggestion);
+            // If the suggestion does not make it into a node's top list, it cannot make it into any ancestor's
+            for (int depth = path.size() - 1; depth >= 0; depth--) {
+                Node current = path.get(depth);
+                Suggestion[] top = offer(current.top, suggestion);
+                if (top == current.top) {
+                    break;
+                }
+                current.top = top;
+            }
+        }
+    }
+
+    private void detach(Suggestion suggestion) {
+        for (String key : keysOf(suggestion.getText())) {
+            List<Node> path = new ArrayList<>(key.length() + 1);
+            Node node = root;
+            path.add(node);
+            for (int i = 0; i < key.length() && node != null; i++) {
+                node = node.child(key.charAt(i));
+                path.add(node);
+            }
+            if (node == null) {
+                continue;
+            }
+            node.terminals.remove(suggestion);
+            // Only nodes listing the suggestion in their top list need a recompute; pruned nodes list nothing
+            for (int depth = path.size() - 1; depth >= 0; depth--) {
+                Node current = path.get(depth);
+                if (depth > 0 && current.terminals.isEmpty() && current.children.labels.length == 0) {
+                    path.get(depth - 1).removeChild(key.charAt(depth - 1));
+                } else if (Arrays.asList(current.top).contains(suggestion)) {
+                    recompute(current);
+                } else {
+                    break;
+                }
+            }
+        }
+    }
+
+    private static Suggestion[] offer(Suggestion[] top, Suggestion suggestion) {
+        for (Suggestion existing : top) {
+            if (existing.sameTarget(suggestion)) {
+                return top;
+            }
+        }
+        if (top.length == MAX_SUGGESTIONS && RANKING.compare(suggestion, top[top.length - 1]) >= 0) {
+            return top;
+        }
+        int insertAt = 0;
+        while (insertAt < top.length && RANKING.compare(top[insertAt], suggestion) <= 0) {
+            insertAt++;
+        }
+        Suggestion[] result = new Suggestion[Math.min(top.length + 1, MAX_SUGGESTIONS)];
+        System.arraycopy(top, 0, result, 0, insertAt);
+        result[insertAt] = suggestion;
+        System.arraycopy(top, insertAt, result, insertAt + 1, result.length - insertAt - 1);
+        return result;
+    }
+
+    private static void recompute(Node node) {
+        List<Suggestion> candidates = new ArrayList<>(node.terminals);
+        for (Node child : node.children.nodes) {
+            candidates.addAll(Arrays.asList(child.top));
+        }
+        candidates.sort(RANKING);
+        List<Suggestion> top = new ArrayList<>(MAX_SUGGESTIONS);
+        for (Suggestion candidate : candidates) {
+            if (top.size() == MAX_SUGGESTIONS) {
+                break;
+            }
+            if (top.stream().noneMatch(candidate::sameTarget)) {
+                top.add(candidate);
+            }
+        }
+        node.top = top.toArray(NONE);
+    }
+
+    private static Set<String> keysOf(String text) {
+        String normalized = normalize(text);
+        Set<String> keys = new LinkedHashSet<>();
+        for (int i = 0; i < normalized.length(); i++) {
+            boolean wordStart = i == 0 || !Character.isLetterOrDigit(normalized.charAt(i - 1));
+            if (wordStart && Character.isLetterOrDigit(normalized.charAt(i))) {
+                String key = normalized.substring(i);
+                keys.add(key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key);
+            }
+        }
+        return keys;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : WHITESPACE.matcher(text.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    private static long popularity(ProductDocument document) {
+        return document.getPopularity() == null ? 0 : document.getPopularity();
+    }
+
+    private static String key(Suggestion.Type type, Integer id) {
+        return type.name() + ':' + id;
+    }
+
+    /**
+     * Aggregated popularity of the active products of a brand or category.
+     */
+    private static final class Group {
+        private String name;
+        private int products;
+        private long popularity;
+
+        void join(String name, long popularity) {
+            this.name = name;
+            this.products++;
+            this.popularity += popularity;
+        }
+
+        void leave(long popularity) {
+            this.products--;
+            this.popularity -= popularity;
+        }
+    }
+
+    private static final class Node {
+        private final List<Suggestion> terminals = new ArrayList<>(1);
+        private volatile Children children = Children.EMPTY;
+        private volatile Suggestion[] top = NONE;
+
+        Node child(char label) {
+            Children current = children;
+            int index = Arrays.binarySearch(current.labels, label);
+            return index >= 0 ? current.nodes[index] : null;
+        }
+
+        Node childOrCreate(char label) {
+            Node existing = child(label);
+            if (existing != null) {
+                return existing;
+            }
+            Children current = children;
+            int insertAt = -Arrays.binarySearch(current.labels, label) - 1;
+            char[] labels = new char[current.labels.length + 1];
+            Node[] nodes = new Node[current.nodes.length + 1];
+            System.arraycopy(current.labels, 0, labels, 0, insertAt);
+            System.arraycopy(current.nodes, 0, nodes, 0, insertAt);
+            labels[insertAt] = label;
+            nodes[insertAt] = new Node();
+            System.arraycopy(current.labels, insertAt, labels, insertAt + 1, current.labels.length - insertAt);
+            System.arraycopy(current.nodes, insertAt, nodes, insertAt + 1, current.nodes.length - insertAt);
+            children = new Children(labels, nodes);
+            return nodes[insertAt];
+        }
+
+        void removeChild(char label) {
+            Children current = children;
+            int index = Arrays.binarySearch(current.labels, label);
+            if (index < 0) {
+                return;
+            }
+            char[] labels = new char[current.labels.length - 1];
+            Node[] nodes = new Node[current.nodes.length - 1];
+            System.arraycopy(current.labels, 0, labels, 0, index);
+            System.arraycopy(current.nodes, 0, nodes, 0, index);
+            System.arraycopy(current.labels, index + 1, labels, index, labels.length - index);
+            System.arraycopy(current.nodes, index + 1, nodes, index, nodes.length - index);
+            children = new Children(labels, nodes);
+        }
+    }
+
+    private static final class Children {
+        static final Children EMPTY = new Children(new char[0], new Node[0]);
+
+        private final char[] labels;
+        private final Node[] nodes;
+
+        Children(char[] labels, Node[] nodes) {
+            this.labels = labels;
+            this.nodes = nodes;
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.example.ecommerce.search;
+
+import com.example.ecommerce.event.ProductActivityEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+
+/**
+ * Trending products: a score per product that grows with views and ordered units and halves every half-life,
+ * with a leaderboard of the K highest scores overall, per category and per brand.
+ * <p>
+ * Scores use forward decay: an event adds {@code weight * 2^((t - landmark) / halfLife)} instead of decaying
+ * every score as time passes. All scores are scaled by the same factor, so their order never changes with time
+ * and an event only repositions one product in at most three leaderboards of K entries, in O(log K). The current
+ * score is the stored one scaled back to now. When the factor grows too large the landmark moves forward and the
+ * stored scores are rescaled.
+ * <p>
+ * The catalog documents keep the category and brand of each product current; inactive products leave the
+ * leaderboards, and the next highest product of their category and brand takes their place.
+ */
+@Component
+public class TrendingIndex implements ProductIndex {
+    static final double VIEW_WEIGHT = 0.1;
+    static final double ORDER_WEIGHT = 1.0;
+    /** Half-lives after which the landmark moves forward, keeping stored scores well within double range. */
+    private static final int RESCALE_HALF_LIVES = 64;
+    /** Scores below this fraction of an event weight are dropped when rescaling. */
+    private static final double MIN_SCORE = 1e-6;
+
+    private final long halfLifeMillis;
+    private final int topK;
+    private final Clock clock;
+    private final Map<Integer, Double> scores = new HashMap<>();
+    private final Map<Integer, ProductDocument> documents = new HashMap<>();
+    private final Comparator<Integer> byScore =
+            Comparator.<Integer>comparingDouble(scores::get).thenComparing(Comparator.naturalOrder());
+    private final Leaderboard overall = new Leaderboard();
+    private final Map<Integer, Leaderboard> byCategory = new HashMap<>();
+    private final Map<Integer, Leaderboard> byBrand = new HashMap<>();
+    private long landmark;
+
+    @Autowired
+    public TrendingIndex(@Value("${trending.half-life-hours:24}") long halfLifeHours,
+                         @Value("${trending.top-k:20}") int topK) {
+        this(Duration.ofHours(halfLifeHours), topK, Clock.systemUTC());
+    }
+
+    public TrendingIndex(Duration halfLife, int topK, Clock clock) {
+        this.halfLifeMillis = halfLife.toMillis();
+        this.topK = topK;
+        this.clock = clock;
+        this.landmark = clock.millis();
+    }
+
+    /**
+     * Adds the weight of a view or of the ordered units to the product's score.
+     *
+     * @param event The activity, delivered after the publishing transaction commits.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductActivity(ProductActivityEvent event) {
+        double weight = event.getType() == ProductActivityEvent.Type.ORDER
+                ? ORDER_WEIGHT * event.getQuantity()
+                : VIEW_WEIGHT;
+        record(event.getProductId(), weight);
+    }
+
+    /**
+     * Adds weight to the score of an active product, as of now.
+     *
+     * @param productId The ID of the product.
+     * @param weight    The weight of the activity.
+     */
+    public synchronized void record(Integer productId, double weight) {
+        ProductDocument document = documents.get(productId);
+        if (document == null) {
+            return;
+        }
+        long now = clock.millis();
+        if (now - landmark > RESCALE_HALF_LIVES * halfLifeMillis) {
+            rescale(now);
+        }
+        List<Leaderboard> leaderboards = leaderboardsOf(document);
+        if (scores.containsKey(productId)) {
+            // The trees are ordered by score, so the product leaves them before its score changes
+            leaderboards.forEach(leaderboard -> leaderboard.remove(productId));
+        }
+        scores.merge(productId, weight * growth(now), Double::sum);
+        leaderboards.forEach(leaderboard -> leaderboard.offer(productId));
+    }
+
+    /**
+     * Returns the highest scoring products of a category, of a brand, or of the whole catalog.
+     *
+     * @param categoryId The category, or null.
+     * @param brandId    The brand, or null; ignored when a category is given.
+     * @param limit      The maximum number of products; at most the configured K are kept.
+     * @return The products with their current scores, highest first.
+     */
+    public synchronized List<TrendingProduct> top(Integer categoryId, Integer brandId, int limit) {
+        Leaderboard leaderboard = categoryId != null ? byCategory.get(categoryId)
+                : brandId != null ? byBrand.get(brandId)
+                : overall;
+        List<TrendingProduct> result = new ArrayList<>();
+        if (leaderboard == null) {
+            return result;
+        }
+        double decay = 1 / growth(clock.millis());
+        Iterator<Integer> ids = leaderboard.ids.descendingIterator();
+        while (ids.hasNext() && result.size() < limit) {
+            Integer id = ids.next();
+            result.add(new TrendingProduct(documents.get(id), scores.get(id) * decay));
+        }
+        return result;
+    }
+
+    /**
+     * @return The number of products kept per leaderboard.
+     */
+    public int getTopK() {
+        return topK;
+    }
+
+    @Override
+    public synchronized void put(ProductDocument document) {
+        ProductDocument previous = documents.put(document.getId(), document);
+        if (!scores.containsKey(document.getId())) {
+            return;
+        }
+        if (previous != null && Objects.equals(previous.getCategoryId(), document.getCategoryId())
+                && Objects.equals(previous.getBrandId(), document.getBrandId())) {
+            return;
+        }
+        if (previous != null) {
+            leave(previous);
+        }
+        leaderboardsOf(document).forEach(leaderboard -> leaderboard.offer(document.getId()));
+    }
+
+    @Override
+    public synchronized void putAll(Collection<ProductDocument> all) {
+        all.forEach(document -> documents.put(document.getId(), document));
+        rebuild();
+    }
+
+    @Override
+    public synchronized void remove(Integer productId) {
+        ProductDocument previous = documents.remove(productId);
+        if (previous != null && scores.containsKey(productId)) {
+            leave(previous);
+        }
+    }
+
+    /**
+     * Takes a product out of its leaderboards and refills them from the other products with a score.
+     */
+    private void leave(ProductDocument document) {
+        for (Leaderboard leaderboard : leaderboardsOf(document)) {
+            if (leaderboard.remove(document.getId()) && leaderboard.ids.size() == topK - 1) {
+                refill(leaderboard, document);
+            }
+        }
+    }
+
+    private void refill(Leaderboard leaderboard, ProductDocument left) {
+        for (Integer id : scores.keySet()) {
+            ProductDocument candidate = documents.get(id);
+            if (candidate != null && !id.equals(left.getId()) && leaderboardsOf(candidate).contains(leaderboard)) {
+                leaderboard.offer(id);
+            }
+        }
+    }
+
+    private List<Leaderboard> leaderboardsOf(ProductDocument document) {
+        List<Leaderboard> leaderboards = new ArrayList<>(3);
+        leaderboards.add(overall);
+        if (document.getCategoryId() != null) {
+            leaderboards.add(byCategory.computeIfAbsent(document.getCategoryId(), id -> new Leaderboard()));
+        }
+        if (document.getBrandId() != null) {
+            leaderboards.add(byBrand.computeIfAbsent(document.getBrandId(), id -> new Leaderboard()));
+        }
+        return leaderboards;
+    }
+
+    /**
+     * @return The factor by which an event at the given time outweighs one at the landmark.
+     */
+    private double growth(long now) {
+        return Math.pow(2, (double) (now - landmark) / halfLifeMillis);
+    }
+
+    /**
+     * Moves the landmark forward by whole half-lives, halving the stored scores once per half-life.
+     */
+    private void rescale(long now) {
+        long halfLives = (now - landmark) / halfLifeMillis;
+        landmark += halfLives * halfLifeMillis;
+        scores.replaceAll((id, score) -> Math.scalb(score, (int) -halfLives));
+        scores.values().removeIf(score -> score < MIN_SCORE);
+        rebuild();
+    }
+
+    private void rebuild() {
+        overall.ids.clear();
+        byCategory.clear();
+        byBrand.clear();
+        scores.keySet().forEach(id -> {
+            ProductDocument document = documents.get(id);
+            if (document != null) {
+                leaderboardsOf(document).forEach(leaderboard -> leaderboard.offer(id));
+            }
+        });
+    }
+
+    /**
+     * The K highest scoring products of one category, one brand or the whole catalog. Scores only change while
+     * their product is out of the tree.
+     */
+    private final class Leaderboard {
+        private final TreeSet<Integer> ids = new TreeSet<>(byScore);
+
+        void offer(Integer productId) {
+            ids.add(productId);
+            if (ids.size() > topK) {
+                ids.pollFirst();
+            }
+        }
+
+        boolean remove(Integer productId) {
+            return ids.remove(productId);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.ecommerce.search;
+
+import lombok.Getter;
+
+/**
+ * A product ranked by {@link TrendingIndex}, with its decayed score at the time of the query.
+ */
+@Getter
+public class TrendingProduct {
+    private final ProductDocument document;
+    private final double score;
+
+    public TrendingProduct(ProductDocument document, double score) {
+        this.document = document;
+        this.score = score;
+    }
+}
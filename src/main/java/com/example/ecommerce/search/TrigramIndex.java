@@ -0,0 +1,293 @@
+package com.example.ecommerce.search;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Character-trigram index over the product, brand and category names of active products.
+ * <p>
+ * Substring queries intersect the product bitmaps of every trigram of the query and verify the few remaining
+ * candidates. Fuzzy queries look up the vocabulary of indexed words through a second trigram index and accept words
+ * that start with the query word or are within a bounded Levenshtein distance of it.
+ */
+@Component
+public class TrigramIndex implements ProductIndex {
+    private static final char PAD = '\u0001';
+
+    private final Map<Integer, String[]> fieldsByProduct = new HashMap<>();
+    private final Map<String, BitSet> productsByGram = new HashMap<>();
+    private final TreeMap<String, BitSet> productsByWord = new TreeMap<>();
+    private final Map<String, Set<String>> wordsByGram = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Override
+    public void put(ProductDocument document) {
+        String[] fields = {normalize(document.getName()), normalize(document.getBrandName()),
+                normalize(document.getCategoryName())};
+        lock.writeLock().lock();
+        try {
+            removeProduct(document.getId());
+            fieldsByProduct.put(document.getId(), fields);
+            for (String gram : gramsOf(fields)) {
+                productsByGram.computeIfAbsent(gram, g -> new BitSet()).set(document.getId());
+            }
+            for (String word : wordsOf(fields)) {
+                BitSet products = productsByWord.get(word);
+                if (products == null) {
+                    products = new BitSet();
+                    productsByWord.put(word, products);
+                    for (String gram : paddedGrams(word)) {
+                        wordsByGram.computeIfAbsent(gram, g -> new HashSet<>()).add(word);
+                    }
+                }
+                products.set(document.getId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Integer productId) {
+        lock.writeLock().lock();
+        try {
+            removeProduct(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the products whose name, brand name or category name contains the query, ignoring case.
+     *
+     * @param query The search query.
+     * @return A bitmap of matching product IDs; empty if the query is blank.
+     */
+    public BitSet matchSubstring(String query) {
+        String needle = normalize(query);
+        BitSet result = new BitSet();
+        if (needle.isEmpty()) {
+            return result;
+        }
+        lock.readLock().lock();
+        try {
+            BitSet candidates = null;
+            if (needle.length() >= 3) {
+                for (String gram : gramsOf(needle)) {
+                    BitSet products = productsByGram.get(gram);
+                    if (products == null) {
+                        return result;
+                    }
+                    if (candidates == null) {
+                        candidates = (BitSet) products.clone();
+                    } else {
+                        candidates.and(products);
+                    }
+                }
+            }
+            if (candidates == null) {
+                // Too short to have a trigram: verify every product
+                fieldsByProduct.keySet().forEach(result::set);
+                candidates = result;
+                result = new BitSet();
+            }
+            for (int id = candidates.nextSetBit(0); id >= 0; id = candidates.nextSetBit(id + 1)) {
+                for (String field : fieldsByProduct.get(id)) {
+                    if (field.contains(needle)) {
+                        result.set(id);
+                        break;
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    /**
+     * Finds the products matching every word of the query, tolerating typos. A query word matches an indexed word
+     * that it is a prefix of, or that is within {@link #maxEdits(int)} edits of it.
+     *
+     * @param query The search query.
+     * @return A bitmap of matching product IDs; empty if the query contains no words.
+     */
+    public BitSet matchFuzzy(String query) {
+        List<String> queryWords = Tokenizer.tokenize(query);
+        BitSet result = null;
+        lock.readLock().lock();
+        try {
+            for (String queryWord : queryWords) {
+                BitSet wordMatches = new BitSet();
+                for (String word : similarWords(queryWord)) {
+                    wordMatches.or(productsByWord.get(word));
+                }
+                if (result == null) {
+                    result = wordMatches;
+                } else {
+                    result.and(wordMatches);
+                }
+                if (result.isEmpty()) {
+                    break;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result == null ? new BitSet() : result;
+    }
+
+    /**
+     * The number of edits tolerated for a query word of the given length.
+     *
+     * @param length The length of the query word.
+     * @return 0 for words shorter than 3 characters, 1 up to 5 characters and 2 for longer words.
+     */
+    static int maxEdits(int length) {
+        if (length < 3) {
+            return 0;
+        }
+        return length <= 5 ? 1 : 2;
+    }
+
+    /**
+     * Computes the Levenshtein distance between two words, giving up as soon as it exceeds the limit.
+     *
+     * @return The distance, or limit + 1 if the words are further apart than the limit.
+     */
+    static int boundedDistance(String a, String b, int limit) {
+        if (Math.abs(a.length() - b.length()) > limit) {
+            return limit + 1;
+        }
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > limit) {
+                return limit + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    private Set<String> similarWords(String queryWord) {
+        Set<String> words = new HashSet<>(
+                productsByWord.subMap(queryWord, true, queryWord + Character.MAX_VALUE, false).keySet());
+        int limit = maxEdits(queryWord.length());
+        if (limit == 0) {
+            return words;
+        }
+        // An edit changes at most three padded trigrams, so a close word shares all but 3 * limit of them
+        Set<String> queryGrams = paddedGrams(queryWord);
+        int minShared = queryGrams.size() - 3 * limit;
+        Iterable<String> candidates;
+        if (minShared <= 0) {
+            candidates = productsByWord.keySet();
+        } else {
+            Map<String, Integer> shared = new HashMap<>();
+            for (String gram : queryGrams) {
+                for (String word : wordsByGram.getOrDefault(gram, Set.of())) {
+                    shared.merge(word, 1, Integer::sum);
+                }
+            }
+            List<String> close = new ArrayList<>();
+            shared.forEach((word, count) -> {
+                if (count >= minShared) {
+                    close.add(word);
+                }
+            });
+            candidates = close;
+        }
+        for (String word : candidates) {
+            if (!words.contains(word) && boundedDistance(queryWord, word, limit) <= limit) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    private void removeProduct(Integer productId) {
+        String[] fields = fieldsByProduct.remove(productId);
+        if (fields == null) {
+            return;
+        }
+        for (String gram : gramsOf(fields)) {
+            BitSet products = productsByGram.get(gram);
+            if (products != null) {
+                products.clear(productId);
+                if (products.isEmpty()) {
+                    productsByGram.remove(gram);
+                }
+            }
+        }
+        for (String word : wordsOf(fields)) {
+            BitSet products = productsByWord.get(word);
+            if (products == null) {
+                continue;
+            }
+            products.clear(productId);
+            if (products.isEmpty()) {
+                productsByWord.remove(word);
+                for (String gram : paddedGrams(word)) {
+                    Set<String> words = wordsByGram.get(gram);
+                    if (words != null) {
+                        words.remove(word);
+                        if (words.isEmpty()) {
+                            wordsByGram.remove(gram);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> wordsOf(String[] fields) {
+        Set<String> words = new LinkedHashSet<>();
+        for (String field : fields) {
+            words.addAll(Tokenizer.tokenize(field));
+        }
+        return words;
+    }
+
+    private static Set<String> gramsOf(String... texts) {
+        Set<String> grams = new HashSet<>();
+        for (String text : texts) {
+            for (int i = 0; i + 3 <= text.length(); i++) {
+                grams.add(text.substring(i, i + 3));
+            }
+        }
+        return grams;
+    }
+
+    private static Set<String> paddedGrams(String word) {
+        return gramsOf(PAD + word + PAD);
+    }
+}
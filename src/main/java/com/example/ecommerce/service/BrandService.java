@@ -1,17 +1,20 @@
 package com.example.ecommerce.service;
 
+import com.example.ecommerce.cache.ReferenceDataCache;
 import com.example.ecommerce.dto.BrandDTO;
 import com.example.ecommerce.entity.Brand;
+import com.example.ecommerce.event.CatalogChangeEvent;
 import com.example.ecommerce.exception.ResourceNotFoundException;
 import com.example.ecommerce.mapper.BrandMapper;
 import com.example.ecommerce.repository.BrandRepository;
 import com.example.ecommerce.repository.ProductRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Optional;
 
 @Service
 public class BrandService {
@@ -19,24 +22,28 @@ public class BrandService {
     private final BrandRepository brandRepository;
     private final BrandMapper brandMapper;
     private final ProductRepository productRepository;
+    private final ReferenceDataCache referenceDataCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public BrandService(BrandRepository brandRepository, BrandMapper brandMapper, ProductRepository productRepository) {
+    public BrandService(BrandRepository brandRepository, BrandMapper brandMapper, ProductRepository productRepository,
+                        ReferenceDataCache referenceDataCache, ApplicationEventPublisher eventPublisher) {
         this.brandRepository = brandRepository;
         this.brandMapper = brandMapper;
         this.productRepository = productRepository;
+        this.referenceDataCache = referenceDataCache;
+        this.eventPublisher = eventPublisher;
     }
     /**
-     * Retrieves a brand by its ID.
+     * Retrieves a brand by its ID from the reference data cache.
      *
      * @param id The ID of the brand to retrieve.
      * @return A BrandDTO object containing brand information.
      * @throws ResourceNotFoundException if the brand with the given ID is not found.
      */
     public BrandDTO getBrandById(Integer id) {
-        Brand brand = brandRepository.findById(id)
+        return Optional.ofNullable(referenceDataCache.getBrand(id))
                 .orElseThrow(() -> new ResourceNotFoundException("Brand not found with ID: " + id));
-        return brandMapper.toDTO(brand);
     }
 
     /**
@@ -48,7 +55,9 @@ public class BrandService {
     @Transactional
     public BrandDTO createBrand(BrandDTO brandDTO) {
         Brand brand = brandMapper.toEntity(brandDTO);
-        return brandMapper.toDTO(brandRepository.save(brand));
+        BrandDTO saved = brandMapper.toDTO(brandRepository.save(brand));
+        eventPublisher.publishEvent(CatalogChangeEvent.brand(saved.getId()));
+        return saved;
     }
     /**
      * Updates an existing brand.
@@ -63,7 +72,9 @@ public class BrandService {
             throw new ResourceNotFoundException("Brand not found with ID: " + brandDTO.getId());
         }
         Brand brand = brandMapper.toEntity(brandDTO);
-        return brandMapper.toDTO(brandRepository.save(brand));
+        BrandDTO saved = brandMapper.toDTO(brandRepository.save(brand));
+        eventPublisher.publishEvent(CatalogChangeEvent.brand(saved.getId()));
+        return saved;
     }
 
     /**
@@ -80,16 +91,14 @@ public class BrandService {
                 .orElseThrow(() -> new ResourceNotFoundException("Brand not found with ID: " + id));
         productRepository.clearBrandFromProducts(id);
         brandRepository.delete(brand);
+        eventPublisher.publishEvent(CatalogChangeEvent.brand(id));
     }
     /**
-     * Retrieves a list of all available brands.
+     * Retrieves a list of all available brands from the reference data cache.
      *
      * @return A list of BrandDTO objects containing information about all brands.
      */
     public List<BrandDTO> getAllBrands() {
-        return brandRepository.findAll()
-                .stream()
-                .map(brandMapper::toDTO)
-                .collect(Collectors.toList());
+        return referenceDataCache.getBrands();
     }
 }
\ No newline at end of file
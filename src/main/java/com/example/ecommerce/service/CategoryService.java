@@ -1,17 +1,20 @@
 package com.example.ecommerce.service;
 
+import com.example.ecommerce.cache.ReferenceDataCache;
 import com.example.ecommerce.dto.CategoryDTO;
 import com.example.ecommerce.entity.Category;
+import com.example.ecommerce.event.CatalogChangeEvent;
 import com.example.ecommerce.exception.ResourceNotFoundException;
 import com.example.ecommerce.mapper.CategoryMapper;
 import com.example.ecommerce.repository.CategoryRepository;
 import com.example.ecommerce.repository.ProductRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Optional;
 
 @Service
 public class CategoryService {
@@ -19,26 +22,30 @@ public class CategoryService {
     private final CategoryRepository categoryRepository;
     private final CategoryMapper categoryMapper;
     private final ProductRepository productRepository;
+    private final ReferenceDataCache referenceDataCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public CategoryService(CategoryRepository categoryRepository, CategoryMapper categoryMapper, ProductRepository productRepository) {
+    public CategoryService(CategoryRepository categoryRepository, CategoryMapper categoryMapper, ProductRepository productRepository,
+                           ReferenceDataCache referenceDataCache, ApplicationEventPublisher eventPublisher) {
         this.categoryRepository = categoryRepository;
         this.categoryMapper = categoryMapper;
         this.productRepository = productRepository;
+        this.referenceDataCache = referenceDataCache;
+        this.eventPublisher = eventPublisher;
     }
 
 
     /**
-     * Retrieves a category by its ID.
+     * Retrieves a category by its ID from the reference data cache.
      *
      * @param id The ID of the category to retrieve.
      * @return A CategoryDTO object containing category information.
      * @throws ResourceNotFoundException if the category with the given ID is not found.
      */
     public CategoryDTO getCategoryById(Integer id) {
-        Category category = categoryRepository.findById(id)
+        return Optional.ofNullable(referenceDataCache.getCategory(id))
                 .orElseThrow(() -> new ResourceNotFoundException("Category not found with ID: " + id));
-        return categoryMapper.toDTO(category);
     }
     /**
      * Creates a new category.
@@ -49,7 +56,9 @@ public class CategoryService {
     @Transactional
     public CategoryDTO createCategory(CategoryDTO categoryDTO) {
         Category category = categoryMapper.toEntity(categoryDTO);
-        return categoryMapper.toDTO(categoryRepository.save(category));
+        CategoryDTO saved = categoryMapper.toDTO(categoryRepository.save(category));
+        eventPublisher.publishEvent(CatalogChangeEvent.category(saved.getId()));
+        return saved;
     }
     /**
      * Updates an existing category.
@@ -64,7 +73,9 @@ public class CategoryService {
             throw new ResourceNotFoundException("Category not found with ID: " + categoryDTO.getId());
         }
         Category category = categoryMapper.toEntity(categoryDTO);
-        return categoryMapper.toDTO(categoryRepository.save(category));
+        CategoryDTO saved = categoryMapper.toDTO(categoryRepository.save(category));
+        eventPublisher.publishEvent(CatalogChangeEvent.category(saved.getId()));
+        return saved;
     }
     /**
      * Deletes a category by its ID.
@@ -78,16 +89,14 @@ public class CategoryService {
                 .orElseThrow(() -> new ResourceNotFoundException("Category not found with ID: " + id));
         productRepository.clearCategoryFromProducts(id);
         categoryRepository.delete(category);
+        eventPublisher.publishEvent(CatalogChangeEvent.category(id));
     }
     /**
-     * Retrieves a list of all available categories.
+     * Retrieves a list of all available categories from the reference data cache.
      *
      * @return A list of CategoryDTO objects containing information about all categories.
      */
     public List<CategoryDTO> getAllCategories() {
-        return categoryRepository.findAll()
-                .stream()
-                .map(categoryMapper::toDTO)
-                .collect(Collectors.toList());
+        return referenceDataCache.getCategories();
     }
 }
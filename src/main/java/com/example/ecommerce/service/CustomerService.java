@@ -3,15 +3,21 @@ package com.example.ecommerce.service;
 import com.example.ecommerce.dto.CartDTO;
 import com.example.ecommerce.dto.CustomerDTO;
 import com.example.ecommerce.dto.CustomerInfoDTO;
+import com.example.ecommerce.dto.PageDTO;
 import com.example.ecommerce.entity.Customer;
+import com.example.ecommerce.exception.BadRequestException;
 import com.example.ecommerce.exception.DuplicateResourceException;
 import com.example.ecommerce.exception.ResourceNotFoundException;
 import com.example.ecommerce.mapper.CustomerInfoMapper;
 import com.example.ecommerce.mapper.CustomerMapper;
+import com.example.ecommerce.pagination.KeysetCursor;
 import com.example.ecommerce.repository.CustomerRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -162,6 +168,20 @@ public class CustomerService {
         return customerRepository.findAll(pageable).map(customerMapper::toDTO);
     }
 
+    /**
+     * Retrieves all customers ordered by ID, one keyset page at a time.
+     *
+     * @param after The cursor returned with the previous page, or null or empty for the first page.
+     * @param size  The page size.
+     * @return A PageDTO of CustomerDTO objects.
+     * @throws BadRequestException if the cursor is invalid.
+     */
+    public PageDTO<CustomerDTO> getAllCustomers(String after, int size) {
+        Sort sort = Sort.by("id");
+        Window<Customer> window = customerRepository.findAllBy(KeysetCursor.decode(after, sort), sort, Limit.of(size));
+        return PageDTO.of(window, size, customerMapper::toDTO);
+    }
+
 
 
 
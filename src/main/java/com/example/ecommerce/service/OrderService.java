@@ -2,19 +2,30 @@ package com.example.ecommerce.service;
 
 import com.example.ecommerce.dto.*;
 import com.example.ecommerce.entity.*;
+import com.example.ecommerce.event.CatalogChangeEvent;
+import com.example.ecommerce.event.ProductActivityEvent;
+import com.example.ecommerce.exception.BadRequestException;
 import com.example.ecommerce.exception.ResourceNotFoundException;
 import com.example.ecommerce.mapper.OrderInfoMapper;
 import com.example.ecommerce.mapper.OrderItemMapper;
 import com.example.ecommerce.mapper.OrderMapper;
+import com.example.ecommerce.pagination.KeysetCursor;
+import com.example.ecommerce.projection.OrderField;
 import com.example.ecommerce.repository.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,14 +38,15 @@ public class OrderService {
     private final OrderItemMapper orderItemMapper;
     private final CartService cartService;
     private final CartRepository cartRepository;
-    private final ProductService productService;
     private final OrderInfoMapper orderInfoMapperImpl;
+    private final ApplicationEventPublisher eventPublisher;
 
 
     @Autowired
     public OrderService(OrderRepository orderRepository, OrderItemRepository orderItemRepository,
                         ProductRepository productRepository, CustomerRepository customerRepository,
-                        OrderMapper orderMapper, OrderItemMapper orderItemMapper, CartService cartService, CartRepository cartRepository, ProductService productService, OrderInfoMapper orderInfoMapperImpl) {
+                        OrderMapper orderMapper, OrderItemMapper orderItemMapper, CartService cartService, CartRepository cartRepository, OrderInfoMapper orderInfoMapperImpl,
+                        ApplicationEventPublisher eventPublisher) {
         this.orderRepository = orderRepository;
         this.orderItemRepository = orderItemRepository;
         this.productRepository = productRepository;
@@ -43,8 +55,8 @@ public class OrderService {
         this.orderItemMapper = orderItemMapper;
         this.cartService = cartService;
         this.cartRepository = cartRepository;
-        this.productService = productService;
         this.orderInfoMapperImpl = orderInfoMapperImpl;
+        this.eventPublisher = eventPublisher;
     }
     /**
      * Retrieves all orders with pagination support.
@@ -57,6 +69,34 @@ public class OrderService {
                 .map(orderInfoMapperImpl::toDTO);
     }
 
+    /**
+     * Retrieves all orders with pagination support, reading only the selected fields. The items of the page's
+     * orders, if selected, are read with one query.
+     *
+     * @param pageable Pagination information.
+     * @param fields   The selected fields.
+     * @return A page of rows keyed by field name.
+     */
+    public Page<Map<String, Object>> getAllOrders(Pageable pageable, Set<OrderField> fields) {
+        Page<Map<String, Object>> orders = orderRepository.findOrderRows(fields, pageable);
+        addOrderItems(orders.getContent(), fields);
+        return orders;
+    }
+
+    /**
+     * Retrieves all orders ordered by ID, one keyset page at a time.
+     *
+     * @param after The cursor returned with the previous page, or null or empty for the first page.
+     * @param size  The page size.
+     * @return A PageDTO of OrderInfoDTO objects.
+     * @throws BadRequestException if the cursor is invalid.
+     */
+    public PageDTO<OrderInfoDTO> getAllOrders(String after, int size) {
+        Sort sort = Sort.by("id");
+        Window<Order> window = orderRepository.findAllBy(KeysetCursor.decode(after, sort), sort, Limit.of(size));
+        return PageDTO.of(window, size, orderInfoMapperImpl::toDTO);
+    }
+
     /**
      * Retrieves a specific order by its ID.
      *
@@ -110,9 +150,11 @@ public class OrderService {
                         throw new ResourceNotFoundException("Product '" + cartItem.getProduct().getName() + "' not found or was deleted");
                     }
                     OrderItem orderItem = new OrderItem();
-                    // Increase the popularity of the product when added to an order
-                    Product product = productService.incrementProductPopularity(cartItem.getProduct().getId());
+                    // Its popularity grows with the order event below, once the order commits
+                    Product product = cartItem.getProduct();
                     product.setQuantity(product.getQuantity() - cartItem.getQuantity());
+                    // The stock changes in this transaction, which the catalog caches must see
+                    eventPublisher.publishEvent(CatalogChangeEvent.product(product.getId()));
                     orderItem.setProductId(product.getId());
                     orderItem.setProductName(product.getName());
                     orderItem.setProductDescription(product.getDescription());
@@ -132,6 +174,9 @@ public class OrderService {
         order.setDeliveryPhoneNumber(deliveryDTO.getDeliveryPhoneNumber());
         orderRepository.save(order);
         orderItemRepository.saveAll(orderItems);
+        // Delivered to the trending scores and popularity counters only if the order commits
+        orderItems.forEach(item -> eventPublisher.publishEvent(
+                ProductActivityEvent.order(item.getProductId(), item.getQuantity())));
         cartService.clearCart(cartId);
         return orderMapper.toDTO(order);
     }
@@ -249,6 +294,32 @@ public class OrderService {
                 .map(orderInfoMapperImpl::toDTO)
                 .collect(Collectors.toList());
     }
+    /**
+     * Retrieves all orders for a specific customer, reading only the selected fields. The items, if selected,
+     * are read with one query.
+     *
+     * @param customerId The ID of the customer to retrieve orders for.
+     * @param fields     The selected fields.
+     * @return A list of rows keyed by field name, most recent order first.
+     */
+    public List<Map<String, Object>> getOrdersByCustomerId(Integer customerId, Set<OrderField> fields) {
+        List<Map<String, Object>> orders = orderRepository.findOrderRowsByCustomerId(customerId, fields);
+        addOrderItems(orders, fields);
+        return orders;
+    }
+
+    // Fills in the items of sparse order rows if they were selected
+    private void addOrderItems(List<Map<String, Object>> orders, Set<OrderField> fields) {
+        if (!fields.contains(OrderField.ORDER_ITEMS) || orders.isEmpty()) {
+            return;
+        }
+        List<Integer> orderIds = orders.stream().map(order -> (Integer) order.get(OrderField.ID.getName()))
+                .collect(Collectors.toList());
+        Map<Integer, List<OrderItemDTO>> items = orderItemRepository.findItemsByOrderIdIn(orderIds).stream()
+                .collect(Collectors.groupingBy(OrderItemDTO::getOrderId));
+        orders.forEach(order -> order.put(OrderField.ORDER_ITEMS.getName(),
+                items.getOrDefault((Integer) order.get(OrderField.ID.getName()), List.of())));
+    }
     /**
      * Retrieves all orders for a specific customer by their ID with pagination support.
      *
@@ -0,0 +1,163 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.event.CatalogChangeEvent;
+import com.example.ecommerce.event.ProductActivityEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind popularity counters. Committed orders add to an in-memory striped counter per product instead of
+ * updating the product row, so concurrent checkouts of the same product do not contend on it. The accumulated increments
+ * are written every few seconds as one JDBC batch of relative updates, and on shutdown.
+ */
+@Service
+public class PopularityService {
+    private static final Logger log = LoggerFactory.getLogger(PopularityService.class);
+
+    private static final String INCREMENT_SQL = "UPDATE products SET popularity = popularity + ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Map<Integer, LongAdder> counters = new ConcurrentHashMap<>();
+    /** Increments taken from the counters by a flush that has not committed yet. */
+    private volatile Map<Integer, Long> flushing = Map.of();
+    private final ScheduledExecutorService executor;
+
+    @Autowired
+    public PopularityService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                             ApplicationEventPublisher eventPublisher,
+                             @Value("${popularity.flush-seconds:5}") long flushSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "popularity-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::flushQuietly, flushSeconds, flushSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Increases the popularity of a product by 1 with the next flush.
+     *
+     * @param productId The ID of the product.
+     */
+    public void increment(Integer productId) {
+        counters.computeIfAbsent(productId, id -> new LongAdder()).increment();
+    }
+
+    /**
+     * Increases the popularity of an ordered product by 1. Delivered only once the order commits, so an order
+     * that fails or rolls back is never counted.
+     *
+     * @param event The activity published by the order service.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductActivity(ProductActivityEvent event) {
+        if (event.getType() == ProductActivityEvent.Type.ORDER) {
+            increment(event.getProductId());
+        }
+    }
+
+    /**
+     * @param productId The ID of the product.
+     * @return The popularity increments of the product not yet written to the database.
+     */
+    public long getUnflushed(Integer productId) {
+        LongAdder counter = counters.get(productId);
+        return (counter != null ? counter.sum() : 0) + flushing.getOrDefault(productId, 0L);
+    }
+
+    /**
+     * @return The popularity increments not yet written to the database, by product ID.
+     */
+    public Map<Integer, Long> getUnflushed() {
+        Map<Integer, Long> unflushed = new HashMap<>(flushing);
+        counters.forEach((productId, counter) -> {
+            long delta = counter.sum();
+            if (delta != 0) {
+                unflushed.merge(productId, delta, Long::sum);
+            }
+        });
+        return unflushed;
+    }
+
+    /**
+     * Writes the accumulated increments in one batch, then publishes a popularity change of every updated product
+     * so the catalog indexes and product caches pick up the new popularity. Popularity changes leave the catalog
+     * version alone; only the listings ranked by popularity are rebuilt.
+     *
+     * @return The number of products updated.
+     * @throws org.springframework.dao.DataAccessException if the batch fails; the increments are kept for the
+     *                                                     next flush.
+     */
+    public synchronized int flush() {
+        Map<Integer, Long> deltas = new HashMap<>();
+        counters.forEach((productId, counter) -> {
+            long delta = counter.sumThenReset();
+            if (delta != 0) {
+                deltas.put(productId, delta);
+            }
+        });
+        if (deltas.isEmpty()) {
+            return 0;
+        }
+        flushing = deltas;
+        try {
+            List<Object[]> arguments = new ArrayList<>(deltas.size());
+            deltas.forEach((productId, delta) -> arguments.add(new Object[]{delta, productId}));
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(INCREMENT_SQL, arguments);
+                deltas.keySet().forEach(productId -> eventPublisher.publishEvent(CatalogChangeEvent.popularity(productId)));
+            });
+        } catch (RuntimeException e) {
+            deltas.forEach((productId, delta) -> counters.computeIfAbsent(productId, id -> new LongAdder()).add(delta));
+            throw e;
+        } finally {
+            flushing = Map.of();
+        }
+        return deltas.size();
+    }
+
+    /**
+     * Writes the remaining increments before the application stops.
+     */
+    @PreDestroy
+    public void close() {
+        executor.shutdown();
+        flushQuietly();
+        Map<Integer, Long> unflushed = getUnflushed();
+        if (!unflushed.isEmpty()) {
+            log.error("Popularity increments of {} products were not written: {}", unflushed.size(), unflushed);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Cannot write popularity increments", e);
+        }
+    }
+}
@@ -1,29 +1,70 @@
 package com.example.ecommerce.service;
 
+import com.example.ecommerce.cache.ProductInfoCache;
+import com.example.ecommerce.cache.ResponseBodyCache;
+import com.example.ecommerce.cache.SearchResultCache;
+import com.example.ecommerce.dto.CacheStatsDTO;
+import com.example.ecommerce.dto.FacetCountsDTO;
+import com.example.ecommerce.dto.PageDTO;
 import com.example.ecommerce.dto.ProductDTO;
 import com.example.ecommerce.dto.ProductInfoDTO;
+import com.example.ecommerce.dto.ProductLookupDTO;
+import com.example.ecommerce.dto.ProductStatsDTO;
+import com.example.ecommerce.dto.ProductStatsTrackerDTO;
+import com.example.ecommerce.dto.SuggestionDTO;
+import com.example.ecommerce.dto.TrendingProductDTO;
 import com.example.ecommerce.entity.Product;
+import com.example.ecommerce.event.CatalogChangeEvent;
+import com.example.ecommerce.event.ProductActivityEvent;
+import com.example.ecommerce.exception.BadRequestException;
 import com.example.ecommerce.exception.ImageStorageException;
 import com.example.ecommerce.exception.ResourceNotFoundException;
 import com.example.ecommerce.mapper.ProductInfoMapper;
 import com.example.ecommerce.mapper.ProductMapper;
+import com.example.ecommerce.pagination.KeysetCursor;
 import com.example.ecommerce.repository.BrandRepository;
 import com.example.ecommerce.repository.CategoryRepository;
 import com.example.ecommerce.repository.ProductRepository;
+import com.example.ecommerce.projection.FieldSelection;
+import com.example.ecommerce.projection.ProductField;
+import com.example.ecommerce.search.CatalogIndexer;
+import com.example.ecommerce.search.FacetCounts;
+import com.example.ecommerce.search.FacetIndex;
+import com.example.ecommerce.search.PriceIndex;
+import com.example.ecommerce.search.ProductDocument;
+import com.example.ecommerce.search.ProductSearchIndex;
+import com.example.ecommerce.search.RelevanceIndex;
+import com.example.ecommerce.search.SearchMode;
+import com.example.ecommerce.search.SegmentStore;
+import com.example.ecommerce.search.SortIndex;
+import com.example.ecommerce.search.SuggestionIndex;
+import com.example.ecommerce.search.TrendingIndex;
+import com.example.ecommerce.search.TrigramIndex;
+import com.example.ecommerce.storage.ImageStore;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
@@ -33,29 +74,85 @@ public class ProductService {
     private final BrandRepository brandRepository;
     private final CategoryRepository categoryRepository;
     private final ProductInfoMapper productInfoMapper;
-    @Value("${upload.path}") // Add the path to the download folder to application.properties
-    private String uploadPath;
+    private final CatalogIndexer catalogIndexer;
+    private final ProductSearchIndex productSearchIndex;
+    private final TrigramIndex trigramIndex;
+    private final SuggestionIndex suggestionIndex;
+    private final FacetIndex facetIndex;
+    private final RelevanceIndex relevanceIndex;
+    private final PriceIndex priceIndex;
+    private final SortIndex sortIndex;
+    private final TrendingIndex trendingIndex;
+    private final SegmentStore segmentStore;
+    private final SearchResultCache searchResultCache;
+    private final ProductInfoCache productInfoCache;
+    private final ResponseBodyCache responseBodyCache;
+    private final PopularityService popularityService;
+    private final ProductStatsService productStatsService;
+    private final ImageStore imageStore;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
     public ProductService(ProductRepository productRepository, BrandRepository brandRepository,
-                          CategoryRepository categoryRepository, ProductMapper productMapper, ProductInfoMapper productInfoMapper) {
+                          CategoryRepository categoryRepository, ProductMapper productMapper, ProductInfoMapper productInfoMapper,
+                          CatalogIndexer catalogIndexer, ProductSearchIndex productSearchIndex,
+                          TrigramIndex trigramIndex, SuggestionIndex suggestionIndex, FacetIndex facetIndex,
+                          RelevanceIndex relevanceIndex, PriceIndex priceIndex, SortIndex sortIndex,
+                          TrendingIndex trendingIndex, SegmentStore segmentStore,
+                          SearchResultCache searchResultCache, ProductInfoCache productInfoCache,
+                          ResponseBodyCache responseBodyCache,
+                          PopularityService popularityService, ProductStatsService productStatsService,
+                          ImageStore imageStore, ApplicationEventPublisher eventPublisher) {
         this.productRepository = productRepository;
         this.productMapper = productMapper;
         this.brandRepository = brandRepository;
         this.categoryRepository = categoryRepository;
         this.productInfoMapper = productInfoMapper;
+        this.catalogIndexer = catalogIndexer;
+        this.productSearchIndex = productSearchIndex;
+        this.trigramIndex = trigramIndex;
+        this.suggestionIndex = suggestionIndex;
+        this.facetIndex = facetIndex;
+        this.relevanceIndex = relevanceIndex;
+        this.priceIndex = priceIndex;
+        this.sortIndex = sortIndex;
+        this.trendingIndex = trendingIndex;
+        this.segmentStore = segmentStore;
+        this.searchResultCache = searchResultCache;
+        this.productInfoCache = productInfoCache;
+        this.responseBodyCache = responseBodyCache;
+        this.popularityService = popularityService;
+        this.productStatsService = productStatsService;
+        this.imageStore = imageStore;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
-     * Retrieves product information by its ID.
+     * Retrieves product information by its ID, through the product detail cache.
      *
      * @param id The ID of the product.
      * @return A ProductInfoDTO containing information about the product.
      * @throws ResourceNotFoundException if the product with the given ID is not found.
      */
     public ProductInfoDTO getProductInfoById(Integer id) {
-        Product product = productRepository.findById(id).orElseThrow(() -> new ResourceNotFoundException("Product not found with ID: " + id));
-        return productInfoMapper.toDTO(product);
+        return productInfoCache.get(id, () -> {
+            Product product = productRepository.findById(id).orElseThrow(() -> new ResourceNotFoundException("Product not found with ID: " + id));
+            return productInfoMapper.toDTO(product);
+        });
+    }
+
+    /**
+     * Retrieves the information of several products, through the product detail cache. The products missing
+     * from the cache are read with one query.
+     *
+     * @param ids The IDs of the products, duplicates allowed.
+     * @return One entry per requested ID in request order, marked as not found if there is no such product.
+     */
+    public List<ProductLookupDTO> getProductInfosByIds(List<Integer> ids) {
+        Map<Integer, ProductInfoDTO> products = productInfoCache.getAll(ids, productRepository::findListingsByIdIn);
+        return ids.stream()
+                .map(id -> new ProductLookupDTO(id, products.get(id)))
+                .collect(Collectors.toList());
     }
 
     /**
@@ -67,40 +164,36 @@ public class ProductService {
     @Transactional
     public ProductDTO createProduct(ProductDTO productDTO) {
         Product product = productMapper.toEntity(productDTO);
-        return productMapper.toDTO(productRepository.save(product));
+        ProductDTO created = productMapper.toDTO(productRepository.save(product));
+        eventPublisher.publishEvent(CatalogChangeEvent.product(created.getId()));
+        return created;
     }
 
     /**
-     * Saves the product image to the file system.
+     * Saves the product image in the {@link ImageStore}, once per distinct content.
      *
      * @param image The image file to save.
-     * @return The URL of the saved image.
-     * @throws RuntimeException if there is an error while saving the image.
+     * @return The fingerprinted URL of the saved image.
+     * @throws BadRequestException if the file is not an image.
+     * @throws ImageStorageException if there is an error while saving the image.
      */
     public String saveProductImage(MultipartFile image) {
-        try {
-            Path copyLocation = Paths
-                    .get(uploadPath + File.separator + image.getOriginalFilename());
-            Files.copy(image.getInputStream(), copyLocation, StandardCopyOption.REPLACE_EXISTING);
-            return "/images/" + image.getOriginalFilename();
-        } catch (Exception e) {
-            throw new ImageStorageException("Could not store image file. Error: " + e.getMessage());
-        }
+        return imageStore.store(image);
     }
 
     /**
-     * Increases the popularity of a product by 1.
+     * Increases the popularity of a product by 1. The increment is counted in memory and written to the
+     * database by {@link PopularityService} with the next flush. Orders do not call this: their products gain
+     * popularity once the order commits.
      *
      * @param productId The ID of the product to increment popularity.
-     * @return The updated Product object with incremented popularity.
      * @throws ResourceNotFoundException if the product with the given ID is not found.
      */
-    @Transactional
-    public Product incrementProductPopularity(Integer productId) {
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new ResourceNotFoundException("Product not found with ID: " + productId));
-        product.setPopularity(product.getPopularity() + 1);
-        return productRepository.save(product);
+    public void incrementProductPopularity(Integer productId) {
+        if (!productRepository.existsById(productId)) {
+            throw new ResourceNotFoundException("Product not found with ID: " + productId);
+        }
+        popularityService.increment(productId);
     }
 
     /**
@@ -116,7 +209,9 @@ public class ProductService {
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with ID: " + productDTO.getId()));
         productDTO.setImageUrl(product.getImageUrl());
         product = productMapper.toEntity(productDTO);
-        return productMapper.toDTO(productRepository.save(product));
+        ProductDTO updated = productMapper.toDTO(productRepository.save(product));
+        eventPublisher.publishEvent(CatalogChangeEvent.product(productDTO.getId()));
+        return updated;
     }
 
     /**
@@ -130,28 +225,72 @@ public class ProductService {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with ID: " + id));
         productRepository.deleteById(id);
+        eventPublisher.publishEvent(CatalogChangeEvent.product(id));
     }
 
     /**
-     * Retrieves all active products with pagination.
+     * Retrieves all products with pagination.
      *
      * @param pageable The pagination information.
-     * @return A page of ProductInfoDTO objects representing active products.
+     * @return A page of ProductInfoDTO objects representing products.
      */
-    public Page<ProductInfoDTO> getAllActiveProducts(Pageable pageable) {
-        Page<Product> productPage = productRepository.findAllByIsActiveTrue(pageable);
-        return productPage.map(productInfoMapper::toDTO);
+    public Page<ProductInfoDTO> getAllProducts(Pageable pageable) {
+        return productRepository.findListings(pageable);
     }
 
     /**
-     * Retrieves all products with pagination.
+     * Retrieves all products with pagination, reading only the selected fields.
      *
      * @param pageable The pagination information.
-     * @return A page of ProductInfoDTO objects representing products.
+     * @param fields   The selected fields.
+     * @return A page of rows keyed by field name.
      */
-    public Page<ProductInfoDTO> getAllProducts(Pageable pageable) {
-        Page<Product> productPage = productRepository.findAll(pageable);
-        return productPage.map(productInfoMapper::toDTO);
+    public Page<Map<String, Object>> getAllProducts(Pageable pageable, Set<ProductField> fields) {
+        return productRepository.findListingRows(fields, pageable);
+    }
+
+    /**
+     * Retrieves all products ordered by ID, one keyset page at a time.
+     *
+     * @param after The cursor returned with the previous page, or null or empty for the first page.
+     * @param size  The page size.
+     * @return A PageDTO of ProductInfoDTO objects.
+     * @throws BadRequestException if the cursor is invalid.
+     */
+    public PageDTO<ProductInfoDTO> getAllProducts(String after, int size) {
+        Sort sort = Sort.by("id");
+        Window<Product> window = productRepository.findAllBy(KeysetCursor.decode(after, sort), sort, Limit.of(size));
+        return PageDTO.of(window, size, productInfoMapper::toDTO);
+    }
+
+    /**
+     * Retrieves active products, optionally filtered by category and brand, one keyset page at a time.
+     * Every page costs the same index seek regardless of how deep it is, and no count query is run.
+     *
+     * @param categoryId The ID of the category, or null for all categories.
+     * @param brandId    The ID of the brand, or null for all brands.
+     * @param after      The cursor returned with the previous page, or null or empty for the first page.
+     * @param sort       The sort; the product ID is appended as a tie-breaker.
+     * @param size       The page size.
+     * @return A PageDTO of ProductInfoDTO objects.
+     * @throws BadRequestException if the cursor is invalid or was issued for another sort.
+     */
+    public PageDTO<ProductInfoDTO> getActiveProducts(Integer categoryId, Integer brandId, String after,
+                                                     Sort sort, int size) {
+        Sort keysetSort = KeysetCursor.withIdTieBreaker(sort);
+        ScrollPosition position = KeysetCursor.decode(after, keysetSort);
+        Window<Product> window;
+        if (categoryId != null && brandId != null) {
+            window = productRepository.findByCategoryIdAndBrandIdAndIsActiveTrue(categoryId, brandId, position,
+                    keysetSort, Limit.of(size));
+        } else if (categoryId != null) {
+            window = productRepository.findByCategoryIdAndIsActiveTrue(categoryId, position, keysetSort, Limit.of(size));
+        } else if (brandId != null) {
+            window = productRepository.findByBrandIdAndIsActiveTrue(brandId, position, keysetSort, Limit.of(size));
+        } else {
+            window = productRepository.findByIsActiveTrue(position, keysetSort, Limit.of(size));
+        }
+        return PageDTO.of(window, size, productInfoMapper::toDTO);
     }
 /*
     public List<ProductDTO> getAllProducts() {
@@ -169,23 +308,62 @@ public class ProductService {
      * @return A list of ProductDTO objects representing the most popular products.
      */
     public List<ProductDTO> getProductsByPopularity(Pageable pageable) {
-        List<Product> products = productRepository.findAllByIsActiveTrueOrderByPopularityDesc(pageable);
-        return products.stream()
-                .map(productMapper::toDTO)
-                .collect(Collectors.toList());
+        return productRepository.findMostPopular(pageable);
     }
 
     /**
-     * Retrieves products by category and brand with pagination.
+     * Retrieves active products, optionally filtered by category, brand and price range, with pagination.
+     * Once the in-memory indexes are built, the category and brand bitmaps are intersected with the price
+     * index and the page is read from the precomputed order of the sort field, so the database only loads
+     * the products of the requested page. Pages are served from the search result cache.
      *
-     * @param categoryId The ID of the category.
-     * @param brandId    The ID of the brand.
+     * @param categoryId The ID of the category, or null for all categories.
+     * @param brandId    The ID of the brand, or null for all brands.
+     * @param minPrice   The lowest price, inclusive, or null.
+     * @param maxPrice   The highest price, inclusive, or null.
      * @param pageable   The pagination information.
      * @return A page of ProductInfoDTO objects representing filtered products.
+     * @throws BadRequestException if the price range is invalid.
+     */
+    public Page<ProductInfoDTO> getActiveProducts(Integer categoryId, Integer brandId, BigDecimal minPrice,
+                                                  BigDecimal maxPrice, Pageable pageable) {
+        validatePriceRange(minPrice, maxPrice);
+        return cached(null, null, categoryId, brandId, minPrice, maxPrice, pageable, () -> catalogIndexer.isReady()
+                ? listings(filter(categoryId, brandId, minPrice, maxPrice, pageable))
+                : productRepository.findActiveListings(categoryId, brandId, minPrice, maxPrice, pageable));
+    }
+
+    /**
+     * Retrieves active products, optionally filtered by category, brand and price range, with pagination, reading
+     * only the selected fields. The page is resolved from the in-memory indexes and only the selected columns of
+     * its products are read. Until the indexes are built, the complete rows are read and trimmed.
+     *
+     * @param categoryId The ID of the category, or null for all categories.
+     * @param brandId    The ID of the brand, or null for all brands.
+     * @param minPrice   The lowest price, inclusive, or null.
+     * @param maxPrice   The highest price, inclusive, or null.
+     * @param pageable   The pagination information.
+     * @param fields     The selected fields.
+     * @return A page of rows keyed by field name.
+     * @throws BadRequestException if the price range is invalid.
      */
-    public Page<ProductInfoDTO> getProductsByCategoryAndBrand(Integer categoryId, Integer brandId, Pageable pageable) {
-        Page<Product> productPage = productRepository.findByCategoryIdAndBrandIdAndIsActiveTrue(categoryId, brandId, pageable);
-        return productPage.map(productInfoMapper::toDTO);
+    public Page<Map<String, Object>> getActiveProducts(Integer categoryId, Integer brandId, BigDecimal minPrice,
+                                                       BigDecimal maxPrice, Pageable pageable, Set<ProductField> fields) {
+        validatePriceRange(minPrice, maxPrice);
+        if (!catalogIndexer.isReady()) {
+            return getActiveProducts(categoryId, brandId, minPrice, maxPrice, pageable)
+                    .map(product -> FieldSelection.toRow(product, fields));
+        }
+        return listingRows(filter(categoryId, brandId, minPrice, maxPrice, pageable), fields);
+    }
+
+    private Page<Integer> filter(Integer categoryId, Integer brandId, BigDecimal minPrice, BigDecimal maxPrice,
+                                 Pageable pageable) {
+        BitSet candidates = facetIndex.filter(categoryId, brandId);
+        if (minPrice != null || maxPrice != null) {
+            candidates.and(priceIndex.range(minPrice, maxPrice));
+        }
+        return toSortedPage(candidates, minPrice, maxPrice, pageable);
     }
 
     /*    public List<ProductDTO> searchProducts(String query) {
@@ -196,36 +374,518 @@ public class ProductService {
     }*/
 
     /**
-     * Searches for products based on a query string with pagination.
+     * Searches for products based on a query string with pagination, matching query words by prefix.
      *
      * @param query    The search query.
      * @param pageable The pagination information.
      * @return A page of ProductInfoDTO objects representing search results.
      */
     public Page<ProductInfoDTO> searchProducts(String query, Pageable pageable) {
-        Page<Product> productPage = productRepository.searchByQuery(query, pageable);
-        return productPage.map(productInfoMapper::toDTO);
+        return searchProducts(query, SearchMode.TOKEN, pageable);
     }
 
-    /*    public List<ProductDTO> getProductsByCategory(Integer categoryId) {
-        List<Product> products = productRepository.findByCategoryId(categoryId);
-        return products.stream()
-                .map(productMapper::toDTO)
-                .collect(Collectors.toList());
-    }*/
+    /**
+     * Searches for products based on a query string with pagination.
+     * Matches are resolved and sorted from the in-memory search indexes; only the products of the
+     * requested page are loaded from the database. Until the indexes are built, a warm-started node
+     * matches query words against the on-disk index segments and a cold one uses the JPQL query.
+     * Without a requested sort the matches are ranked by relevance: BM25 text score over name, brand,
+     * category and description, blended with popularity and stock availability.
+     * The query is normalized (case and whitespace) and pages are served from the search result cache.
+     *
+     * @param query    The search query.
+     * @param mode     How the query is matched against product, brand and category names.
+     * @param pageable The pagination information.
+     * @return A page of ProductInfoDTO objects representing search results.
+     */
+    public Page<ProductInfoDTO> searchProducts(String query, SearchMode mode, Pageable pageable) {
+        return searchProducts(query, mode, null, null, pageable);
+    }
+
+    /**
+     * Searches for products priced within a range. The matches are intersected with the in-memory price index.
+     *
+     * @param query    The search query.
+     * @param mode     How the query is matched against product, brand and category names.
+     * @param minPrice The lowest price, inclusive, or null.
+     * @param maxPrice The highest price, inclusive, or null.
+     * @param pageable The pagination information.
+     * @return A page of ProductInfoDTO objects representing search results.
+     * @throws BadRequestException if the price range is invalid.
+     */
+    public Page<ProductInfoDTO> searchProducts(String query, SearchMode mode, BigDecimal minPrice, BigDecimal maxPrice,
+                                               Pageable pageable) {
+        validatePriceRange(minPrice, maxPrice);
+        String normalized = SearchResultCache.normalize(query);
+        return cached(normalized, mode, null, null, minPrice, maxPrice, pageable,
+                () -> search(normalized, mode, minPrice, maxPrice, pageable));
+    }
+
+    /**
+     * Searches for products priced within a range, reading only the selected fields. The matches are resolved
+     * from the in-memory indexes or the index segments and only the selected columns of the page's products are
+     * read. Until either can serve the query, the complete rows are read and trimmed.
+     *
+     * @param query    The search query.
+     * @param mode     How the query is matched against product, brand and category names.
+     * @param minPrice The lowest price, inclusive, or null.
+     * @param maxPrice The highest price, inclusive, or null.
+     * @param pageable The pagination information.
+     * @param fields   The selected fields.
+     * @return A page of rows keyed by field name.
+     * @throws BadRequestException if the price range is invalid.
+     */
+    public Page<Map<String, Object>> searchProducts(String query, SearchMode mode, BigDecimal minPrice,
+                                                    BigDecimal maxPrice, Pageable pageable, Set<ProductField> fields) {
+        validatePriceRange(minPrice, maxPrice);
+        Page<Integer> productIds = searchIds(SearchResultCache.normalize(query), mode, minPrice, maxPrice, pageable);
+        if (productIds == null) {
+            return searchProducts(query, mode, minPrice, maxPrice, pageable)
+                    .map(product -> FieldSelection.toRow(product, fields));
+        }
+        return listingRows(productIds, fields);
+    }
+
+    private Page<ProductInfoDTO> search(String query, SearchMode mode, BigDecimal minPrice, BigDecimal maxPrice,
+                                        Pageable pageable) {
+        Page<Integer> productIds = searchIds(query, mode, minPrice, maxPrice, pageable);
+        return productIds != null
+                ? listings(productIds)
+                : productRepository.searchListings(query, minPrice, maxPrice, pageable);
+    }
+
+    /**
+     * Resolves a page of matches from the in-memory indexes, or from the index segments on a warm node.
+     *
+     * @return The page of product IDs, or null if the query has to be run against the database.
+     */
+    private Page<Integer> searchIds(String query, SearchMode mode, BigDecimal minPrice, BigDecimal maxPrice,
+                                    Pageable pageable) {
+        boolean priced = minPrice != null || maxPrice != null;
+        if (!catalogIndexer.isReady()) {
+            if (!priced && catalogIndexer.isWarm()) {
+                // Token matches from the on-disk segments, most popular first until relevance ranking is built
+                Sort sort = pageable.getSort().isUnsorted() ? Sort.by(Sort.Direction.DESC, "popularity") : pageable.getSort();
+                return toPage(segmentStore.match(query), sort, pageable);
+            }
+            return null;
+        }
+        BitSet matches = match(query, mode);
+        if (priced) {
+            matches.and(priceIndex.range(minPrice, maxPrice));
+        }
+        if (pageable.getSort().isUnsorted()) {
+            return toPage(relevanceIndex.rank(query, matches), pageable);
+        }
+        return toSortedPage(matches, minPrice, maxPrice, pageable);
+    }
+
+    /**
+     * Retrieves active products, optionally filtered by category, brand and price range, as a slice: one extra
+     * row is read to tell whether a next page exists, and no COUNT query is run. The approximate total is read
+     * from the in-memory facet and price bitmaps.
+     *
+     * @param categoryId The ID of the category, or null for all categories.
+     * @param brandId    The ID of the brand, or null for all brands.
+     * @param minPrice   The lowest price, inclusive, or null.
+     * @param maxPrice   The highest price, inclusive, or null.
+     * @param pageable   The pagination information.
+     * @return A PageDTO of ProductInfoDTO objects.
+     * @throws BadRequestException if the price range is invalid.
+     */
+    public PageDTO<ProductInfoDTO> getActiveProductsSlice(Integer categoryId, Integer brandId, BigDecimal minPrice,
+                                                          BigDecimal maxPrice, Pageable pageable) {
+        validatePriceRange(minPrice, maxPrice);
+        Slice<ProductInfoDTO> productSlice =
+                productRepository.readActiveListings(categoryId, brandId, minPrice, maxPrice, pageable);
+        return PageDTO.of(productSlice, approximateTotal(categoryId, brandId, minPrice, maxPrice));
+    }
+
+    /**
+     * Retrieves active products, optionally filtered by category, brand and price range, as a slice with the
+     * selected fields only: just their columns are read.
+     *
+     * @param categoryId The ID of the category, or null for all categories.
+     * @param brandId    The ID of the brand, or null for all brands.
+     * @param minPrice   The lowest price, inclusive, or null.
+     * @param maxPrice   The highest price, inclusive, or null.
+     * @param pageable   The pagination information.
+     * @param fields     The selected fields.
+     * @return A PageDTO of rows keyed by field name.
+     * @throws BadRequestException if the price range is invalid.
+     */
+    public PageDTO<Map<String, Object>> getActiveProductsSlice(Integer categoryId, Integer brandId, BigDecimal minPrice,
+                                                               BigDecimal maxPrice, Pageable pageable,
+                                                               Set<ProductField> fields) {
+        validatePriceRange(minPrice, maxPrice);
+        Slice<Map<String, Object>> rows =
+                productRepository.readActiveListingRows(fields, categoryId, brandId, minPrice, maxPrice, pageable);
+        return PageDTO.of(rows, approximateTotal(categoryId, brandId, minPrice, maxPrice));
+    }
+
+    private Long approximateTotal(Integer categoryId, Integer brandId, BigDecimal minPrice, BigDecimal maxPrice) {
+        if (!catalogIndexer.isReady()) {
+            return null;
+        }
+        if (minPrice == null && maxPrice == null) {
+            return (long) facetIndex.total(categoryId, brandId);
+        }
+        BitSet candidates = facetIndex.filter(categoryId, brandId);
+        candidates.and(priceIndex.range(minPrice, maxPrice));
+        return (long) candidates.cardinality();
+    }
+
+    /**
+     * Searches for products, optionally within a price range, as a slice. Once the in-memory indexes are built,
+     * or the node warm-started from its index segments and no price range is given, the total is known without
+     * a query; before that the LIKE scan is run once, without the matching COUNT scan.
+     *
+     * @param query    The search query.
+     * @param mode     How the query is matched against product, brand and category names.
+     * @param minPrice The lowest price, inclusive, or null.
+     * @param maxPrice The highest price, inclusive, or null.
+     * @param pageable The pagination information.
+     * @return A PageDTO of ProductInfoDTO objects representing search results.
+     * @throws BadRequestException if the price range is invalid.
+     */
+    public PageDTO<ProductInfoDTO> searchProductsSlice(String query, SearchMode mode, BigDecimal minPrice,
+                                                       BigDecimal maxPrice, Pageable pageable) {
+        validatePriceRange(minPrice, maxPrice);
+        if (!servesSearchFromMemory(minPrice, maxPrice)) {
+            return PageDTO.of(productRepository.searchListingSlice(query, minPrice, maxPrice, pageable), null);
+        }
+        Page<ProductInfoDTO> productPage = searchProducts(query, mode, minPrice, maxPrice, pageable);
+        return PageDTO.of(productPage, productPage.getTotalElements());
+    }
 
     /**
-     * Retrieves products by category with pagination.
+     * Searches for products, optionally within a price range, as a slice with the selected fields only. Once
+     * the matches can be resolved from memory, only the selected columns of the page's products are read.
      *
-     * @param categoryId The ID of the category.
+     * @param query    The search query.
+     * @param mode     How the query is matched against product, brand and category names.
+     * @param minPrice The lowest price, inclusive, or null.
+     * @param maxPrice The highest price, inclusive, or null.
      * @param pageable The pagination information.
-     * @return A page of ProductInfoDTO objects representing filtered products by category.
+     * @param fields   The selected fields.
+     * @return A PageDTO of rows keyed by field name.
+     * @throws BadRequestException if the price range is invalid.
      */
-    public Page<ProductInfoDTO> getProductsByCategory(Integer categoryId, Pageable pageable) {
-        Page<Product> productPage = productRepository.findByCategoryIdAndIsActiveTrue(categoryId, pageable);
-        return productPage.map(productInfoMapper::toDTO);
+    public PageDTO<Map<String, Object>> searchProductsSlice(String query, SearchMode mode, BigDecimal minPrice,
+                                                            BigDecimal maxPrice, Pageable pageable,
+                                                            Set<ProductField> fields) {
+        if (!servesSearchFromMemory(minPrice, maxPrice)) {
+            return searchProductsSlice(query, mode, minPrice, maxPrice, pageable)
+                    .map(product -> FieldSelection.toRow(product, fields));
+        }
+        Page<Map<String, Object>> rows = searchProducts(query, mode, minPrice, maxPrice, pageable, fields);
+        return PageDTO.of(rows, rows.getTotalElements());
+    }
+
+    // The index segments of a warm start have no prices, so a priced search waits for the in-memory indexes
+    private boolean servesSearchFromMemory(BigDecimal minPrice, BigDecimal maxPrice) {
+        return catalogIndexer.isReady() || catalogIndexer.isWarm() && minPrice == null && maxPrice == null;
     }
 
+    /**
+     * Counts the active products per brand, per category and by stock status within a listing or search result.
+     * Brand counts ignore the selected brand and category counts ignore the selected category.
+     *
+     * @param query      The search query, or null for a plain listing.
+     * @param mode       How the search query is matched.
+     * @param categoryId The selected category, or null.
+     * @param brandId    The selected brand, or null.
+     * @return A FacetCountsDTO, or null while the in-memory indexes are being built.
+     */
+    public FacetCountsDTO getFacetCounts(String query, SearchMode mode, Integer categoryId, Integer brandId) {
+        return getFacetCounts(query, mode, categoryId, brandId, null, null);
+    }
+
+    /**
+     * Counts the active products per brand, per category and by stock status within a listing or search result
+     * restricted to a price range.
+     *
+     * @param query      The search query, or null for a plain listing.
+     * @param mode       How the search query is matched.
+     * @param categoryId The selected category, or null.
+     * @param brandId    The selected brand, or null.
+     * @param minPrice   The lowest price, inclusive, or null.
+     * @param maxPrice   The highest price, inclusive, or null.
+     * @return A FacetCountsDTO, or null while the in-memory indexes are being built.
+     */
+    public FacetCountsDTO getFacetCounts(String query, SearchMode mode, Integer categoryId, Integer brandId,
+                                         BigDecimal minPrice, BigDecimal maxPrice) {
+        if (!catalogIndexer.isReady()) {
+            return null;
+        }
+        BitSet matches = query == null || query.isEmpty() ? null : match(query, mode);
+        if (minPrice != null || maxPrice != null) {
+            BitSet priced = priceIndex.range(minPrice, maxPrice);
+            if (matches != null) {
+                priced.and(matches);
+            }
+            matches = priced;
+        }
+        FacetCounts counts = facetIndex.count(matches, categoryId, brandId);
+        FacetCountsDTO facetCountsDTO = new FacetCountsDTO();
+        facetCountsDTO.setBrands(counts.getBrands());
+        facetCountsDTO.setCategories(counts.getCategories());
+        facetCountsDTO.setInStock(counts.getInStock());
+        facetCountsDTO.setOutOfStock(counts.getOutOfStock());
+        return facetCountsDTO;
+    }
+
+    private Page<ProductInfoDTO> cached(String query, SearchMode mode, Integer categoryId, Integer brandId,
+                                        BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable,
+                                        Supplier<Page<ProductInfoDTO>> loader) {
+        if (pageable.isUnpaged()) {
+            return loader.get();
+        }
+        return searchResultCache.get(new SearchResultCache.Key(query, mode, categoryId, brandId, minPrice, maxPrice,
+                pageable), loader);
+    }
+
+    private static void validatePriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
+        if (minPrice != null && minPrice.signum() < 0 || maxPrice != null && maxPrice.signum() < 0) {
+            throw new BadRequestException("Price must not be negative");
+        }
+        if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
+            throw new BadRequestException("minPrice must not be greater than maxPrice");
+        }
+    }
+
+    private BitSet match(String query, SearchMode mode) {
+        switch (mode) {
+            case SUBSTRING:
+                return trigramIndex.matchSubstring(query);
+            case FUZZY:
+                return trigramIndex.matchFuzzy(query);
+            default:
+                return productSearchIndex.match(query);
+        }
+    }
+
+    /**
+     * Retrieves search-as-you-type completions from the in-memory suggestion index.
+     *
+     * @param prefix The text typed so far.
+     * @param limit  The maximum number of suggestions.
+     * @return A list of SuggestionDTO objects ordered by popularity.
+     */
+    public List<SuggestionDTO> getSuggestions(String prefix, int limit) {
+        return suggestionIndex.suggest(prefix, limit)
+                .stream()
+                .map(suggestion -> {
+                    SuggestionDTO suggestionDTO = new SuggestionDTO();
+                    suggestionDTO.setText(suggestion.getText().trim());
+                    suggestionDTO.setType(suggestion.getType());
+                    suggestionDTO.setId(suggestion.getId());
+                    return suggestionDTO;
+                })
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Retrieves the products trending in a category, a brand or the whole catalog, from memory.
+     *
+     * @param categoryId The ID of the category, or null.
+     * @param brandId    The ID of the brand, or null.
+     * @param limit      The maximum number of products.
+     * @return A list of TrendingProductDTO objects, highest score first.
+     * @throws BadRequestException if both a category and a brand are given, or the limit is out of range.
+     */
+    public List<TrendingProductDTO> getTrendingProducts(Integer categoryId, Integer brandId, int limit) {
+        if (categoryId != null && brandId != null) {
+            throw new BadRequestException("Trending products are ranked per category or per brand, not both");
+        }
+        if (limit < 1 || limit > trendingIndex.getTopK()) {
+            throw new BadRequestException("limit must be between 1 and " + trendingIndex.getTopK());
+        }
+        return trendingIndex.top(categoryId, brandId, limit)
+                .stream()
+                .map(trending -> {
+                    ProductDocument document = trending.getDocument();
+                    TrendingProductDTO trendingDTO = new TrendingProductDTO();
+                    trendingDTO.setId(document.getId());
+                    trendingDTO.setName(document.getName());
+                    trendingDTO.setPrice(document.getPrice());
+                    trendingDTO.setQuantity(document.getQuantity());
+                    trendingDTO.setCategoryName(document.getCategoryName());
+                    trendingDTO.setBrandName(document.getBrandName());
+                    trendingDTO.setScore(trending.getScore());
+                    return trendingDTO;
+                })
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Records that a customer viewed a product, for the trending scores and the product statistics.
+     *
+     * @param productId The ID of the viewed product.
+     */
+    public void recordProductView(Integer productId) {
+        productStatsService.recordView(productId);
+        eventPublisher.publishEvent(ProductActivityEvent.view(productId));
+    }
+
+    /**
+     * Records an impression of every product shown in a listing, for the product statistics.
+     *
+     * @param productIds The IDs of the listed products.
+     */
+    public void recordImpressions(Collection<Integer> productIds) {
+        productStatsService.recordImpressions(productIds);
+    }
+
+    /**
+     * Retrieves the view and impression counts of a product, including those not yet written.
+     *
+     * @param productId The ID of the product.
+     * @return A ProductStatsDTO object.
+     * @throws ResourceNotFoundException if the product is not found.
+     */
+    public ProductStatsDTO getProductStats(Integer productId) {
+        if (!productRepository.existsById(productId)) {
+            throw new ResourceNotFoundException("Product not found with ID: " + productId);
+        }
+        return productStatsService.getStats(productId);
+    }
+
+    /**
+     * Retrieves the number of products with view and impression counts waiting to be written, and the counts
+     * dropped because too many were waiting.
+     *
+     * @return A ProductStatsTrackerDTO object.
+     */
+    public ProductStatsTrackerDTO getProductStatsTracker() {
+        return productStatsService.getTrackerStats();
+    }
+
+    /**
+     * Retrieves the size and hit/miss statistics of the catalog caches.
+     *
+     * @return A list of CacheStatsDTO objects, one per cache.
+     */
+    public List<CacheStatsDTO> getCacheStats() {
+        return List.of(searchResultCache.getStats(), productInfoCache.getStats(), responseBodyCache.getStats());
+    }
+
+    /**
+     * Retrieves the popularity increments counted in memory but not yet written to the database.
+     *
+     * @return A map of product ID to pending increment.
+     */
+    public Map<Integer, Long> getUnflushedPopularity() {
+        return popularityService.getUnflushed();
+    }
+
+    /**
+     * Sorts the given indexed products and cuts out the requested page. Only the products of the page are then
+     * loaded from the database, by {@link #listings(Page)} or {@link #listingRows(Page, Set)}.
+     *
+     * @param productIds The IDs of the matching products.
+     * @param pageable   The pagination information.
+     * @return A page of product IDs in the requested order.
+     */
+    private Page<Integer> toPage(BitSet productIds, Pageable pageable) {
+        return toPage(productIds, pageable.getSort(), pageable);
+    }
+
+    /**
+     * Like {@link #toPage(BitSet, Pageable)}, but a sort on a single indexed field is read from its precomputed
+     * order (the price index, or a sort index permutation walked only up to the end of the page) instead of
+     * sorting the matching documents.
+     */
+    private Page<Integer> toSortedPage(BitSet productIds, BigDecimal minPrice, BigDecimal maxPrice,
+                                       Pageable pageable) {
+        List<Sort.Order> orders = pageable.getSort().toList();
+        if (orders.size() == 1) {
+            Sort.Order order = orders.get(0);
+            if ("price".equals(order.getProperty())) {
+                return toPage(priceIndex.sort(productIds, minPrice, maxPrice, order.isDescending()), pageable);
+            }
+            if (sortIndex.supports(order.getProperty())) {
+                int limit = pageable.isPaged()
+                        ? (int) Math.min(Integer.MAX_VALUE, pageable.getOffset() + pageable.getPageSize())
+                        : Integer.MAX_VALUE;
+                List<Integer> leading = sortIndex.sort(productIds, order.getProperty(), order.isDescending(), limit);
+                return toPage(leading, productIds.cardinality(), pageable);
+            }
+        }
+        return toPage(productIds, pageable);
+    }
+
+    private Page<Integer> toPage(BitSet productIds, Sort sort, Pageable pageable) {
+        List<Integer> matches = productIds.stream()
+                .mapToObj(catalogIndexer::getDocument)
+                .filter(Objects::nonNull)
+                .sorted(ProductDocument.comparator(sort))
+                .map(ProductDocument::getId)
+                .collect(Collectors.toList());
+        return toPage(matches, pageable);
+    }
+
+    private Page<Integer> toPage(List<Integer> orderedIds, Pageable pageable) {
+        return toPage(orderedIds, orderedIds.size(), pageable);
+    }
+
+    /**
+     * @param orderedIds The matching products in order, at least up to the end of the requested page.
+     * @param total      The number of matching products.
+     */
+    private Page<Integer> toPage(List<Integer> orderedIds, long total, Pageable pageable) {
+        List<Integer> pageIds = orderedIds;
+        if (pageable.isPaged()) {
+            int from = (int) Math.min(pageable.getOffset(), orderedIds.size());
+            int to = Math.min(from + pageable.getPageSize(), orderedIds.size());
+            pageIds = orderedIds.subList(from, to);
+        }
+        return new PageImpl<>(List.copyOf(pageIds), pageable, total);
+    }
+
+    /**
+     * Loads the listing rows of a page of product IDs with one query.
+     */
+    private Page<ProductInfoDTO> listings(Page<Integer> productIds) {
+        Map<Integer, ProductInfoDTO> products = new HashMap<>();
+        if (productIds.hasContent()) {
+            productRepository.findListingsByIdIn(productIds.getContent())
+                    .forEach(product -> products.put(product.getId(), product));
+        }
+        return inOrder(productIds, products);
+    }
+
+    /**
+     * Loads only the selected columns of a page of product IDs with one query.
+     */
+    private Page<Map<String, Object>> listingRows(Page<Integer> productIds, Set<ProductField> fields) {
+        Map<Integer, Map<String, Object>> rows = new HashMap<>();
+        if (productIds.hasContent()) {
+            productRepository.findListingRowsByIdIn(fields, productIds.getContent())
+                    .forEach(row -> rows.put((Integer) row.get(ProductField.ID.getName()), row));
+        }
+        return inOrder(productIds, rows);
+    }
+
+    // Products deleted since they were indexed are left out of the page
+    private static <T> Page<T> inOrder(Page<Integer> productIds, Map<Integer, T> loaded) {
+        List<T> content = new ArrayList<>(productIds.getNumberOfElements());
+        for (Integer id : productIds) {
+            T product = loaded.get(id);
+            if (product != null) {
+                content.add(product);
+            }
+        }
+        return new PageImpl<>(content, productIds.getPageable(), productIds.getTotalElements());
+    }
+
+    /*    public List<ProductDTO> getProductsByCategory(Integer categoryId) {
+        List<Product> products = productRepository.findByCategoryId(categoryId);
+        return products.stream()
+                .map(productMapper::toDTO)
+                .collect(Collectors.toList());
+    }*/
+
 
     /*
     public List<ProductDTO> getProductsByBrand(Integer brandId) {
@@ -234,17 +894,6 @@ public class ProductService {
                 .map(productMapper::toDTO)
                 .collect(Collectors.toList());
     }*/
-    /**
-     * Retrieves products by brand with pagination.
-     *
-     * @param brandId The ID of the brand.
-     * @param pageable The pagination information.
-     * @return A page of ProductInfoDTO objects representing filtered products by brand.
-     */
-    public Page<ProductInfoDTO> getProductsByBrand(Integer brandId, Pageable pageable) {
-        Page<Product> productPage = productRepository.findByBrandIdAndIsActiveTrue(brandId, pageable);
-        return productPage.map(productInfoMapper::toDTO);
-    }
 
     /*private void validateProductDTO(ProductDTO productDTO){
         if(productDTO.getBrandId() == null || !brandRepository.existsById(productDTO.getBrandId())){
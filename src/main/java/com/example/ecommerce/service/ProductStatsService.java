@@ -0,0 +1,261 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.dto.ProductStatsDTO;
+import com.example.ecommerce.dto.ProductStatsTrackerDTO;
+import com.example.ecommerce.repository.ProductStatsRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Product view and listing impression counts. Requests only add to striped in-memory counters, without locks
+ * or database writes; the counts are added to the product_stats table every few seconds in one transaction of
+ * two JDBC batches, and on shutdown.
+ * <p>
+ * At most a fixed number of products have unwritten counts. When that many are pending, for instance because
+ * the database is down and flushes fail, counts for other products are dropped and counted as dropped.
+ */
+@Service
+public class ProductStatsService {
+    private static final Logger log = LoggerFactory.getLogger(ProductStatsService.class);
+
+    private static final String UPDATE_SQL =
+            "UPDATE product_stats SET views = views + ?, impressions = impressions + ? WHERE product_id = ?";
+    private static final String INSERT_SQL =
+            "INSERT INTO product_stats (product_id, views, impressions) VALUES (?, ?, ?)";
+
+    private final ProductStatsRepository productStatsRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxPendingProducts;
+    private final Map<Integer, Counts> pending = new ConcurrentHashMap<>();
+    private final Set<Counts> retired = ConcurrentHashMap.newKeySet();
+    private final LongAdder droppedViews = new LongAdder();
+    private final LongAdder droppedImpressions = new LongAdder();
+    private final ScheduledExecutorService executor;
+
+    @Autowired
+    public ProductStatsService(ProductStatsRepository productStatsRepository, JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${product-stats.max-pending-products:10000}") int maxPendingProducts,
+                               @Value("${product-stats.flush-seconds:10}") long flushSeconds) {
+        this.productStatsRepository = productStatsRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxPendingProducts = maxPendingProducts;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "product-stats-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::flushQuietly, flushSeconds, flushSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Counts a view of a product page.
+     *
+     * @param productId The ID of the viewed product.
+     */
+    public void recordView(Integer productId) {
+        Counts counts = countsOf(productId);
+        if (counts != null) {
+            counts.views.increment();
+            afterRecord(counts);
+        } else {
+            droppedViews.increment();
+        }
+    }
+
+    /**
+     * Counts an impression of each product shown in a listing.
+     *
+     * @param productIds The IDs of the listed products.
+     */
+    public void recordImpressions(Collection<Integer> productIds) {
+        for (Integer productId : productIds) {
+            Counts counts = countsOf(productId);
+            if (counts != null) {
+                counts.impressions.increment();
+                afterRecord(counts);
+            } else {
+                droppedImpressions.increment();
+            }
+        }
+    }
+
+    /**
+     * Retrieves the stored counts of a product together with those not yet written.
+     *
+     * @param productId The ID of the product.
+     * @return A ProductStatsDTO; all counts are 0 for a product never viewed or listed.
+     */
+    public ProductStatsDTO getStats(Integer productId) {
+        ProductStatsDTO stats = new ProductStatsDTO();
+        stats.setProductId(productId);
+        productStatsRepository.findById(productId).ifPresent(stored -> {
+            stats.setViews(stored.getViews());
+            stats.setImpressions(stored.getImpressions());
+        });
+        Counts counts = pending.get(productId);
+        if (counts != null) {
+            stats.setUnflushedViews(counts.views.sum());
+            stats.setUnflushedImpressions(counts.impressions.sum());
+        }
+        return stats;
+    }
+
+    /**
+     * @return The number of products with unwritten counts and the counts dropped so far.
+     */
+    public ProductStatsTrackerDTO getTrackerStats() {
+        ProductStatsTrackerDTO stats = new ProductStatsTrackerDTO();
+        stats.setPendingProducts(pending.size());
+        stats.setMaxPendingProducts(maxPendingProducts);
+        stats.setDroppedViews(droppedViews.sum());
+        stats.setDroppedImpressions(droppedImpressions.sum());
+        return stats;
+    }
+
+    /**
+     * Adds the pending counts to the product_stats table: one batch of relative updates for the products that
+     * have a row and one batch of inserts for the others.
+     *
+     * @return The number of products written.
+     * @throws org.springframework.dao.DataAccessException if a batch fails; the counts are kept for the next flush.
+     */
+    public synchronized int flush() {
+        Map<Integer, long[]> deltas = new HashMap<>();
+        // Counts recorded into counters that were already retired, handed back by the recorders
+        for (Counts counts : retired) {
+            retired.remove(counts);
+            addTo(deltas, counts.productId, counts.views.sumThenReset(), counts.impressions.sumThenReset());
+        }
+        pending.forEach((productId, counts) -> {
+            long views = counts.views.sumThenReset();
+            long impressions = counts.impressions.sumThenReset();
+            if (views == 0 && impressions == 0) {
+                // Idle since the last flush: free the slot. A recorder that still sees the counters as live
+                // counted before they were retired, so its count is read here; the others hand them back.
+                counts.retired = true;
+                pending.remove(productId, counts);
+                views = counts.views.sumThenReset();
+                impressions = counts.impressions.sumThenReset();
+            }
+            addTo(deltas, productId, views, impressions);
+        });
+        if (deltas.isEmpty()) {
+            return 0;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                // Batched update counts are not reliable with every driver, so look up the existing rows first
+                Set<Integer> stored = new HashSet<>();
+                productStatsRepository.findAllById(deltas.keySet())
+                        .forEach(stats -> stored.add(stats.getProductId()));
+                List<Object[]> updates = new ArrayList<>();
+                List<Object[]> inserts = new ArrayList<>();
+                deltas.forEach((productId, delta) -> {
+                    if (stored.contains(productId)) {
+                        updates.add(new Object[]{delta[0], delta[1], productId});
+                    } else {
+                        inserts.add(new Object[]{productId, delta[0], delta[1]});
+                    }
+                });
+                if (!updates.isEmpty()) {
+                    jdbcTemplate.batchUpdate(UPDATE_SQL, updates);
+                }
+                if (!inserts.isEmpty()) {
+                    jdbcTemplate.batchUpdate(INSERT_SQL, inserts);
+                }
+            });
+        } catch (RuntimeException e) {
+            deltas.forEach((productId, delta) -> {
+                Counts counts = pending.computeIfAbsent(productId, Counts::new);
+                counts.views.add(delta[0]);
+                counts.impressions.add(delta[1]);
+            });
+            throw e;
+        }
+        return deltas.size();
+    }
+
+    /**
+     * Writes the remaining counts before the application stops.
+     */
+    @PreDestroy
+    public void close() {
+        executor.shutdown();
+        flushQuietly();
+    }
+
+    /**
+     * @return The counters of the product, or null if too many products are pending to add another one.
+     */
+    private Counts countsOf(Integer productId) {
+        Counts counts = pending.get(productId);
+        if (counts != null) {
+            return counts;
+        }
+        if (pending.size() >= maxPendingProducts) {
+            return null;
+        }
+        return pending.computeIfAbsent(productId, Counts::new);
+    }
+
+    /**
+     * Hands counters retired by a concurrent flush back to the next one. The count was added before the check,
+     * so it is either read by the flush that retired them or by the next one, and never twice.
+     */
+    private void afterRecord(Counts counts) {
+        if (counts.retired) {
+            retired.add(counts);
+        }
+    }
+
+    private static void addTo(Map<Integer, long[]> deltas, Integer productId, long views, long impressions) {
+        if (views != 0 || impressions != 0) {
+            long[] delta = deltas.computeIfAbsent(productId, id -> new long[2]);
+            delta[0] += views;
+            delta[1] += impressions;
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Cannot write product statistics; {} products pending, {} views and {} impressions dropped",
+                    pending.size(), droppedViews.sum(), droppedImpressions.sum(), e);
+        }
+    }
+
+    private static final class Counts {
+        private final Integer productId;
+        private final LongAdder views = new LongAdder();
+        private final LongAdder impressions = new LongAdder();
+        private volatile boolean retired;
+
+        private Counts(Integer productId) {
+            this.productId = productId;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.ecommerce.storage;
+
+import com.example.ecommerce.exception.BadRequestException;
+import com.example.ecommerce.exception.ImageStorageException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Content-addressed store of product images. Each image is kept once, named after the SHA-256 of its bytes, so
+ * uploading the same image again stores nothing and two uploads with the same file name cannot overwrite each
+ * other. The name changes whenever the content does, so the URLs can be cached by clients forever.
+ * <p>
+ * An upload is streamed once through a {@link FileChannel} into a temporary file in the store directory while
+ * its hash is computed, then renamed to its final name, so a partially written image is never visible.
+ */
+@Component
+public class ImageStore {
+    /**
+     * The URL path under which stored images are served.
+     */
+    public static final String URL_PREFIX = "/images/content/";
+
+    private static final List<String> EXTENSIONS = List.of("jpg", "jpeg", "png", "gif", "webp", "avif");
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path directory;
+
+    @Autowired
+    public ImageStore(@Value("${image.store.path:${upload.path}/content}") String directory) {
+        this(Paths.get(directory));
+    }
+
+    public ImageStore(Path directory) {
+        this.directory = directory.toAbsolutePath().normalize();
+        try {
+            Files.createDirectories(this.directory);
+        } catch (IOException e) {
+            throw new ImageStorageException("Could not create the image directory " + this.directory + ": "
+                    + e.getMessage());
+        }
+    }
+
+    /**
+     * @return The directory holding the stored images.
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Stores an uploaded image unless an image with the same content is already stored.
+     *
+     * @param image The uploaded image; its file name only provides the extension.
+     * @return The URL of the image, such as {@code /images/content/<sha-256>.jpg}.
+     * @throws BadRequestException   if the file name does not have an image extension.
+     * @throws ImageStorageException if the image cannot be written.
+     */
+    public String store(MultipartFile image) {
+        String extension = extension(image.getOriginalFilename());
+        try (InputStream in = image.getInputStream()) {
+            return store(in, extension);
+        } catch (IOException e) {
+            throw new ImageStorageException("Could not store image file. Error: " + e.getMessage());
+        }
+    }
+
+    private String store(InputStream in, String extension) throws IOException {
+        Path temp = Files.createTempFile(directory, "upload-", ".tmp");
+        try {
+            String hash = copy(in, temp);
+            String name = hash + "." + extension;
+            Path target = directory.resolve(name);
+            if (!Files.exists(target)) {
+                move(temp, target);
+            }
+            return URL_PREFIX + name;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // Writes the stream to the file and returns the hex SHA-256 of its bytes
+    private static String copy(InputStream in, Path file) throws IOException {
+        MessageDigest digest = sha256();
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        try (ReadableByteChannel source = Channels.newChannel(in);
+             FileChannel target = FileChannel.open(file, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (source.read(buffer) >= 0) {
+                buffer.flip();
+                digest.update(buffer.array(), 0, buffer.limit());
+                while (buffer.hasRemaining()) {
+                    target.write(buffer);
+                }
+                buffer.clear();
+            }
+            target.force(true);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static void move(Path temp, Path target) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            try {
+                Files.move(temp, target);
+            } catch (FileAlreadyExistsException concurrent) {
+                // Another upload of the same content won the race; its file is identical
+            }
+        }
+    }
+
+    private static String extension(String fileName) {
+        int dot = fileName != null ? fileName.lastIndexOf('.') : -1;
+        String extension = dot >= 0 ? fileName.substring(dot + 1).toLowerCase(Locale.ROOT) : "";
+        if (!EXTENSIONS.contains(extension)) {
+            throw new BadRequestException("Unsupported image type '" + extension + "', expected any of "
+                    + String.join(", ", EXTENSIONS));
+        }
+        return extension.equals("jpeg") ? "jpg" : extension;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
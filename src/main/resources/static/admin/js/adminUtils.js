@@ -84,8 +84,8 @@ function loadCustomers(page = 0) {
                     window.location.href = `/admin/manage?type=customer&id=${customerId}`;
                 });
             });
-            currentPage = data.number;
-            totalPages = data.totalPages;
+            currentPage = data.page;
+            totalPages = Math.ceil(data.total / data.size);
             updatePagination(loadCustomers, currentPage);
         })
         .catch(error => console.error('Error:', error));
@@ -191,8 +191,8 @@ function loadProducts(page = 0) {
                 });
             });
 
-            currentPage = data.number;
-            totalPages = data.totalPages;
+            currentPage = data.page;
+            totalPages = Math.ceil(data.total / data.size);
             updatePagination(loadProducts, currentPage);
         })
         .catch(error => console.error('Error:', error));
@@ -376,8 +376,8 @@ function loadOrders(page = 0) {
                     window.location.href = `/admin/manage?type=order&id=${orderId}`;
                 });
             });
-            currentPage = data.number;
-            totalPages = data.totalPages;
+            currentPage = data.page;
+            totalPages = Math.ceil(data.total / data.size);
             updatePagination(loadOrders, currentPage);
         })
         .catch(error => console.error('Error:', error));
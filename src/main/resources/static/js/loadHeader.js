@@ -17,6 +17,15 @@ function loadHeader() {
                     }
                 });
             }
+            // Suggest completions while the user is typing
+            const searchInput = document.getElementById('search-query');
+            if (searchInput) {
+                let suggestTimer = null;
+                searchInput.addEventListener('input', () => {
+                    clearTimeout(suggestTimer);
+                    suggestTimer = setTimeout(() => loadSuggestions(searchInput.value), 150);
+                });
+            }
             // Add a handler for clicking on the cart icon
             document.getElementById('cart-link').addEventListener('click', function (event) {
                 event.preventDefault();
@@ -25,6 +34,25 @@ function loadHeader() {
         })
         .catch(error => console.error('Error when loading the header:', error));
 }
+// Function for loading search suggestions into the datalist of the search box
+function loadSuggestions(prefix) {
+    const suggestionsList = document.getElementById('search-suggestions');
+    if (!prefix.trim()) {
+        suggestionsList.innerHTML = '';
+        return;
+    }
+    fetch(`/home/suggest?prefix=${encodeURIComponent(prefix)}`)
+        .then(response => response.json())
+        .then(suggestions => {
+            suggestionsList.innerHTML = '';
+            suggestions.forEach(suggestion => {
+                const option = document.createElement('option');
+                option.value = suggestion.text;
+                suggestionsList.appendChild(option);
+            });
+        })
+        .catch(error => console.error('Error when loading suggestions:', error));
+}
 function checkUserRole() {
     fetch('/api/user/info')
         .then(response => response.json())
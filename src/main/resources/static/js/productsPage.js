@@ -6,6 +6,8 @@ document.addEventListener('DOMContentLoaded', () => {
     let selectedBrand = null;
     let currentPage = 0;
     let totalPages = 0;
+    let facets = null; // Facet counts of the last loaded listing
+    let cursors = ['']; // Keyset cursor of every visited page of a listing; cursors[n] loads page n
 
     // Getting request parameters from URL
     const urlParams = new URLSearchParams(window.location.search);
@@ -19,13 +21,13 @@ document.addEventListener('DOMContentLoaded', () => {
         if (searchQuery && selectedCategory === null && selectedBrand === null) {
             title = `Search: "${searchQuery}"`;
         } else if (selectedCategory && selectedBrand && selectedBrand !== "0" && selectedCategory !== "0") {
-            title = `${document.querySelector('#brands-list a[data-brand-id="' + selectedBrand + '"]').textContent.trim()} ${document.querySelector('#categories-list a[data-category-id="' + selectedCategory + '"]').textContent.trim()}`;
+            title = `${document.querySelector('#brands-list a[data-brand-id="' + selectedBrand + '"]').getAttribute('data-name')} ${document.querySelector('#categories-list a[data-category-id="' + selectedCategory + '"]').getAttribute('data-name')}`;
         }
         else if(selectedCategory !== "0" && selectedBrand === "0"){
-            title = `All ${document.querySelector('#categories-list a[data-category-id="' + selectedCategory + '"]').textContent.trim()}`;
+            title = `All ${document.querySelector('#categories-list a[data-category-id="' + selectedCategory + '"]').getAttribute('data-name')}`;
         }
         else if(selectedCategory === "0" && selectedBrand !== "0"){
-            title = `${document.querySelector('#brands-list a[data-brand-id="' + selectedBrand + '"]').textContent.trim()} products`;
+            title = `${document.querySelector('#brands-list a[data-brand-id="' + selectedBrand + '"]').getAttribute('data-name')} products`;
         }
         productsTitle.textContent = title; // Updating the header text
     }
@@ -44,11 +46,20 @@ document.addEventListener('DOMContentLoaded', () => {
             url += `&brandId=${brandId}`;
         }
         if (query) {
-            url += `&query=${encodeURIComponent(query)}`; // Add a search parameter
+            url += `&query=${encodeURIComponent(query)}&mode=FUZZY`; // Add a search parameter, tolerating typos
+        }
+        // Listings in catalog order are paged with keyset cursors, so deep pages cost the same as the first one;
+        // other orders are read from the server's precomputed sort orders by page number
+        const keyset = !(query && !categoryId && !brandId) && (sortField === 'id' || sortField === 'newest');
+        if (keyset) {
+            if (page === 0) {
+                cursors = [''];
+            }
+            url += `&after=${encodeURIComponent(cursors[page])}`;
         }
-        //number - current page
-        // totalPages -Total pages
         // content - list of elements
+        // page, size, total - current page number, page size and number of matches (numbered pages)
+        // next - cursor of the following page (keyset pages)
         fetch(url)
             .then(response => response.json())
             .then(data => {
@@ -59,15 +70,43 @@ document.addEventListener('DOMContentLoaded', () => {
                 });
                 addProductEventListeners();
                 // Updating pagination information
-                currentPage = data.number;
-                totalPages = data.totalPages;
+                if (keyset) {
+                    // Without a total count, the next page exists as long as the server returns a cursor
+                    currentPage = page;
+                    if (data.next) {
+                        cursors[page + 1] = data.next;
+                    }
+                    totalPages = data.next ? page + 2 : page + 1;
+                } else {
+                    currentPage = data.page;
+                    totalPages = Math.ceil(data.total / data.size);
+                }
                 updatePagination();
+                facets = data.facets;
+                updateFacetCounts();
                 updateProductsTitle(); // Update header after selecting a category
 
             })
             .catch(error => console.error('Error when loading products:', error));
     }
 
+    // Function for showing the number of matching products next to each category and brand
+    function updateFacetCounts() {
+        if (!facets) {
+            return;
+        }
+        document.querySelectorAll('#categories-list a').forEach(link => {
+            const id = link.getAttribute('data-category-id');
+            const count = id === "0" ? null : (facets.categories[id] || 0);
+            link.querySelector('.facet-count').textContent = count === null ? '' : ` (${count})`;
+        });
+        document.querySelectorAll('#brands-list a').forEach(link => {
+            const id = link.getAttribute('data-brand-id');
+            const count = id === "0" ? null : (facets.brands[id] || 0);
+            link.querySelector('.facet-count').textContent = count === null ? '' : ` (${count})`;
+        });
+    }
+
     // Function for updating pagination
     function updatePagination() {
         paginationContainer.innerHTML = '';
@@ -106,20 +145,21 @@ document.addEventListener('DOMContentLoaded', () => {
         const selectedOption = sortOptions.value.split('-');
         const sortField = selectedOption[0];
         const sortDirection = selectedOption[1];
-        loadProducts(selectedCategory, selectedBrand, sortField, sortDirection, currentPage, searchQuery);
+        loadProducts(selectedCategory, selectedBrand, sortField, sortDirection, 0, searchQuery); // Cursors depend on the sort
     });
 
     // Category click handler
     document.getElementById('categories-list').addEventListener('click', (event) => {
-        if (event.target.tagName === 'A') {
+        const link = event.target.closest('a');
+        if (link) {
             // First, remove the 'selected' class from all elements
             document.querySelectorAll('#categories-list a').forEach(link => link.classList.remove('selected'));
 
             // Add the 'selected' class to the current element
-            event.target.classList.add('selected');
+            link.classList.add('selected');
 
             // Get the selected category and load products
-            selectedCategory = event.target.getAttribute('data-category-id');
+            selectedCategory = link.getAttribute('data-category-id');
 
 
             // I added this check to mark as selected the AllBrands area by default if it is not selected
@@ -136,15 +176,16 @@ document.addEventListener('DOMContentLoaded', () => {
 
     // Brand click handler
     document.getElementById('brands-list').addEventListener('click', (event) => {
-        if (event.target.tagName === 'A') {
+        const link = event.target.closest('a');
+        if (link) {
             // First remove the 'selected' class from all elements
             document.querySelectorAll('#brands-list a').forEach(link => link.classList.remove('selected'));
 
             // Add the 'selected' class to the current element
-            event.target.classList.add('selected');
+            link.classList.add('selected');
 
             // Get the selected brand and load products
-            selectedBrand = event.target.getAttribute('data-brand-id');
+            selectedBrand = link.getAttribute('data-brand-id');
 
 
             // I added this check to mark as selected the AllCategories area by default if it is not selected
@@ -161,7 +202,13 @@ document.addEventListener('DOMContentLoaded', () => {
     // Load products on the first page load
     // Check if there is a search query when the page loads
     if (searchQuery) {
-        loadProducts(null, null, 'id', 'ASC', 0, searchQuery); // Loading products with a search query
+        // Search results are ranked by relevance unless the user picks another order
+        const relevanceOption = document.createElement('option');
+        relevanceOption.value = 'relevance-DESC';
+        relevanceOption.textContent = 'Best match';
+        sortOptions.prepend(relevanceOption);
+        sortOptions.value = 'relevance-DESC';
+        loadProducts(null, null, 'relevance', 'DESC', 0, searchQuery); // Loading products with a search query
     } else {
         // Load products without a search query
         loadProducts();
@@ -178,19 +225,20 @@ document.addEventListener('DOMContentLoaded', () => {
             const allCategoriesItem = document.createElement('li');
             allCategoriesItem.className = '';
             if(searchQuery){
-                allCategoriesItem.innerHTML = `<a class="nav-link" href="#" data-category-id="0">All Categories</a>`;
+                allCategoriesItem.innerHTML = `<a class="nav-link" href="#" data-category-id="0" data-name="All Categories">All Categories<span class="facet-count"></span></a>`;
             }
             else{
-                allCategoriesItem.innerHTML = `<a class="nav-link selected" href="#" data-category-id="0">All Categories</a>`;
+                allCategoriesItem.innerHTML = `<a class="nav-link selected" href="#" data-category-id="0" data-name="All Categories">All Categories<span class="facet-count"></span></a>`;
             }
             categoriesList.appendChild(allCategoriesItem);
 
             categories.forEach(category => {
                 const categoryItem = document.createElement('li');
                 categoryItem.className = '';
-                categoryItem.innerHTML = `<a class="nav-link" href="#" data-category-id="${category.id}">${category.name}</a>`;
+                categoryItem.innerHTML = `<a class="nav-link" href="#" data-category-id="${category.id}" data-name="${category.name}">${category.name}<span class="facet-count"></span></a>`;
                 categoriesList.appendChild(categoryItem);
             });
+            updateFacetCounts();
         })
         .catch(error => console.error('Error when loading categories:', error));
 
@@ -205,10 +253,10 @@ document.addEventListener('DOMContentLoaded', () => {
             const allBrandsItem = document.createElement('li');
             allBrandsItem.className = '';
             if(searchQuery){
-                allBrandsItem.innerHTML = `<a class="nav-link" href="#" data-brand-id="0">All Brands</a>`;
+                allBrandsItem.innerHTML = `<a class="nav-link" href="#" data-brand-id="0" data-name="All Brands">All Brands<span class="facet-count"></span></a>`;
             }
             else{
-                allBrandsItem.innerHTML = `<a class="nav-link selected" href="#" data-brand-id="0">All Brands</a>`;
+                allBrandsItem.innerHTML = `<a class="nav-link selected" href="#" data-brand-id="0" data-name="All Brands">All Brands<span class="facet-count"></span></a>`;
 
             }
             brandsList.appendChild(allBrandsItem);
@@ -216,9 +264,10 @@ document.addEventListener('DOMContentLoaded', () => {
             brands.forEach(brand => {
                 const brandItem = document.createElement('li');
                 brandItem.className = '';
-                brandItem.innerHTML = `<a class="nav-link" href="#" data-brand-id="${brand.id}">${brand.name}</a>`;
+                brandItem.innerHTML = `<a class="nav-link" href="#" data-brand-id="${brand.id}" data-name="${brand.name}">${brand.name}<span class="facet-count"></span></a>`;
                 brandsList.appendChild(brandItem);
             });
+            updateFacetCounts();
         })
         .catch(error => console.error('Error when loading brands:', error));
 });
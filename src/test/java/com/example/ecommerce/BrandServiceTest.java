@@ -1,8 +1,10 @@
 package com.example.ecommerce;
 
 
+import com.example.ecommerce.cache.ReferenceDataCache;
 import com.example.ecommerce.dto.BrandDTO;
 import com.example.ecommerce.entity.Brand;
+import com.example.ecommerce.event.CatalogChangeEvent;
 import com.example.ecommerce.exception.ResourceNotFoundException;
 import com.example.ecommerce.mapper.BrandMapper;
 import com.example.ecommerce.repository.BrandRepository;
@@ -14,8 +16,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -35,6 +37,12 @@ class BrandServiceTest {
     @Mock
     private BrandMapper brandMapper;
 
+    @Mock
+    private ReferenceDataCache referenceDataCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private BrandService brandService;
 
@@ -54,23 +62,21 @@ class BrandServiceTest {
 
     @Test
     void testGetBrandByIdSuccess() {
-        when(brandRepository.findById(1)).thenReturn(Optional.of(brand));
-        when(brandMapper.toDTO(brand)).thenReturn(brandDTO);
+        when(referenceDataCache.getBrand(1)).thenReturn(brandDTO);
 
         BrandDTO result = brandService.getBrandById(1);
 
         assertEquals(1, result.getId());
         assertEquals("Test Brand", result.getName());
-        verify(brandRepository, times(1)).findById(1);
-        verify(brandMapper, times(1)).toDTO(brand);
+        verifyNoInteractions(brandRepository);
     }
 
     @Test
     void testGetBrandByIdThrowsException() {
-        when(brandRepository.findById(1)).thenReturn(Optional.empty());
+        when(referenceDataCache.getBrand(1)).thenReturn(null);
 
         assertThrows(ResourceNotFoundException.class, () -> brandService.getBrandById(1));
-        verify(brandRepository, times(1)).findById(1);
+        verify(referenceDataCache, times(1)).getBrand(1);
     }
 
     @Test
@@ -115,6 +121,7 @@ class BrandServiceTest {
 
         verify(productRepository, times(1)).clearBrandFromProducts(1);
         verify(brandRepository, times(1)).delete(brand);
+        verify(eventPublisher, times(1)).publishEvent(any(CatalogChangeEvent.class));
     }
 
     @Test
@@ -127,15 +134,11 @@ class BrandServiceTest {
 
     @Test
     void testGetAllBrands() {
-        List<Brand> brandList = new ArrayList<>();
-        brandList.add(brand);
-
-        when(brandRepository.findAll()).thenReturn(brandList);
-        when(brandMapper.toDTO(brand)).thenReturn(brandDTO);
+        when(referenceDataCache.getBrands()).thenReturn(List.of(brandDTO));
 
         List<BrandDTO> result = brandService.getAllBrands();
 
         assertEquals(1, result.size());
-        verify(brandRepository, times(1)).findAll();
+        verifyNoInteractions(brandRepository);
     }
 }
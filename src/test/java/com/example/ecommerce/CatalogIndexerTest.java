@@ -0,0 +1,102 @@
+package com.example.ecommerce;
+
+import com.example.ecommerce.cache.CatalogVersion;
+import com.example.ecommerce.entity.Brand;
+import com.example.ecommerce.entity.Category;
+import com.example.ecommerce.entity.Product;
+import com.example.ecommerce.repository.ProductRepository;
+import com.example.ecommerce.search.CatalogIndexer;
+import com.example.ecommerce.search.ProductDocument;
+import com.example.ecommerce.search.ProductIndex;
+import com.example.ecommerce.search.SegmentStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogIndexerTest {
+
+    @TempDir
+    Path directory;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductIndex index;
+
+    private SegmentStore segmentStore;
+    private CatalogVersion catalogVersion;
+    private CatalogIndexer catalogIndexer;
+
+    @BeforeEach
+    void setUp() {
+        segmentStore = new SegmentStore(directory.toString());
+        catalogVersion = new CatalogVersion();
+        catalogIndexer = new CatalogIndexer(productRepository, List.of(index), segmentStore, catalogVersion);
+    }
+
+    @AfterEach
+    void tearDown() {
+        segmentStore.close();
+    }
+
+    @Test
+    void testReconcileReindexesOnlyProductsThatDiffer() {
+        Product unchanged = product(1, "799.00", true);
+        Product repriced = product(2, "769.00", true);
+        Product deactivated = product(3, "1220.00", true);
+        when(productRepository.findAll()).thenReturn(List.of(unchanged, repriced, deactivated));
+        catalogIndexer.buildIndexes();
+        long version = catalogVersion.get();
+
+        Product repricedNow = product(2, "699.00", true);
+        Product deactivatedNow = product(3, "1220.00", false);
+        Product added = product(4, "3179.00", true);
+        when(productRepository.findAll()).thenReturn(List.of(product(1, "799.0", true), repricedNow, deactivatedNow,
+                added));
+        when(productRepository.findAllById(any())).thenReturn(List.of(repricedNow, deactivatedNow, added));
+
+        assertEquals(3, catalogIndexer.reconcile());
+
+        assertEquals(new BigDecimal("699.00"), catalogIndexer.getDocument(2).getPrice());
+        assertNull(catalogIndexer.getDocument(3));
+        assertEquals(4, catalogIndexer.getDocument(4).getId());
+        verify(index, never()).put(argThat((ProductDocument document) -> document.getId() == 1));
+        verify(index).remove(3);
+        assertEquals(version + 1, catalogVersion.get());
+        assertEquals(0, catalogIndexer.reconcile());
+    }
+
+    private static Product product(int id, String price, boolean active) {
+        Brand brand = new Brand();
+        brand.setId(1);
+        brand.setName("Apple");
+        Category category = new Category();
+        category.setId(1);
+        category.setName("Smartphones");
+        Product product = new Product();
+        product.setId(id);
+        product.setName("Product " + id);
+        product.setPrice(new BigDecimal(price));
+        product.setQuantity(5);
+        product.setPopularity(0);
+        product.setIsActive(active);
+        product.setBrand(brand);
+        product.setCategory(category);
+        return product;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.ecommerce;
+
+import com.example.ecommerce.cache.CatalogVersion;
+import com.example.ecommerce.event.CatalogChangeEvent;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CatalogVersionTest {
+
+    private final CatalogVersion catalogVersion = new CatalogVersion();
+
+    @Test
+    void testProductChangeIncrementsOnlyThatProduct() {
+        catalogVersion.increment(CatalogChangeEvent.product(1));
+        catalogVersion.increment(CatalogChangeEvent.product(1));
+
+        assertEquals(2, catalogVersion.getProduct(1));
+        assertEquals(0, catalogVersion.getProduct(2));
+        assertEquals(0, catalogVersion.getBrands());
+        assertEquals(0, catalogVersion.getCategories());
+        assertEquals(2, catalogVersion.get());
+    }
+
+    @Test
+    void testPopularityChangeLeavesCatalogVersionAlone() {
+        catalogVersion.increment(CatalogChangeEvent.product(1));
+
+        assertEquals(1, catalogVersion.increment(CatalogChangeEvent.popularity(1)));
+        assertEquals(2, catalogVersion.getProduct(1));
+        assertEquals(1, catalogVersion.getPopularity());
+        assertEquals(1, catalogVersion.get());
+    }
+
+    @Test
+    void testBrandAndCategoryChangesIncrementTheirTables() {
+        catalogVersion.increment(CatalogChangeEvent.brand(3));
+        catalogVersion.increment(CatalogChangeEvent.category(4));
+
+        assertEquals(1, catalogVersion.getBrands());
+        assertEquals(1, catalogVersion.getCategories());
+        assertEquals(0, catalogVersion.getProduct(3));
+        assertEquals(2, catalogVersion.get());
+    }
+}
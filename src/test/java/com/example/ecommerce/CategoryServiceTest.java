@@ -1,7 +1,9 @@
 package com.example.ecommerce;
 
+import com.example.ecommerce.cache.ReferenceDataCache;
 import com.example.ecommerce.dto.CategoryDTO;
 import com.example.ecommerce.entity.Category;
+import com.example.ecommerce.event.CatalogChangeEvent;
 import com.example.ecommerce.exception.ResourceNotFoundException;
 import com.example.ecommerce.mapper.CategoryMapper;
 import com.example.ecommerce.repository.CategoryRepository;
@@ -13,8 +15,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -34,6 +36,12 @@ import static org.mockito.Mockito.*;
     @Mock
     private CategoryMapper categoryMapper;
 
+    @Mock
+    private ReferenceDataCache referenceDataCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private CategoryService categoryService;
 
@@ -53,23 +61,21 @@ import static org.mockito.Mockito.*;
 
     @Test
      void testGetCategoryByIdSuccess() {
-        when(categoryRepository.findById(1)).thenReturn(Optional.of(category));
-        when(categoryMapper.toDTO(category)).thenReturn(categoryDTO);
+        when(referenceDataCache.getCategory(1)).thenReturn(categoryDTO);
 
         CategoryDTO result = categoryService.getCategoryById(1);
 
         assertEquals(1, result.getId());
         assertEquals("Test Category", result.getName());
-        verify(categoryRepository, times(1)).findById(1);
-        verify(categoryMapper, times(1)).toDTO(category);
+        verifyNoInteractions(categoryRepository);
     }
 
     @Test
      void testGetCategoryByIdThrowsException() {
-        when(categoryRepository.findById(1)).thenReturn(Optional.empty());
+        when(referenceDataCache.getCategory(1)).thenReturn(null);
 
         assertThrows(ResourceNotFoundException.class, () -> categoryService.getCategoryById(1));
-        verify(categoryRepository, times(1)).findById(1);
+        verify(referenceDataCache, times(1)).getCategory(1);
     }
 
     @Test
@@ -114,6 +120,7 @@ import static org.mockito.Mockito.*;
 
         verify(productRepository, times(1)).clearCategoryFromProducts(1);
         verify(categoryRepository, times(1)).delete(category);
+        verify(eventPublisher, times(1)).publishEvent(any(CatalogChangeEvent.class));
     }
 
     @Test
@@ -126,15 +133,11 @@ import static org.mockito.Mockito.*;
 
     @Test
      void testGetAllCategories() {
-        List<Category> categoryList = new ArrayList<>();
-        categoryList.add(category);
-
-        when(categoryRepository.findAll()).thenReturn(categoryList);
-        when(categoryMapper.toDTO(category)).thenReturn(categoryDTO);
+        when(referenceDataCache.getCategories()).thenReturn(List.of(categoryDTO));
 
         List<CategoryDTO> result = categoryService.getAllCategories();
 
         assertEquals(1, result.size());
-        verify(categoryRepository, times(1)).findAll();
+        verifyNoInteractions(categoryRepository);
     }
 }
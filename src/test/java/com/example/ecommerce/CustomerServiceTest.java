@@ -3,11 +3,13 @@ package com.example.ecommerce;
 import com.example.ecommerce.dto.CartDTO;
 import com.example.ecommerce.dto.CustomerDTO;
 import com.example.ecommerce.dto.CustomerInfoDTO;
+import com.example.ecommerce.dto.PageDTO;
 import com.example.ecommerce.entity.Customer;
 import com.example.ecommerce.entity.Role;
 import com.example.ecommerce.exception.DuplicateResourceException;
 import com.example.ecommerce.exception.ResourceNotFoundException;
 import com.example.ecommerce.mapper.CustomerMapper;
+import com.example.ecommerce.pagination.KeysetCursor;
 import com.example.ecommerce.repository.CustomerRepository;
 import com.example.ecommerce.service.CartService;
 import com.example.ecommerce.service.CustomerService;
@@ -17,12 +19,17 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -162,6 +169,18 @@ import static org.mockito.Mockito.*;
         verify(customerRepository, times(1)).findAll(any(Pageable.class));
     }
 
+    @Test
+     void testGetAllCustomersWithCursor() {
+        Window<Customer> window = Window.from(List.of(customer), index -> ScrollPosition.forward(Map.of("id", 1)), true);
+        when(customerRepository.findAllBy(ScrollPosition.keyset(), Sort.by("id"), Limit.of(10))).thenReturn(window);
+        when(customerMapper.toDTO(customer)).thenReturn(customerDTO);
+
+        PageDTO<CustomerDTO> result = customerService.getAllCustomers("", 10);
+
+        assertEquals(1, result.getContent().size());
+        assertEquals(ScrollPosition.forward(Map.of("id", 1)), KeysetCursor.decode(result.getNext(), Sort.by("id")));
+    }
+
     @Test
      void testFindByEmailSuccess() {
         when(customerRepository.findByEmail("test@example.com")).thenReturn(Optional.of(customer));
@@ -0,0 +1,105 @@
+package com.example.ecommerce;
+
+import com.example.ecommerce.search.FacetCounts;
+import com.example.ecommerce.search.FacetIndex;
+import com.example.ecommerce.search.ProductDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.BitSet;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FacetIndexTest {
+
+    private FacetIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        index = new FacetIndex();
+        index.put(document(1, 1, 1, 5));
+        index.put(document(2, 2, 1, 0));
+        index.put(document(3, 2, 2, 3));
+        index.put(document(4, 1, 3, 2));
+    }
+
+    @Test
+    void testFilterByCategoryAndBrand() {
+        assertEquals(bits(1, 2), index.filter(1, null));
+        assertEquals(bits(2, 3), index.filter(null, 2));
+        assertEquals(bits(2), index.filter(1, 2));
+        assertTrue(index.filter(3, 2).isEmpty());
+        assertTrue(index.filter(99, null).isEmpty());
+    }
+
+    @Test
+    void testTotalPerFilterCombination() {
+        assertEquals(4, index.total(null, null));
+        assertEquals(2, index.total(1, null));
+        assertEquals(2, index.total(null, 2));
+        assertEquals(1, index.total(1, 2));
+        assertEquals(0, index.total(3, 2));
+        assertEquals(0, index.total(99, null));
+        assertEquals(0, index.total(1, 99));
+    }
+
+    @Test
+    void testCountWithoutFilters() {
+        FacetCounts counts = index.count(null, null, null);
+
+        assertEquals(Map.of(1, 2, 2, 2), counts.getBrands());
+        assertEquals(Map.of(1, 2, 2, 1, 3, 1), counts.getCategories());
+        assertEquals(4, counts.getTotal());
+        assertEquals(3, counts.getInStock());
+        assertEquals(1, counts.getOutOfStock());
+    }
+
+    @Test
+    void testCountIgnoresOwnFacetSelection() {
+        FacetCounts counts = index.count(null, 1, 2);
+
+        // Brands counted within category 1, categories counted within brand 2
+        assertEquals(Map.of(1, 1, 2, 1), counts.getBrands());
+        assertEquals(Map.of(1, 1, 2, 1), counts.getCategories());
+        assertEquals(1, counts.getTotal());
+        assertEquals(0, counts.getInStock());
+        assertEquals(1, counts.getOutOfStock());
+    }
+
+    @Test
+    void testCountWithinSearchMatches() {
+        FacetCounts counts = index.count(bits(1, 3, 7), null, null);
+
+        assertEquals(Map.of(1, 1, 2, 1), counts.getBrands());
+        assertEquals(Map.of(1, 1, 2, 1), counts.getCategories());
+        assertEquals(2, counts.getTotal());
+    }
+
+    @Test
+    void testRemoveAndReplace() {
+        index.remove(4);
+        index.put(document(2, 1, 2, 4));
+
+        FacetCounts counts = index.count(null, null, null);
+        assertEquals(Map.of(1, 2, 2, 1), counts.getBrands());
+        assertEquals(Map.of(1, 1, 2, 2), counts.getCategories());
+        assertEquals(3, counts.getInStock());
+        assertEquals(0, counts.getOutOfStock());
+    }
+
+    private ProductDocument document(int id, int brandId, int categoryId, int quantity) {
+        return new ProductDocument(id, "Product " + id, brandId, "Brand " + brandId, categoryId,
+                "Category " + categoryId, BigDecimal.ONE, quantity, 0);
+    }
+
+    private BitSet bits(int... ids) {
+        BitSet bits = new BitSet();
+        for (int id : ids) {
+            bits.set(id);
+        }
+        return bits;
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.ecommerce;
+
+import com.example.ecommerce.dto.ProductInfoDTO;
+import com.example.ecommerce.exception.BadRequestException;
+import com.example.ecommerce.projection.FieldSelection;
+import com.example.ecommerce.projection.OrderField;
+import com.example.ecommerce.projection.ProductField;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FieldSelectionTest {
+
+    @Test
+    void testParseAlwaysSelectsId() {
+        Set<ProductField> fields = FieldSelection.parse("price, name,,price", ProductField.class);
+
+        assertEquals(Set.of(ProductField.ID, ProductField.NAME, ProductField.PRICE), fields);
+        assertEquals("id,name,price", FieldSelection.key(fields));
+    }
+
+    @Test
+    void testAbsentParameterSelectsCompleteDTOs() {
+        assertNull(FieldSelection.parse(null, ProductField.class));
+        assertNull(FieldSelection.parse(" ", OrderField.class));
+        assertNull(FieldSelection.key(null));
+    }
+
+    @Test
+    void testUnknownFieldIsRejected() {
+        BadRequestException exception = assertThrows(BadRequestException.class,
+                () -> FieldSelection.parse("status,password", OrderField.class));
+
+        assertTrue(exception.getMessage().startsWith("Unknown field 'password'"));
+    }
+
+    @Test
+    void testRowKeepsSelectedFieldsInDeclarationOrder() {
+        ProductInfoDTO product = new ProductInfoDTO(7, "Galaxy S24", new BigDecimal("999.99"), 12, "Smartphones",
+                "Samsung", "/images/products/galaxy-s24.jpg", 40, true);
+
+        Map<String, Object> row = FieldSelection.toRow(product,
+                FieldSelection.parse("brandName,price", ProductField.class));
+
+        assertEquals(List.of("id", "price", "brandName"), List.copyOf(row.keySet()));
+        assertEquals(7, row.get("id"));
+        assertEquals(new BigDecimal("999.99"), row.get("price"));
+        assertEquals("Samsung", row.get("brandName"));
+    }
+}
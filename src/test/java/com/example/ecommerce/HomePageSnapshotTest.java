@@ -0,0 +1,158 @@
+package com.example.ecommerce;
+
+import com.example.ecommerce.cache.HomePageSnapshot;
+import com.example.ecommerce.dto.ProductDTO;
+import com.example.ecommerce.entity.Product;
+import com.example.ecommerce.mapper.ProductMapper;
+import com.example.ecommerce.repository.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HomePageSnapshotTest {
+
+    private static final int SIZE = 2 * HomePageSnapshot.PAGE_SIZE;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductMapper productMapper;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private HomePageSnapshot snapshot;
+    private List<ProductDTO> top;
+
+    @BeforeEach
+    void setUp() {
+        snapshot = new HomePageSnapshot(productRepository, productMapper, objectMapper, SIZE, 10, 3600);
+        top = new ArrayList<>();
+        for (int id = 1; id <= SIZE; id++) {
+            top.add(toDTO(product(id, 100 - id, 5)));
+        }
+        when(productRepository.findMostPopular(PageRequest.of(0, SIZE))).thenReturn(top);
+        snapshot.refresh();
+    }
+
+    @AfterEach
+    void tearDown() {
+        snapshot.close();
+    }
+
+    @Test
+    void testPagesAreServedFromMemory() throws Exception {
+        byte[] first = snapshot.getPage(0);
+
+        assertSame(first, snapshot.getPage(0));
+        ProductDTO[] products = objectMapper.readValue(first, ProductDTO[].class);
+        assertEquals(HomePageSnapshot.PAGE_SIZE, products.length);
+        assertEquals(1, products[0].getId());
+        assertTrue(snapshot.contains(1));
+        assertFalse(snapshot.contains(2));
+        verify(productRepository, times(1)).findMostPopular(any());
+    }
+
+    @Test
+    void testDeeperPagesAreReadFromDatabase() {
+        when(productRepository.findMostPopular(PageRequest.of(2, HomePageSnapshot.PAGE_SIZE))).thenReturn(List.of());
+
+        assertArrayEquals("[]".getBytes(), snapshot.getPage(2));
+    }
+
+    @Test
+    void testSmallPopularityChangeWaitsForSchedule() {
+        Product product = product(1, 99 + 3, 5);
+        when(productRepository.findById(1)).thenReturn(Optional.of(product));
+        when(productMapper.toDTO(product)).thenReturn(toDTO(product));
+
+        assertFalse(snapshot.refreshIfChanged(1));
+        assertEquals(1, snapshot.getVersion());
+    }
+
+    @Test
+    void testGoingOutOfStockRefreshes() {
+        Product product = product(1, 99, 0);
+        when(productRepository.findById(1)).thenReturn(Optional.of(product));
+        when(productMapper.toDTO(product)).thenReturn(toDTO(product));
+        top.set(0, toDTO(product));
+
+        assertTrue(snapshot.refreshIfChanged(1));
+        assertEquals(2, snapshot.getVersion());
+    }
+
+    @Test
+    void testProductOvertakingTheLastOneShownRefreshes() {
+        when(productRepository.findById(50)).thenReturn(Optional.of(product(50, 100 - SIZE, 5)));
+        when(productRepository.findById(51)).thenReturn(Optional.of(product(51, 100 - SIZE + 1, 5)));
+        when(productMapper.toDTO(any(Product.class))).thenAnswer(invocation -> toDTO(invocation.getArgument(0)));
+
+        assertFalse(snapshot.refreshIfChanged(50));
+        top.set(SIZE - 1, toDTO(product(51, 100 - SIZE + 1, 5)));
+        assertTrue(snapshot.refreshIfChanged(51));
+    }
+
+    @Test
+    void testRefreshWithSamePagesKeepsVersion() {
+        byte[] first = snapshot.getPage(0);
+
+        assertFalse(snapshot.refresh());
+        assertEquals(1, snapshot.getVersion());
+        assertSame(first, snapshot.getPage(0));
+    }
+
+    @Test
+    void testSnapshotPageKeepsTheVersionOfItsSnapshot() {
+        HomePageSnapshot.SnapshotPage before = snapshot.getSnapshotPage(0);
+        top.set(0, toDTO(product(1, 99, 0)));
+
+        assertTrue(snapshot.refresh());
+        HomePageSnapshot.SnapshotPage after = snapshot.getSnapshotPage(0);
+        assertEquals(1, before.getVersion());
+        assertEquals(2, after.getVersion());
+        assertFalse(Arrays.equals(before.getJson(), after.getJson()));
+        assertNull(snapshot.getSnapshotPage(2));
+    }
+
+    private static Product product(int id, int popularity, int quantity) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("Product " + id);
+        product.setPrice(BigDecimal.TEN);
+        product.setPopularity(popularity);
+        product.setQuantity(quantity);
+        product.setIsActive(true);
+        return product;
+    }
+
+    private static ProductDTO toDTO(Product product) {
+        ProductDTO dto = new ProductDTO();
+        dto.setId(product.getId());
+        dto.setName(product.getName());
+        dto.setPrice(product.getPrice());
+        dto.setPopularity(product.getPopularity());
+        dto.setQuantity(product.getQuantity());
+        dto.setIsActive(product.getIsActive());
+        return dto;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.ecommerce;
+
+import com.example.ecommerce.exception.BadRequestException;
+import com.example.ecommerce.storage.ImageStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ImageStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private ImageStore imageStore;
+
+    @BeforeEach
+    void setUp() {
+        imageStore = new ImageStore(directory);
+    }
+
+    @Test
+    void testImageIsStoredUnderItsContentHash() throws IOException {
+        byte[] content = "abc".getBytes(StandardCharsets.UTF_8);
+
+        String url = imageStore.store(new MockMultipartFile("image", "Phone.JPEG", "image/jpeg", content));
+
+        String name = "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad.jpg";
+        assertEquals(ImageStore.URL_PREFIX + name, url);
+        assertArrayEquals(content, Files.readAllBytes(directory.resolve(name)));
+        assertEquals(List.of(name), files());
+    }
+
+    @Test
+    void testSameContentIsStoredOnce() throws IOException {
+        byte[] content = new byte[200_000];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) (i * 31);
+        }
+
+        String first = imageStore.store(new MockMultipartFile("image", "a.png", "image/png", content));
+        String second = imageStore.store(new MockMultipartFile("image", "b.png", "image/png", content));
+
+        assertEquals(first, second);
+        assertEquals(1, files().size());
+    }
+
+    @Test
+    void testSameNameWithOtherContentDoesNotOverwrite() throws IOException {
+        String first = imageStore.store(new MockMultipartFile("image", "photo.png", "image/png", new byte[]{1}));
+        String second = imageStore.store(new MockMultipartFile("image", "photo.png", "image/png", new byte[]{2}));
+
+        assertNotEquals(first, second);
+        assertEquals(2, files().size());
+    }
+
+    @Test
+    void testFileWithoutImageExtensionIsRejected() throws IOException {
+        assertThrows(BadRequestException.class,
+                () -> imageStore.store(new MockMultipartFile("image", "script.html", "text/html", new byte[]{1})));
+        assertEquals(List.of(), files());
+    }
+
+    private List<String> files() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString()).sorted().collect(Collectors.toList());
+        }
+    }
+}
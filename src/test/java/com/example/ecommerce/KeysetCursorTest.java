@@ -0,0 +1,61 @@
+package com.example.ecommerce;
+
+import com.example.ecommerce.exception.BadRequestException;
+import com.example.ecommerce.pagination.KeysetCursor;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeysetCursorTest {
+
+    @Test
+    void testEncodeDecodeRoundTrip() {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("price", new BigDecimal("1299.90"));
+        keys.put("name", "Galaxy \"S24\" / 256 GB");
+        keys.put("createdAt", LocalDateTime.of(2024, 5, 1, 12, 30));
+        keys.put("id", 42);
+        Sort sort = Sort.by("price", "name", "createdAt", "id");
+
+        String token = KeysetCursor.encode(ScrollPosition.forward(keys));
+        KeysetScrollPosition position = KeysetCursor.decode(token, sort);
+
+        assertEquals(keys, position.getKeys());
+        assertTrue(token.matches("[A-Za-z0-9_-]+"));
+    }
+
+    @Test
+    void testEmptyTokenStartsFromTheBeginning() {
+        assertTrue(KeysetCursor.decode("", Sort.by("id")).isInitial());
+        assertTrue(KeysetCursor.decode(null, Sort.by("id")).isInitial());
+    }
+
+    @Test
+    void testRejectsTokenOfAnotherSort() {
+        String token = KeysetCursor.encode(ScrollPosition.forward(Map.of("id", 7)));
+
+        assertThrows(BadRequestException.class, () -> KeysetCursor.decode(token, Sort.by("price", "id")));
+    }
+
+    @Test
+    void testRejectsMalformedToken() {
+        assertThrows(BadRequestException.class, () -> KeysetCursor.decode("not a cursor", Sort.by("id")));
+        assertThrows(BadRequestException.class, () -> KeysetCursor.decode("eyJpZCI6Ing6NyJ9", Sort.by("id")));
+    }
+
+    @Test
+    void testWithIdTieBreaker() {
+        assertEquals(Sort.by("price").and(Sort.by("id")), KeysetCursor.withIdTieBreaker(Sort.by("price")));
+        assertEquals(Sort.by(Sort.Direction.DESC, "id"), KeysetCursor.withIdTieBreaker(Sort.by(Sort.Direction.DESC, "id")));
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.ecommerce;
+
+import com.example.ecommerce.dto.PageDTO;
+import com.example.ecommerce.dto.ProductInfoDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Compares the 6-product listing page written as Spring's {@code PageImpl}, as the listing endpoints returned it,
+ * with the {@link PageDTO} envelope: response size, bytes allocated and CPU time per serialization.
+ * It is not part of the regular test run, start it with:
+ * <pre>
+ * ./mvnw test -Dtest=PageDTOBenchmark -Dsurefire.failIfNoSpecifiedTests=false -Dbenchmark.requests=200000
+ * </pre>
+ */
+class PageDTOBenchmark {
+    private static final int WARMUP = 20_000;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Test
+    void comparePageImplWithEnvelope() {
+        int requests = Integer.getInteger("benchmark.requests", 100_000);
+        Page<ProductInfoDTO> page = createPage();
+        PageDTO<ProductInfoDTO> envelope = PageDTO.of(page);
+
+        System.out.printf("%-10s %14s %18s %16s%n", "envelope", "bytes", "allocated/request", "CPU/request (us)");
+        report("PageImpl", requests, () -> serialize(page));
+        report("PageDTO", requests, () -> serialize(envelope));
+    }
+
+    private void report(String name, int requests, Supplier<byte[]> request) {
+        long sink = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            sink += request.get().length;
+        }
+        long thread = Thread.currentThread().getId();
+        long allocatedStart = threads.getThreadAllocatedBytes(thread);
+        long cpuStart = threads.getCurrentThreadCpuTime();
+        for (int i = 0; i < requests; i++) {
+            sink += request.get().length;
+        }
+        long cpu = threads.getCurrentThreadCpuTime() - cpuStart;
+        long allocated = threads.getThreadAllocatedBytes(thread) - allocatedStart;
+        System.out.printf("%-10s %14d %18d %16.2f%s%n", name, request.get().length, allocated / requests,
+                cpu / 1_000.0 / requests, sink == 0 ? " (empty)" : "");
+    }
+
+    private byte[] serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Page<ProductInfoDTO> createPage() {
+        List<ProductInfoDTO> products = new ArrayList<>();
+        for (int id = 1; id <= 6; id++) {
+            products.add(new ProductInfoDTO(id, "Galaxy S" + (20 + id) + " Ultra 512GB", new BigDecimal("1199.99"),
+                    id * 7, "Smartphones", "Samsung", "/images/products/galaxy-s" + (20 + id) + ".jpg", 100 - id,
+                    true));
+        }
+        return new PageImpl<>(products, PageRequest.of(3, 6, Sort.by(Sort.Direction.DESC, "price")), 1_620);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.ecommerce;
+
+import com.example.ecommerce.dto.FacetCountsDTO;
+import com.example.ecommerce.dto.PageDTO;
+import com.example.ecommerce.dto.ProductInfoDTO;
+import com.example.ecommerce.pagination.KeysetCursor;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PageDTOTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testCountedPageWritesOnlyEnvelopeFields() throws Exception {
+        PageDTO<ProductInfoDTO> page = PageDTO.of(new PageImpl<>(List.of(product(1), product(2)),
+                PageRequest.of(1, 2, Sort.by("price")), 7));
+
+        JsonNode json = objectMapper.readTree(objectMapper.writeValueAsString(page));
+
+        assertEquals(List.of("content", "page", "size", "hasNext", "total"), fieldNames(json));
+        assertEquals(2, json.get("content").size());
+        assertEquals("Product 2", json.get("content").get(1).get("name").asText());
+        assertEquals(1, json.get("page").asInt());
+        assertEquals(2, json.get("size").asInt());
+        assertTrue(json.get("hasNext").asBoolean());
+        assertEquals(7, json.get("total").asLong());
+    }
+
+    @Test
+    void testSliceWritesApproximateTotalAndFacets() throws Exception {
+        PageDTO<ProductInfoDTO> page = PageDTO.of(new SliceImpl<>(List.of(product(1)), PageRequest.of(0, 6), false), 1L);
+        FacetCountsDTO facets = new FacetCountsDTO();
+        facets.setBrands(Map.of(3, 1));
+        facets.setInStock(1);
+        page.setFacets(facets);
+
+        JsonNode json = objectMapper.readTree(objectMapper.writeValueAsString(page));
+
+        assertEquals(List.of("content", "page", "size", "hasNext", "approximateTotal", "facets"), fieldNames(json));
+        assertFalse(json.get("hasNext").asBoolean());
+        assertEquals(1, json.get("facets").get("brands").get("3").asInt());
+    }
+
+    @Test
+    void testKeysetPageWritesCursorOfLastRow() throws Exception {
+        ScrollPosition last = ScrollPosition.forward(Map.of("id", 2));
+        Window<Integer> window = Window.from(List.of(1, 2), index -> index == 1 ? last : null, true);
+
+        PageDTO<ProductInfoDTO> page = PageDTO.of(window, 2, PageDTOTest::product);
+        JsonNode json = objectMapper.readTree(objectMapper.writeValueAsString(page));
+
+        assertEquals(List.of("content", "size", "hasNext", "next"), fieldNames(json));
+        assertEquals(last, KeysetCursor.decode(json.get("next").asText(), Sort.by("id")));
+    }
+
+    private static List<String> fieldNames(JsonNode json) {
+        List<String> names = new ArrayList<>();
+        json.fieldNames().forEachRemaining(names::add);
+        return names;
+    }
+
+    private static ProductInfoDTO product(int id) {
+        return new ProductInfoDTO(id, "Product " + id, BigDecimal.TEN, 5, "Category", "Brand", null, 0, true);
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.ecommerce;
+
+import com.example.ecommerce.event.CatalogChangeEvent;
+import com.example.ecommerce.event.ProductActivityEvent;
+import com.example.ecommerce.service.PopularityService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PopularityServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private PopularityService popularityService;
+
+    @BeforeEach
+    void setUp() {
+        popularityService = new PopularityService(jdbcTemplate, transactionManager, eventPublisher, 3600);
+    }
+
+    @AfterEach
+    void tearDown() {
+        popularityService.close();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFlushWritesAllIncrementsInOneBatch() {
+        popularityService.increment(1);
+        popularityService.increment(1);
+        popularityService.increment(2);
+
+        assertEquals(2, popularityService.flush());
+
+        ArgumentCaptor<List<Object[]>> arguments = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), arguments.capture());
+        assertEquals(2, arguments.getValue().size());
+        assertTrue(arguments.getValue().stream().anyMatch(row -> row[0].equals(2L) && row[1].equals(1)));
+        verify(eventPublisher, times(2)).publishEvent(argThat((CatalogChangeEvent event) ->
+                event.getType() == CatalogChangeEvent.Type.POPULARITY));
+        assertTrue(popularityService.getUnflushed().isEmpty());
+    }
+
+    @Test
+    void testCommittedOrderIncrementsPopularity() {
+        popularityService.onProductActivity(ProductActivityEvent.order(1, 3));
+        popularityService.onProductActivity(ProductActivityEvent.view(1));
+
+        assertEquals(1, popularityService.getUnflushed(1));
+    }
+
+    @Test
+    void testUnflushedIncrementsAreReported() {
+        popularityService.increment(1);
+        popularityService.increment(1);
+
+        assertEquals(2, popularityService.getUnflushed(1));
+        assertEquals(Map.of(1, 2L), popularityService.getUnflushed());
+    }
+
+    @Test
+    void testFailedFlushKeepsIncrements() {
+        popularityService.increment(1);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new DataAccessResourceFailureException("down"))
+                .thenReturn(new int[]{1});
+
+        assertThrows(DataAccessResourceFailureException.class, () -> popularityService.flush());
+        assertEquals(1, popularityService.getUnflushed(1));
+
+        assertEquals(1, popularityService.flush());
+        assertEquals(0, popularityService.getUnflushed(1));
+    }
+
+    @Test
+    void testNothingToFlush() {
+        assertEquals(0, popularityService.flush());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void testCloseFlushes() {
+        popularityService.increment(3);
+
+        popularityService.close();
+
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyList());
+        assertArrayEquals(new Object[0], popularityService.getUnflushed().keySet().toArray());
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.ecommerce;
+
+import com.example.ecommerce.search.PriceIndex;
+import com.example.ecommerce.search.ProductDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PriceIndexTest {
+
+    private PriceIndex index;
+    private BitSet all;
+
+    @BeforeEach
+    public void setUp() {
+        index = new PriceIndex();
+        index.putAll(List.of(
+                document(1, "999.99"),
+                document(2, "19.90"),
+                document(3, "250.00"),
+                document(4, "19.90"),
+                document(5, null)));
+        all = new BitSet();
+        all.set(1, 6);
+    }
+
+    @Test
+    void testToMinorUnits() {
+        assertEquals(1990, PriceIndex.toMinorUnits(new BigDecimal("19.9")));
+        assertEquals(100, PriceIndex.toMinorUnits(new BigDecimal("0.995")));
+        assertEquals(50000, PriceIndex.toMinorUnits(new BigDecimal("500")));
+    }
+
+    @Test
+    void testRangeIsInclusiveAndSkipsProductsWithoutPrice() {
+        assertEquals(bits(2, 4, 3), index.range(new BigDecimal("19.90"), new BigDecimal("250")));
+        assertEquals(bits(1, 3), index.range(new BigDecimal("19.91"), null));
+        assertEquals(bits(2, 4), index.range(null, new BigDecimal("249.99")));
+        assertTrue(index.range(new BigDecimal("1000"), null).isEmpty());
+    }
+
+    @Test
+    void testSortBreaksTiesByIdInBothDirections() {
+        assertEquals(List.of(2, 4, 3, 1, 5), index.sort(all, null, null, false));
+        assertEquals(List.of(5, 1, 3, 2, 4), index.sort(all, null, null, true));
+    }
+
+    @Test
+    void testSortWithinRangeKeepsOnlyCandidates() {
+        BitSet candidates = bits(1, 3, 4);
+
+        assertEquals(List.of(4, 3), index.sort(candidates, new BigDecimal("10"), new BigDecimal("500"), false));
+        assertEquals(List.of(1, 3), index.sort(candidates, new BigDecimal("100"), null, true));
+    }
+
+    @Test
+    void testPutMovesChangedPriceAndRemoveDropsProduct() {
+        index.put(document(2, "500.00"));
+        index.put(document(6, "5.00"));
+        index.remove(3);
+        all.set(6);
+
+        assertEquals(List.of(6, 4, 2, 1, 5), index.sort(all, null, null, false));
+        assertEquals(bits(6, 4), index.range(null, new BigDecimal("100")));
+    }
+
+    private static ProductDocument document(int id, String price) {
+        return new ProductDocument(id, "Product " + id, 1, "Brand", 1, "Category",
+                price != null ? new BigDecimal(price) : null, 1, 0);
+    }
+
+    private static BitSet bits(int... ids) {
+        BitSet bits = new BitSet();
+        for (int id : ids) {
+            bits.set(id);
+        }
+        return bits;
+    }
+}
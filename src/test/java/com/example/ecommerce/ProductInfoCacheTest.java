@@ -0,0 +1,139 @@
+package com.example.ecommerce;
+
+import com.example.ecommerce.cache.ProductInfoCache;
+import com.example.ecommerce.dto.CacheStatsDTO;
+import com.example.ecommerce.dto.ProductInfoDTO;
+import com.example.ecommerce.event.CatalogChangeEvent;
+import com.example.ecommerce.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ProductInfoCacheTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2024-01-01T00:00:00Z"), ZoneOffset.UTC);
+
+    private ProductInfoCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ProductInfoCache(2, Duration.ofMinutes(10), CLOCK);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void testRepeatedReadIsServedFromCache() {
+        ProductInfoDTO first = cache.get(1, () -> load(1));
+        ProductInfoDTO second = cache.get(1, () -> load(1));
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        CacheStatsDTO stats = cache.getStats();
+        assertEquals(1, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(0.5, stats.getHitRatio());
+    }
+
+    @Test
+    void testLeastRecentlyUsedProductIsEvictedOverMaxEntries() {
+        cache.get(1, () -> load(1));
+        cache.get(2, () -> load(2));
+        cache.get(1, () -> load(1));
+        cache.get(3, () -> load(3));
+
+        cache.get(1, () -> load(1));
+        cache.get(2, () -> load(2));
+
+        assertEquals(4, loads.get());
+        assertEquals(2, cache.getStats().getEvictions());
+    }
+
+    @Test
+    void testExpiredEntryIsReloaded() {
+        ProductInfoCache expiring = new ProductInfoCache(10, Duration.ZERO, CLOCK);
+
+        expiring.get(1, () -> load(1));
+        expiring.get(1, () -> load(1));
+
+        assertEquals(2, loads.get());
+        assertEquals(1, expiring.getStats().getExpirations());
+    }
+
+    @Test
+    void testProductChangeEvictsOnlyThatProduct() {
+        cache.get(1, () -> load(1));
+        cache.get(2, () -> load(2));
+
+        cache.onCatalogChange(CatalogChangeEvent.product(1));
+        cache.get(1, () -> load(1));
+        cache.get(2, () -> load(2));
+
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void testBrandChangeClearsCache() {
+        cache.get(1, () -> load(1));
+        cache.get(2, () -> load(2));
+
+        cache.onCatalogChange(CatalogChangeEvent.brand(5));
+
+        assertEquals(0, cache.getStats().getEntries());
+    }
+
+    @Test
+    void testProductLoadedDuringChangeIsNotCached() {
+        cache.get(1, () -> {
+            cache.onCatalogChange(CatalogChangeEvent.product(1));
+            return load(1);
+        });
+        cache.get(1, () -> load(1));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testMissingProductIsNotCached() {
+        assertThrows(ResourceNotFoundException.class,
+                () -> cache.get(9, () -> { throw new ResourceNotFoundException("Product not found with ID: 9"); }));
+
+        assertEquals(0, cache.getStats().getEntries());
+    }
+
+    @Test
+    void testBatchLoadsOnlyMissingProductsOnce() {
+        cache.get(1, () -> load(1));
+        List<Set<Integer>> batches = new ArrayList<>();
+
+        Map<Integer, ProductInfoDTO> products = cache.getAll(List.of(1, 2, 9, 2), missing -> {
+            batches.add(Set.copyOf(missing));
+            return List.of(load(2));
+        });
+
+        assertEquals(Set.of(1, 2), products.keySet());
+        assertEquals(List.of(Set.of(2, 9)), batches);
+        assertEquals(2, cache.getStats().getEntries());
+        assertEquals(1, cache.getStats().getHits());
+    }
+
+    private ProductInfoDTO load(int id) {
+        loads.incrementAndGet();
+        ProductInfoDTO product = new ProductInfoDTO();
+        product.setId(id);
+        return product;
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.ecommerce;
+
+import com.example.ecommerce.entity.Product;
+import com.example.ecommerce.repository.ProductRepository;
+import com.example.ecommerce.search.ProductDocument;
+import com.example.ecommerce.search.SegmentStore;
+import com.example.ecommerce.search.SuggestionIndex;
+import com.example.ecommerce.search.TrigramIndex;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the JPQL LIKE search with the trigram index on a synthetic catalog, measures suggestion latency and
+ * compares loading the catalog from the database with a warm start from the index segments.
+ * It is not part of the regular test run, start it with:
+ * <pre>
+ * ./mvnw test -Dtest=ProductSearchBenchmark -Dsurefire.failIfNoSpecifiedTests=false -Dbenchmark.products=100000
+ * </pre>
+ */
+@DataJpaTest(properties = {"spring.jpa.show-sql=false", "logging.file.name="})
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ProductSearchBenchmark {
+    private static final String[] BRANDS = {"Apple", "Samsung", "Xiaomi", "HP", "Dell", "Google", "Asus", "Lenovo",
+            "Sony", "Huawei", "Acer", "Microsoft", "Nokia", "Motorola", "OnePlus", "Oppo", "Realme", "Razer", "MSI", "LG"};
+    private static final String[] CATEGORIES = {"Smartphones", "Laptops", "Accessories", "Tablets", "Headphones",
+            "Monitors", "Smartwatches", "Cameras", "Speakers", "Keyboards"};
+    private static final String[] MODELS = {"Galaxy", "iPhone", "Pixel", "ZenBook", "ThinkPad", "Inspiron", "Xperia",
+            "Redmi", "Surface", "Nova", "Predator", "Blade", "Swift", "Pavilion", "Envy", "Vivobook", "Nord", "Edge"};
+    private static final String[] VARIANTS = {"Pro", "Ultra", "Max", "Lite", "Plus", "Mini", "Air", "Neo"};
+    private static final String[] QUERIES = {"galaxy", "phone 1", "thinkpad ultra", "xyz"};
+    private static final String[] TYPOS = {"galxy", "iphon", "thinkpda"};
+    private static final int QUERY_ITERATIONS = 10;
+    private static final int INDEX_ITERATIONS = 500;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void compareLikeQueryWithTrigramIndex() {
+        int productCount = Integer.getInteger("benchmark.products", 100_000);
+        List<ProductDocument> catalog = createCatalog(productCount);
+        TrigramIndex index = new TrigramIndex();
+        long indexStart = System.nanoTime();
+        for (ProductDocument document : catalog) {
+            index.put(document);
+        }
+        System.out.printf("Indexed %d products in %d ms%n", productCount, (System.nanoTime() - indexStart) / 1_000_000);
+
+        Pageable pageable = PageRequest.of(0, 6);
+        System.out.printf("%-16s %14s %14s %10s%n", "query", "LIKE (us)", "trigram (us)", "matches");
+        for (String query : QUERIES) {
+            long matches = index.matchSubstring(query).cardinality();
+            assertEquals(matches, productRepository.searchListings(query, null, null, pageable).getTotalElements());
+            System.out.printf("%-16s %14d %14d %10d%n", query,
+                    averageMicros(QUERY_ITERATIONS, () -> productRepository.searchListings(query, null, null, pageable)),
+                    averageMicros(INDEX_ITERATIONS, () -> index.matchSubstring(query)),
+                    matches);
+        }
+        System.out.printf("%-16s %14s %14s %10s%n", "typo", "LIKE matches", "fuzzy (us)", "matches");
+        for (String typo : TYPOS) {
+            System.out.printf("%-16s %14d %14d %10d%n", typo,
+                    productRepository.searchListings(typo, null, null, pageable).getTotalElements(),
+                    averageMicros(INDEX_ITERATIONS, () -> index.matchFuzzy(typo)),
+                    index.matchFuzzy(typo).cardinality());
+        }
+    }
+
+    @Test
+    void measureSuggestionLatency() {
+        int productCount = Integer.getInteger("benchmark.products", 100_000);
+        List<ProductDocument> catalog = createCatalog(productCount);
+        SuggestionIndex index = new SuggestionIndex();
+        long buildStart = System.nanoTime();
+        index.putAll(catalog);
+        System.out.printf("Built suggestions for %d products in %d ms%n", productCount,
+                (System.nanoTime() - buildStart) / 1_000_000);
+
+        Random random = new Random(7);
+        int lookups = 100_000;
+        long[] latencies = new long[lookups];
+        for (int i = 0; i < lookups; i++) {
+            ProductDocument document = catalog.get(random.nextInt(catalog.size()));
+            String prefix = document.getName().substring(0, 1 + random.nextInt(Math.min(8, document.getName().length())));
+            long start = System.nanoTime();
+            index.suggest(prefix, 8);
+            latencies[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(latencies);
+        System.out.printf("Suggest latency: p50 %d us, p99 %d us, max %d us%n", latencies[lookups / 2] / 1_000,
+                latencies[lookups * 99 / 100] / 1_000, latencies[lookups - 1] / 1_000);
+    }
+
+    @Test
+    void compareColdLoadWithSegmentWarmStart(@TempDir Path directory) {
+        int productCount = Integer.getInteger("benchmark.products", 100_000);
+        createCatalog(productCount);
+        long coldStart = System.nanoTime();
+        List<ProductDocument> loaded = new ArrayList<>();
+        for (Product product : productRepository.findAll()) {
+            loaded.add(ProductDocument.from(product));
+        }
+        System.out.printf("Read %d products from the database in %d ms%n", loaded.size(),
+                (System.nanoTime() - coldStart) / 1_000_000);
+
+        SegmentStore writer = new SegmentStore(directory.toString());
+        long writeStart = System.nanoTime();
+        writer.replaceAll(loaded);
+        writer.close();
+        System.out.printf("Wrote the index segment in %d ms%n", (System.nanoTime() - writeStart) / 1_000_000);
+
+        SegmentStore store = new SegmentStore(directory.toString());
+        long warmStart = System.nanoTime();
+        store.open();
+        long matches = store.match("galaxy ultra").cardinality();
+        long firstSearch = System.nanoTime() - warmStart;
+        List<ProductDocument> documents = store.documents();
+        System.out.printf("Warm start: first search after %d ms (%d matches), %d documents loaded after %d ms%n",
+                firstSearch / 1_000_000, matches, documents.size(), (System.nanoTime() - warmStart) / 1_000_000);
+        System.out.printf("Segment search latency: %d us%n", averageMicros(INDEX_ITERATIONS, () -> store.match("galaxy ultra")));
+        store.close();
+        assertEquals(productCount, documents.size());
+    }
+
+    private List<ProductDocument> createCatalog(int productCount) {
+        for (int i = 0; i < BRANDS.length; i++) {
+            jdbcTemplate.update("INSERT INTO brands (id, name) VALUES (?, ?)", i + 1, BRANDS[i]);
+        }
+        for (int i = 0; i < CATEGORIES.length; i++) {
+            jdbcTemplate.update("INSERT INTO categories (id, name) VALUES (?, ?)", i + 1, CATEGORIES[i]);
+        }
+        Random random = new Random(42);
+        List<ProductDocument> documents = new ArrayList<>(productCount);
+        List<Object[]> batch = new ArrayList<>();
+        for (int id = 1; id <= productCount; id++) {
+            int brand = random.nextInt(BRANDS.length);
+            int category = random.nextInt(CATEGORIES.length);
+            String name = BRANDS[brand] + " " + MODELS[random.nextInt(MODELS.length)] + " " + random.nextInt(30)
+                    + " " + VARIANTS[random.nextInt(VARIANTS.length)] + " " + (64 << random.nextInt(4)) + " GB";
+            BigDecimal price = BigDecimal.valueOf(50 + random.nextInt(3000));
+            documents.add(new ProductDocument(id, name, brand + 1, BRANDS[brand], category + 1, CATEGORIES[category],
+                    price, random.nextInt(50), random.nextInt(1000)));
+            batch.add(new Object[]{id, name, price, 10, brand + 1, category + 1, 0, true});
+            if (batch.size() == 1000 || id == productCount) {
+                jdbcTemplate.batchUpdate("INSERT INTO products (id, name, price, quantity, brand_id, category_id, "
+                        + "popularity, is_active) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+        return documents;
+    }
+
+    private static long averageMicros(int iterations, Supplier<?> search) {
+        for (int i = 0; i < iterations; i++) {
+            search.get();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            search.get();
+        }
+        return (System.nanoTime() - start) / iterations / 1_000;
+    }
+}
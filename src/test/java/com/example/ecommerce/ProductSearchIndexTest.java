@@ -0,0 +1,71 @@
+package com.example.ecommerce;
+
+import com.example.ecommerce.search.ProductDocument;
+import com.example.ecommerce.search.ProductSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.BitSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductSearchIndexTest {
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        index = new ProductSearchIndex();
+        index.put(document(1, "Apple iPhone 15 128 GB", 1, "Apple", 1, "Smartphones"));
+        index.put(document(2, "Samsung Galaxy S24", 2, "Samsung", 1, "Smartphones"));
+        index.put(document(3, "MacBook Pro 16", 1, "Apple", 2, "Laptops"));
+    }
+
+    @Test
+    void testMatchByNameBrandAndCategory() {
+        assertEquals(bits(1), index.match("iphone"));
+        assertEquals(bits(1, 3), index.match("APPLE"));
+        assertEquals(bits(1, 2), index.match("smartphones"));
+    }
+
+    @Test
+    void testMatchRequiresEveryTermAndAcceptsPrefixes() {
+        assertEquals(bits(1), index.match("apple smart"));
+        assertEquals(bits(2), index.match("galax"));
+        assertTrue(index.match("apple galaxy").isEmpty());
+    }
+
+    @Test
+    void testPutReplacesPreviousTerms() {
+        index.put(document(2, "Samsung Galaxy S25", 2, "Samsung", 1, "Smartphones"));
+
+        assertEquals(bits(2), index.match("s25"));
+        assertTrue(index.match("s24").isEmpty());
+    }
+
+    @Test
+    void testRemove() {
+        index.remove(1);
+
+        assertEquals(bits(3), index.match("apple"));
+    }
+
+    @Test
+    void testBlankQueryMatchesNothing() {
+        assertTrue(index.match("  ").isEmpty());
+    }
+
+    private ProductDocument document(int id, String name, int brandId, String brandName, int categoryId, String categoryName) {
+        return new ProductDocument(id, name, brandId, brandName, categoryId, categoryName, BigDecimal.ONE, 1, 0);
+    }
+
+    private BitSet bits(int... ids) {
+        BitSet bits = new BitSet();
+        for (int id : ids) {
+            bits.set(id);
+        }
+        return bits;
+    }
+}
@@ -1,29 +1,72 @@
 package com.example.ecommerce;
 
+import com.example.ecommerce.cache.CatalogVersion;
+import com.example.ecommerce.cache.ProductInfoCache;
+import com.example.ecommerce.cache.SearchResultCache;
+import com.example.ecommerce.dto.PageDTO;
 import com.example.ecommerce.dto.ProductDTO;
 import com.example.ecommerce.dto.ProductInfoDTO;
+import com.example.ecommerce.dto.ProductLookupDTO;
 import com.example.ecommerce.entity.Product;
+import com.example.ecommerce.event.CatalogChangeEvent;
+import com.example.ecommerce.exception.BadRequestException;
 import com.example.ecommerce.exception.ResourceNotFoundException;
 import com.example.ecommerce.mapper.ProductInfoMapper;
 import com.example.ecommerce.mapper.ProductMapper;
+import com.example.ecommerce.pagination.KeysetCursor;
+import com.example.ecommerce.projection.FieldSelection;
+import com.example.ecommerce.projection.ProductField;
 import com.example.ecommerce.repository.ProductRepository;
+import com.example.ecommerce.search.CatalogIndexer;
+import com.example.ecommerce.search.FacetIndex;
+import com.example.ecommerce.search.PriceIndex;
+import com.example.ecommerce.search.ProductDocument;
+import com.example.ecommerce.search.ProductSearchIndex;
+import com.example.ecommerce.search.RelevanceIndex;
+import com.example.ecommerce.search.SearchMode;
+import com.example.ecommerce.search.SegmentStore;
+import com.example.ecommerce.search.SortIndex;
+import com.example.ecommerce.search.SuggestionIndex;
+import com.example.ecommerce.search.TrendingIndex;
+import com.example.ecommerce.search.TrigramIndex;
+import com.example.ecommerce.service.PopularityService;
 import com.example.ecommerce.service.ProductService;
+import com.example.ecommerce.service.ProductStatsService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -38,6 +81,53 @@ import static org.mockito.Mockito.*;
     @Mock
     private ProductInfoMapper productInfoMapper;
 
+    @Mock
+    private CatalogIndexer catalogIndexer;
+
+    @Mock
+    private ProductSearchIndex productSearchIndex;
+
+    @Mock
+    private TrigramIndex trigramIndex;
+
+    @Mock
+    private SuggestionIndex suggestionIndex;
+
+    @Mock
+    private FacetIndex facetIndex;
+
+    @Mock
+    private RelevanceIndex relevanceIndex;
+
+    @Mock
+    private PriceIndex priceIndex;
+
+    @Mock
+    private SortIndex sortIndex;
+
+    @Mock
+    private TrendingIndex trendingIndex;
+
+    @Mock
+    private SegmentStore segmentStore;
+
+    private final CatalogVersion catalogVersion = new CatalogVersion();
+
+    @Spy
+    private SearchResultCache searchResultCache = new SearchResultCache(catalogVersion, 1 << 20);
+
+    @Spy
+    private ProductInfoCache productInfoCache = new ProductInfoCache(100, Duration.ofMinutes(10), Clock.systemUTC());
+
+    @Mock
+    private PopularityService popularityService;
+
+    @Mock
+    private ProductStatsService productStatsService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private ProductService productService;
 
@@ -74,6 +164,20 @@ import static org.mockito.Mockito.*;
         verify(productRepository, times(1)).findById(1);
     }
 
+    @Test
+     void testGetProductInfoByIdIsCachedUntilProductChanges() {
+        when(productRepository.findById(1)).thenReturn(Optional.of(product));
+        when(productInfoMapper.toDTO(product)).thenReturn(productInfoDTO);
+
+        productService.getProductInfoById(1);
+        productService.getProductInfoById(1);
+        verify(productRepository, times(1)).findById(1);
+
+        productInfoCache.onCatalogChange(CatalogChangeEvent.product(1));
+        productService.getProductInfoById(1);
+        verify(productRepository, times(2)).findById(1);
+    }
+
     @Test
      void testGetProductInfoByIdThrowsException() {
         when(productRepository.findById(1)).thenReturn(Optional.empty());
@@ -82,6 +186,24 @@ import static org.mockito.Mockito.*;
         verify(productRepository, times(1)).findById(1);
     }
 
+    @Test
+    void testGetProductInfosByIdsLoadsMissingProductsInOneQuery() {
+        ProductInfoDTO second = new ProductInfoDTO();
+        second.setId(2);
+        when(productRepository.findListingsByIdIn(Set.of(1, 2, 9))).thenReturn(List.of(productInfoDTO, second));
+
+        List<ProductLookupDTO> result = productService.getProductInfosByIds(List.of(2, 9, 1, 2));
+
+        assertEquals(List.of(2, 9, 1, 2), result.stream().map(ProductLookupDTO::getId).toList());
+        assertSame(second, result.get(0).getProduct());
+        assertFalse(result.get(1).isFound());
+        assertNull(result.get(1).getProduct());
+        assertSame(productInfoDTO, result.get(2).getProduct());
+
+        productService.getProductInfosByIds(List.of(1, 2));
+        verify(productRepository, times(1)).findListingsByIdIn(anyCollection());
+    }
+
     @Test
      void testCreateProduct() {
         when(productMapper.toEntity(productDTO)).thenReturn(product);
@@ -96,20 +218,26 @@ import static org.mockito.Mockito.*;
 
     @Test
      void testIncrementProductPopularitySuccess() {
-        when(productRepository.findById(1)).thenReturn(Optional.of(product));
-        when(productRepository.save(product)).thenReturn(product);
+        when(productRepository.existsById(1)).thenReturn(true);
 
-        Product result = productService.incrementProductPopularity(1);
+        productService.incrementProductPopularity(1);
 
-        assertEquals(1, result.getPopularity());
-        verify(productRepository, times(1)).save(product);
+        verify(popularityService, times(1)).increment(1);
+        verify(productRepository, never()).findById(any());
     }
 
     @Test
      void testIncrementProductPopularityThrowsException() {
-        when(productRepository.findById(1)).thenReturn(Optional.empty());
+        when(productRepository.existsById(1)).thenReturn(false);
 
         assertThrows(ResourceNotFoundException.class, () -> productService.incrementProductPopularity(1));
+        verifyNoInteractions(popularityService);
+    }
+
+    @Test
+    void testGetTrendingProductsRejectsCategoryAndBrandTogether() {
+        assertThrows(BadRequestException.class, () -> productService.getTrendingProducts(1, 2, 5));
+        verifyNoInteractions(trendingIndex);
     }
 
     @Test
@@ -139,6 +267,7 @@ import static org.mockito.Mockito.*;
         productService.deleteProduct(1);
 
         verify(productRepository, times(1)).deleteById(1);
+        verify(eventPublisher, times(1)).publishEvent(any(CatalogChangeEvent.class));
     }
 
     @Test
@@ -149,38 +278,266 @@ import static org.mockito.Mockito.*;
     }
 
     @Test
-     void testGetAllActiveProducts() {
-        Page<Product> productPage = new PageImpl<>(Collections.singletonList(product));
-        when(productRepository.findAllByIsActiveTrue(any(Pageable.class))).thenReturn(productPage);
-        when(productInfoMapper.toDTO(product)).thenReturn(productInfoDTO);
+     void testGetAllProducts() {
+        Page<ProductInfoDTO> productPage = new PageImpl<>(Collections.singletonList(productInfoDTO));
+        when(productRepository.findListings(any(Pageable.class))).thenReturn(productPage);
 
-        Page<ProductInfoDTO> result = productService.getAllActiveProducts(Pageable.unpaged());
+        Page<ProductInfoDTO> result = productService.getAllProducts(Pageable.unpaged());
 
         assertEquals(1, result.getTotalElements());
-        verify(productRepository, times(1)).findAllByIsActiveTrue(any(Pageable.class));
+        verify(productRepository, never()).findAll(any(Pageable.class));
     }
 
     @Test
-     void testGetAllProducts() {
-        Page<Product> productPage = new PageImpl<>(Collections.singletonList(product));
-        when(productRepository.findAll(any(Pageable.class))).thenReturn(productPage);
+     void testGetProductsByPopularity() {
+        when(productRepository.findMostPopular(any(Pageable.class))).thenReturn(Collections.singletonList(productDTO));
+
+        List<ProductDTO> result = productService.getProductsByPopularity(Pageable.unpaged());
+
+        assertEquals(1, result.size());
+        verify(productRepository, times(1)).findMostPopular(any(Pageable.class));
+    }
+
+    @Test
+     void testSearchProductsUsesIndexWhenReady() {
+        BitSet matches = new BitSet();
+        matches.set(1);
+        matches.set(2);
+        when(catalogIndexer.isReady()).thenReturn(true);
+        when(productSearchIndex.match("test")).thenReturn(matches);
+        when(priceIndex.sort(matches, null, null, false)).thenReturn(List.of(2, 1));
+        when(productRepository.findListingsByIdIn(List.of(1))).thenReturn(List.of(productInfoDTO));
+
+        Page<ProductInfoDTO> result = productService.searchProducts("test", PageRequest.of(1, 1, Sort.by("price")));
+
+        assertEquals(2, result.getTotalElements());
+        assertEquals(1, result.getContent().get(0).getId());
+        verify(productRepository, never()).searchListings(anyString(), any(), any(), any(Pageable.class));
+    }
+
+    @Test
+     void testSearchProductsFallsBackToQueryBeforeIndexIsBuilt() {
+        Page<ProductInfoDTO> productPage = new PageImpl<>(Collections.singletonList(productInfoDTO));
+        when(catalogIndexer.isReady()).thenReturn(false);
+        when(productRepository.searchListings(eq("test"), isNull(), isNull(), any(Pageable.class))).thenReturn(productPage);
+
+        Page<ProductInfoDTO> result = productService.searchProducts("test", Pageable.unpaged());
+
+        assertEquals(1, result.getTotalElements());
+        verify(productSearchIndex, never()).match(anyString());
+    }
+
+    @Test
+     void testSearchProductsServesNormalizedQueryFromCacheUntilCatalogChanges() {
+        Page<ProductInfoDTO> productPage = new PageImpl<>(Collections.singletonList(productInfoDTO));
+        when(catalogIndexer.isReady()).thenReturn(false);
+        when(productRepository.searchListings(eq("iphone pro"), isNull(), isNull(), any(Pageable.class)))
+                .thenReturn(productPage);
+        Pageable pageable = PageRequest.of(0, 6);
+
+        productService.searchProducts("iphone pro", pageable);
+        Page<ProductInfoDTO> cached = productService.searchProducts("  iPhone   PRO ", pageable);
+
+        assertEquals(1, cached.getTotalElements());
+        verify(productRepository, times(1)).searchListings(eq("iphone pro"), isNull(), isNull(), any(Pageable.class));
+        assertEquals(1, searchResultCache.getStats().getHits());
+
+        catalogVersion.increment();
+        productService.searchProducts("iphone pro", pageable);
+
+        verify(productRepository, times(2)).searchListings(eq("iphone pro"), isNull(), isNull(), any(Pageable.class));
+    }
+
+    @Test
+     void testSearchProductsFuzzyModeUsesTrigramIndex() {
+        BitSet matches = new BitSet();
+        matches.set(1);
+        when(catalogIndexer.isReady()).thenReturn(true);
+        when(trigramIndex.matchFuzzy("tset")).thenReturn(matches);
+        when(relevanceIndex.rank("tset", matches)).thenReturn(List.of(1));
+        when(productRepository.findListingsByIdIn(List.of(1))).thenReturn(List.of(productInfoDTO));
+
+        Page<ProductInfoDTO> result = productService.searchProducts("tset", SearchMode.FUZZY, PageRequest.of(0, 6));
+
+        assertEquals(1, result.getTotalElements());
+        verify(productSearchIndex, never()).match(anyString());
+    }
+
+    @Test
+     void testSearchProductsWithoutSortRanksByRelevance() {
+        BitSet matches = new BitSet();
+        matches.set(1);
+        matches.set(2);
+        ProductInfoDTO otherDTO = new ProductInfoDTO();
+        otherDTO.setId(2);
+        when(catalogIndexer.isReady()).thenReturn(true);
+        when(productSearchIndex.match("test")).thenReturn(matches);
+        when(relevanceIndex.rank("test", matches)).thenReturn(List.of(2, 1));
+        when(productRepository.findListingsByIdIn(List.of(2, 1))).thenReturn(List.of(productInfoDTO, otherDTO));
+
+        Page<ProductInfoDTO> result = productService.searchProducts("test", PageRequest.of(0, 6));
+
+        assertEquals(2, result.getTotalElements());
+        assertEquals(2, result.getContent().get(0).getId());
+        assertEquals(1, result.getContent().get(1).getId());
+        verify(catalogIndexer, never()).getDocument(anyInt());
+    }
+
+    @Test
+     void testGetActiveProductsWithCursorSeeksWithinCategory() {
+        Sort sort = Sort.by(Sort.Direction.DESC, "price").and(Sort.by("id"));
+        ScrollPosition position = ScrollPosition.forward(Map.of("price", new BigDecimal("99.90"), "id", 7));
+        String after = KeysetCursor.encode(position);
+        Window<Product> window = Window.from(List.of(product), index -> position, false);
+        when(productRepository.findByCategoryIdAndIsActiveTrue(3, position, sort, Limit.of(6))).thenReturn(window);
         when(productInfoMapper.toDTO(product)).thenReturn(productInfoDTO);
 
-        Page<ProductInfoDTO> result = productService.getAllProducts(Pageable.unpaged());
+        PageDTO<ProductInfoDTO> result = productService.getActiveProducts(3, null, after,
+                Sort.by(Sort.Direction.DESC, "price"), 6);
+
+        assertEquals(1, result.getContent().size());
+        assertNull(result.getNext());
+    }
+
+    @Test
+     void testGetActiveProductsSliceSkipsCountQuery() {
+        Pageable pageable = PageRequest.of(0, 6);
+        when(productRepository.readActiveListings(null, 2, null, null, pageable))
+                .thenReturn(new SliceImpl<>(List.of(productInfoDTO), pageable, true));
+        when(catalogIndexer.isReady()).thenReturn(true);
+        when(facetIndex.total(null, 2)).thenReturn(14);
+
+        PageDTO<ProductInfoDTO> result = productService.getActiveProductsSlice(null, 2, null, null, pageable);
+
+        assertEquals(1, result.getContent().size());
+        assertTrue(result.isHasNext());
+        assertEquals(14L, result.getApproximateTotal());
+        verify(productRepository, never()).findActiveListings(any(), any(), any(), any(), any(Pageable.class));
+    }
+
+    @Test
+     void testGetActiveProductsSliceInPriceRangeCountsFromPriceIndex() {
+        Pageable pageable = PageRequest.of(0, 6);
+        BigDecimal maxPrice = new BigDecimal("500");
+        BitSet inBrand = new BitSet();
+        inBrand.set(1, 4);
+        BitSet inRange = new BitSet();
+        inRange.set(2, 6);
+        when(productRepository.readActiveListings(null, 2, null, maxPrice, pageable))
+                .thenReturn(new SliceImpl<>(List.of(productInfoDTO), pageable, false));
+        when(catalogIndexer.isReady()).thenReturn(true);
+        when(facetIndex.filter(null, 2)).thenReturn(inBrand);
+        when(priceIndex.range(null, maxPrice)).thenReturn(inRange);
+
+        PageDTO<ProductInfoDTO> result = productService.getActiveProductsSlice(null, 2, null, maxPrice, pageable);
+
+        assertEquals(2L, result.getApproximateTotal());
+    }
+
+    @Test
+     void testGetActiveProductsInPriceRangeSortsFromPriceIndex() {
+        Pageable pageable = PageRequest.of(0, 6, Sort.by(Sort.Direction.DESC, "price"));
+        BigDecimal minPrice = new BigDecimal("100");
+        BitSet inCategory = new BitSet();
+        inCategory.set(1);
+        inCategory.set(2);
+        BitSet inRange = new BitSet();
+        inRange.set(1);
+        BitSet expected = new BitSet();
+        expected.set(1);
+        when(catalogIndexer.isReady()).thenReturn(true);
+        when(facetIndex.filter(3, null)).thenReturn(inCategory);
+        when(priceIndex.range(minPrice, null)).thenReturn(inRange);
+        when(priceIndex.sort(expected, minPrice, null, true)).thenReturn(List.of(1));
+        when(productRepository.findListingsByIdIn(List.of(1))).thenReturn(List.of(productInfoDTO));
+
+        Page<ProductInfoDTO> result = productService.getActiveProducts(3, null, minPrice, null, pageable);
 
         assertEquals(1, result.getTotalElements());
-        verify(productRepository, times(1)).findAll(any(Pageable.class));
+        verify(productRepository, never()).findActiveListings(any(), any(), any(), any(), any(Pageable.class));
     }
 
     @Test
-     void testGetProductsByPopularity() {
-        when(productRepository.findAllByIsActiveTrueOrderByPopularityDesc(any(Pageable.class)))
-                .thenReturn(Collections.singletonList(product));
-        when(productMapper.toDTO(product)).thenReturn(productDTO);
+     void testGetActiveProductsReadsSortedPageFromSortIndex() {
+        Pageable pageable = PageRequest.of(1, 2, Sort.by("name"));
+        BitSet active = new BitSet();
+        active.set(1, 6);
+        when(catalogIndexer.isReady()).thenReturn(true);
+        when(facetIndex.filter(null, null)).thenReturn(active);
+        when(sortIndex.supports("name")).thenReturn(true);
+        when(sortIndex.sort(active, "name", false, 4)).thenReturn(List.of(5, 3, 1, 4));
+        when(productRepository.findListingsByIdIn(List.of(1, 4))).thenReturn(List.of(productInfoDTO));
+
+        Page<ProductInfoDTO> result = productService.getActiveProducts(null, null, null, null, pageable);
+
+        assertEquals(5, result.getTotalElements());
+        assertEquals(1, result.getContent().size());
+        verify(catalogIndexer, never()).getDocument(anyInt());
+    }
 
-        List<ProductDTO> result = productService.getProductsByPopularity(Pageable.unpaged());
+    @Test
+     void testGetActiveProductsWithSelectedFieldsReadsOnlyTheirColumns() {
+        Pageable pageable = PageRequest.of(1, 2, Sort.by("name"));
+        Set<ProductField> fields = FieldSelection.parse("name", ProductField.class);
+        BitSet active = new BitSet();
+        active.set(1, 6);
+        when(catalogIndexer.isReady()).thenReturn(true);
+        when(facetIndex.filter(null, null)).thenReturn(active);
+        when(sortIndex.supports("name")).thenReturn(true);
+        when(sortIndex.sort(active, "name", false, 4)).thenReturn(List.of(5, 3, 1, 4));
+        when(productRepository.findListingRowsByIdIn(fields, List.of(1, 4)))
+                .thenReturn(List.of(Map.of("id", 4, "name", "Pixel 8"), Map.of("id", 1, "name", "iPhone 15")));
+
+        Page<Map<String, Object>> result = productService.getActiveProducts(null, null, null, null, pageable, fields);
+
+        assertEquals(5, result.getTotalElements());
+        assertEquals(List.of(1, 4), result.getContent().stream().map(row -> row.get("id")).toList());
+        verify(productRepository, never()).findListingsByIdIn(any());
+    }
 
-        assertEquals(1, result.size());
-        verify(productRepository, times(1)).findAllByIsActiveTrueOrderByPopularityDesc(any(Pageable.class));
+    @Test
+     void testGetActiveProductsRejectsInvertedPriceRange() {
+        assertThrows(BadRequestException.class, () -> productService.getActiveProducts(null, null,
+                new BigDecimal("200"), new BigDecimal("100"), PageRequest.of(0, 6)));
+    }
+
+    @Test
+     void testSearchProductsSliceBeforeIndexIsBuilt() {
+        Pageable pageable = PageRequest.of(0, 6);
+        when(catalogIndexer.isReady()).thenReturn(false);
+        when(productRepository.searchListingSlice("test", null, null, pageable))
+                .thenReturn(new SliceImpl<>(List.of(productInfoDTO), pageable, false));
+
+        PageDTO<ProductInfoDTO> result = productService.searchProductsSlice("test", SearchMode.TOKEN, null, null,
+                pageable);
+
+        assertEquals(1, result.getContent().size());
+        assertNull(result.getApproximateTotal());
+        verify(productRepository, never()).searchListings(anyString(), any(), any(), any(Pageable.class));
+    }
+
+    @Test
+     void testSearchProductsFromSegmentsAfterWarmStart() {
+        BitSet matches = new BitSet();
+        matches.set(1);
+        matches.set(2);
+        when(catalogIndexer.isReady()).thenReturn(false);
+        when(catalogIndexer.isWarm()).thenReturn(true);
+        when(segmentStore.match("test")).thenReturn(matches);
+        when(catalogIndexer.getDocument(1)).thenReturn(new ProductDocument(1, "Test Product", null, null, null, null,
+                BigDecimal.TEN, 1, 3));
+        when(catalogIndexer.getDocument(2)).thenReturn(new ProductDocument(2, "Another Test", null, null, null, null,
+                BigDecimal.ONE, 1, 9));
+        ProductInfoDTO popularDTO = new ProductInfoDTO();
+        popularDTO.setId(2);
+        when(productRepository.findListingsByIdIn(List.of(2))).thenReturn(List.of(popularDTO));
+
+        Page<ProductInfoDTO> result = productService.searchProducts("test", PageRequest.of(0, 1));
+
+        // Most popular first until relevance ranking is available
+        assertEquals(2, result.getTotalElements());
+        assertEquals(2, result.getContent().get(0).getId());
+        verify(productRepository, never()).searchListings(anyString(), any(), any(), any(Pageable.class));
+        verify(productSearchIndex, never()).match(anyString());
     }
 }
@@ -0,0 +1,159 @@
+package com.example.ecommerce;
+
+import com.example.ecommerce.entity.ProductStats;
+import com.example.ecommerce.repository.ProductStatsRepository;
+import com.example.ecommerce.service.ProductStatsService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductStatsServiceTest {
+
+    @Mock
+    private ProductStatsRepository productStatsRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ProductStatsService productStatsService;
+
+    @BeforeEach
+    void setUp() {
+        productStatsService = new ProductStatsService(productStatsRepository, jdbcTemplate, transactionManager, 2, 3600);
+    }
+
+    @AfterEach
+    void tearDown() {
+        productStatsService.close();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFlushUpdatesStoredRowsAndInsertsNewOnes() {
+        productStatsService.recordView(1);
+        productStatsService.recordView(1);
+        productStatsService.recordImpressions(List.of(1, 2));
+        when(productStatsRepository.findAllById(anyCollection())).thenReturn(List.of(stored(1, 5, 7)));
+
+        assertEquals(2, productStatsService.flush());
+
+        ArgumentCaptor<List<Object[]>> updates = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<List<Object[]>> inserts = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("UPDATE"), updates.capture());
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT"), inserts.capture());
+        assertArrayEquals(new Object[]{2L, 1L, 1}, updates.getValue().get(0));
+        assertArrayEquals(new Object[]{2, 0L, 1L}, inserts.getValue().get(0));
+        assertEquals(0, productStatsService.getStats(1).getUnflushedViews());
+    }
+
+    @Test
+    void testCountsBeyondPendingLimitAreDropped() {
+        productStatsService.recordView(1);
+        productStatsService.recordView(2);
+        productStatsService.recordView(3);
+        productStatsService.recordImpressions(List.of(1, 3, 4));
+
+        assertEquals(2, productStatsService.getTrackerStats().getPendingProducts());
+        assertEquals(1, productStatsService.getTrackerStats().getDroppedViews());
+        assertEquals(2, productStatsService.getTrackerStats().getDroppedImpressions());
+    }
+
+    @Test
+    void testStatsIncludeUnflushedCounts() {
+        when(productStatsRepository.findById(1)).thenReturn(Optional.of(stored(1, 5, 7)));
+        productStatsService.recordView(1);
+
+        assertEquals(5, productStatsService.getStats(1).getViews());
+        assertEquals(7, productStatsService.getStats(1).getImpressions());
+        assertEquals(1, productStatsService.getStats(1).getUnflushedViews());
+    }
+
+    @Test
+    void testFailedFlushKeepsCounts() {
+        productStatsService.recordView(1);
+        when(jdbcTemplate.batchUpdate(startsWith("INSERT"), anyList()))
+                .thenThrow(new DataAccessResourceFailureException("down"))
+                .thenReturn(new int[]{1});
+
+        assertThrows(DataAccessResourceFailureException.class, () -> productStatsService.flush());
+        assertEquals(1, productStatsService.getStats(1).getUnflushedViews());
+
+        assertEquals(1, productStatsService.flush());
+        assertEquals(0, productStatsService.getStats(1).getUnflushedViews());
+    }
+
+    @Test
+    void testIdleProductsFreeTheirSlot() {
+        productStatsService.recordView(1);
+        productStatsService.recordView(2);
+        productStatsService.flush();
+
+        productStatsService.flush();
+        productStatsService.recordView(3);
+
+        assertEquals(1, productStatsService.getTrackerStats().getPendingProducts());
+        assertEquals(0, productStatsService.getTrackerStats().getDroppedViews());
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void testViewsRecordedWhileFlushingAreNotLost() throws InterruptedException {
+        AtomicLong written = new AtomicLong();
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            List<Object[]> rows = invocation.getArgument(1);
+            rows.forEach(row -> written.addAndGet((Long) row[1]));
+            return new int[rows.size()];
+        });
+        Thread[] recorders = new Thread[4];
+        for (int i = 0; i < recorders.length; i++) {
+            recorders[i] = new Thread(() -> {
+                for (int view = 0; view < 5000; view++) {
+                    productStatsService.recordView(1);
+                }
+            });
+            recorders[i].start();
+        }
+        // Flushing often retires the counters whenever the recorders pause between two flushes
+        while (Arrays.stream(recorders).anyMatch(Thread::isAlive)) {
+            productStatsService.flush();
+        }
+        for (Thread recorder : recorders) {
+            recorder.join();
+        }
+        productStatsService.flush();
+        productStatsService.flush();
+
+        assertEquals(20000, written.get());
+    }
+
+    private static ProductStats stored(int productId, long views, long impressions) {
+        ProductStats stats = new ProductStats();
+        stats.setProductId(productId);
+        stats.setViews(views);
+        stats.setImpressions(impressions);
+        return stats;
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.ecommerce;
+
+import com.example.ecommerce.dto.CartDTO;
+import com.example.ecommerce.dto.CartItemDTO;
+import com.example.ecommerce.entity.Cart;
+import com.example.ecommerce.entity.Customer;
+import com.example.ecommerce.mapper.CartItemMapper;
+import com.example.ecommerce.mapper.CartItemMapperImpl;
+import com.example.ecommerce.mapper.CartMapper;
+import com.example.ecommerce.mapper.CartMapperImpl;
+import com.example.ecommerce.mapper.ProductMapper;
+import com.example.ecommerce.mapper.ReferenceContext;
+import com.example.ecommerce.repository.CartRepository;
+import com.example.ecommerce.repository.CustomerRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReferenceContextTest {
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    @Mock
+    private CartRepository cartRepository;
+
+    @Mock
+    private ProductMapper productMapper;
+
+    @Test
+    void testExpectedKeysAreLoadedInOneCall() {
+        List<Collection<Integer>> calls = new ArrayList<>();
+        ReferenceContext.Source<Integer, String> names = keys -> {
+            calls.add(Set.copyOf(keys));
+            return keys.stream().filter(key -> key != 3).collect(Collectors.toMap(key -> key, key -> "name " + key));
+        };
+        ReferenceContext context = new ReferenceContext();
+        context.expect(names, 1);
+        context.expect(names, 2);
+        context.expect(names, 3);
+        context.expect(names, null);
+
+        assertEquals("name 2", context.resolve(names, 2));
+        assertEquals("name 1", context.resolve(names, 1));
+        assertNull(context.resolve(names, 3));
+        assertNull(context.resolve(names, null));
+        assertEquals(List.of(Set.of(1, 2, 3)), calls);
+
+        assertEquals("name 4", context.resolve(names, 4));
+        assertEquals(List.of(Set.of(1, 2, 3), Set.of(4)), calls);
+    }
+
+    @Test
+    void testMappingCartLoadsEachReferencedTypeOnce() {
+        CartItemMapper cartItemMapper = new CartItemMapperImpl();
+        ReflectionTestUtils.setField(cartItemMapper, CartItemMapper.class, "cartRepository", cartRepository, null);
+        ReflectionTestUtils.setField(cartItemMapper, CartItemMapperImpl.class, "productMapper", productMapper, null);
+        CartMapper cartMapper = new CartMapperImpl();
+        ReflectionTestUtils.setField(cartMapper, CartMapper.class, "customerRepository", customerRepository, null);
+        ReflectionTestUtils.setField(cartMapper, CartMapper.class, "cartItemMapper", cartItemMapper, null);
+        ReflectionTestUtils.setField(cartMapper, CartMapperImpl.class, "cartItemMapper", cartItemMapper, null);
+        Customer customer = new Customer();
+        customer.setId(5);
+        Cart cart = new Cart();
+        cart.setId(7);
+        when(customerRepository.findAllById(anyCollection())).thenReturn(List.of(customer));
+        when(cartRepository.findAllById(anyCollection())).thenReturn(List.of(cart));
+        CartDTO cartDTO = new CartDTO();
+        cartDTO.setId(7);
+        cartDTO.setCustomerId(5);
+        cartDTO.setCartItems(List.of(item(7), item(7), item(7)));
+
+        Cart mapped = cartMapper.toEntity(cartDTO);
+
+        assertSame(customer, mapped.getCustomer());
+        assertEquals(3, mapped.getCartItems().size());
+        mapped.getCartItems().forEach(cartItem -> assertSame(cart, cartItem.getCart()));
+        verify(customerRepository, times(1)).findAllById(anyCollection());
+        verify(cartRepository, times(1)).findAllById(anyCollection());
+        verifyNoMoreInteractions(customerRepository, cartRepository);
+    }
+
+    private static CartItemDTO item(int cartId) {
+        CartItemDTO cartItemDTO = new CartItemDTO();
+        cartItemDTO.setCartId(cartId);
+        cartItemDTO.setQuantity(1);
+        return cartItemDTO;
+    }
+}
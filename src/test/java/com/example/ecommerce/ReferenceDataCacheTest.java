@@ -0,0 +1,111 @@
+package com.example.ecommerce;
+
+import com.example.ecommerce.cache.ReferenceDataCache;
+import com.example.ecommerce.dto.BrandDTO;
+import com.example.ecommerce.dto.CategoryDTO;
+import com.example.ecommerce.entity.Brand;
+import com.example.ecommerce.entity.Category;
+import com.example.ecommerce.event.CatalogChangeEvent;
+import com.example.ecommerce.mapper.BrandMapper;
+import com.example.ecommerce.mapper.CategoryMapper;
+import com.example.ecommerce.repository.BrandRepository;
+import com.example.ecommerce.repository.CategoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReferenceDataCacheTest {
+
+    @Mock
+    private BrandRepository brandRepository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private BrandMapper brandMapper;
+
+    @Mock
+    private CategoryMapper categoryMapper;
+
+    @InjectMocks
+    private ReferenceDataCache referenceDataCache;
+
+    private Brand brand;
+    private BrandDTO brandDTO;
+
+    @BeforeEach
+    void setUp() {
+        brand = new Brand();
+        brand.setId(1);
+        brand.setName("Apple");
+
+        brandDTO = new BrandDTO();
+        brandDTO.setId(1);
+        brandDTO.setName("Apple");
+    }
+
+    @Test
+    void testBrandsAreLoadedOnce() {
+        when(brandRepository.findAll()).thenReturn(List.of(brand));
+        when(brandMapper.toDTO(brand)).thenReturn(brandDTO);
+
+        assertEquals(List.of(brandDTO), referenceDataCache.getBrands());
+        assertSame(brandDTO, referenceDataCache.getBrand(1));
+        assertSame(brandDTO, referenceDataCache.getBrandByName("Apple"));
+        assertNull(referenceDataCache.getBrand(2));
+
+        verify(brandRepository, times(1)).findAll();
+        verifyNoInteractions(categoryRepository);
+    }
+
+    @Test
+    void testBrandChangeReloadsOnlyBrands() {
+        Category category = new Category();
+        category.setId(1);
+        category.setName("Phones");
+        CategoryDTO categoryDTO = new CategoryDTO();
+        categoryDTO.setId(1);
+        categoryDTO.setName("Phones");
+        when(brandRepository.findAll()).thenReturn(List.of(brand));
+        when(brandMapper.toDTO(brand)).thenReturn(brandDTO);
+        when(categoryRepository.findAll()).thenReturn(List.of(category));
+        when(categoryMapper.toDTO(category)).thenReturn(categoryDTO);
+        referenceDataCache.getBrands();
+        referenceDataCache.getCategories();
+
+        referenceDataCache.onCatalogChange(CatalogChangeEvent.brand(1));
+        referenceDataCache.getBrands();
+        referenceDataCache.getCategories();
+
+        verify(brandRepository, times(2)).findAll();
+        verify(categoryRepository, times(1)).findAll();
+    }
+
+    @Test
+    void testLoadRacingAChangeIsNotKept() {
+        when(brandRepository.findAll()).thenAnswer(invocation -> {
+            // A brand is renamed while the table is being read
+            referenceDataCache.onCatalogChange(CatalogChangeEvent.brand(1));
+            return List.of(brand);
+        }).thenReturn(List.of(brand));
+        when(brandMapper.toDTO(brand)).thenReturn(brandDTO);
+
+        assertEquals(1, referenceDataCache.getBrands().size());
+        assertEquals(1, referenceDataCache.getBrands().size());
+        referenceDataCache.getBrands();
+
+        verify(brandRepository, times(2)).findAll();
+    }
+}
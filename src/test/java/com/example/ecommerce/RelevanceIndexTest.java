@@ -0,0 +1,84 @@
+package com.example.ecommerce;
+
+import com.example.ecommerce.search.ProductDocument;
+import com.example.ecommerce.search.RelevanceIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RelevanceIndexTest {
+
+    private RelevanceIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        index = new RelevanceIndex();
+        index.put(document(1, "Phone Case", "Fits every phone", "Spigen", "Accessories", 5, 0));
+        index.put(document(2, "Galaxy S24 Phone", "Flagship phone with a bright display", "Samsung", "Smartphones", 5, 0));
+        index.put(document(3, "Galaxy Watch", "Pairs with your phone", "Samsung", "Accessories", 5, 0));
+        index.put(document(4, "MacBook Pro 16", "Laptop for professionals", "Apple", "Laptops", 5, 0));
+    }
+
+    @Test
+    void testNameMatchRanksAboveDescriptionMatch() {
+        // The shorter name of product 1 makes its match weigh more than the same word in a longer name
+        assertEquals(List.of(1, 2, 3), index.rank("phone", bits(1, 2, 3)));
+    }
+
+    @Test
+    void testAllQueryTermsContribute() {
+        assertEquals(List.of(2, 3, 1), index.rank("galaxy phone", bits(1, 2, 3)));
+    }
+
+    @Test
+    void testExactWordRanksAbovePrefix() {
+        index.put(document(5, "Pro Stand", null, "Apple", "Accessories", 5, 0));
+        index.put(document(6, "Projector", null, "Epson", "Accessories", 5, 0));
+
+        assertEquals(List.of(5, 6), index.rank("pro", bits(5, 6)));
+    }
+
+    @Test
+    void testPopularityBreaksEqualTextScores() {
+        index.put(document(5, "USB Cable", null, "Anker", "Accessories", 5, 3));
+        index.put(document(6, "USB Cable", null, "Anker", "Accessories", 5, 40));
+
+        assertEquals(List.of(6, 5), index.rank("usb", bits(5, 6)));
+    }
+
+    @Test
+    void testOutOfStockProductsRankLower() {
+        index.put(document(5, "USB Cable", null, "Anker", "Accessories", 0, 40));
+        index.put(document(6, "USB Cable", null, "Anker", "Accessories", 5, 40));
+
+        assertEquals(List.of(6, 5), index.rank("usb", bits(5, 6)));
+    }
+
+    @Test
+    void testSkipsCandidatesThatAreNotIndexed() {
+        index.remove(2);
+
+        assertEquals(List.of(1, 3), index.rank("phone", bits(1, 2, 3, 9)));
+        assertTrue(index.rank("phone", new BitSet()).isEmpty());
+    }
+
+    private ProductDocument document(int id, String name, String description, String brandName,
+                                     String categoryName, int quantity, int popularity) {
+        return new ProductDocument(id, name, description, id, brandName, id, categoryName, BigDecimal.ONE,
+                quantity, popularity);
+    }
+
+    private BitSet bits(int... ids) {
+        BitSet bits = new BitSet();
+        for (int id : ids) {
+            bits.set(id);
+        }
+        return bits;
+    }
+}
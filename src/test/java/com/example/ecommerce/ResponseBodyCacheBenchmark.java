@@ -0,0 +1,124 @@
+package com.example.ecommerce;
+
+import com.example.ecommerce.cache.CatalogVersion;
+import com.example.ecommerce.cache.ResponseBodyCache;
+import com.example.ecommerce.dto.FacetCountsDTO;
+import com.example.ecommerce.dto.PageDTO;
+import com.example.ecommerce.dto.ProductInfoDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+/**
+ * Measures the CPU time a listing response costs the request thread: serializing the faceted page with Jackson and
+ * gzip-compressing it, as on every request before the response body cache, against looking up the cached bytes.
+ * It is not part of the regular test run, start it with:
+ * <pre>
+ * ./mvnw test -Dtest=ResponseBodyCacheBenchmark -Dsurefire.failIfNoSpecifiedTests=false -Dbenchmark.requests=200000
+ * </pre>
+ */
+class ResponseBodyCacheBenchmark {
+    private static final int WARMUP = 20_000;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+    @Test
+    void compareSerializingWithCachedBytes() throws IOException {
+        int requests = Integer.getInteger("benchmark.requests", 100_000);
+        PageDTO<ProductInfoDTO> page = createPage();
+        ResponseBodyCache cache = new ResponseBodyCache(new CatalogVersion(), objectMapper, 1 << 24, 512);
+        String key = ResponseBodyCache.key("getAllProducts", null, null, null, null, Sort.by("id"), 0);
+        Supplier<ResponseBodyCache.Content> loader = () -> new ResponseBodyCache.Content(page,
+                page.getContent().stream().map(ProductInfoDTO::getId).collect(Collectors.toList()));
+
+        byte[] json = objectMapper.writeValueAsBytes(page);
+        assertArrayEquals(json, cache.get(key, "catalog-1", loader).getIdentity());
+        System.out.printf("Response: %d bytes, %d gzipped%n", json.length,
+                cache.get(key, "catalog-1", loader).getGzip().length);
+
+        System.out.printf("%-28s %16s %16s%n", "path", "CPU/request (us)", "wall/request (us)");
+        report("serialize (identity)", requests, () -> serialize(page));
+        report("serialize + gzip", requests, () -> gzip(serialize(page)));
+        report("cached (identity)", requests, () -> cache.get(key, "catalog-1", loader).getIdentity());
+        report("cached (gzip)", requests, () -> ResponseBodyCache.acceptsGzip("gzip, deflate, br")
+                ? cache.get(key, "catalog-1", loader).getGzip() : null);
+    }
+
+    private void report(String path, int requests, Supplier<byte[]> request) {
+        long sink = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            sink += request.get().length;
+        }
+        long cpuStart = threads.getCurrentThreadCpuTime();
+        long wallStart = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            sink += request.get().length;
+        }
+        long cpu = threads.getCurrentThreadCpuTime() - cpuStart;
+        long wall = System.nanoTime() - wallStart;
+        System.out.printf("%-28s %16.2f %16.2f%s%n", path, cpu / 1_000.0 / requests, wall / 1_000.0 / requests,
+                sink == 0 ? " (empty)" : "");
+    }
+
+    private byte[] serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Default level, as servlet container compression applies it
+    private static byte[] gzip(byte[] identity) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(identity);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static PageDTO<ProductInfoDTO> createPage() {
+        List<ProductInfoDTO> products = new ArrayList<>();
+        for (int id = 1; id <= 6; id++) {
+            products.add(new ProductInfoDTO(id, "Galaxy S" + (20 + id) + " Ultra 512GB", new BigDecimal("1199.99"),
+                    id * 7, "Smartphones", "Samsung", "/images/products/galaxy-s" + (20 + id) + ".jpg", 100 - id,
+                    true));
+        }
+        Map<Integer, Integer> brands = new HashMap<>();
+        Map<Integer, Integer> categories = new HashMap<>();
+        for (int id = 1; id <= 20; id++) {
+            brands.put(id, id * 13);
+            categories.put(id, id * 29);
+        }
+        FacetCountsDTO facets = new FacetCountsDTO();
+        facets.setBrands(brands);
+        facets.setCategories(categories);
+        facets.setInStock(1_500);
+        facets.setOutOfStock(120);
+        PageDTO<ProductInfoDTO> page = PageDTO.of(new PageImpl<>(products, PageRequest.of(0, 6, Sort.by("id")), 1_620));
+        page.setFacets(facets);
+        return page;
+    }
+}
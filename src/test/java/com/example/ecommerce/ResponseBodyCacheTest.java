@@ -0,0 +1,135 @@
+package com.example.ecommerce;
+
+import com.example.ecommerce.cache.CatalogVersion;
+import com.example.ecommerce.cache.ResponseBodyCache;
+import com.example.ecommerce.dto.CacheStatsDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResponseBodyCacheTest {
+
+    private CatalogVersion catalogVersion;
+    private ResponseBodyCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        catalogVersion = new CatalogVersion();
+        cache = new ResponseBodyCache(catalogVersion, new ObjectMapper(), 1 << 20, 64);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void testRepeatedRequestIsServedFromCache() {
+        ResponseBodyCache.Body first = cache.get("listing", "etag-1", this::load);
+        ResponseBodyCache.Body second = cache.get("listing", "etag-1", this::load);
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        assertEquals(List.of(1, 2, 3), second.getProductIds());
+        CacheStatsDTO stats = cache.getStats();
+        assertEquals(1, stats.getHits());
+        assertEquals(1, stats.getMisses());
+    }
+
+    @Test
+    void testBothEncodingsHoldTheSameJson() throws IOException {
+        ResponseBodyCache.Body body = cache.get("listing", "etag-1", this::load);
+
+        String json = new String(body.getIdentity(), StandardCharsets.UTF_8);
+        assertTrue(json.startsWith("{\"content\":"));
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(body.getGzip()))) {
+            assertArrayEquals(body.getIdentity(), gzip.readAllBytes());
+        }
+        assertTrue(body.getGzip().length < body.getIdentity().length);
+    }
+
+    @Test
+    void testSmallResponseIsNotCompressed() {
+        ResponseBodyCache.Body body = cache.get("small", "etag-1",
+                () -> new ResponseBodyCache.Content("[]".getBytes(StandardCharsets.UTF_8), List.of()));
+
+        assertEquals("[]", new String(body.getIdentity(), StandardCharsets.UTF_8));
+        assertNull(body.getGzip());
+    }
+
+    @Test
+    void testOtherETagRebuildsEntry() {
+        ResponseBodyCache.Body first = cache.get("listing", "etag-1", this::load);
+        ResponseBodyCache.Body second = cache.get("listing", "etag-2", this::load);
+
+        assertNotEquals(first, second);
+        assertSame(second, cache.get("listing", "etag-2", this::load));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testCatalogChangeDropsAllEntries() {
+        cache.get("listing", "etag-1", this::load);
+        cache.get("other", "etag-1", this::load);
+
+        catalogVersion.increment();
+        cache.get("listing", "etag-1", this::load);
+
+        assertEquals(3, loads.get());
+        CacheStatsDTO stats = cache.getStats();
+        assertEquals(1, stats.getEntries());
+        assertEquals(1, stats.getInvalidations());
+    }
+
+    @Test
+    void testResponseBuiltDuringCatalogChangeIsNotStored() {
+        cache.get("listing", "etag-1", () -> {
+            catalogVersion.increment();
+            return load();
+        });
+
+        assertEquals(0, cache.getStats().getEntries());
+    }
+
+    @Test
+    void testKeyNormalizesPricesAndAbsentParameters() {
+        assertEquals(ResponseBodyCache.key("getAllProducts", 3, null, new BigDecimal("10.00")),
+                ResponseBodyCache.key("getAllProducts", 3, null, new BigDecimal("10")));
+        assertNotEquals(ResponseBodyCache.key("getAllProducts", 3, null),
+                ResponseBodyCache.key("getAllProducts", null, 3));
+    }
+
+    @Test
+    void testAcceptsGzip() {
+        assertTrue(ResponseBodyCache.acceptsGzip("gzip, deflate, br"));
+        assertTrue(ResponseBodyCache.acceptsGzip("br;q=1.0, GZIP;q=0.5"));
+        assertTrue(ResponseBodyCache.acceptsGzip("*"));
+        assertFalse(ResponseBodyCache.acceptsGzip(null));
+        assertFalse(ResponseBodyCache.acceptsGzip("identity"));
+        assertFalse(ResponseBodyCache.acceptsGzip("gzip;q=0"));
+        assertFalse(ResponseBodyCache.acceptsGzip("*, gzip;q=0.0"));
+    }
+
+    private ResponseBodyCache.Content load() {
+        loads.incrementAndGet();
+        List<Map<String, Object>> content = List.of(
+                Map.of("id", 1, "name", "Galaxy S24 Ultra", "categoryName", "Smartphones"),
+                Map.of("id", 2, "name", "Galaxy S24", "categoryName", "Smartphones"),
+                Map.of("id", 3, "name", "Galaxy Tab S9", "categoryName", "Tablets"));
+        return new ResponseBodyCache.Content(Map.of("content", content), List.of(1, 2, 3));
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.ecommerce;
+
+import com.example.ecommerce.cache.CatalogVersion;
+import com.example.ecommerce.cache.SearchResultCache;
+import com.example.ecommerce.dto.CacheStatsDTO;
+import com.example.ecommerce.dto.ProductInfoDTO;
+import com.example.ecommerce.event.CatalogChangeEvent;
+import com.example.ecommerce.search.SearchMode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SearchResultCacheTest {
+
+    private CatalogVersion catalogVersion;
+    private SearchResultCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        catalogVersion = new CatalogVersion();
+        cache = new SearchResultCache(catalogVersion, 16384);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void testNormalizeCollapsesCaseAndWhitespace() {
+        assertEquals("iphone 15 pro", SearchResultCache.normalize("  iPhone \t15   PRO "));
+        assertNull(SearchResultCache.normalize(null));
+    }
+
+    @Test
+    void testRepeatedRequestIsServedFromCache() {
+        SearchResultCache.Key key = key("laptop", 0, Sort.unsorted());
+
+        Page<ProductInfoDTO> first = cache.get(key, this::load);
+        Page<ProductInfoDTO> second = cache.get(key("laptop", 0, Sort.unsorted()), this::load);
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        CacheStatsDTO stats = cache.getStats();
+        assertEquals(1, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(0.5, stats.getHitRatio());
+    }
+
+    @Test
+    void testPageSortAndFiltersAreSeparateEntries() {
+        cache.get(key("laptop", 0, Sort.unsorted()), this::load);
+        cache.get(key("laptop", 1, Sort.unsorted()), this::load);
+        cache.get(key("laptop", 0, Sort.by("price")), this::load);
+        cache.get(new SearchResultCache.Key("laptop", SearchMode.TOKEN, 2, null, PageRequest.of(0, 6)), this::load);
+
+        assertEquals(4, loads.get());
+        assertEquals(4, cache.getStats().getEntries());
+    }
+
+    @Test
+    void testCatalogChangeInvalidatesEveryEntry() {
+        cache.get(key("laptop", 0, Sort.unsorted()), this::load);
+        cache.get(key("iphone", 0, Sort.unsorted()), this::load);
+
+        catalogVersion.increment();
+        cache.get(key("laptop", 0, Sort.unsorted()), this::load);
+
+        assertEquals(3, loads.get());
+        assertEquals(1, cache.getStats().getEntries());
+        assertEquals(1, cache.getStats().getInvalidations());
+    }
+
+    @Test
+    void testPopularityChangeReloadsOnlyPagesRankedByPopularity() {
+        cache.get(key("laptop", 0, Sort.unsorted()), this::load);
+        cache.get(key("laptop", 0, Sort.by(Sort.Direction.DESC, "popularity")), this::load);
+        cache.get(key("laptop", 0, Sort.by("price")), this::load);
+
+        catalogVersion.increment(CatalogChangeEvent.popularity(1));
+        cache.get(key("laptop", 0, Sort.unsorted()), this::load);
+        cache.get(key("laptop", 0, Sort.by(Sort.Direction.DESC, "popularity")), this::load);
+        cache.get(key("laptop", 0, Sort.by("price")), this::load);
+
+        assertEquals(5, loads.get());
+        assertEquals(3, cache.getStats().getEntries());
+    }
+
+    @Test
+    void testPageLoadedDuringCatalogChangeIsNotCached() {
+        SearchResultCache.Key key = key("laptop", 0, Sort.unsorted());
+
+        cache.get(key, () -> {
+            catalogVersion.increment();
+            return load();
+        });
+        cache.get(key, this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testLeastRecentlyUsedEntriesAreEvictedOverByteCap() {
+        for (int page = 0; page < 20; page++) {
+            cache.get(key("laptop", page, Sort.unsorted()), this::load);
+        }
+        // Touch the first page so it survives the next evictions
+        cache.get(key("laptop", 0, Sort.unsorted()), this::load);
+        cache.get(key("iphone", 0, Sort.unsorted()), this::load);
+
+        CacheStatsDTO stats = cache.getStats();
+        assertTrue(stats.getBytes() <= stats.getMaxBytes());
+        assertTrue(stats.getEvictions() > 0);
+        int before = loads.get();
+        cache.get(key("laptop", 0, Sort.unsorted()), this::load);
+        assertEquals(before, loads.get());
+    }
+
+    private SearchResultCache.Key key(String query, int page, Sort sort) {
+        return new SearchResultCache.Key(query, SearchMode.TOKEN, null, null, PageRequest.of(page, 6, sort));
+    }
+
+    private Page<ProductInfoDTO> load() {
+        loads.incrementAndGet();
+        ProductInfoDTO product = new ProductInfoDTO();
+        product.setId(loads.get());
+        product.setName("Product " + loads.get());
+        product.setDescription("A product description that takes some space in the cache");
+        return new PageImpl<>(List.of(product, product, product), PageRequest.of(0, 6), 3);
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.ecommerce;
+
+import com.example.ecommerce.search.ProductDocument;
+import com.example.ecommerce.search.SegmentStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.BitSet;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SegmentStoreTest {
+
+    // One full segment plus eight flushed ones exceed the limit of eight and trigger a merge
+    private static final int SEGMENTS_BEFORE_MERGE = 9;
+
+    @TempDir
+    Path directory;
+
+    private SegmentStore store;
+
+    @BeforeEach
+    public void setUp() {
+        store = new SegmentStore(directory.toString());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        store.close();
+    }
+
+    @Test
+    void testOpenWithoutIndex() {
+        assertFalse(store.open());
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void testReplaceAllAndReopen() {
+        store.replaceAll(List.of(
+                document(1, "Apple iPhone 15", "Apple", "Smartphones", "A phone with \"USB-C\" — 128 GB"),
+                document(2, "Samsung Galaxy S24", "Samsung", "Smartphones", null)));
+        store.close();
+
+        SegmentStore reopened = new SegmentStore(directory.toString());
+        try {
+            assertTrue(reopened.open());
+            assertEquals(2, reopened.size());
+            assertEquals(bits(1), reopened.match("iphon"));
+            assertEquals(bits(1, 2), reopened.match("smart"));
+            assertTrue(reopened.match("pixel").isEmpty());
+
+            ProductDocument document = reopened.getDocument(1);
+            assertEquals("Apple iPhone 15", document.getName());
+            assertEquals("A phone with \"USB-C\" — 128 GB", document.getDescription());
+            assertEquals(new BigDecimal("999.90"), document.getPrice());
+            assertEquals(1, document.getBrandId());
+            assertNull(reopened.getDocument(2).getDescription());
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    void testNewerSegmentsReplaceAndRemoveDocuments() throws IOException {
+        store.replaceAll(List.of(
+                document(1, "Apple iPhone 15", "Apple", "Smartphones", null),
+                document(2, "Samsung Galaxy S24", "Samsung", "Smartphones", null)));
+        store.put(document(1, "Apple iPhone 16", "Apple", "Smartphones", null));
+        store.remove(2);
+        store.put(document(3, "Google Pixel 9", "Google", "Smartphones", null));
+        store.flush();
+
+        assertEquals(2, store.segmentCount());
+        assertEquals(2, store.size());
+        assertTrue(store.match("15").isEmpty());
+        assertEquals(bits(1), store.match("16"));
+        assertTrue(store.match("galaxy").isEmpty());
+        assertEquals(bits(1, 3), store.match("smartphones"));
+        assertNull(store.getDocument(2));
+        assertEquals("Apple iPhone 16", store.getDocument(1).getName());
+    }
+
+    @Test
+    void testMergeKeepsOnlyLiveDocuments() throws IOException {
+        store.replaceAll(List.of(document(1, "Product 1", "Brand", "Category", null)));
+        for (int i = 2; i <= SEGMENTS_BEFORE_MERGE; i++) {
+            store.put(document(i, "Product " + i, "Brand", "Category", null));
+            store.remove(i - 1);
+            store.flush();
+        }
+
+        assertEquals(1, store.segmentCount());
+        assertEquals(1, store.size());
+        assertEquals(bits(SEGMENTS_BEFORE_MERGE), store.match("product"));
+        assertEquals(List.of(SEGMENTS_BEFORE_MERGE), store.documents().stream().map(ProductDocument::getId).collect(Collectors.toList()));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(2, files.count()); // the merged segment and the manifest
+        }
+    }
+
+    @Test
+    void testChangeAfterCloseIsWrittenImmediately() {
+        store.replaceAll(List.of(document(1, "Apple iPhone 15", "Apple", "Smartphones", null)));
+        store.close();
+        store.put(document(1, "Apple iPhone 16", "Apple", "Smartphones", null));
+
+        SegmentStore reopened = new SegmentStore(directory.toString());
+        try {
+            assertTrue(reopened.open());
+            assertEquals("Apple iPhone 16", reopened.getDocument(1).getName());
+        } finally {
+            reopened.close();
+        }
+    }
+
+    private ProductDocument document(int id, String name, String brandName, String categoryName, String description) {
+        return new ProductDocument(id, name, description, 1, brandName, 1, categoryName, new BigDecimal("999.90"), 3, 7);
+    }
+
+    private BitSet bits(int... ids) {
+        BitSet bits = new BitSet();
+        for (int id : ids) {
+            bits.set(id);
+        }
+        return bits;
+    }
+}
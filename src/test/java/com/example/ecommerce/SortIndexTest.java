@@ -0,0 +1,91 @@
+package com.example.ecommerce;
+
+import com.example.ecommerce.exception.BadRequestException;
+import com.example.ecommerce.search.ProductDocument;
+import com.example.ecommerce.search.SortField;
+import com.example.ecommerce.search.SortIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SortIndexTest {
+
+    private SortIndex index;
+    private BitSet all;
+
+    @BeforeEach
+    public void setUp() {
+        index = new SortIndex();
+        index.putAll(List.of(
+                document(1, "Galaxy S24", 5),
+                document(2, "apple Watch", 12),
+                document(3, "Pixel 8", 5),
+                document(4, "MacBook Air", 0)));
+        all = bits(1, 2, 3, 4);
+    }
+
+    @Test
+    void testSortByNameIgnoresCase() {
+        assertEquals(List.of(2, 1, 4, 3), index.sort(all, "name", false, 10));
+        assertEquals(List.of(3, 4, 1, 2), index.sort(all, "name", true, 10));
+    }
+
+    @Test
+    void testSortByPopularityBreaksTiesByIdInBothDirections() {
+        assertEquals(List.of(4, 1, 3, 2), index.sort(all, "popularity", false, 10));
+        assertEquals(List.of(2, 1, 3, 4), index.sort(all, "popularity", true, 10));
+    }
+
+    @Test
+    void testSortKeepsCandidatesAndStopsAtLimit() {
+        assertEquals(List.of(2, 1), index.sort(all, "popularity", true, 2));
+        assertEquals(List.of(4, 3), index.sort(bits(3, 4), "name", false, 10));
+        assertEquals(List.of(4, 2), index.sort(bits(2, 4), "id", true, 10));
+    }
+
+    @Test
+    void testPutMovesChangedProductAndRemoveDropsIt() {
+        index.put(document(4, "MacBook Air", 20));
+        index.put(document(5, "Zenbook", 1));
+        index.remove(2);
+        all.set(5);
+
+        assertEquals(List.of(4, 1, 3, 5), index.sort(all, "popularity", true, 10));
+        assertEquals(List.of(1, 4, 3, 5), index.sort(all, "name", false, 10));
+    }
+
+    @Test
+    void testSupportsOnlyIndexedProperties() {
+        assertTrue(index.supports("name"));
+        assertTrue(index.supports("id"));
+        assertFalse(index.supports("quantity"));
+    }
+
+    @Test
+    void testSortFieldWhitelist() {
+        assertEquals(Sort.by(Sort.Direction.DESC, "id"), SortField.fromParameter("newest").toSort(Sort.Direction.ASC));
+        assertEquals(Sort.by(Sort.Direction.ASC, "price"), SortField.fromParameter("Price").toSort(Sort.Direction.ASC));
+        assertThrows(BadRequestException.class, () -> SortField.fromParameter("description"));
+    }
+
+    private static ProductDocument document(int id, String name, int popularity) {
+        return new ProductDocument(id, name, 1, "Brand", 1, "Category", BigDecimal.ONE, 1, popularity);
+    }
+
+    private static BitSet bits(int... ids) {
+        BitSet bits = new BitSet();
+        for (int id : ids) {
+            bits.set(id);
+        }
+        return bits;
+    }
+}
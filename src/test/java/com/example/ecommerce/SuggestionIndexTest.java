@@ -0,0 +1,81 @@
+package com.example.ecommerce;
+
+import com.example.ecommerce.search.ProductDocument;
+import com.example.ecommerce.search.Suggestion;
+import com.example.ecommerce.search.SuggestionIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SuggestionIndexTest {
+
+    private SuggestionIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        index = new SuggestionIndex();
+        index.put(document(1, "Samsung Galaxy S24", 2, "Samsung", 1, "Smartphones", 5));
+        index.put(document(2, "Samsung Galaxy Buds3 Pro", 2, "Samsung", 2, "Accessories", 9));
+        index.put(document(3, "Google Pixel 9 Pro", 3, "Google", 1, "Smartphones", 1));
+    }
+
+    @Test
+    void testSuggestRanksByPopularity() {
+        assertEquals(List.of("Samsung", "Samsung Galaxy Buds3 Pro", "Smartphones", "Samsung Galaxy S24"),
+                texts(index.suggest("s", 10)));
+    }
+
+    @Test
+    void testSuggestMatchesWordStarts() {
+        assertEquals(List.of("Samsung Galaxy Buds3 Pro", "Samsung Galaxy S24"), texts(index.suggest("gal", 10)));
+        assertEquals(List.of("Samsung Galaxy Buds3 Pro", "Google Pixel 9 Pro"), texts(index.suggest("PRO", 10)));
+    }
+
+    @Test
+    void testSuggestRespectsLimitAndUnknownPrefix() {
+        assertEquals(1, index.suggest("s", 1).size());
+        assertTrue(index.suggest("iphone", 10).isEmpty());
+        assertTrue(index.suggest(" ", 10).isEmpty());
+    }
+
+    @Test
+    void testPopularityChangeReordersSuggestions() {
+        index.put(document(1, "Samsung Galaxy S24", 2, "Samsung", 1, "Smartphones", 20));
+
+        assertEquals(List.of("Samsung Galaxy S24", "Samsung Galaxy Buds3 Pro"), texts(index.suggest("galaxy", 10)));
+        assertEquals(29, index.suggest("samsung", 1).get(0).getScore());
+    }
+
+    @Test
+    void testRemoveDropsProductAndEmptyGroups() {
+        index.remove(3);
+
+        assertTrue(index.suggest("pixel", 10).isEmpty());
+        assertTrue(index.suggest("google", 10).isEmpty());
+        assertEquals(List.of("Samsung Galaxy S24"), texts(index.suggest("s2", 10)));
+    }
+
+    @Test
+    void testRenameReplacesOldSuggestion() {
+        index.put(document(3, "Google Pixel 10", 3, "Alphabet", 1, "Smartphones", 1));
+
+        assertEquals(List.of("Alphabet"), texts(index.suggest("alph", 10)));
+        assertTrue(index.suggest("google", 10).stream().allMatch(s -> s.getType() == Suggestion.Type.PRODUCT));
+        assertTrue(index.suggest("pixel 9", 10).isEmpty());
+    }
+
+    private ProductDocument document(int id, String name, int brandId, String brandName, int categoryId,
+                                     String categoryName, int popularity) {
+        return new ProductDocument(id, name, brandId, brandName, categoryId, categoryName, BigDecimal.ONE, 1, popularity);
+    }
+
+    private List<String> texts(List<Suggestion> suggestions) {
+        return suggestions.stream().map(Suggestion::getText).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.ecommerce;
+
+import com.example.ecommerce.event.ProductActivityEvent;
+import com.example.ecommerce.search.ProductDocument;
+import com.example.ecommerce.search.TrendingIndex;
+import com.example.ecommerce.search.TrendingProduct;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrendingIndexTest {
+
+    private static final Duration HALF_LIFE = Duration.ofHours(1);
+
+    private MutableClock clock;
+    private TrendingIndex index;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock();
+        index = new TrendingIndex(HALF_LIFE, 2, clock);
+        index.putAll(List.of(
+                document(1, 10, 100),
+                document(2, 10, 100),
+                document(3, 10, 200),
+                document(4, 20, 200)));
+    }
+
+    @Test
+    void testOrdersOutweighViews() {
+        index.onProductActivity(ProductActivityEvent.view(1));
+        index.onProductActivity(ProductActivityEvent.view(1));
+        index.onProductActivity(ProductActivityEvent.order(2, 1));
+
+        assertEquals(List.of(2, 1), ids(index.top(null, null, 10)));
+    }
+
+    @Test
+    void testScoresHalveEveryHalfLife() {
+        index.onProductActivity(ProductActivityEvent.order(1, 2));
+        clock.advance(HALF_LIFE.multipliedBy(2));
+        index.onProductActivity(ProductActivityEvent.order(2, 1));
+
+        List<TrendingProduct> top = index.top(null, null, 10);
+
+        assertEquals(List.of(2, 1), ids(top));
+        assertEquals(1.0, top.get(0).getScore(), 1e-9);
+        assertEquals(0.5, top.get(1).getScore(), 1e-9);
+    }
+
+    @Test
+    void testLeaderboardsKeepTopKPerCategoryAndBrand() {
+        index.record(1, 3);
+        index.record(2, 2);
+        index.record(3, 1);
+        index.record(4, 5);
+
+        assertEquals(List.of(1, 2), ids(index.top(10, null, 10)));
+        assertEquals(List.of(4, 3), ids(index.top(null, 200, 10)));
+        assertEquals(List.of(4, 1), ids(index.top(null, null, 10)));
+        assertTrue(index.top(30, null, 10).isEmpty());
+    }
+
+    @Test
+    void testRemovedProductIsReplacedByNextHighest() {
+        index.record(1, 3);
+        index.record(2, 2);
+        index.record(3, 1);
+
+        index.remove(1);
+
+        assertEquals(List.of(2, 3), ids(index.top(10, null, 10)));
+    }
+
+    @Test
+    void testProductMovedToAnotherCategory() {
+        index.record(3, 1);
+
+        index.put(document(3, 20, 200));
+
+        assertTrue(index.top(10, null, 10).isEmpty());
+        assertEquals(List.of(3), ids(index.top(20, null, 10)));
+    }
+
+    @Test
+    void testOrderSurvivesRescaling() {
+        index.record(1, 1);
+        clock.advance(HALF_LIFE.multipliedBy(100));
+        index.record(2, 1);
+        index.record(1, 2);
+
+        List<TrendingProduct> top = index.top(null, null, 10);
+
+        assertEquals(List.of(1, 2), ids(top));
+        assertEquals(2.0, top.get(0).getScore(), 1e-9);
+    }
+
+    private static List<Integer> ids(List<TrendingProduct> products) {
+        return products.stream().map(product -> product.getDocument().getId()).collect(Collectors.toList());
+    }
+
+    private static ProductDocument document(int id, int categoryId, int brandId) {
+        return new ProductDocument(id, "Product " + id, brandId, "Brand", categoryId, "Category",
+                BigDecimal.TEN, 5, 0);
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.ecommerce;
+
+import com.example.ecommerce.search.ProductDocument;
+import com.example.ecommerce.search.TrigramIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.BitSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrigramIndexTest {
+
+    private TrigramIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        index = new TrigramIndex();
+        index.put(document(1, "Apple iPhone 15 128 GB", "Apple", "Smartphones"));
+        index.put(document(2, "Samsung Galaxy S24", "Samsung", "Smartphones"));
+        index.put(document(3, "Samsung Galaxy Buds3 Pro", "Samsung", "Accessories"));
+        index.put(document(4, "MacBook Pro 16", "Apple", "Laptops"));
+    }
+
+    @Test
+    void testMatchSubstringInsideWords() {
+        assertEquals(bits(1), index.matchSubstring("phone 15"));
+        assertEquals(bits(1, 2), index.matchSubstring("SMARTPHONE"));
+        assertEquals(bits(3, 4), index.matchSubstring("pro"));
+    }
+
+    @Test
+    void testMatchSubstringShorterThanTrigram() {
+        assertEquals(bits(4), index.matchSubstring("16"));
+    }
+
+    @Test
+    void testMatchSubstringWithoutMatches() {
+        assertTrue(index.matchSubstring("pixel").isEmpty());
+        assertTrue(index.matchSubstring(" ").isEmpty());
+    }
+
+    @Test
+    void testMatchFuzzyToleratesTypos() {
+        assertEquals(bits(2, 3), index.matchFuzzy("galxy"));
+        assertEquals(bits(1), index.matchFuzzy("iphon"));
+        assertEquals(bits(3), index.matchFuzzy("samsng buds"));
+        assertEquals(bits(4), index.matchFuzzy("macbok"));
+    }
+
+    @Test
+    void testMatchFuzzyRejectsDistantWords() {
+        assertTrue(index.matchFuzzy("gzlzzy").isEmpty());
+    }
+
+    @Test
+    void testRemoveAndReplace() {
+        index.remove(2);
+        index.put(document(3, "Samsung Galaxy Watch", "Samsung", "Accessories"));
+
+        assertTrue(index.matchSubstring("buds").isEmpty());
+        assertEquals(bits(3), index.matchFuzzy("galaxy"));
+        assertEquals(bits(3), index.matchSubstring("watch"));
+    }
+
+    private ProductDocument document(int id, String name, String brandName, String categoryName) {
+        return new ProductDocument(id, name, id, brandName, id, categoryName, BigDecimal.ONE, 1, 0);
+    }
+
+    private BitSet bits(int... ids) {
+        BitSet bits = new BitSet();
+        for (int id : ids) {
+            bits.set(id);
+        }
+        return bits;
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.ecommerce;
+
+import com.example.ecommerce.cache.VersionedLruCache;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class VersionedLruCacheTest {
+
+    private final AtomicLong version = new AtomicLong();
+    private final VersionedLruCache<String, String> cache =
+            new VersionedLruCache<>("test", version::get, 400, (key, value) -> 100);
+
+    @Test
+    void testLeastRecentlyUsedEntryIsEvictedOverByteCap() {
+        cache.get("a", () -> "a");
+        cache.get("b", () -> "b");
+        cache.get("c", () -> "c");
+        cache.get("d", () -> "d");
+        cache.get("a", () -> "stale");
+        cache.get("e", () -> "e");
+
+        assertEquals("a", cache.get("a", () -> "reloaded"));
+        assertEquals("reloaded-b", cache.get("b", () -> "reloaded-b"));
+        assertEquals(2, cache.getStats().getEvictions());
+    }
+
+    @Test
+    void testNewVersionDropsAllEntries() {
+        cache.get("a", () -> "old");
+        version.incrementAndGet();
+
+        assertEquals("new", cache.get("a", () -> "new"));
+        assertEquals(1, cache.getStats().getInvalidations());
+    }
+
+    @Test
+    void testUnusableEntryIsReplaced() {
+        cache.get("a", () -> "v1");
+
+        assertEquals("v2", cache.get("a", value -> value.equals("v2"), () -> "v2"));
+        assertEquals("v2", cache.get("a", value -> value.equals("v2"), () -> "v3"));
+        assertEquals(1, cache.getStats().getEntries());
+    }
+}